@@ -1,12 +1,17 @@
 package org.spacelab.housingutilitiessystemadmin.config.cache;
 
+import org.spacelab.housingutilitiessystemadmin.service.PrincipalCacheService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Конфигурация RedisTemplate для прямой работы с Redis через RedisService.
  * Для кэширования через аннотации используется CacheConfig.
@@ -32,4 +37,24 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Подписка на события изменения учетных записей для сброса локального кэша
+     * {@link PrincipalCacheService} на этом узле.
+     *
+     * @param connectionFactory     фабрика подключений к Redis
+     * @param principalCacheService кэш учетных данных
+     * @return контейнер слушателей Redis pub/sub
+     */
+    @Bean
+    public RedisMessageListenerContainer principalChangedListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           PrincipalCacheService principalCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> principalCacheService.handlePrincipalChanged(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PrincipalCacheService.PRINCIPAL_CHANGED_CHANNEL));
+        return container;
+    }
 }
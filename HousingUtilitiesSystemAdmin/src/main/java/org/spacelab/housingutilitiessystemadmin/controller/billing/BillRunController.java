@@ -0,0 +1,32 @@
+package org.spacelab.housingutilitiessystemadmin.controller.billing;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemadmin.models.billing.BillRunRequest;
+import org.spacelab.housingutilitiessystemadmin.models.billing.BillRunResponse;
+import org.spacelab.housingutilitiessystemadmin.service.BillRunService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/bill-runs")
+@AllArgsConstructor
+@Slf4j
+public class BillRunController {
+
+    private final BillRunService billRunService;
+
+    @PostMapping
+    public ResponseEntity<BillRunResponse> startBillRun(@Valid @RequestBody BillRunRequest billRunRequest) {
+        log.info("Получен запрос на начисление счетов: cityId={}, period={}",
+                billRunRequest.getCityId(), billRunRequest.getPeriod());
+        return ResponseEntity.accepted()
+                .body(billRunService.start(billRunRequest.getCityId(), billRunRequest.getPeriod()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BillRunResponse> getBillRunProgress(@PathVariable String id) {
+        return ResponseEntity.ok(billRunService.getProgress(id));
+    }
+}
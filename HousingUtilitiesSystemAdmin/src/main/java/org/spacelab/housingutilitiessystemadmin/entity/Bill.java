@@ -16,6 +16,7 @@ public class Bill {
     private String id;
     private String billNumber;
     private LocalDate date;
+    private String owner;
     
     @DocumentReference(lazy = true)
     private List<Receipt> receipt = new ArrayList<>();
@@ -0,0 +1,36 @@
+package org.spacelab.housingutilitiessystemadmin.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запуск начисления счетов по городу за расчётный период.
+ * Служит контрольной точкой: обработанные дома не обрабатываются повторно при продолжении.
+ */
+@Data
+@Document
+@CompoundIndex(name = "city_period", def = "{'cityId': 1, 'period': 1}", unique = true)
+public class BillRun {
+    @Id
+    private String id;
+
+    private String cityId;
+    private String period; // yyyy-MM
+    private BillRunStatus status;
+
+    private int totalHouses;
+    private List<String> completedHouses = new ArrayList<>();
+    private long billsCreated;
+    private String error;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    private Instant leaseUntil; // пока аренда не истекла, запуск считается выполняемым другим узлом
+}
@@ -0,0 +1,10 @@
+package org.spacelab.housingutilitiessystemadmin.entity;
+
+/**
+ * Состояние запуска начисления счетов за период
+ */
+public enum BillRunStatus {
+    RUNNING, // Дома обрабатываются (или узел упал и аренда ещё не истекла)
+    COMPLETED, // Все дома обработаны
+    FAILED // Хотя бы один дом не обработан; запуск можно продолжить
+}
@@ -45,9 +45,6 @@ public class Chairman implements UserDetails {
     @Default
     private boolean enabled = true;
 
-    @Default
-    private boolean online = false;
-
     private Instant lastActiveAt;
 
     @DocumentReference(lazy = true)
@@ -19,6 +19,10 @@ public class Receipt {
     @Id
     private String id;
 
+    private String receiptNumber;
+
+    private String billNumber;
+
     @DocumentReference(lazy = true)
     private Bill bill;
 
@@ -42,7 +42,6 @@ public class User {
     private String login;
     private String photo;
     private Role role = Role.USER;
-    private boolean online;
     private Instant lastActiveAt;
     private boolean enabled = true;
 
@@ -21,5 +21,12 @@ public class Vote {
     private Integer forVotesCount = 0;
     private Integer againstVotesCount = 0;
     private Integer abstentionsCount = 0;
+    private Double forVotesArea = 0.0;
+    private Double againstVotesArea = 0.0;
+    private Double abstentionsArea = 0.0;
+    private Double totalVotedArea = 0.0;
+    private String result;
+    private Date closedAt;
+    private Date tallyVerifiedAt;
 
 }
\ No newline at end of file
@@ -27,4 +27,9 @@ public class VoteRecord {
     private String voteType;
     
     private java.util.Date voteTime;
+
+    /**
+     * Площадь квартиры голосующего на момент голосования
+     */
+    private Double apartmentArea;
 }
@@ -18,7 +18,6 @@ public interface ChairmanMapper {
     @Mapping(target = "photo", ignore = true)
     @Mapping(target = "role", ignore = true)
     @Mapping(target = "enabled", ignore = true)
-    @Mapping(target = "online", ignore = true)
     @Mapping(target = "lastActiveAt", ignore = true)
     @Mapping(target = "conversations", ignore = true)
     @Mapping(target = "house", ignore = true)
@@ -58,7 +57,6 @@ public interface ChairmanMapper {
     @Mapping(target = "photo", ignore = true)
     @Mapping(target = "role", ignore = true)
     @Mapping(target = "enabled", ignore = true)
-    @Mapping(target = "online", ignore = true)
     @Mapping(target = "lastActiveAt", ignore = true)
     @Mapping(target = "conversations", ignore = true)
     @Mapping(target = "house", ignore = true)
@@ -43,7 +43,6 @@ public interface UserMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "login", source = "login")
     @Mapping(target = "password", source = "password")
-    @Mapping(target = "online", ignore = true)
     @Mapping(target = "lastActiveAt", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "conversations", ignore = true)
@@ -81,7 +80,6 @@ public interface UserMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "bills", ignore = true)
     @Mapping(target = "status", ignore = true)
-    @Mapping(target = "online", ignore = true)
     @Mapping(target = "lastActiveAt", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "conversations", ignore = true)
@@ -0,0 +1,17 @@
+package org.spacelab.housingutilitiessystemadmin.models.billing;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.YearMonth;
+
+@Data
+public class BillRunRequest {
+
+    @NotBlank(message = "City ID is required")
+    private String cityId;
+
+    @NotNull(message = "Period is required")
+    private YearMonth period;
+}
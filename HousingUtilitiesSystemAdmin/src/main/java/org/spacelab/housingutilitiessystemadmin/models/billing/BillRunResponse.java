@@ -0,0 +1,28 @@
+package org.spacelab.housingutilitiessystemadmin.models.billing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.spacelab.housingutilitiessystemadmin.entity.BillRunStatus;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillRunResponse {
+    private String id;
+    private String cityId;
+    private String period;
+    private BillRunStatus status;
+    private int totalHouses;
+    private int completedHouses;
+    private long billsCreated;
+    private double progressPercent;
+    private String error;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
@@ -4,25 +4,25 @@ import lombok.RequiredArgsConstructor;
 import org.spacelab.housingutilitiessystemadmin.entity.Admin;
 import org.spacelab.housingutilitiessystemadmin.entity.Role;
 import org.spacelab.housingutilitiessystemadmin.repository.AdminRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import org.spacelab.housingutilitiessystemadmin.service.PrincipalCacheService;
+import org.spacelab.housingutilitiessystemadmin.service.PrincipalCacheService.CachedPrincipal;
+import org.spacelab.housingutilitiessystemadmin.service.TokenVersionService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 public class AdminUserDetailsService implements UserDetailsService {
 
     private final AdminRepository adminRepository;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalCacheService principalCacheService;
 
     /**
-     * Загружает данные администратора по email для аутентификации.
+     * Загружает данные администратора по email для входа по паролю.
+     * Данные всегда читаются из MongoDB: хэш пароля в кэш учетных записей не попадает.
      *
      * @param email Email администратора
      * @return Объект UserDetails с данными администратора
@@ -30,30 +30,45 @@ public class AdminUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Admin admin = adminRepository.findByEmail(email);
+        Admin admin = findAdmin(email);
+        CachedPrincipal principal = toCachedPrincipal(admin);
+        principalCacheService.put(email, principal);
+        return principal.toPrincipal(admin.getPassword(), tokenVersionService.currentVersionOrNull(principal.id()));
+    }
+
+    /**
+     * Загружает данные администратора для проверки токенов, без пароля.
+     * Данные берутся из кэша учетных записей, при промахе - из MongoDB.
+     *
+     * @param email Email администратора
+     * @return Объект UserDetails с данными администратора
+     * @throws UsernameNotFoundException если администратор не найден
+     */
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        CachedPrincipal principal = principalCacheService.get(email);
+        if (principal == null) {
+            principal = toCachedPrincipal(findAdmin(email));
+            principalCacheService.put(email, principal);
+        }
+
+        return principal.toPrincipal(tokenVersionService.currentVersionOrNull(principal.id()));
+    }
 
+    private Admin findAdmin(String email) {
+        Admin admin = adminRepository.findByEmail(email);
         if (admin == null) {
             throw new UsernameNotFoundException("Администратор с email " + email + " не найден");
         }
+        return admin;
+    }
 
-        return new User(
+    private static CachedPrincipal toCachedPrincipal(Admin admin) {
+        // Администраторы всегда имеют роль ADMIN
+        return new CachedPrincipal(
+                admin.getId(),
                 admin.getEmail(),
-                admin.getPassword(),
                 admin.isEnabled(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
-                mapRolesToAuthorities()
+                Role.ADMIN.name()
         );
     }
-
-    /**
-     * Преобразует роль администратора в формат GrantedAuthority.
-     * Администраторы всегда имеют роль ADMIN.
-     *
-     * @return Коллекция прав доступа администратора
-     */
-    private Collection<? extends GrantedAuthority> mapRolesToAuthorities() {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + Role.ADMIN.name()));
-    }
 }
@@ -0,0 +1,24 @@
+package org.spacelab.housingutilitiessystemadmin.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal, построенный из данных access токена: id, роль и версия токена
+ */
+@Getter
+public class JwtPrincipal extends User {
+
+    private final String id;
+    private final Long tokenVersion;
+
+    public JwtPrincipal(String id, String username, String password, boolean enabled,
+            Collection<? extends GrantedAuthority> authorities, Long tokenVersion) {
+        super(username, password != null ? password : "", enabled, true, true, true, authorities);
+        this.id = id;
+        this.tokenVersion = tokenVersion;
+    }
+}
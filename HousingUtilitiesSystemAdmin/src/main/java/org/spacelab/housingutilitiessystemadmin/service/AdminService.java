@@ -21,6 +21,7 @@ public class AdminService {
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
     private final FileService fileService;
+    private final PrincipalCacheService principalCacheService;
 
     public Admin createAdmin(String email, String password) {
         Admin admin = new Admin();
@@ -127,6 +128,7 @@ public class AdminService {
         }
         
         Admin updatedAdmin = adminRepository.save(admin);
+        principalCacheService.evict(email, updatedAdmin.getEmail());
         log.info("Профиль администратора {} успешно обновлен", email);
         return updatedAdmin;
     }
@@ -0,0 +1,410 @@
+package org.spacelab.housingutilitiessystemadmin.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemadmin.config.database.MongoBulkConfig;
+import org.spacelab.housingutilitiessystemadmin.entity.Bill;
+import org.spacelab.housingutilitiessystemadmin.entity.BillRun;
+import org.spacelab.housingutilitiessystemadmin.entity.BillRunStatus;
+import org.spacelab.housingutilitiessystemadmin.entity.Receipt;
+import org.spacelab.housingutilitiessystemadmin.entity.User;
+import org.spacelab.housingutilitiessystemadmin.entity.location.House;
+import org.spacelab.housingutilitiessystemadmin.entity.location.Street;
+import org.spacelab.housingutilitiessystemadmin.exception.OperationException;
+import org.spacelab.housingutilitiessystemadmin.models.billing.BillRunResponse;
+import org.spacelab.housingutilitiessystemadmin.repository.CityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Начисление счетов за период по всем жителям города.
+ * Жители разбиваются по домам, каждый дом обрабатывается отдельной задачей пула:
+ * квитанции и счета пишутся пачками через {@link MongoBulkConfig}, ссылки в user.bills
+ * добавляются одной bulk-операцией, после чего дом фиксируется в контрольной точке {@link BillRun}.
+ * Id счёта и квитанции выводятся из (житель, период), поэтому дом, обработанный дважды
+ * (повтор после сбоя или гонка двух узлов), не порождает дублей: повторная вставка отклоняется по _id.
+ */
+@Service
+@Slf4j
+public class BillRunService {
+
+    private static final DateTimeFormatter BILL_NUMBER_PERIOD = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoBulkConfig mongoBulkConfig;
+    private final CityRepository cityRepository;
+    private final Executor workers;
+    private final ScheduledExecutorService leaseRenewal;
+
+    @Value("${bill-run.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bill-run.lease:2m}")
+    private Duration lease;
+
+    @Autowired
+    public BillRunService(MongoTemplate mongoTemplate, MongoBulkConfig mongoBulkConfig, CityRepository cityRepository,
+                          @Value("${bill-run.workers:4}") int workers) {
+        this(mongoTemplate, mongoBulkConfig, cityRepository,
+                Executors.newFixedThreadPool(Math.max(1, workers), new CustomizableThreadFactory("bill-run-")));
+    }
+
+    BillRunService(MongoTemplate mongoTemplate, MongoBulkConfig mongoBulkConfig, CityRepository cityRepository,
+                   Executor workers) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoBulkConfig = mongoBulkConfig;
+        this.cityRepository = cityRepository;
+        this.workers = workers;
+        CustomizableThreadFactory leaseThreads = new CustomizableThreadFactory("bill-run-lease-");
+        leaseThreads.setDaemon(true);
+        this.leaseRenewal = Executors.newSingleThreadScheduledExecutor(leaseThreads);
+    }
+
+    /**
+     * Автосоздание индексов в модуле выключено, поэтому уникальный индекс (город, период)
+     * и индекс жителей по дому, по которому выбирается каждый дом запуска, создаются явно.
+     */
+    @PostConstruct
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(BillRun.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(BillRun.class)
+                .forEach(indexOps::createIndex);
+        mongoTemplate.indexOps(User.class).createIndex(new Index().on("house", Sort.Direction.ASC).named("house"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        leaseRenewal.shutdownNow();
+        if (workers instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Запускает начисление за период или продолжает прерванный запуск с последней контрольной точки.
+     * Завершённый запуск и запуск, аренду которого держит другой узел, возвращаются без изменений.
+     */
+    public BillRunResponse start(String cityId, YearMonth period) {
+        if (!ObjectId.isValid(cityId) || !cityRepository.existsById(new ObjectId(cityId))) {
+            throw new OperationException("запуске начисления",
+                    "Город с ID " + cityId + " не найден", HttpStatus.NOT_FOUND);
+        }
+        List<Object> houseIds = houseIds(cityId);
+        BillRun run = findRun(cityId, period);
+        if (run == null) {
+            try {
+                run = mongoTemplate.insert(newRun(cityId, period, houseIds.size()));
+            } catch (DuplicateKeyException e) {
+                return toResponse(findRun(cityId, period));
+            }
+        } else if (run.getStatus() == BillRunStatus.COMPLETED) {
+            return toResponse(run);
+        } else {
+            BillRun claimed = claim(run.getId(), houseIds.size());
+            if (claimed == null) {
+                log.info("Начисление {} уже выполняется другим узлом", run.getId());
+                return toResponse(run);
+            }
+            run = claimed;
+        }
+        launch(run, houseIds);
+        return toResponse(run);
+    }
+
+    public BillRunResponse getProgress(String runId) {
+        BillRun run = mongoTemplate.findById(runId, BillRun.class);
+        if (run == null) {
+            throw new OperationException("получении начисления",
+                    "Начисление с ID " + runId + " не найдено", HttpStatus.NOT_FOUND);
+        }
+        return toResponse(run);
+    }
+
+    private BillRun findRun(String cityId, YearMonth period) {
+        return mongoTemplate.findOne(query(where("cityId").is(cityId).and("period").is(period.toString())),
+                BillRun.class);
+    }
+
+    private BillRun newRun(String cityId, YearMonth period, int totalHouses) {
+        Instant now = Instant.now();
+        BillRun run = new BillRun();
+        run.setCityId(cityId);
+        run.setPeriod(period.toString());
+        run.setStatus(BillRunStatus.RUNNING);
+        run.setTotalHouses(totalHouses);
+        run.setStartedAt(now);
+        run.setUpdatedAt(now);
+        run.setLeaseUntil(now.plus(lease));
+        return run;
+    }
+
+    private BillRun claim(String runId, int totalHouses) {
+        Instant now = Instant.now();
+        Query claimable = query(where("_id").is(runId).and("status").ne(BillRunStatus.COMPLETED)
+                .orOperator(where("leaseUntil").is(null), where("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("status", BillRunStatus.RUNNING)
+                .set("totalHouses", totalHouses)
+                .set("updatedAt", now)
+                .set("leaseUntil", now.plus(lease))
+                .unset("error")
+                .unset("finishedAt");
+        return mongoTemplate.findAndModify(claimable, update, FindAndModifyOptions.options().returnNew(true),
+                BillRun.class);
+    }
+
+    private void launch(BillRun run, List<Object> houseIds) {
+        Set<String> completed = new HashSet<>(run.getCompletedHouses());
+        LocalDate billDate = YearMonth.parse(run.getPeriod()).atDay(1);
+        long renewEvery = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = leaseRenewal.scheduleAtFixedRate(() -> renewLease(run.getId()),
+                renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        CompletableFuture<?>[] tasks = houseIds.stream()
+                .filter(houseId -> !completed.contains(houseId.toString()))
+                .map(houseId -> CompletableFuture.runAsync(() -> processHouse(run.getId(), houseId, billDate), workers))
+                .toArray(CompletableFuture[]::new);
+        log.info("Начисление {}: к обработке {} из {} домов", run.getId(), tasks.length, houseIds.size());
+        CompletableFuture.allOf(tasks).whenComplete((ignored, failure) -> {
+            heartbeat.cancel(false);
+            finish(run.getId(), failure);
+        });
+    }
+
+    /**
+     * Продлевает аренду выполняющегося запуска, пока идут задачи домов:
+     * долгий дом не должен отдавать запуск другому узлу по истечении аренды.
+     */
+    void renewLease(String runId) {
+        try {
+            Instant now = Instant.now();
+            mongoTemplate.updateFirst(query(where("_id").is(runId).and("status").is(BillRunStatus.RUNNING)),
+                    new Update().set("updatedAt", now).set("leaseUntil", now.plus(lease)), BillRun.class);
+        } catch (Exception e) {
+            log.warn("Не удалось продлить аренду начисления {}: {}", runId, e.getMessage());
+        }
+    }
+
+    /**
+     * Начисляет счета жителям одного дома и фиксирует дом в контрольной точке.
+     * Жители, у которых счёт за период уже есть (дом прерван на середине), получают только ссылку.
+     */
+    int processHouse(String runId, Object houseId, LocalDate billDate) {
+        Query residentsQuery = query(where("house").is(houseId));
+        residentsQuery.fields().include("accountNumber");
+        List<Document> residents = mongoTemplate.find(residentsQuery, Document.class,
+                mongoTemplate.getCollectionName(User.class));
+
+        Map<String, String> billIds = new HashMap<>();
+        if (!residents.isEmpty()) {
+            Query existingQuery = query(where("owner").in(residents.stream().map(r -> r.get("_id").toString()).toList())
+                    .and("date").is(billDate));
+            existingQuery.fields().include("owner");
+            for (Bill existing : mongoTemplate.find(existingQuery, Bill.class)) {
+                billIds.put(existing.getOwner(), existing.getId());
+            }
+        }
+
+        List<Receipt> receipts = new ArrayList<>();
+        List<Bill> bills = new ArrayList<>();
+        for (Document resident : residents) {
+            String owner = resident.get("_id").toString();
+            if (billIds.containsKey(owner)) {
+                continue;
+            }
+            Bill bill = newBill(owner, resident.getString("accountNumber"), billDate);
+            String receiptId = periodId("receipt", owner, billDate);
+            Receipt receipt = Receipt.builder()
+                    .id(receiptId)
+                    .receiptNumber(receiptId)
+                    .billNumber(bill.getBillNumber())
+                    .bill(billReference(bill.getId()))
+                    .localDate(billDate)
+                    .build();
+            bill.getReceipt().add(receipt);
+            receipts.add(receipt);
+            bills.add(bill);
+            billIds.put(owner, bill.getId());
+        }
+
+        // Квитанции пишутся раньше счетов: при сбое остаются лишние квитанции, а не счета с битыми ссылками
+        int created = 0;
+        for (int from = 0; from < bills.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, bills.size());
+            insertIfAbsent(receipts.subList(from, to), Receipt.class);
+            created += insertIfAbsent(bills.subList(from, to), Bill.class);
+        }
+
+        if (!residents.isEmpty()) {
+            BulkOperations links = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                    mongoTemplate.getCollectionName(User.class));
+            for (Document resident : residents) {
+                String billId = billIds.get(resident.get("_id").toString());
+                links.updateOne(query(where("_id").is(resident.get("_id"))),
+                        new Update().addToSet("bills", referenceId(billId)));
+            }
+            links.execute();
+        }
+
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(query(where("_id").is(runId)), new Update()
+                .addToSet("completedHouses", houseId.toString())
+                .inc("billsCreated", created)
+                .set("updatedAt", now)
+                .set("leaseUntil", now.plus(lease)), BillRun.class);
+        return created;
+    }
+
+    /**
+     * Вставка, для которой уже существующий документ с тем же _id - не ошибка, а результат
+     * параллельной или прерванной обработки того же дома. Возвращает число действительно вставленных документов.
+     */
+    private <T> int insertIfAbsent(List<T> documents, Class<T> entityClass) {
+        try {
+            mongoBulkConfig.bulkInsert(documents, entityClass);
+            return documents.size();
+        } catch (BulkOperationException e) {
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                throw e;
+            }
+            log.info("{}: пропущено {} уже созданных документов", entityClass.getSimpleName(), e.getErrors().size());
+            return documents.size() - e.getErrors().size();
+        }
+    }
+
+    private void finish(String runId, Throwable failure) {
+        Instant now = Instant.now();
+        Update update = new Update().set("updatedAt", now).set("finishedAt", now).unset("leaseUntil");
+        if (failure == null) {
+            update.set("status", BillRunStatus.COMPLETED).unset("error");
+            log.info("Начисление {} завершено", runId);
+        } else {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            update.set("status", BillRunStatus.FAILED).set("error", cause.getMessage());
+            log.error("Начисление {} прервано: {}", runId, cause.getMessage());
+        }
+        mongoTemplate.updateFirst(query(where("_id").is(runId)), update, BillRun.class);
+    }
+
+    private List<Object> houseIds(String cityId) {
+        Query streetsQuery = query(where("city").is(referenceId(cityId)));
+        streetsQuery.fields().include("_id");
+        List<Object> streetIds = mongoTemplate.find(streetsQuery, Document.class,
+                        mongoTemplate.getCollectionName(Street.class)).stream()
+                .map(street -> street.get("_id"))
+                .toList();
+        if (streetIds.isEmpty()) {
+            return List.of();
+        }
+        Query housesQuery = query(where("street").in(streetIds)).with(Sort.by("_id"));
+        housesQuery.fields().include("_id");
+        return mongoTemplate.find(housesQuery, Document.class, mongoTemplate.getCollectionName(House.class)).stream()
+                .map(house -> house.get("_id"))
+                .toList();
+    }
+
+    private static Bill newBill(String owner, String accountNumber, LocalDate billDate) {
+        Bill bill = new Bill();
+        bill.setId(periodId("bill", owner, billDate));
+        bill.setBillNumber(billDate.format(BILL_NUMBER_PERIOD) + "-"
+                + (accountNumber != null && !accountNumber.isBlank() ? accountNumber : owner));
+        bill.setDate(billDate);
+        bill.setOwner(owner);
+        return bill;
+    }
+
+    /**
+     * Детерминированный ObjectId документа жителя за период: время - начало периода,
+     * остальные 8 байт - SHA-256 от вида документа и жителя.
+     */
+    static String periodId(String kind, String owner, LocalDate billDate) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((kind + ":" + owner).getBytes(StandardCharsets.UTF_8));
+            ByteBuffer id = ByteBuffer.allocate(12)
+                    .putInt((int) billDate.atStartOfDay(ZoneOffset.UTC).toEpochSecond())
+                    .put(digest, 0, 8);
+            return new ObjectId(id.array()).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Bill billReference(String billId) {
+        Bill reference = new Bill();
+        reference.setId(billId);
+        return reference;
+    }
+
+    private static Object referenceId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static BillRunResponse toResponse(BillRun run) {
+        int completed = run.getCompletedHouses() != null ? run.getCompletedHouses().size() : 0;
+        double percent = run.getTotalHouses() > 0
+                ? Math.round(completed * 1000.0 / run.getTotalHouses()) / 10.0
+                : run.getStatus() == BillRunStatus.COMPLETED ? 100.0 : 0.0;
+        return BillRunResponse.builder()
+                .id(run.getId())
+                .cityId(run.getCityId())
+                .period(run.getPeriod())
+                .status(run.getStatus())
+                .totalHouses(run.getTotalHouses())
+                .completedHouses(completed)
+                .billsCreated(run.getBillsCreated())
+                .progressPercent(percent)
+                .error(run.getError())
+                .startedAt(run.getStartedAt())
+                .updatedAt(run.getUpdatedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+}
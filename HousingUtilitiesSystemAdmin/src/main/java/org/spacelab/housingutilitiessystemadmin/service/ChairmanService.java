@@ -4,6 +4,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemadmin.entity.Chairman;
+import org.spacelab.housingutilitiessystemadmin.entity.Role;
+import org.spacelab.housingutilitiessystemadmin.entity.location.Status;
 import org.spacelab.housingutilitiessystemadmin.exception.OperationException;
 import org.spacelab.housingutilitiessystemadmin.mappers.ChairmanMapper;
 import org.spacelab.housingutilitiessystemadmin.models.chairman.ChairmanRequest;
@@ -28,6 +30,8 @@ public class ChairmanService {
     private final ChairmanRepository chairmanRepository;
     private final ChairmanMapper chairmanMapper;
     private final FileService fileService;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalCacheService principalCacheService;
 
     public Optional<Chairman> findById(String id) {
         return chairmanRepository.findById(id);
@@ -101,6 +105,7 @@ public class ChairmanService {
         Chairman chairman = chairmanRepository.findById(id)
                 .orElseThrow(() -> new OperationException("обновлении председателя",
                         "Председатель с ID " + id + " не найден"));
+        PrincipalState before = PrincipalState.of(chairman);
 
         chairmanMapper.partialUpdate(chairmanRequest, chairman);
         
@@ -124,17 +129,24 @@ public class ChairmanService {
             }
         }
         
+        // Отзыв до сохранения: при сбое Redis/Mongo изменение не применяется и ответ совпадает с базой
+        tokenVersionService.revoke(chairman.getId());
         Chairman updatedChairman = chairmanRepository.save(chairman);
+        if (!before.equals(PrincipalState.of(updatedChairman))) {
+            principalCacheService.evictInRealm(PrincipalCacheService.CHAIRMAN_REALM,
+                    before.login(), before.email(), updatedChairman.getLogin(), updatedChairman.getEmail());
+        }
         log.info("Председатель с ID {} успешно обновлен", updatedChairman.getId());
         return chairmanMapper.mapChairmanToResponse(updatedChairman);
     }
 
     public boolean deleteChairman(String id) {
-        if (!chairmanRepository.existsById(id)) {
-            throw new OperationException("удалении председателя",
-                    "Председатель с ID " + id + " не найден");
-        }
+        Chairman chairman = chairmanRepository.findById(id)
+                .orElseThrow(() -> new OperationException("удалении председателя",
+                        "Председатель с ID " + id + " не найден"));
+        tokenVersionService.revoke(id);
         chairmanRepository.deleteById(id);
+        principalCacheService.evictInRealm(PrincipalCacheService.CHAIRMAN_REALM, chairman.getLogin(), chairman.getEmail());
         log.info("Председатель с ID {} успешно удален", id);
         return true;
     }
@@ -234,4 +246,16 @@ public class ChairmanService {
 
         return CompletableFuture.completedFuture(getChairmenTable(chairmanRequestTable));
     }
-}
\ No newline at end of file
+
+    /**
+     * Поля председателя, попадающие в кэш учетных данных модуля председателя.
+     */
+    private record PrincipalState(String login, String email, String password, Role role, boolean enabled,
+                                  Status status) {
+
+        static PrincipalState of(Chairman chairman) {
+            return new PrincipalState(chairman.getLogin(), chairman.getEmail(), chairman.getPassword(),
+                    chairman.getRole(), chairman.isEnabled(), chairman.getStatus());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.spacelab.housingutilitiessystemadmin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemadmin.security.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Двухуровневый кэш учетных данных для UserDetailsService: локальная карта узла и общий Redis.
+ * При изменении пароля, роли, статуса или блокировки записи удаляются из Redis,
+ * а остальные узлы всех модулей получают событие в канале {@link #PRINCIPAL_CHANGED_CHANNEL}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCacheService {
+
+    public static final String PRINCIPAL_KEY_PREFIX = "auth:principal:";
+    public static final String PRINCIPAL_CHANGED_CHANNEL = "auth:principal-changed";
+    public static final String REALM = "admin";
+    public static final String USER_REALM = "user";
+    public static final String CHAIRMAN_REALM = "chairman";
+    static final int MAX_LOCAL_PRINCIPALS = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${security.principal-cache.local-ttl:PT30S}")
+    private Duration localTtl;
+
+    @Value("${security.principal-cache.redis-ttl:PT10M}")
+    private Duration redisTtl;
+
+    private final Map<String, LocalEntry> localPrincipals = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает закэшированные данные администратора: сначала из памяти узла, затем из Redis.
+     *
+     * @param login email администратора
+     * @return данные администратора или null, если их нет в кэше или Redis недоступен
+     */
+    public CachedPrincipal get(String login) {
+        LocalEntry local = localPrincipals.get(login);
+        if (local != null) {
+            if (!local.isExpired()) {
+                return local.principal();
+            }
+            localPrincipals.remove(login);
+        }
+
+        try {
+            String json = redisTemplate.opsForValue().get(key(REALM, login));
+            if (json == null) {
+                return null;
+            }
+            CachedPrincipal principal = objectMapper.readValue(json, CachedPrincipal.class);
+            putLocal(login, principal);
+            return principal;
+        } catch (Exception e) {
+            log.warn("Cached principal for {} unavailable: {}", login, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет данные администратора в оба уровня кэша.
+     *
+     * @param login     email, по которому выполнялся поиск
+     * @param principal данные администратора
+     */
+    public void put(String login, CachedPrincipal principal) {
+        putLocal(login, principal);
+        try {
+            redisTemplate.opsForValue().set(key(REALM, login), objectMapper.writeValueAsString(principal), redisTtl);
+        } catch (Exception e) {
+            log.warn("Failed to cache principal for {}: {}", login, e.getMessage());
+        }
+    }
+
+    /**
+     * Сбрасывает закэшированные данные администратора на всех узлах.
+     *
+     * @param logins email и логины администратора, null и пустые значения пропускаются
+     */
+    public void evict(String... logins) {
+        evictInRealm(REALM, logins);
+    }
+
+    /**
+     * Сбрасывает закэшированные данные учетной записи указанного модуля на всех узлах.
+     *
+     * @param realm  модуль учетной записи: {@link #REALM}, {@link #USER_REALM} или {@link #CHAIRMAN_REALM}
+     * @param logins email и логины учетной записи, null и пустые значения пропускаются
+     */
+    public void evictInRealm(String realm, String... logins) {
+        List<String> keys = distinctLogins(logins);
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (REALM.equals(realm)) {
+            keys.forEach(localPrincipals::remove);
+        }
+        try {
+            redisTemplate.delete(keys.stream().map(login -> key(realm, login)).toList());
+            redisTemplate.convertAndSend(PRINCIPAL_CHANGED_CHANNEL,
+                    objectMapper.writeValueAsString(new PrincipalChangedEvent(realm, keys)));
+        } catch (Exception e) {
+            log.error("❌ Failed to invalidate cached {} principals {}: {}", realm, keys, e.getMessage());
+        }
+    }
+
+    /**
+     * Обрабатывает событие изменения учетной записи, полученное из Redis pub/sub.
+     *
+     * @param payload JSON события {@link PrincipalChangedEvent}
+     */
+    public void handlePrincipalChanged(String payload) {
+        try {
+            PrincipalChangedEvent event = objectMapper.readValue(payload, PrincipalChangedEvent.class);
+            if (REALM.equals(event.realm()) && event.logins() != null) {
+                event.logins().forEach(localPrincipals::remove);
+                log.debug("Evicted cached principals {}", event.logins());
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to handle principal change {}: {}", payload, e.getMessage());
+        }
+    }
+
+    private void putLocal(String login, CachedPrincipal principal) {
+        if (localPrincipals.size() >= MAX_LOCAL_PRINCIPALS) {
+            localPrincipals.values().removeIf(LocalEntry::isExpired);
+            if (localPrincipals.size() >= MAX_LOCAL_PRINCIPALS) {
+                localPrincipals.clear();
+            }
+        }
+        localPrincipals.put(login, new LocalEntry(principal, Instant.now().plus(localTtl)));
+    }
+
+    private static List<String> distinctLogins(String... logins) {
+        return Arrays.stream(logins)
+                .filter(Objects::nonNull)
+                .filter(login -> !login.isBlank())
+                .distinct()
+                .toList();
+    }
+
+    static String key(String realm, String login) {
+        return PRINCIPAL_KEY_PREFIX + realm + ":" + login;
+    }
+
+    /**
+     * Снимок учетных данных без версии токена: версия всегда читается заново из TokenVersionService.
+     * Хэш пароля не кэшируется: вход по паролю всегда читает учетную запись из MongoDB.
+     */
+    public record CachedPrincipal(String id, String username, boolean enabled, String role) {
+
+        public JwtPrincipal toPrincipal(Long tokenVersion) {
+            return toPrincipal("", tokenVersion);
+        }
+
+        public JwtPrincipal toPrincipal(String password, Long tokenVersion) {
+            return new JwtPrincipal(id, username, password, enabled,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role)), tokenVersion);
+        }
+    }
+
+    /**
+     * Событие изменения учетной записи в канале {@link #PRINCIPAL_CHANGED_CHANNEL}.
+     */
+    public record PrincipalChangedEvent(String realm, Collection<String> logins) {
+    }
+
+    private record LocalEntry(CachedPrincipal principal, Instant expiresAt) {
+
+        boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+    }
+}
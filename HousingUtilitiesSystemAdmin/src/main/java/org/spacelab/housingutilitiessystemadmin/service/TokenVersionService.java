@@ -0,0 +1,93 @@
+package org.spacelab.housingutilitiessystemadmin.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Версия токенов пользователя. Увеличение версии отзывает все выданные access токены.
+ * Источник истины - коллекция token_version в MongoDB, Redis хранит копию для быстрой проверки.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionService {
+
+    public static final String TOKEN_VERSION_KEY_PREFIX = "auth:token-version:";
+    public static final String TOKEN_VERSION_COLLECTION = "token_version";
+
+    /**
+     * Записывает версию в Redis, только если она больше сохраненной: восстановление из MongoDB,
+     * идущее параллельно с отзывом, не может откатить версию назад
+     */
+    static final RedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1])) "
+                    + "local version = tonumber(ARGV[1]) "
+                    + "if current == nil or current < version then "
+                    + "redis.call('SET', KEYS[1], ARGV[1]) "
+                    + "return version end "
+                    + "return current",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Текущая версия токенов пользователя. При отсутствии ключа в Redis версия читается из MongoDB
+     * и возвращается в Redis.
+     *
+     * @param userId id пользователя
+     * @return версия, 0 если токены пользователя ни разу не отзывались
+     */
+    public long currentVersion(String userId) {
+        String value = redisTemplate.opsForValue().get(TOKEN_VERSION_KEY_PREFIX + userId);
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        Document stored = mongoTemplate.findById(userId, Document.class, TOKEN_VERSION_COLLECTION);
+        long version = stored != null ? stored.get("version", Number.class).longValue() : 0L;
+        Long raised = redisTemplate.execute(RAISE_SCRIPT, List.of(TOKEN_VERSION_KEY_PREFIX + userId),
+                Long.toString(version));
+        return raised != null ? raised : version;
+    }
+
+    /**
+     * Текущая версия токенов пользователя без исключения при недоступности хранилища
+     *
+     * @param userId id пользователя
+     * @return версия или null
+     */
+    public Long currentVersionOrNull(String userId) {
+        try {
+            return currentVersion(userId);
+        } catch (Exception e) {
+            log.warn("Token version for {} unavailable: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Отзыв всех access токенов пользователя. Ошибка записи пробрасывается вызывающему.
+     *
+     * @param userId id пользователя
+     */
+    public void revoke(String userId) {
+        Document stored = mongoTemplate.findAndModify(query(where("_id").is(userId)), new Update().inc("version", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, TOKEN_VERSION_COLLECTION);
+        long version = stored.get("version", Number.class).longValue();
+        redisTemplate.execute(RAISE_SCRIPT, List.of(TOKEN_VERSION_KEY_PREFIX + userId), Long.toString(version));
+        log.info("🔒 Access tokens of {} revoked, token version is now {}", userId, version);
+    }
+}
@@ -7,6 +7,7 @@ import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.spacelab.housingutilitiessystemadmin.entity.Role;
 import org.spacelab.housingutilitiessystemadmin.entity.User;
 import org.spacelab.housingutilitiessystemadmin.entity.location.City;
 import org.spacelab.housingutilitiessystemadmin.entity.location.House;
@@ -39,6 +40,8 @@ public class UserService {
     private final CityService cityService;
     private final StreetService streetService;
     private final HouseService houseService;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalCacheService principalCacheService;
 
     public PageResponse<UserResponseTable> getUsersTable(UserRequestTable userRequestTable) {
         Page<User> users = getUser(userRequestTable);
@@ -144,6 +147,7 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new OperationException("обновлении пользователя",
                         "Пользователь с ID " + id + " не найден"));
+        PrincipalState before = PrincipalState.of(user);
 
         userMapper.partialUpdate(userRequest, user);
         
@@ -195,18 +199,25 @@ public class UserService {
             }
         }
         
+        // Отзыв до сохранения: при сбое Redis/Mongo изменение не применяется и ответ совпадает с базой
+        tokenVersionService.revoke(user.getId());
         User updatedUser = userRepository.save(user);
+        if (!before.equals(PrincipalState.of(updatedUser))) {
+            principalCacheService.evictInRealm(PrincipalCacheService.USER_REALM,
+                    before.login(), before.email(), updatedUser.getLogin(), updatedUser.getEmail());
+        }
         log.info("Пользователь с ID {} успешно обновлен", updatedUser.getId());
         return userMapper.mapUserToResponse(updatedUser);
     }
 
     @CacheEvict(value = "users", key = "#id.toHexString()")
     public boolean deleteUser(ObjectId id) {
-        if (!userRepository.existsById(id)) {
-            throw new OperationException("удалении пользователя",
-                    "Пользователь с ID " + id + " не найден");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new OperationException("удалении пользователя",
+                        "Пользователь с ID " + id + " не найден"));
+        tokenVersionService.revoke(id.toHexString());
         userRepository.deleteById(id);
+        principalCacheService.evictInRealm(PrincipalCacheService.USER_REALM, user.getLogin(), user.getEmail());
         log.info("Пользователь с ID {} успешно удален", id);
         return true;
     }
@@ -236,4 +247,15 @@ public class UserService {
         return users.map(userMapper::mapUserToResponse);
     }
 
+    /**
+     * Поля пользователя, попадающие в кэш учетных данных модуля пользователя.
+     */
+    private record PrincipalState(String login, String email, String password, Role role, boolean enabled,
+                                  Status status) {
+
+        static PrincipalState of(User user) {
+            return new PrincipalState(user.getLogin(), user.getEmail(), user.getPassword(), user.getRole(),
+                    user.isEnabled(), user.getStatus());
+        }
+    }
 }
@@ -38,6 +38,9 @@ class AdminServiceTest {
     @Mock
     private FileService fileService;
 
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -360,6 +363,7 @@ class AdminServiceTest {
             // Then
             verify(passwordEncoder).encode("newPassword");
             verify(adminRepository).save(any(Admin.class));
+            verify(principalCacheService).evict("admin@test.com", testAdmin.getEmail());
         }
 
         @Test
@@ -0,0 +1,519 @@
+package org.spacelab.housingutilitiessystemadmin.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemadmin.config.database.MongoBulkConfig;
+import org.spacelab.housingutilitiessystemadmin.entity.Bill;
+import org.spacelab.housingutilitiessystemadmin.entity.BillRun;
+import org.spacelab.housingutilitiessystemadmin.entity.BillRunStatus;
+import org.spacelab.housingutilitiessystemadmin.entity.Receipt;
+import org.spacelab.housingutilitiessystemadmin.entity.User;
+import org.spacelab.housingutilitiessystemadmin.entity.location.House;
+import org.spacelab.housingutilitiessystemadmin.entity.location.Street;
+import org.spacelab.housingutilitiessystemadmin.exception.OperationException;
+import org.spacelab.housingutilitiessystemadmin.models.billing.BillRunResponse;
+import org.spacelab.housingutilitiessystemadmin.repository.CityRepository;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BillRunService Tests")
+class BillRunServiceTest {
+
+    private static final String CITY_ID = "507f1f77bcf86cd799439011";
+    private static final LocalDate BILL_DATE = LocalDate.of(2025, 10, 1);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoBulkConfig mongoBulkConfig;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Captor
+    private ArgumentCaptor<List<Bill>> billsCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Receipt>> receiptsCaptor;
+
+    private BillRunService billRunService;
+
+    private final ObjectId houseId = new ObjectId();
+
+    @BeforeEach
+    void setUp() {
+        billRunService = new BillRunService(mongoTemplate, mongoBulkConfig, cityRepository, Runnable::run);
+        ReflectionTestUtils.setField(billRunService, "chunkSize", 500);
+        ReflectionTestUtils.setField(billRunService, "lease", Duration.ofMinutes(2));
+        lenient().when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+        lenient().when(mongoTemplate.getCollectionName(Street.class)).thenReturn("street");
+        lenient().when(mongoTemplate.getCollectionName(House.class)).thenReturn("house");
+    }
+
+    @AfterEach
+    void tearDown() {
+        billRunService.shutdown();
+    }
+
+    private Document resident(String accountNumber) {
+        return new Document("_id", new ObjectId()).append("accountNumber", accountNumber);
+    }
+
+    private void stubResidents(List<Document> residents) {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(residents);
+        if (!residents.isEmpty()) {
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "user")).thenReturn(bulkOperations);
+        }
+    }
+
+    private void stubCity(ObjectId... houses) {
+        when(cityRepository.existsById(new ObjectId(CITY_ID))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("street")))
+                .thenReturn(List.of(new Document("_id", new ObjectId())));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("house")))
+                .thenReturn(List.of(houses).stream().map(id -> new Document("_id", id)).toList());
+    }
+
+    private BillRun run(BillRunStatus status, String... completedHouses) {
+        BillRun run = new BillRun();
+        run.setId("run-1");
+        run.setCityId(CITY_ID);
+        run.setPeriod("2025-10");
+        run.setStatus(status);
+        run.setTotalHouses(2);
+        run.setCompletedHouses(new ArrayList<>(List.of(completedHouses)));
+        return run;
+    }
+
+    private Update lastRunUpdate(int times) {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(times)).updateFirst(any(Query.class), updates.capture(), eq(BillRun.class));
+        return updates.getValue();
+    }
+
+    @Nested
+    @DisplayName("ensureIndexes Tests")
+    class EnsureIndexesTests {
+
+        @Test
+        @DisplayName("Should create the run index and the resident-by-house index")
+        void ensureIndexes_CreatesRunAndResidentIndexes() {
+            IndexOperations runIndexes = mock(IndexOperations.class);
+            IndexOperations userIndexes = mock(IndexOperations.class);
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+            when(mongoTemplate.getConverter())
+                    .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+            when(mongoTemplate.indexOps(BillRun.class)).thenReturn(runIndexes);
+            when(mongoTemplate.indexOps(User.class)).thenReturn(userIndexes);
+
+            billRunService.ensureIndexes();
+
+            verify(runIndexes).createIndex(argThat(index -> index.getIndexKeys().containsKey("cityId")));
+            ArgumentCaptor<IndexDefinition> userIndex = ArgumentCaptor.forClass(IndexDefinition.class);
+            verify(userIndexes).createIndex(userIndex.capture());
+            assertThat(userIndex.getValue().getIndexKeys()).isEqualTo(new Document("house", 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("processHouse Tests")
+    class ProcessHouseTests {
+        @Test
+        @DisplayName("Should bulk insert a bill and a receipt per resident, link owners and checkpoint the house")
+        void processHouse_shouldGenerateBills() {
+            Document first = resident("ACC-1");
+            Document second = resident(null);
+            stubResidents(List.of(first, second));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+
+            int created = billRunService.processHouse("run-1", houseId, BILL_DATE);
+
+            assertThat(created).isEqualTo(2);
+            verify(mongoBulkConfig).bulkInsert(receiptsCaptor.capture(), eq(Receipt.class));
+            verify(mongoBulkConfig).bulkInsert(billsCaptor.capture(), eq(Bill.class));
+            List<Bill> bills = billsCaptor.getValue();
+            assertThat(bills).extracting(Bill::getOwner)
+                    .containsExactly(first.get("_id").toString(), second.get("_id").toString());
+            assertThat(bills).extracting(Bill::getBillNumber)
+                    .containsExactly("202510-ACC-1", "202510-" + second.get("_id"));
+            assertThat(bills).allSatisfy(bill -> assertThat(bill.getDate()).isEqualTo(BILL_DATE));
+            assertThat(receiptsCaptor.getValue()).extracting(receipt -> receipt.getBill().getId())
+                    .containsExactlyElementsOf(bills.stream().map(Bill::getId).toList());
+            assertThat(receiptsCaptor.getValue()).extracting(Receipt::getBillNumber)
+                    .containsExactlyElementsOf(bills.stream().map(Bill::getBillNumber).toList());
+            assertThat(receiptsCaptor.getValue()).allSatisfy(receipt ->
+                    assertThat(receipt.getReceiptNumber()).isEqualTo(receipt.getId()));
+            assertThat(bills.get(0).getReceipt()).containsExactly(receiptsCaptor.getValue().get(0));
+
+            verify(bulkOperations).updateOne(query(first.get("_id")),
+                    new Update().addToSet("bills", new ObjectId(bills.get(0).getId())));
+            verify(bulkOperations).updateOne(query(second.get("_id")),
+                    new Update().addToSet("bills", new ObjectId(bills.get(1).getId())));
+            verify(bulkOperations).execute();
+
+            Document checkpoint = lastRunUpdate(1).getUpdateObject();
+            assertThat(checkpoint.get("$addToSet", Document.class)).containsEntry("completedHouses", houseId.toString());
+            assertThat(checkpoint.get("$inc", Document.class)).containsEntry("billsCreated", 2);
+            assertThat(checkpoint.get("$set", Document.class)).containsKey("leaseUntil");
+        }
+
+        @Test
+        @DisplayName("Should only link residents already billed for the period when a house is resumed")
+        void processHouse_shouldSkipExistingBills() {
+            Document billed = resident("ACC-1");
+            Document pending = resident("ACC-2");
+            stubResidents(List.of(billed, pending));
+            Bill existing = new Bill();
+            existing.setId(new ObjectId().toString());
+            existing.setOwner(billed.get("_id").toString());
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(existing));
+
+            assertThat(billRunService.processHouse("run-1", houseId, BILL_DATE)).isEqualTo(1);
+
+            ArgumentCaptor<Query> existingQuery = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(existingQuery.capture(), eq(Bill.class));
+            assertThat(existingQuery.getValue().getQueryObject()).containsEntry("date", BILL_DATE);
+            verify(mongoBulkConfig).bulkInsert(billsCaptor.capture(), eq(Bill.class));
+            assertThat(billsCaptor.getValue()).extracting(Bill::getOwner).containsExactly(pending.get("_id").toString());
+            verify(bulkOperations).updateOne(query(billed.get("_id")),
+                    new Update().addToSet("bills", new ObjectId(existing.getId())));
+            verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        }
+
+        @Test
+        @DisplayName("Should split inserts into chunks")
+        void processHouse_shouldInsertInChunks() {
+            ReflectionTestUtils.setField(billRunService, "chunkSize", 2);
+            stubResidents(IntStream.range(0, 5).mapToObj(i -> resident("ACC-" + i)).toList());
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+
+            billRunService.processHouse("run-1", houseId, BILL_DATE);
+
+            verify(mongoBulkConfig, times(3)).bulkInsert(billsCaptor.capture(), eq(Bill.class));
+            assertThat(billsCaptor.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+            verify(mongoBulkConfig, times(3)).bulkInsert(anyList(), eq(Receipt.class));
+        }
+
+        @Test
+        @DisplayName("Should derive the same bill and receipt ids for a resident on a repeated run")
+        void processHouse_shouldDeriveIdsFromOwnerAndPeriod() {
+            Document resident = resident("ACC-1");
+            stubResidents(List.of(resident));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+
+            billRunService.processHouse("run-1", houseId, BILL_DATE);
+            billRunService.processHouse("run-2", houseId, BILL_DATE);
+
+            verify(mongoBulkConfig, times(2)).bulkInsert(billsCaptor.capture(), eq(Bill.class));
+            verify(mongoBulkConfig, times(2)).bulkInsert(receiptsCaptor.capture(), eq(Receipt.class));
+            Bill first = billsCaptor.getAllValues().get(0).get(0);
+            assertThat(billsCaptor.getAllValues().get(1).get(0).getId()).isEqualTo(first.getId());
+            assertThat(receiptsCaptor.getAllValues()).extracting(receipts -> receipts.get(0).getId())
+                    .containsOnly(BillRunService.periodId("receipt", resident.get("_id").toString(), BILL_DATE))
+                    .doesNotContain(first.getId());
+            assertThat(BillRunService.periodId("bill", first.getOwner(), BILL_DATE.plusMonths(1)))
+                    .isNotEqualTo(first.getId());
+        }
+
+        @Test
+        @DisplayName("Should treat duplicate key errors of a concurrent insert as already created documents")
+        void processHouse_shouldTolerateDuplicateInserts() {
+            Document resident = resident("ACC-1");
+            stubResidents(List.of(resident));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+            BulkOperationException duplicates = mock(BulkOperationException.class);
+            when(duplicates.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+            doThrow(duplicates).when(mongoBulkConfig).bulkInsert(anyList(), eq(Receipt.class));
+
+            assertThat(billRunService.processHouse("run-1", houseId, BILL_DATE)).isEqualTo(1);
+
+            verify(mongoBulkConfig).bulkInsert(anyList(), eq(Bill.class));
+            verify(bulkOperations).execute();
+            assertThat(lastRunUpdate(1).getUpdateObject().get("$addToSet", Document.class))
+                    .containsEntry("completedHouses", houseId.toString());
+        }
+
+        @Test
+        @DisplayName("Should count only bills actually inserted when some already exist")
+        void processHouse_shouldNotCountDuplicateBills() {
+            stubResidents(List.of(resident("ACC-1"), resident("ACC-2"), resident("ACC-3")));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+            BulkOperationException duplicates = mock(BulkOperationException.class);
+            when(duplicates.getErrors()).thenReturn(List.of(
+                    new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                    new BulkWriteError(11000, "duplicate key", new BsonDocument(), 2)));
+            lenient().doThrow(duplicates).when(mongoBulkConfig).bulkInsert(anyList(), eq(Bill.class));
+
+            assertThat(billRunService.processHouse("run-1", houseId, BILL_DATE)).isEqualTo(1);
+
+            assertThat(lastRunUpdate(1).getUpdateObject().get("$inc", Document.class)).containsEntry("billsCreated", 1);
+        }
+
+        @Test
+        @DisplayName("Should fail the house on bulk errors other than duplicate keys")
+        void processHouse_shouldRethrowOtherBulkErrors() {
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(List.of(resident("ACC-1")));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+            BulkOperationException failure = mock(BulkOperationException.class);
+            when(failure.getErrors()).thenReturn(List.of(
+                    new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                    new BulkWriteError(121, "validation failed", new BsonDocument(), 1)));
+            doThrow(failure).when(mongoBulkConfig).bulkInsert(anyList(), eq(Receipt.class));
+
+            assertThatThrownBy(() -> billRunService.processHouse("run-1", houseId, BILL_DATE)).isSameAs(failure);
+
+            verify(mongoBulkConfig, never()).bulkInsert(anyList(), eq(Bill.class));
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(BillRun.class));
+        }
+
+        @Test
+        @DisplayName("Should checkpoint an empty house without writing bills")
+        void processHouse_shouldCheckpointEmptyHouse() {
+            stubResidents(List.of());
+
+            assertThat(billRunService.processHouse("run-1", houseId, BILL_DATE)).isZero();
+
+            verifyNoInteractions(mongoBulkConfig);
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), anyString());
+            assertThat(lastRunUpdate(1).getUpdateObject().get("$addToSet", Document.class))
+                    .containsEntry("completedHouses", houseId.toString());
+        }
+
+        private Query query(Object userId) {
+            return Query.query(where("_id").is(userId));
+        }
+    }
+
+    @Nested
+    @DisplayName("start Tests")
+    class StartTests {
+        @Test
+        @DisplayName("Should throw NOT_FOUND for an unknown city")
+        void start_shouldThrowForUnknownCity() {
+            when(cityRepository.existsById(new ObjectId(CITY_ID))).thenReturn(false);
+
+            assertThatThrownBy(() -> billRunService.start(CITY_ID, YearMonth.of(2025, 10)))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should create a run, process every house in parallel tasks and complete it")
+        void start_shouldCreateAndCompleteRun() {
+            ObjectId secondHouse = new ObjectId();
+            stubCity(houseId, secondHouse);
+            stubResidents(List.of());
+            when(mongoTemplate.insert(any(BillRun.class))).thenAnswer(invocation -> {
+                BillRun run = invocation.getArgument(0);
+                run.setId("run-1");
+                return run;
+            });
+
+            BillRunResponse response = billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            assertThat(response.getId()).isEqualTo("run-1");
+            assertThat(response.getPeriod()).isEqualTo("2025-10");
+            assertThat(response.getTotalHouses()).isEqualTo(2);
+            verify(mongoTemplate, times(2)).find(any(Query.class), eq(Document.class), eq("user"));
+            assertThat(lastRunUpdate(3).getUpdateObject().get("$set", Document.class))
+                    .containsEntry("status", BillRunStatus.COMPLETED);
+        }
+
+        @Test
+        @DisplayName("Should return a completed run without reprocessing it")
+        void start_shouldReturnCompletedRun() {
+            stubCity(houseId);
+            when(mongoTemplate.findOne(any(Query.class), eq(BillRun.class)))
+                    .thenReturn(run(BillRunStatus.COMPLETED, houseId.toString()));
+
+            BillRunResponse response = billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            assertThat(response.getStatus()).isEqualTo(BillRunStatus.COMPLETED);
+            verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(BillRun.class));
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("user"));
+        }
+
+        @Test
+        @DisplayName("Should resume an interrupted run from its checkpoint")
+        void start_shouldResumeFromCheckpoint() {
+            ObjectId pendingHouse = new ObjectId();
+            stubCity(houseId, pendingHouse);
+            stubResidents(List.of());
+            when(mongoTemplate.findOne(any(Query.class), eq(BillRun.class)))
+                    .thenReturn(run(BillRunStatus.FAILED, houseId.toString()));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(BillRun.class))).thenReturn(run(BillRunStatus.RUNNING, houseId.toString()));
+
+            BillRunResponse response = billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            assertThat(response.getStatus()).isEqualTo(BillRunStatus.RUNNING);
+            assertThat(response.getCompletedHouses()).isEqualTo(1);
+            ArgumentCaptor<Query> residents = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(residents.capture(), eq(Document.class), eq("user"));
+            assertThat(residents.getValue().getQueryObject()).containsEntry("house", pendingHouse);
+        }
+
+        @Test
+        @DisplayName("Should leave a run alone while another node holds its lease")
+        void start_shouldNotStealLiveLease() {
+            stubCity(houseId);
+            when(mongoTemplate.findOne(any(Query.class), eq(BillRun.class))).thenReturn(run(BillRunStatus.RUNNING));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(BillRun.class))).thenReturn(null);
+
+            billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).findAndModify(claim.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(BillRun.class));
+            assertThat(claim.getValue().getQueryObject()).containsKey("$or");
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("user"));
+        }
+
+        @Test
+        @DisplayName("Should mark the run FAILED when a house cannot be processed")
+        void start_shouldFailRunOnWorkerError() {
+            stubCity(houseId);
+            when(mongoTemplate.insert(any(BillRun.class))).thenAnswer(invocation -> {
+                BillRun run = invocation.getArgument(0);
+                run.setId("run-1");
+                return run;
+            });
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user")))
+                    .thenThrow(new RuntimeException("Mongo down"));
+
+            billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            Document finish = lastRunUpdate(1).getUpdateObject().get("$set", Document.class);
+            assertThat(finish).containsEntry("status", BillRunStatus.FAILED).containsEntry("error", "Mongo down");
+        }
+    }
+
+    @Nested
+    @DisplayName("renewLease Tests")
+    class RenewLeaseTests {
+        @Test
+        @DisplayName("Should extend the lease of a running run only")
+        void renewLease_shouldExtendRunningLease() {
+            billRunService.renewLease("run-1");
+
+            ArgumentCaptor<Query> renewed = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).updateFirst(renewed.capture(), update.capture(), eq(BillRun.class));
+            assertThat(renewed.getValue().getQueryObject())
+                    .containsEntry("_id", "run-1")
+                    .containsEntry("status", BillRunStatus.RUNNING);
+            assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                    .containsKeys("updatedAt", "leaseUntil");
+        }
+
+        @Test
+        @DisplayName("Should keep the run going when a renewal fails")
+        void renewLease_shouldSwallowFailures() {
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BillRun.class)))
+                    .thenThrow(new RuntimeException("Mongo down"));
+
+            billRunService.renewLease("run-1");
+
+            verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(BillRun.class));
+        }
+
+        @Test
+        @DisplayName("Should renew the lease on a heartbeat while a single house is still processing")
+        void start_shouldRenewLeaseDuringLongHouse() {
+            ReflectionTestUtils.setField(billRunService, "lease", Duration.ofMillis(60));
+            stubCity(houseId);
+            when(mongoTemplate.insert(any(BillRun.class))).thenAnswer(invocation -> {
+                BillRun run = invocation.getArgument(0);
+                run.setId("run-1");
+                return run;
+            });
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenAnswer(invocation -> {
+                Thread.sleep(200);
+                return List.of();
+            });
+
+            billRunService.start(CITY_ID, YearMonth.of(2025, 10));
+
+            ArgumentCaptor<Query> updates = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate, atLeast(4)).updateFirst(updates.capture(), any(Update.class), eq(BillRun.class));
+            assertThat(updates.getAllValues()).filteredOn(query -> query.getQueryObject().containsKey("status"))
+                    .hasSizeGreaterThanOrEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("getProgress Tests")
+    class GetProgressTests {
+        @Test
+        @DisplayName("Should report processed houses as a percentage")
+        void getProgress_shouldReportPercent() {
+            BillRun run = run(BillRunStatus.RUNNING, "h1");
+            run.setTotalHouses(4);
+            run.setBillsCreated(120);
+            when(mongoTemplate.findById("run-1", BillRun.class)).thenReturn(run);
+
+            BillRunResponse response = billRunService.getProgress("run-1");
+
+            assertThat(response.getCompletedHouses()).isEqualTo(1);
+            assertThat(response.getProgressPercent()).isEqualTo(25.0);
+            assertThat(response.getBillsCreated()).isEqualTo(120);
+        }
+
+        @Test
+        @DisplayName("Should throw NOT_FOUND for an unknown run")
+        void getProgress_shouldThrowWhenMissing() {
+            when(mongoTemplate.findById("missing", BillRun.class)).thenReturn(null);
+
+            assertThatThrownBy(() -> billRunService.getProgress("missing"))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+}
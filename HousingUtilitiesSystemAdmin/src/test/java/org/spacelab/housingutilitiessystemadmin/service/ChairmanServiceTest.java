@@ -46,6 +46,12 @@ class ChairmanServiceTest {
     @Mock
     private FileService fileService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @Mock
     private MultipartFile multipartFile;
 
@@ -261,6 +267,7 @@ class ChairmanServiceTest {
 
             assertThat(result).isNotNull();
             verify(chairmanMapper).partialUpdate(testChairmanRequest, testChairman);
+            verify(tokenVersionService).revoke(testChairman.getId());
         }
 
         @Test
@@ -284,6 +291,8 @@ class ChairmanServiceTest {
             chairmanService.updateChairman("chairman-id-123", testChairmanRequest);
 
             verify(chairmanRepository).save(any(Chairman.class));
+            verify(principalCacheService).evictInRealm(PrincipalCacheService.CHAIRMAN_REALM,
+                    "chairman_login", "chairman@test.com", "chairman_login", "chairman@test.com");
         }
 
         @Test
@@ -323,19 +332,22 @@ class ChairmanServiceTest {
         @Test
         @DisplayName("Should delete chairman successfully")
         void deleteChairman_shouldDeleteSuccessfully() {
-            when(chairmanRepository.existsById("chairman-id-123")).thenReturn(true);
+            when(chairmanRepository.findById("chairman-id-123")).thenReturn(Optional.of(testChairman));
             doNothing().when(chairmanRepository).deleteById("chairman-id-123");
 
             boolean result = chairmanService.deleteChairman("chairman-id-123");
 
             assertThat(result).isTrue();
             verify(chairmanRepository).deleteById("chairman-id-123");
+            verify(tokenVersionService).revoke("chairman-id-123");
+            verify(principalCacheService).evictInRealm(PrincipalCacheService.CHAIRMAN_REALM,
+                    "chairman_login", "chairman@test.com");
         }
 
         @Test
         @DisplayName("Should throw exception when not found")
         void deleteChairman_shouldThrowException_whenNotFound() {
-            when(chairmanRepository.existsById("nonexistent")).thenReturn(false);
+            when(chairmanRepository.findById("nonexistent")).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> chairmanService.deleteChairman("nonexistent"))
                     .isInstanceOf(OperationException.class)
@@ -474,7 +486,7 @@ class ChairmanServiceTest {
         @Test
         @DisplayName("Should delete by id async")
         void deleteByIdAsync_shouldDeleteSuccessfully() throws ExecutionException, InterruptedException {
-            when(chairmanRepository.existsById("chairman-id-123")).thenReturn(true);
+            when(chairmanRepository.findById("chairman-id-123")).thenReturn(Optional.of(testChairman));
             doNothing().when(chairmanRepository).deleteById("chairman-id-123");
 
             CompletableFuture<Boolean> future = chairmanService.deleteByIdAsync("chairman-id-123");
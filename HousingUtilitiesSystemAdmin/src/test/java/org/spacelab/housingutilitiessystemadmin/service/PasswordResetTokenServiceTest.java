@@ -36,6 +36,9 @@ class PasswordResetTokenServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @InjectMocks
     private PasswordResetTokenService passwordResetTokenService;
 
@@ -77,6 +80,7 @@ class PasswordResetTokenServiceTest {
             // Then
             verify(passwordEncoder).encode(newPassword);
             verify(adminRepository).save(testAdmin);
+            verify(principalCacheService).evict(testAdmin.getEmail());
             assertThat(testAdmin.getPassword()).isEqualTo(encodedPassword);
         }
 
@@ -0,0 +1,130 @@
+package org.spacelab.housingutilitiessystemadmin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemadmin.security.JwtPrincipal;
+import org.spacelab.housingutilitiessystemadmin.service.PrincipalCacheService.CachedPrincipal;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PrincipalCacheService Tests")
+class PrincipalCacheServiceTest {
+
+    private static final String KEY = PrincipalCacheService.key(PrincipalCacheService.REALM, "admin@test.com");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PrincipalCacheService principalCacheService;
+
+    private final CachedPrincipal principal = new CachedPrincipal("admin-123", "admin@test.com", true, "ADMIN");
+
+    @BeforeEach
+    void setUp() {
+        principalCacheService = new PrincipalCacheService(redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(principalCacheService, "localTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(principalCacheService, "redisTtl", Duration.ofMinutes(10));
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+        @Test
+        @DisplayName("Should read through Redis once and then serve locally")
+        void get_shouldReadThroughRedisOnce() throws Exception {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get(KEY)).thenReturn(objectMapper.writeValueAsString(principal));
+
+            assertThat(principalCacheService.get("admin@test.com")).isEqualTo(principal);
+            assertThat(principalCacheService.get("admin@test.com")).isEqualTo(principal);
+
+            verify(valueOperations, times(1)).get(KEY);
+        }
+
+        @Test
+        @DisplayName("Should return null on a miss or when Redis is unavailable")
+        void get_shouldReturnNullOnMissOrFailure() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get(KEY)).thenReturn(null).thenThrow(new RuntimeException("Redis down"));
+
+            assertThat(principalCacheService.get("admin@test.com")).isNull();
+            assertThat(principalCacheService.get("admin@test.com")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should build a principal with the given token version")
+        void toPrincipal_shouldCarryTokenVersion() {
+            JwtPrincipal jwtPrincipal = principal.toPrincipal(2L);
+
+            assertThat(jwtPrincipal.getId()).isEqualTo("admin-123");
+            assertThat(jwtPrincipal.getTokenVersion()).isEqualTo(2L);
+            assertThat(jwtPrincipal.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class Invalidation {
+        @Test
+        @DisplayName("Should drop both levels and publish the change")
+        void evict_shouldDeleteAndPublish() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            principalCacheService.put("admin@test.com", principal);
+
+            principalCacheService.evict("admin@test.com", null);
+
+            verify(redisTemplate).delete(List.of(KEY));
+            verify(redisTemplate).convertAndSend(eq(PrincipalCacheService.PRINCIPAL_CHANGED_CHANNEL), contains("admin@test.com"));
+            assertThat(principalCacheService.get("admin@test.com")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should invalidate another module's principals without touching the local map")
+        void evictInRealm_shouldTargetRealm() {
+            principalCacheService.evictInRealm(PrincipalCacheService.USER_REALM, "user@test.com", "user_login");
+
+            verify(redisTemplate).delete(List.of(
+                    PrincipalCacheService.key(PrincipalCacheService.USER_REALM, "user@test.com"),
+                    PrincipalCacheService.key(PrincipalCacheService.USER_REALM, "user_login")));
+            verify(redisTemplate).convertAndSend(eq(PrincipalCacheService.PRINCIPAL_CHANGED_CHANNEL), contains("\"user\""));
+        }
+
+        @Test
+        @DisplayName("Should evict locally on a change event for this realm only")
+        void handlePrincipalChanged_shouldEvictLocally() throws Exception {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            principalCacheService.put("admin@test.com", principal);
+
+            principalCacheService.handlePrincipalChanged(objectMapper.writeValueAsString(
+                    new PrincipalCacheService.PrincipalChangedEvent("chairman", List.of("admin@test.com"))));
+            assertThat(principalCacheService.get("admin@test.com")).isEqualTo(principal);
+
+            principalCacheService.handlePrincipalChanged(objectMapper.writeValueAsString(
+                    new PrincipalCacheService.PrincipalChangedEvent(PrincipalCacheService.REALM, List.of("admin@test.com"))));
+            assertThat(principalCacheService.get("admin@test.com")).isNull();
+            verify(valueOperations).get(anyString());
+        }
+    }
+}
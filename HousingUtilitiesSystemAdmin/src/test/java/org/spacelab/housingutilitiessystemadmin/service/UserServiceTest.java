@@ -59,6 +59,12 @@ class UserServiceTest {
     @Mock
     private HouseService houseService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @Mock
     private MultipartFile multipartFile;
 
@@ -395,6 +401,20 @@ class UserServiceTest {
 
             assertThat(result).isNotNull();
             verify(userMapper).partialUpdate(testUserRequest, testUser);
+            verify(tokenVersionService).revoke(testUser.getId());
+            verifyNoInteractions(principalCacheService);
+        }
+
+        @Test
+        @DisplayName("Should not save the update when revoking the user's tokens fails")
+        void updateUser_shouldNotSaveWhenRevokeFails() {
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+            doThrow(new RuntimeException("Redis down")).when(tokenVersionService).revoke(testUser.getId());
+
+            assertThatThrownBy(() -> userService.updateUser(testUserId, testUserRequest))
+                    .hasMessage("Redis down");
+
+            verify(userRepository, never()).save(any(User.class));
         }
 
         @Test
@@ -548,6 +568,8 @@ class UserServiceTest {
             userService.updateUser(testUserId, testUserRequest);
 
             verify(userRepository).save(any(User.class));
+            verify(principalCacheService).evictInRealm(PrincipalCacheService.USER_REALM,
+                    null, "user@test.com", null, "user@test.com");
         }
 
         @Test
@@ -605,19 +627,32 @@ class UserServiceTest {
         @Test
         @DisplayName("Should delete user successfully")
         void deleteUser_shouldDeleteSuccessfully() {
-            when(userRepository.existsById(any(ObjectId.class))).thenReturn(true);
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
             doNothing().when(userRepository).deleteById(any(ObjectId.class));
 
             boolean result = userService.deleteUser(testUserId);
 
             assertThat(result).isTrue();
             verify(userRepository).deleteById(testUserId);
+            verify(tokenVersionService).revoke(testUserId.toHexString());
+            verify(principalCacheService).evictInRealm(PrincipalCacheService.USER_REALM, null, "user@test.com");
+        }
+
+        @Test
+        @DisplayName("Should keep the user when revoking the user's tokens fails")
+        void deleteUser_shouldNotDeleteWhenRevokeFails() {
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+            doThrow(new RuntimeException("Redis down")).when(tokenVersionService).revoke(testUserId.toHexString());
+
+            assertThatThrownBy(() -> userService.deleteUser(testUserId)).hasMessage("Redis down");
+
+            verify(userRepository, never()).deleteById(any(ObjectId.class));
         }
 
         @Test
         @DisplayName("Should throw exception when not found")
         void deleteUser_shouldThrowException_whenNotFound() {
-            when(userRepository.existsById(any(ObjectId.class))).thenReturn(false);
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> userService.deleteUser(testUserId))
                     .isInstanceOf(OperationException.class)
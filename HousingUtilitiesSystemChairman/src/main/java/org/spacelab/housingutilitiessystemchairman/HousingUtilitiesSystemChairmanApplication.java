@@ -4,11 +4,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchRepositoriesAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ReactiveElasticsearchRepositoriesAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication(exclude = {
         RedisRepositoriesAutoConfiguration.class,
         ElasticsearchRepositoriesAutoConfiguration.class,
         ReactiveElasticsearchRepositoriesAutoConfiguration.class
 })
+@EnableScheduling
 public class HousingUtilitiesSystemChairmanApplication {
     public static void main(String[] args) {
         SpringApplication.run(HousingUtilitiesSystemChairmanApplication.class, args);
@@ -83,8 +83,11 @@ public class DataLoader {
     private List<Receipt> createReceiptsForBill(Bill bill, int count) {
         List<Receipt> receipts = new ArrayList<>();
         for (int i = 0; i < count; i++) {
+            String receiptId = UUID.randomUUID().toString();
             Receipt receipt = Receipt.builder()
-                    .id(UUID.randomUUID().toString())
+                    .id(receiptId)
+                    .receiptNumber(receiptId)
+                    .billNumber(bill.getBillNumber())
                     .bill(bill)
                     .localDate(bill.getDate().plusDays(i * 5L + 1))
                     .build();
@@ -250,6 +253,10 @@ public class DataLoader {
         vote.setForVotesCount(forUsers.length);
         vote.setAgainstVotesCount(againstUsers.length);
         vote.setAbstentionsCount(abstainUsers.length);
+        vote.setForVotesArea(votedArea(forUsers));
+        vote.setAgainstVotesArea(votedArea(againstUsers));
+        vote.setAbstentionsArea(votedArea(abstainUsers));
+        vote.setTotalVotedArea(vote.getForVotesArea() + vote.getAgainstVotesArea() + vote.getAbstentionsArea());
         Vote savedVote = mongoTemplate.save(vote);
         createVoteRecords(savedVote, forUsers, "FOR", startDaysOffset);
         createVoteRecords(savedVote, againstUsers, "AGAINST", startDaysOffset);
@@ -258,6 +265,16 @@ public class DataLoader {
         return true;
     }
 
+    private double votedArea(int[] userIndexes) {
+        double area = 0.0;
+        for (int index : userIndexes) {
+            if (index >= 0 && index < houseResidents.size() && houseResidents.get(index).getApartmentArea() != null) {
+                area += houseResidents.get(index).getApartmentArea();
+            }
+        }
+        return area;
+    }
+
     private void createVoteRecords(Vote vote, int[] userIndexes, String voteType, int startOffset) {
         Random random = new Random();
         for (int index : userIndexes) {
@@ -268,6 +285,7 @@ public class DataLoader {
                 record.setVote(vote);
                 record.setUser(user);
                 record.setVoteType(voteType);
+                record.setApartmentArea(user.getApartmentArea() != null ? user.getApartmentArea() : 0.0);
                 Calendar voteTimeCal = Calendar.getInstance();
                 voteTimeCal.add(Calendar.DAY_OF_MONTH, startOffset);
                 voteTimeCal.add(Calendar.HOUR_OF_DAY, random.nextInt(24 * 5));
@@ -2,22 +2,44 @@ package org.spacelab.housingutilitiessystemchairman.config.cache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.config.websocket.WebSocketConfig;
+import org.spacelab.housingutilitiessystemchairman.service.PrincipalCacheService;
+import org.spacelab.housingutilitiessystemchairman.service.VoteEventSubscriber;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ChatEventPublisher;
 import org.spacelab.housingutilitiessystemchairman.service.chat.ChatEventSubscriber;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ChatStreamGroups;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 
 @Configuration
+@Slf4j
 public class RedisConfig {
-    private static final String CHAT_EVENTS_CHANNEL = "chat_events";
-    private static final String PRESENCE_EVENTS_CHANNEL = "presence_events";
+    private static final Duration STREAM_POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final int STREAM_BATCH_SIZE = 100;
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
     @Bean
     public ObjectMapper redisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -39,20 +61,76 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
     @Bean
-    public RedisMessageListenerContainer redisMessageListenerContainer(
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> chatEventStreamContainer(
             RedisConnectionFactory connectionFactory,
-            ChatEventSubscriber chatEventSubscriber) {
+            StringRedisTemplate stringRedisTemplate,
+            ChatEventSubscriber chatEventSubscriber,
+            ChatStreamGroups chatStreamGroups) {
+        String nodeId = chatStreamGroups.nodeId();
+        String group = chatStreamGroups.chatGroup();
+        String presenceGroup = chatStreamGroups.presenceGroup();
+        ensureConsumerGroup(stringRedisTemplate, ChatEventPublisher.CHAT_EVENTS_STREAM, group);
+        ensureConsumerGroup(stringRedisTemplate, ChatEventPublisher.PRESENCE_EVENTS_STREAM, presenceGroup);
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(STREAM_POLL_TIMEOUT)
+                        .batchSize(STREAM_BATCH_SIZE)
+                        .errorHandler(e -> log.error("❌ Failed to read chat event stream: {}", e.getMessage()))
+                        .build();
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+                StreamMessageListenerContainer.create(connectionFactory, options);
+        container.register(readRequest(ChatEventPublisher.CHAT_EVENTS_STREAM, Consumer.from(group, nodeId)),
+                record -> chatEventSubscriber.handleMessage(record.getValue().get(ChatEventPublisher.PAYLOAD_FIELD)));
+        container.register(readRequest(ChatEventPublisher.PRESENCE_EVENTS_STREAM, Consumer.from(presenceGroup, nodeId)),
+                record -> chatEventSubscriber.handlePresence(record.getValue().get(ChatEventPublisher.PAYLOAD_FIELD)));
+        return container;
+    }
+    @Bean
+    public RedisMessageListenerContainer principalChangedListenerContainer(RedisConnectionFactory connectionFactory,
+            PrincipalCacheService principalCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> principalCacheService.handlePrincipalChanged(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PrincipalCacheService.PRINCIPAL_CHANGED_CHANNEL));
+        return container;
+    }
+    @Bean
+    public RedisMessageListenerContainer voteEventListenerContainer(RedisConnectionFactory connectionFactory,
+            VoteEventSubscriber voteEventSubscriber) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        MessageListenerAdapter messageAdapter = new MessageListenerAdapter(chatEventSubscriber, "handleMessage");
-        messageAdapter.setSerializer(new StringRedisSerializer());
-        messageAdapter.afterPropertiesSet();
-        container.addMessageListener(messageAdapter, new ChannelTopic(CHAT_EVENTS_CHANNEL));
-        MessageListenerAdapter presenceAdapter = new MessageListenerAdapter(chatEventSubscriber, "handlePresence");
-        presenceAdapter.setSerializer(new StringRedisSerializer());
-        presenceAdapter.afterPropertiesSet();
-        container.addMessageListener(presenceAdapter, new ChannelTopic(PRESENCE_EVENTS_CHANNEL));
+        if (!WebSocketConfig.BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+            container.addMessageListener(
+                    (message, pattern) -> voteEventSubscriber.handleVoteTally(
+                            new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(VoteEventSubscriber.VOTE_TALLY_CHANNEL));
+        }
         return container;
     }
+    private static StreamReadRequest<String> readRequest(String stream, Consumer consumer) {
+        return StreamReadRequest.builder(StreamOffset.create(stream, ReadOffset.lastConsumed()))
+                .consumer(consumer)
+                .autoAcknowledge(true)
+                .cancelOnError(e -> false)
+                .build();
+    }
+    private static void ensureConsumerGroup(StringRedisTemplate redisTemplate, String stream, String group) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(stream.getBytes(StandardCharsets.UTF_8), group, ReadOffset.latest(), true));
+            log.info("Created consumer group '{}' on stream '{}'", group, stream);
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message != null && message.contains("BUSYGROUP")) {
+                log.debug("Consumer group '{}' on stream '{}' already exists", group, stream);
+            } else {
+                throw new IllegalStateException(
+                        "Failed to create consumer group '" + group + "' on stream '" + stream + "': " + message, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package org.spacelab.housingutilitiessystemchairman.config.database;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
+import org.spacelab.housingutilitiessystemchairman.entity.Vote;
+import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ConversationSummary;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+    static final Map<Class<?>, Set<String>> INDEXES = indexes();
+    private final MongoTemplate mongoTemplate;
+    private static Map<Class<?>, Set<String>> indexes() {
+        Map<Class<?>, Set<String>> indexes = new LinkedHashMap<>();
+        indexes.put(Conversation.class, Set.of("participants_updatedAt"));
+        indexes.put(ChatMessage.class, Set.of("conversation_createdAt"));
+        indexes.put(ConversationSummary.class, Set.of("owner_conversation", "owner_lastMessageTime", "participantId"));
+        indexes.put(Vote.class, Set.of("status_end_time"));
+        indexes.put(VoteRecord.class, Set.of("vote_vote_type", "vote_id"));
+        indexes.put(Receipt.class, Set.of("localDate_id", "billNumber_localDate", "bill_localDate", "receiptNumber"));
+        return indexes;
+    }
+    @PostConstruct
+    void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        INDEXES.forEach((entityClass, names) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+            resolver.resolveIndexFor(entityClass).forEach(index -> {
+                Object name = index.getIndexOptions().get("name");
+                if (!names.contains(name)) {
+                    return;
+                }
+                try {
+                    indexOps.createIndex(index);
+                } catch (Exception e) {
+                    log.error("❌ Failed to create index '{}' on {}: {}", name, entityClass.getSimpleName(), e.getMessage());
+                }
+            });
+        });
+    }
+}
@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.entity.chat.Conversation;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ConversationMembershipCache;
+import org.spacelab.housingutilitiessystemchairman.service.chat.LocalSessionRegistry;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessagingException;
@@ -22,6 +24,8 @@ import java.util.Set;
 @Slf4j
 public class ChatSubscriptionInterceptor implements ChannelInterceptor {
     private final ChairmanRepository chairmanRepository;
+    private final LocalSessionRegistry localSessionRegistry;
+    private final ConversationMembershipCache conversationMembershipCache;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -37,7 +41,7 @@ public class ChatSubscriptionInterceptor implements ChannelInterceptor {
                     log.warn("🚫 Subscription rejected: no principal");
                     throw new MessagingException("Требуется аутентификация для подписки на чат");
                 }
-                if (!hasAccessToConversation(principal.getName(), conversationId)) {
+                if (!hasAccessToConversation(accessor, principal.getName(), conversationId)) {
                     log.warn("🚫 Subscription rejected: user {} has no access to conversation {}",
                             principal.getName(), conversationId);
                     throw new MessagingException("Нет доступа к диалогу: " + conversationId);
@@ -49,7 +53,16 @@ public class ChatSubscriptionInterceptor implements ChannelInterceptor {
         return message;
     }
 
-    private boolean hasAccessToConversation(String userLogin, String conversationId) {
+    private boolean hasAccessToConversation(StompHeaderAccessor accessor, String userLogin, String conversationId) {
+        Optional<String> userId = localSessionRegistry.getUserId(accessor.getSessionId());
+        if (userId.isPresent() && conversationMembershipCache.isMember(userId.get(), conversationId,
+                accessor.getSessionAttributes())) {
+            return true;
+        }
+        return hasLegacyAccess(userLogin, conversationId);
+    }
+
+    private boolean hasLegacyAccess(String userLogin, String conversationId) {
         Optional<Chairman> chairmanOpt = chairmanRepository.findByLogin(userLogin);
         if (chairmanOpt.isEmpty()) {
             chairmanOpt = chairmanRepository.findByEmail(userLogin);
@@ -60,8 +73,12 @@ public class ChatSubscriptionInterceptor implements ChannelInterceptor {
                     if (conversations == null) {
                         return false;
                     }
-                    return conversations.stream()
+                    boolean member = conversations.stream()
                             .anyMatch(c -> c.getId().equals(conversationId));
+                    if (member) {
+                        conversationMembershipCache.remember(chairman.getId(), conversationId);
+                    }
+                    return member;
                 })
                 .orElse(false);
     }
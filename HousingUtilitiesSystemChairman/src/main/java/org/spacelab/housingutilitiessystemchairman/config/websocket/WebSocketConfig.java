@@ -2,18 +2,21 @@ package org.spacelab.housingutilitiessystemchairman.config.websocket;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.security.Principal;
@@ -23,10 +26,41 @@ import java.util.Map;
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    public static final String BROKER_MODE_RELAY = "relay";
     private final ChatSubscriptionInterceptor chatSubscriptionInterceptor;
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${chat.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+    @Value("${chat.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+    @Value("${chat.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+    @Value("${chat.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("📡 STOMP broker relay enabled: {}:{}", relayHost, relayPort);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -38,6 +72,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(10_000)
+                .setSendBufferSizeLimit(256 * 1024);
+    }
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(chatSubscriptionInterceptor);
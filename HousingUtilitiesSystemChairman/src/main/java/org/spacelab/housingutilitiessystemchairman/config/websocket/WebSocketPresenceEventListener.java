@@ -4,26 +4,24 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.entity.User;
-import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.UserRepository;
-import org.spacelab.housingutilitiessystemchairman.service.chat.ChatEventPublisher;
+import org.spacelab.housingutilitiessystemchairman.service.chat.LocalSessionRegistry;
+import org.spacelab.housingutilitiessystemchairman.service.chat.PresenceService;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
-
-import java.time.Instant;
-import java.util.Optional;
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class WebSocketPresenceEventListener {
     private final ChairmanRepository chairmanRepository;
     private final UserRepository userRepository;
-    private final ChatEventPublisher chatEventPublisher;
+    private final PresenceService presenceService;
+    private final LocalSessionRegistry localSessionRegistry;
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
@@ -31,9 +29,10 @@ public class WebSocketPresenceEventListener {
         if (auth != null && auth.isAuthenticated()) {
             String login = auth.getName();
             log.info("✅ USER CONNECTED: {}", login);
-            String userId = updateStatus(login, true);
+            String userId = resolveUserId(login);
             if (userId != null) {
-                publishPresenceEvent(userId, login, true);
+                localSessionRegistry.register(userId, accessor.getSessionId(), login);
+                presenceService.connect(userId, accessor.getSessionId());
             }
         }
     }
@@ -42,49 +41,18 @@ public class WebSocketPresenceEventListener {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
         Authentication auth = (Authentication) accessor.getUser();
         if (auth != null) {
-            String login = auth.getName();
-            log.info("❌ USER DISCONNECTED: {}", login);
-            String userId = updateStatus(login, false);
-            if (userId != null) {
-                publishPresenceEvent(userId, login, false);
-            }
+            log.info("❌ USER DISCONNECTED: {}", auth.getName());
+            localSessionRegistry.unregister(event.getSessionId())
+                    .ifPresent(userId -> presenceService.disconnect(userId, event.getSessionId()));
         }
     }
-    private String updateStatus(String login, boolean isOnline) {
-        Instant now = Instant.now();
-        String userId = null;
-        Optional<Chairman> chairmanOpt = chairmanRepository.findByLogin(login);
-        if (chairmanOpt.isPresent()) {
-            Chairman chairman = chairmanOpt.get();
-            chairman.setOnline(isOnline);
-            chairman.setLastActiveAt(now);
-            chairmanRepository.save(chairman);
-            userId = chairman.getId();
-            log.debug("Updated Chairman {} status to {}", login, isOnline ? "ONLINE" : "OFFLINE");
-        } else {
-            Optional<User> userOpt = userRepository.findByLogin(login);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                user.setOnline(isOnline);
-                user.setLastActiveAt(now);
-                userRepository.save(user);
-                userId = user.getId();
-                log.debug("Updated User {} status to {}", login, isOnline ? "ONLINE" : "OFFLINE");
-            }
+    private String resolveUserId(String login) {
+        String userId = chairmanRepository.findByLogin(login)
+                .map(Chairman::getId)
+                .orElseGet(() -> userRepository.findByLogin(login).map(User::getId).orElse(null));
+        if (userId == null) {
+            log.warn("User not found for login: {}", login);
         }
         return userId;
     }
-    private void publishPresenceEvent(String userId, String login, boolean isOnline) {
-        try {
-            ChatEvent event = ChatEvent.builder()
-                    .eventType(isOnline ? "USER_ONLINE" : "USER_OFFLINE")
-                    .targetUserId(userId)
-                    .isOnline(isOnline)
-                    .timestamp(Instant.now())
-                    .build();
-            chatEventPublisher.publishPresenceEvent(event);
-        } catch (Exception e) {
-            log.error("Failed to publish presence event for user {}: {}", login, e.getMessage());
-        }
-    }
-}
\ No newline at end of file
+}
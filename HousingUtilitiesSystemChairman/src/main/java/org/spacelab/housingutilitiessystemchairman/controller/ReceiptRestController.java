@@ -4,22 +4,67 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.models.PageResponse;
 import org.spacelab.housingutilitiessystemchairman.models.filters.receipt.ReceiptRequestTable;
+import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptBatchRenderRequest;
+import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptBatchRenderResponse;
 import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptResponseTable;
+import org.spacelab.housingutilitiessystemchairman.service.ReceiptRenderService;
 import org.spacelab.housingutilitiessystemchairman.service.ReceiptService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 @Slf4j
 @RestController
 @RequestMapping("/accounts")
 @RequiredArgsConstructor
 public class ReceiptRestController {
     private final ReceiptService receiptService;
+    private final ReceiptRenderService receiptRenderService;
     @PostMapping("/getAll")
     public ResponseEntity<PageResponse<ReceiptResponseTable>> getReceipts(@Valid @RequestBody ReceiptRequestTable requestTable) {
         log.debug("Loading receipts page {} with size {}", requestTable.getPage(), requestTable.getSize());
         return ResponseEntity.ok(receiptService.getReceiptsTable(requestTable));
     }
+    @GetMapping("/{id}/print")
+    public ResponseEntity<Resource> printReceipt(@PathVariable String id) {
+        try {
+            try {
+                return printable(receiptRenderService.render(id));
+            } catch (NoSuchFileException e) {
+                log.debug("Receipt {} was pruned by a newer render, rendering again", e.getFile());
+                return printable(receiptRenderService.render(id));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private static ResponseEntity<Resource> printable(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        return ResponseEntity.ok()
+                .eTag(fileName.substring(0, fileName.lastIndexOf('.')))
+                .lastModified(Files.getLastModifiedTime(file).toInstant())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(fileName.endsWith(".pdf") ? MediaType.APPLICATION_PDF
+                        : new MediaType("text", "html", StandardCharsets.UTF_8))
+                .body(new FileSystemResource(file));
+    }
+    @PostMapping("/print/batch")
+    public ResponseEntity<ReceiptBatchRenderResponse> printHouse(@Valid @RequestBody ReceiptBatchRenderRequest request) {
+        log.debug("Rendering receipts of house {} for {}", request.getHouseId(), request.getPeriod());
+        return ResponseEntity.ok(receiptRenderService.renderHouse(request.getHouseId(), request.getPeriod()));
+    }
 }
@@ -29,9 +29,10 @@ public class ChatSidebarController {
     @ResponseBody
     public ResponseEntity<List<ChatMessageResponse>> getMessages(
             @PathVariable String id,
+            @RequestParam(required = false) String before,
             @RequestParam(defaultValue = "50") int limit) {
-        log.debug("GET /chat/conversation/{}/messages?limit={}", id, limit);
-        return ResponseEntity.ok(chatService.getConversationMessages(id, limit));
+        log.debug("GET /chat/conversation/{}/messages?before={}&limit={}", id, before, limit);
+        return ResponseEntity.ok(chatService.getConversationMessages(id, before, limit));
     }
     @PostMapping("/conversation")
     @ResponseBody
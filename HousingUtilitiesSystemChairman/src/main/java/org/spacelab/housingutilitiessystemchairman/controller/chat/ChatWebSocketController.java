@@ -4,15 +4,23 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.exception.OperationException;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatEventReplayRequest;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatEventReplayResponse;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatHistoryRequest;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatMessageRequest;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemchairman.service.ChairmanService;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ChatEventReplayService;
 import org.spacelab.housingutilitiessystemchairman.service.chat.ChatService;
+import org.spacelab.housingutilitiessystemchairman.service.chat.LocalSessionRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -23,6 +31,9 @@ import java.security.Principal;
 public class ChatWebSocketController {
         private final ChatService chatService;
         private final ChairmanService chairmanService;
+        private final ChatEventReplayService chatEventReplayService;
+        private final LocalSessionRegistry localSessionRegistry;
+        private static final int DEFAULT_HISTORY_LIMIT = 50;
         @MessageMapping("/chat/{conversationId}/sendMessage")
         @SendTo("/topic/chat/{conversationId}")
         public ChatMessageResponse sendMessage(
@@ -49,4 +60,34 @@ public class ChatWebSocketController {
                 log.info("✅ Message processed and broadcasting to /topic/chat/{}", conversationId);
                 return response;
         }
+        @MessageMapping("/chat/{conversationId}/history")
+        @SendToUser(destinations = "/queue/chat/history", broadcast = false)
+        public ChatHistoryResponse loadHistory(
+                        @DestinationVariable String conversationId,
+                        @Payload ChatHistoryRequest request,
+                        Principal principal) {
+                String login = principal != null ? principal.getName() : null;
+                if (login == null) {
+                        throw new OperationException("загрузке сообщений", "Не удалось определить пользователя",
+                                        HttpStatus.UNAUTHORIZED);
+                }
+                Chairman chairman = chairmanService.findByEmail(login)
+                                .or(() -> chairmanService.findByLogin(login))
+                                .orElseThrow(() -> new OperationException("загрузке сообщений",
+                                                "Пользователь не найден: " + login, HttpStatus.UNAUTHORIZED));
+                int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_HISTORY_LIMIT;
+                log.debug("📥 WebSocket history request for conversation {} before {}", conversationId, request.getBefore());
+                return chatService.getConversationHistory(conversationId, request.getBefore(), limit, chairman);
+        }
+        @MessageMapping("/chat/events/replay")
+        @SendToUser(destinations = "/queue/sidebar/replay", broadcast = false)
+        public ChatEventReplayResponse replayEvents(
+                        @Payload ChatEventReplayRequest request,
+                        SimpMessageHeaderAccessor headerAccessor) {
+                String userId = localSessionRegistry.getUserId(headerAccessor.getSessionId())
+                                .orElseThrow(() -> new OperationException("восстановлении событий",
+                                                "Сессия не зарегистрирована", HttpStatus.UNAUTHORIZED));
+                log.debug("🔁 WebSocket replay request from {} since {}", userId, request.getLastEventId());
+                return chatEventReplayService.replaySince(userId, request.getLastEventId());
+        }
 }
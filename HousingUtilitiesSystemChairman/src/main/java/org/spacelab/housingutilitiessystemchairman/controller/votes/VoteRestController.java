@@ -11,10 +11,16 @@ import org.spacelab.housingutilitiessystemchairman.models.vote.VoteDetailRespons
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteParticipantResponse;
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteRequest;
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteResponseTable;
+import org.spacelab.housingutilitiessystemchairman.service.VoteExportService;
 import org.spacelab.housingutilitiessystemchairman.service.VoteService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 @RestController
@@ -23,6 +29,7 @@ import java.util.List;
 @Slf4j
 public class VoteRestController {
     private final VoteService voteService;
+    private final VoteExportService voteExportService;
     @PostMapping("/getAll")
     public ResponseEntity<PageResponse<VoteResponseTable>> getVotesTable(
             @Valid @RequestBody VoteRequestTable request) {
@@ -66,4 +73,22 @@ public class VoteRestController {
         request.setVoteId(id);
         return ResponseEntity.ok(voteService.getVoteParticipants(request));
     }
+    @GetMapping("/{id}/participants/export")
+    public ResponseEntity<StreamingResponseBody> exportVoteParticipants(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "xlsx") String format) {
+        voteService.findById(id).orElseThrow(() -> new RuntimeException("Vote not found: " + id));
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = csv
+                ? out -> voteExportService.writeCsv(id, out)
+                : out -> voteExportService.writeXlsx(id, out);
+        String filename = "vote-" + id + "-participants" + (csv ? ".csv" : ".xlsx");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString())
+                .contentType(csv
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+    }
 }
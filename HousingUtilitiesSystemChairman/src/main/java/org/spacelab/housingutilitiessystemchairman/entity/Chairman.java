@@ -38,8 +38,6 @@ public class Chairman implements UserDetails {
     private Role role = Role.USER;
     @Default
     private boolean enabled = true;
-    @Default
-    private boolean online = false;
     private Instant lastActiveAt;
     @DocumentReference(lazy = true)
     @ToString.Exclude
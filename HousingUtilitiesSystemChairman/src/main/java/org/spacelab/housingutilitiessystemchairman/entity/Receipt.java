@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -14,9 +17,17 @@ import java.time.LocalDate;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@CompoundIndexes({
+        @CompoundIndex(name = "localDate_id", def = "{'localDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "billNumber_localDate", def = "{'billNumber': 1, 'localDate': -1}"),
+        @CompoundIndex(name = "bill_localDate", def = "{'bill': 1, 'localDate': -1}")
+})
 public class Receipt {
     @Id
     private String id;
+    @Indexed
+    private String receiptNumber;
+    private String billNumber;
     @DocumentReference(
             lazy = true
     )
@@ -38,7 +38,6 @@ public class User {
         private String login;
         private String photo;
         private Role role = Role.USER;
-        private boolean online;
         private java.time.Instant lastActiveAt;
         @DocumentReference(lazy = true)
         private List<Bill> bills;
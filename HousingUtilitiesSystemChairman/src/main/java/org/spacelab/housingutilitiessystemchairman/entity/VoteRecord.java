@@ -1,10 +1,16 @@
 package org.spacelab.housingutilitiessystemchairman.entity;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 @Data
 @Document
+@CompoundIndexes({
+        @CompoundIndex(name = "vote_vote_type", def = "{'vote': 1, 'voteType': 1}"),
+        @CompoundIndex(name = "vote_id", def = "{'vote': 1, '_id': 1}")
+})
 public class VoteRecord {
     @Id
     private String id;
@@ -14,4 +20,5 @@ public class VoteRecord {
     private User user;
     private String voteType;
     private java.util.Date voteTime;
+    private Double apartmentArea;
 }
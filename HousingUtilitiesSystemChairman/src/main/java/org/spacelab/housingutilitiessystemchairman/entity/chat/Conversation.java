@@ -7,17 +7,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "conversation")
+@CompoundIndex(name = "participants_updatedAt", def = "{'participants.id': 1, 'updatedAt': -1}")
 public class Conversation {
     @Id
     private String id;
@@ -25,6 +28,7 @@ public class Conversation {
     @DocumentReference(lazy = true)
     @JsonManagedReference
     private Set<ChatMessage> messages;
+    private List<ChatParticipant> participants;
     @CreatedDate
     private Instant createdAt;
     private Instant updatedAt;
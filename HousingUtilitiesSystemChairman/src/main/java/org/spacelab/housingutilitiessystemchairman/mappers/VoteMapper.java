@@ -11,7 +11,6 @@ import org.springframework.data.domain.PageImpl;
 import java.util.List;
 @Mapper(componentModel = "spring")
 public interface VoteMapper {
-    @Mapping(target = "result", expression = "java(calculateResult(vote))")
     VoteResponseTable toResponseTable(Vote vote);
     List<VoteResponseTable> toResponseTableList(List<Vote> votes);
     default Page<VoteResponseTable> toResponseTablePage(Page<Vote> votes) {
@@ -32,19 +31,23 @@ public interface VoteMapper {
     @Mapping(target = "forVotesCount", constant = "0")
     @Mapping(target = "againstVotesCount", constant = "0")
     @Mapping(target = "abstentionsCount", constant = "0")
+    @Mapping(target = "forVotesArea", constant = "0.0")
+    @Mapping(target = "againstVotesArea", constant = "0.0")
+    @Mapping(target = "abstentionsArea", constant = "0.0")
+    @Mapping(target = "totalVotedArea", constant = "0.0")
+    @Mapping(target = "result", ignore = true)
+    @Mapping(target = "closedAt", ignore = true)
     Vote toEntity(VoteRequest request);
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "forVotesCount", ignore = true)
     @Mapping(target = "againstVotesCount", ignore = true)
     @Mapping(target = "abstentionsCount", ignore = true)
+    @Mapping(target = "forVotesArea", ignore = true)
+    @Mapping(target = "againstVotesArea", ignore = true)
+    @Mapping(target = "abstentionsArea", ignore = true)
+    @Mapping(target = "totalVotedArea", ignore = true)
+    @Mapping(target = "result", ignore = true)
+    @Mapping(target = "closedAt", ignore = true)
     void partialUpdate(VoteRequest request, @MappingTarget Vote vote);
-    default String calculateResult(Vote vote) {
-        if (vote == null || !"Закрыто".equals(vote.getStatus())) {
-            return null;
-        }
-        int forVotes = vote.getForVotesCount() != null ? vote.getForVotesCount() : 0;
-        int againstVotes = vote.getAgainstVotesCount() != null ? vote.getAgainstVotesCount() : 0;
-        return forVotes > againstVotes ? "Принято" : "Отклонено";
-    }
 }
@@ -21,10 +21,6 @@ public class ChatMapperHelper {
     public String getUserAvatar(User user) {
         return user != null ? user.getPhoto() : null;
     }
-    @Named("isUserOnline")
-    public boolean isUserOnline(User user) {
-        return user != null && user.isOnline();
-    }
     @Named("getLastMessageContent")
     public String getLastMessageContent(Conversation conversation) {
         List<ChatMessage> messages = chatMessageRepository.findLatestByConversationId(conversation.getId());
@@ -9,7 +9,7 @@ public interface ChatSidebarMapper {
     @Mapping(target = "id", source = "id")
     @Mapping(target = "name", expression = "java(user.getFullName())")
     @Mapping(target = "avatar", source = "photo")
-    @Mapping(target = "online", source = "online")
+    @Mapping(target = "online", ignore = true)
     @Mapping(target = "participantType", constant = "USER")
     ChatContactResponse mapToContactResponse(User user);
 }
@@ -16,4 +16,5 @@ public class ChatConversationResponse {
     String lastMessageTime;
     boolean online;
     String participantType;
+    int unreadCount;
 }
@@ -0,0 +1,13 @@
+package org.spacelab.housingutilitiessystemchairman.models.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEventReplayRequest {
+    private String lastEventId;
+}
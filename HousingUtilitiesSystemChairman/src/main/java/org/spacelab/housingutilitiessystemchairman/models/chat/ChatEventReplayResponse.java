@@ -0,0 +1,18 @@
+package org.spacelab.housingutilitiessystemchairman.models.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
+
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEventReplayResponse {
+    private List<ChatEvent> events;
+    private String lastEventId;
+    private boolean resyncRequired;
+}
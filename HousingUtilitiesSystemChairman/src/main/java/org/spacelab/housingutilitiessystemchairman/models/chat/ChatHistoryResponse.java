@@ -0,0 +1,18 @@
+package org.spacelab.housingutilitiessystemchairman.models.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryResponse {
+    private String conversationId;
+    private List<ChatMessageResponse> messages;
+    private String nextBefore;
+    private boolean hasMore;
+}
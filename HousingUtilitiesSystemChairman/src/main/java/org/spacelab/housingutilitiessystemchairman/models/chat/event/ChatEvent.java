@@ -12,6 +12,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatEvent implements Serializable {
+    private String eventId;
     private String eventType;
     private String targetUserId;
     private String targetUserRole;
@@ -7,4 +7,6 @@ public class ReceiptRequestTable {
     private String receiptNumber;
     private String billNumber;
     private String date;
+    private String dateFrom;
+    private String dateTo;
 }
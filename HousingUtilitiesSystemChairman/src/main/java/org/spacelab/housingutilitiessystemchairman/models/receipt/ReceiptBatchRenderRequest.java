@@ -0,0 +1,12 @@
+package org.spacelab.housingutilitiessystemchairman.models.receipt;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.time.YearMonth;
+@Data
+public class ReceiptBatchRenderRequest {
+    @NotBlank(message = "House is required")
+    private String houseId;
+    @NotNull(message = "Billing period is required")
+    private YearMonth period;
+}
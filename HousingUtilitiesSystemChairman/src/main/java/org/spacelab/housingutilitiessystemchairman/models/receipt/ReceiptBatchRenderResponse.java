@@ -0,0 +1,17 @@
+package org.spacelab.housingutilitiessystemchairman.models.receipt;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.YearMonth;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptBatchRenderResponse {
+    private String houseId;
+    private YearMonth period;
+    private int receipts;
+    private int rendered;
+    private int cached;
+}
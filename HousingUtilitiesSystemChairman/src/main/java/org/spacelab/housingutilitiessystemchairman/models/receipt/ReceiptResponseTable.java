@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReceiptResponseTable {
+    private String id;
     private String receiptNumber;
     private String billNumber;
     private String formattedDate;
@@ -0,0 +1,25 @@
+package org.spacelab.housingutilitiessystemchairman.models.vote;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteTallySnapshot {
+    private String voteId;
+    private String status;
+    private Integer forVotesCount;
+    private Integer againstVotesCount;
+    private Integer abstentionsCount;
+    private Double forVotesArea;
+    private Double againstVotesArea;
+    private Double abstentionsArea;
+    private Double totalVotedArea;
+    private Double quorumArea;
+    private Date updatedAt;
+}
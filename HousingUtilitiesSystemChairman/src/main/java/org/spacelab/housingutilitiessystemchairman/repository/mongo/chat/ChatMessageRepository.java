@@ -7,12 +7,21 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
-    @Query(value = "{'conversation': ObjectId(?0)}", sort = "{'createdAt': -1}")
+    @Query(value = "{'conversation': ObjectId(?0)}", sort = "{'createdAt': -1, '_id': -1}")
     List<ChatMessage> findByConversationId(String conversationId, Pageable pageable);
+    @Query("{'_id': ObjectId(?0), 'conversation': ObjectId(?1)}")
+    Optional<ChatMessage> findByIdAndConversationId(String id, String conversationId);
+    @Query(value = "{'conversation': ObjectId(?0), $or: [{'createdAt': {$lt: ?1}}, {'createdAt': ?1, '_id': {$lt: ObjectId(?2)}}]}",
+            sort = "{'createdAt': -1, '_id': -1}")
+    List<ChatMessage> findByConversationIdBefore(String conversationId, Instant createdAt, String messageId,
+            Pageable pageable);
+    @Query(value = "{'conversation': ObjectId(?0), 'createdAt': {$lt: ?1}}", sort = "{'createdAt': -1, '_id': -1}")
+    List<ChatMessage> findByConversationIdBefore(String conversationId, Instant createdAt, Pageable pageable);
     @Query(value = "{'conversation': ObjectId(?0)}", sort = "{'createdAt': -1}")
     List<ChatMessage> findLatestByConversationId(String conversationId);
 
@@ -1,6 +1,7 @@
 package org.spacelab.housingutilitiessystemchairman.repository.mongo.chat;
 
 import org.spacelab.housingutilitiessystemchairman.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemchairman.repository.mongo.custom.ConversationRepositoryCustom;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -8,11 +9,16 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 @Repository
-public interface ConversationRepository extends MongoRepository<Conversation, String> {
+public interface ConversationRepository extends MongoRepository<Conversation, String>, ConversationRepositoryCustom {
     @Query(value = "{'user': ObjectId(?0)}", sort = "{updatedAt: -1}")
     List<Conversation> findByUser(String userId);
     @Query(value = "{'chairman': ?0}", sort = "{updatedAt: -1}")
     List<Conversation> findByChairman(String chairmanId);
     @Query("{'chairman': ?0, 'user': ObjectId(?1)}")
     Optional<Conversation> findByChairmanIdAndUserId(String chairmanId, String userId);
+    @Query(value = "{'participants.id': ?0}", sort = "{updatedAt: -1}")
+    List<Conversation> findByParticipantId(String participantId);
+    @Query(value = "{'participants.id': {$all: [?0, ?1]}}", sort = "{updatedAt: -1}")
+    List<Conversation> findByParticipantIds(String firstParticipantId, String secondParticipantId);
+    boolean existsByIdAndParticipantsId(String id, String participantId);
 }
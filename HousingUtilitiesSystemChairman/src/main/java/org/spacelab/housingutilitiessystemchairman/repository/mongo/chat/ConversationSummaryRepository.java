@@ -0,0 +1,13 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.chat;
+
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ConversationSummary;
+import org.spacelab.housingutilitiessystemchairman.repository.mongo.custom.ConversationSummaryRepositoryCustom;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+@Repository
+public interface ConversationSummaryRepository extends MongoRepository<ConversationSummary, String>,
+        ConversationSummaryRepositoryCustom {
+    List<ConversationSummary> findByOwnerIdOrderByLastMessageTimeDesc(String ownerId);
+}
@@ -0,0 +1,7 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
+
+import java.util.List;
+public interface ConversationRepositoryCustom {
+    List<String> findConversationIds(Class<?> ownerType, String ownerId);
+    void linkConversation(Class<?> ownerType, String ownerId, String conversationId);
+}
@@ -0,0 +1,50 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationRepositoryImpl implements ConversationRepositoryCustom {
+    private static final String CONVERSATIONS_FIELD = "conversations";
+    private final MongoTemplate mongoTemplate;
+    @Override
+    public List<String> findConversationIds(Class<?> ownerType, String ownerId) {
+        Query query = ownerQuery(ownerId);
+        query.fields().include(CONVERSATIONS_FIELD);
+        Document owner = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(ownerType));
+        List<String> ids = new ArrayList<>();
+        if (owner == null || !(owner.get(CONVERSATIONS_FIELD) instanceof List<?> references)) {
+            return ids;
+        }
+        for (Object reference : references) {
+            if (reference instanceof ObjectId objectId) {
+                ids.add(objectId.toHexString());
+            } else if (reference != null) {
+                ids.add(reference.toString());
+            }
+        }
+        return ids;
+    }
+    @Override
+    public void linkConversation(Class<?> ownerType, String ownerId, String conversationId) {
+        Update update = new Update().addToSet(CONVERSATIONS_FIELD, toStoredId(conversationId));
+        mongoTemplate.updateFirst(ownerQuery(ownerId), update, mongoTemplate.getCollectionName(ownerType));
+    }
+    private Query ownerQuery(String ownerId) {
+        return Query.query(Criteria.where("_id").is(toStoredId(ownerId)));
+    }
+    private Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,12 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatParticipant;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ConversationSummary;
+
+import java.time.Instant;
+public interface ConversationSummaryRepositoryCustom {
+    void initSummary(String ownerId, String conversationId, ChatParticipant participant);
+    void recordMessage(String ownerId, String conversationId, ChatParticipant participant,
+            String lastMessage, Instant lastMessageTime, boolean unread);
+    void resetUnread(String ownerId, String conversationId);
+    void backfillSummary(ConversationSummary summary);
+}
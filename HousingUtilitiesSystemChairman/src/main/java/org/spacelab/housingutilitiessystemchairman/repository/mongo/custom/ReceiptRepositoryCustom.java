@@ -4,4 +4,5 @@ import org.spacelab.housingutilitiessystemchairman.models.filters.receipt.Receip
 import org.springframework.data.domain.Page;
 public interface ReceiptRepositoryCustom {
     Page<Receipt> findReceiptsWithFilters(ReceiptRequestTable filter);
+    int backfillNumbers(int batchSize);
 }
@@ -2,127 +2,135 @@ package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.spacelab.housingutilitiessystemchairman.entity.Bill;
 import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
 import org.spacelab.housingutilitiessystemchairman.models.filters.receipt.ReceiptRequestTable;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
 
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class ReceiptRepositoryImpl implements ReceiptRepositoryCustom {
+    static final int MAX_PAGE_SIZE = 100;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "localDate").and(Sort.by(Sort.Direction.DESC, "_id"));
     private final MongoTemplate mongoTemplate;
     @Override
     public Page<Receipt> findReceiptsWithFilters(ReceiptRequestTable filter) {
         log.debug("Building aggregation for receipts with filters: {}", filter);
         int page = Math.max(filter.getPage(), 0);
-        int size = filter.getSize() <= 0 ? 10 : filter.getSize();
-        Pageable pageable = PageRequest.of(
-                page,
-                size,
-                Sort.by(Sort.Direction.DESC, "localDate")
-        );
-        long totalCount = countReceiptsWithFilters(filter);
-        List<Receipt> receipts = findReceiptsWithFiltersInternal(filter, pageable);
-        return new PageImpl<>(receipts, pageable, totalCount);
+        int size = filter.getSize() <= 0 ? 10 : Math.min(filter.getSize(), MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(page, size, NEWEST_FIRST);
+        List<Criteria> criteria = buildCriteria(filter);
+        Aggregation aggregation = newAggregation(
+                match(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria.toArray(new Criteria[0]))),
+                sort(NEWEST_FIRST),
+                facet(skip(pageable.getOffset()), limit(pageable.getPageSize()))
+                        .as("rows")
+                        .and(count().as("total"))
+                        .as("total"));
+        ReceiptFacet facet = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Receipt.class),
+                ReceiptFacet.class).getUniqueMappedResult();
+        List<Receipt> receipts = facet != null && facet.rows() != null ? facet.rows() : List.of();
+        long total = facet != null && facet.total() != null && !facet.total().isEmpty()
+                ? facet.total().get(0).total() : 0L;
+        return new PageImpl<>(receipts, pageable, total);
     }
-    private List<Receipt> findReceiptsWithFiltersInternal(ReceiptRequestTable filter, Pageable pageable) {
-        List<AggregationOperation> operations = new ArrayList<>();
-        List<Criteria> preLookupCriteria = buildPreLookupCriteria(filter);
-        if (!preLookupCriteria.isEmpty()) {
-            operations.add(match(new Criteria().andOperator(preLookupCriteria.toArray(new Criteria[0]))));
-        }
-        operations.add(sort(pageable.getSort()));
-        operations.add(skip((long) pageable.getPageNumber() * pageable.getPageSize()));
-        operations.add(limit(pageable.getPageSize()));
-        if (needsBillLookup(filter)) {
-            operations.add(lookup("bill", "bill", "_id", "billData"));
-            operations.add(unwind("billData", true));
-        }
-        List<Criteria> postLookupCriteria = buildPostLookupCriteria(filter);
-        if (!postLookupCriteria.isEmpty()) {
-            operations.add(match(new Criteria().andOperator(postLookupCriteria.toArray(new Criteria[0]))));
-        }
-        Aggregation aggregation = newAggregation(operations);
-        return mongoTemplate.aggregate(aggregation, "receipt", Receipt.class).getMappedResults();
-    }
-    private long countReceiptsWithFilters(ReceiptRequestTable filter) {
-        List<Criteria> preLookupCriteria = buildPreLookupCriteria(filter);
-        if (preLookupCriteria.isEmpty() && !needsBillLookup(filter)) {
-            return mongoTemplate.count(new org.springframework.data.mongodb.core.query.Query(), Receipt.class);
-        }
-        if (!needsBillLookup(filter)) {
-            org.springframework.data.mongodb.core.query.Query query = new org.springframework.data.mongodb.core.query.Query();
-            query.addCriteria(new Criteria().andOperator(preLookupCriteria.toArray(new Criteria[0])));
-            return mongoTemplate.count(query, Receipt.class);
-        }
-        return countWithAggregation(filter, preLookupCriteria);
-    }
-    private long countWithAggregation(ReceiptRequestTable filter, List<Criteria> preLookupCriteria) {
-        List<AggregationOperation> operations = new ArrayList<>();
-        if (!preLookupCriteria.isEmpty()) {
-            operations.add(match(new Criteria().andOperator(preLookupCriteria.toArray(new Criteria[0]))));
+    @Override
+    public int backfillNumbers(int batchSize) {
+        String receiptCollection = mongoTemplate.getCollectionName(Receipt.class);
+        Query missing = query(new Criteria().orOperator(
+                where("receiptNumber").exists(false), where("billNumber").exists(false))).limit(batchSize);
+        missing.fields().include("bill", "receiptNumber", "billNumber");
+        List<Document> receipts = mongoTemplate.find(missing, Document.class, receiptCollection);
+        if (receipts.isEmpty()) {
+            return 0;
         }
-        if (needsBillLookup(filter)) {
-            operations.add(lookup("bill", "bill", "_id", "billData"));
-            operations.add(unwind("billData", true));
+        List<Object> billRefs = receipts.stream().map(receipt -> receipt.get("bill")).filter(Objects::nonNull).distinct().toList();
+        Map<String, String> billNumbers = new HashMap<>();
+        if (!billRefs.isEmpty()) {
+            Query billsQuery = query(where("_id").in(billRefs));
+            billsQuery.fields().include("billNumber");
+            for (Document bill : mongoTemplate.find(billsQuery, Document.class, mongoTemplate.getCollectionName(Bill.class))) {
+                billNumbers.put(bill.get("_id").toString(), bill.getString("billNumber"));
+            }
         }
-        List<Criteria> postLookupCriteria = buildPostLookupCriteria(filter);
-        if (!postLookupCriteria.isEmpty()) {
-            operations.add(match(new Criteria().andOperator(postLookupCriteria.toArray(new Criteria[0]))));
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, receiptCollection);
+        for (Document receipt : receipts) {
+            Update update = new Update();
+            if (!receipt.containsKey("receiptNumber")) {
+                update.set("receiptNumber", receipt.get("_id").toString());
+            }
+            if (!receipt.containsKey("billNumber")) {
+                Object bill = receipt.get("bill");
+                update.set("billNumber", bill != null ? billNumbers.get(bill.toString()) : null);
+            }
+            updates.updateOne(query(where("_id").is(receipt.get("_id"))), update);
         }
-        operations.add(count().as("total"));
-        Aggregation aggregation = newAggregation(operations);
-        org.bson.Document result = mongoTemplate.aggregate(aggregation, "receipt", org.bson.Document.class)
-                .getUniqueMappedResult();
-        return result != null ? ((Number) result.get("total")).longValue() : 0;
+        updates.execute();
+        log.info("Backfilled receipt and bill numbers on {} receipts", receipts.size());
+        return receipts.size();
     }
-    private List<Criteria> buildPreLookupCriteria(ReceiptRequestTable filter) {
+    private List<Criteria> buildCriteria(ReceiptRequestTable filter) {
         List<Criteria> criteriaList = new ArrayList<>();
         if (StringUtils.hasText(filter.getReceiptNumber())) {
-            String receiptPattern = filter.getReceiptNumber().trim();
-            criteriaList.add(Criteria.where("_id").regex(receiptPattern, "i"));
+            criteriaList.add(where("receiptNumber").regex(prefix(filter.getReceiptNumber())));
         }
         if (StringUtils.hasText(filter.getBillNumber())) {
+            criteriaList.add(where("billNumber").regex(prefix(filter.getBillNumber())));
         }
-        if (StringUtils.hasText(filter.getDate())) {
-            String dateText = filter.getDate().trim();
-            LocalDate parsedDate = parseDate(dateText);
-            if (parsedDate != null) {
-                criteriaList.add(Criteria.where("localDate").is(parsedDate));
-            }
+        LocalDate date = parseDate(filter.getDate());
+        if (date != null) {
+            criteriaList.add(where("localDate").is(date));
         }
-        return criteriaList;
-    }
-    private List<Criteria> buildPostLookupCriteria(ReceiptRequestTable filter) {
-        List<Criteria> criteriaList = new ArrayList<>();
-        if (StringUtils.hasText(filter.getBillNumber())) {
-            String billPattern = filter.getBillNumber().trim();
-            criteriaList.add(Criteria.where("billData._id").regex(billPattern, "i"));
+        LocalDate dateFrom = parseDate(filter.getDateFrom());
+        LocalDate dateTo = parseDate(filter.getDateTo());
+        if (dateFrom != null && dateTo != null) {
+            criteriaList.add(where("localDate").gte(dateFrom).lte(dateTo));
+        } else if (dateFrom != null) {
+            criteriaList.add(where("localDate").gte(dateFrom));
+        } else if (dateTo != null) {
+            criteriaList.add(where("localDate").lte(dateTo));
         }
         return criteriaList;
     }
-    private boolean needsBillLookup(ReceiptRequestTable filter) {
-        return StringUtils.hasText(filter.getBillNumber());
+    private static String prefix(String value) {
+        return "^" + Pattern.quote(value.trim());
     }
     private LocalDate parseDate(String dateText) {
+        if (!StringUtils.hasText(dateText)) {
+            return null;
+        }
         try {
-            return LocalDate.parse(dateText, DATE_FORMATTER);
+            return LocalDate.parse(dateText.trim(), DATE_FORMATTER);
         } catch (Exception ex) {
             log.debug("Failed to parse date '{}' with formatter '{}': {}", dateText, DATE_FORMATTER, ex.getMessage());
             return null;
         }
     }
+    record ReceiptFacet(List<Receipt> rows, List<FacetTotal> total) {
+    }
+    record FacetTotal(Long total) {
+    }
 }
@@ -2,38 +2,46 @@ package org.spacelab.housingutilitiessystemchairman.security;
 
 import lombok.RequiredArgsConstructor;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
-import org.spacelab.housingutilitiessystemchairman.entity.Role;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import org.spacelab.housingutilitiessystemchairman.service.PrincipalCacheService;
+import org.spacelab.housingutilitiessystemchairman.service.PrincipalCacheService.CachedPrincipal;
+import org.spacelab.housingutilitiessystemchairman.service.TokenVersionService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.Collection;
-import java.util.Collections;
 @Service
 @RequiredArgsConstructor
 public class ChairmanUserDetailsService implements UserDetailsService {
     private final ChairmanRepository chairmanRepository;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalCacheService principalCacheService;
     @Override
     public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
-        Chairman chairman = chairmanRepository.findByEmail(login)
+        Chairman chairman = findChairman(login);
+        CachedPrincipal principal = toCachedPrincipal(chairman);
+        principalCacheService.put(login, principal);
+        return principal.toPrincipal(chairman.getPassword(), tokenVersionService.currentVersionOrNull(principal.id()));
+    }
+    public UserDetails loadPrincipal(String login) throws UsernameNotFoundException {
+        CachedPrincipal principal = principalCacheService.get(login);
+        if (principal == null) {
+            principal = toCachedPrincipal(findChairman(login));
+            principalCacheService.put(login, principal);
+        }
+        return principal.toPrincipal(tokenVersionService.currentVersionOrNull(principal.id()));
+    }
+    private Chairman findChairman(String login) {
+        return chairmanRepository.findByEmail(login)
                 .or(() -> chairmanRepository.findByLogin(login))
                 .orElseThrow(() -> new UsernameNotFoundException("Председатель с login " + login + " не найден"));
-        return new User(
+    }
+    private static CachedPrincipal toCachedPrincipal(Chairman chairman) {
+        return new CachedPrincipal(
+                chairman.getId(),
                 chairman.getLogin(),
-                chairman.getPassword(),
                 chairman.isEnabled(),
-                true,
-                true,
-                true,
-                mapRolesToAuthorities(chairman.getRole())
+                chairman.getRole().name()
         );
     }
-    private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Role role) {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
-    }
 }
@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.service.JwtService;
+import org.spacelab.housingutilitiessystemchairman.service.TokenVersionService;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -32,6 +33,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     public static final String REFRESH_TOKEN_COOKIE = "refresh-token";
     private static final String SECURITY_CONTEXT_ATTR = "SAVED_SECURITY_CONTEXT";
     private final JwtService jwtService;
+    private final TokenVersionService tokenVersionService;
     private final ChairmanUserDetailsService userDetailsService;
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -77,10 +79,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         } else {
             try {
-                var username = jwtService.extractUserName(accessToken);
-                if (StringUtils.hasText(username)) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtService.isTokenValid(accessToken, userDetails)) {
+                VerifiedJwt verifiedToken = jwtService.verify(accessToken);
+                var username = verifiedToken.getSubject();
+                if (StringUtils.hasText(username) && !authenticateFromClaims(verifiedToken, request, response)) {
+                    UserDetails userDetails = userDetailsService.loadPrincipal(username);
+                    if (jwtService.isTokenValid(verifiedToken, userDetails)) {
                         authenticateUser(userDetails, request);
                         log.debug("✅ Пользователь {} аутентифицирован через access token", username);
                     } else {
@@ -99,6 +102,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+    private boolean authenticateFromClaims(VerifiedJwt token, HttpServletRequest request, HttpServletResponse response) {
+        JwtPrincipal principal = jwtService.extractPrincipal(token);
+        if (principal == null) {
+            return false;
+        }
+        long currentVersion;
+        try {
+            currentVersion = tokenVersionService.currentVersion(principal.getId());
+        } catch (Exception e) {
+            log.warn("Версия токена недоступна, проверяем пользователя в базе: {}", e.getMessage());
+            return false;
+        }
+        if (currentVersion == principal.getTokenVersion()) {
+            authenticateUser(principal, request);
+            log.debug("✅ Пользователь {} аутентифицирован по данным access token", principal.getUsername());
+        } else {
+            log.info("⚠️ Access token пользователя {} отозван, пробуем refresh", principal.getUsername());
+            tryCreateAccessTokenFromRefresh(request, response);
+        }
+        return true;
+    }
     private boolean tryCreateAccessTokenFromRefresh(HttpServletRequest request, HttpServletResponse response) {
         Optional<String> refreshToken = getCookieValue(request, REFRESH_TOKEN_COOKIE);
         if (refreshToken.isEmpty()) {
@@ -106,13 +130,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return false;
         }
         try {
-            String username = jwtService.extractUserName(refreshToken.get());
+            VerifiedJwt verifiedRefreshToken = jwtService.verify(refreshToken.get());
+            String username = verifiedRefreshToken.getSubject();
             if (!StringUtils.hasText(username)) {
                 log.warn("Username не извлечен из refresh token");
                 return false;
             }
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(refreshToken.get(), userDetails)) {
+            UserDetails userDetails = userDetailsService.loadPrincipal(username);
+            if (userDetails.isEnabled() && jwtService.isTokenValid(verifiedRefreshToken, userDetails)) {
                 String newAccessToken = jwtService.generateToken(userDetails);
                 Cookie accessCookie = createAccessTokenCookie(newAccessToken);
                 response.addCookie(accessCookie);
@@ -131,7 +156,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private void tryRefreshAccessToken(HttpServletRequest request, HttpServletResponse response,
             UserDetails userDetails) {
         Optional<String> refreshToken = getCookieValue(request, REFRESH_TOKEN_COOKIE);
-        if (refreshToken.isPresent() && jwtService.isTokenValid(refreshToken.get(), userDetails)) {
+        if (refreshToken.isPresent() && userDetails.isEnabled()
+                && jwtService.isTokenValid(refreshToken.get(), userDetails)) {
             String newAccessToken = jwtService.generateToken(userDetails);
             Cookie accessCookie = createAccessTokenCookie(newAccessToken);
             response.addCookie(accessCookie);
@@ -0,0 +1,23 @@
+package org.spacelab.housingutilitiessystemchairman.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.time.Instant;
+@Getter
+public final class VerifiedJwt {
+    private final String subject;
+    private final Instant expiresAt;
+    private final Claims claims;
+    public VerifiedJwt(Claims claims) {
+        this.subject = claims.getSubject();
+        this.expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        this.claims = claims;
+    }
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+    public <T> T get(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+}
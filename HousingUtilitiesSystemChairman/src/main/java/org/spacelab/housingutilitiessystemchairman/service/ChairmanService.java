@@ -59,12 +59,4 @@ public class ChairmanService {
     public boolean existsById(String id) {
         return chairmanRepository.existsById(id);
     }
-    public void updateOnlineStatus(String login, boolean isOnline) {
-        log.info("Updating online status for user: {} to {}", login, isOnline);
-        chairmanRepository.findByLogin(login).ifPresentOrElse(chairman -> {
-            chairman.setOnline(isOnline);
-            chairmanRepository.save(chairman);
-            log.info("Updated online status for chairman: {}", chairman.getId());
-        }, () -> log.warn("Chairman not found with login: {}", login));
-    }
 }
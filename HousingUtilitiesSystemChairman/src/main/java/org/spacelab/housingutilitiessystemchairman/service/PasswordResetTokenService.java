@@ -19,6 +19,7 @@ public class PasswordResetTokenService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final ChairmanRepository chairmanRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCacheService principalCacheService;
     public void updatePassword(String token, String password) {
         log.debug("updatePassword() - Starting password update for token: {}", token);
         PasswordResetToken passwordResetToken = passwordResetTokenRepository
@@ -31,6 +32,7 @@ public class PasswordResetTokenService {
         );
         managedChairman.setPassword(passwordEncoder.encode(password));
         chairmanRepository.save(managedChairman);
+        principalCacheService.evict(managedChairman.getLogin(), managedChairman.getEmail());
         log.debug("updatePassword() - Password updated successfully for chairman: {}", managedChairman.getEmail());
     }
     public boolean validatePasswordResetToken(String token) {
@@ -0,0 +1,124 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.security.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCacheService {
+    public static final String PRINCIPAL_KEY_PREFIX = "auth:principal:";
+    public static final String PRINCIPAL_CHANGED_CHANNEL = "auth:principal-changed";
+    public static final String REALM = "chairman";
+    static final int MAX_LOCAL_PRINCIPALS = 10_000;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${security.principal-cache.local-ttl:PT30S}")
+    private Duration localTtl;
+    @Value("${security.principal-cache.redis-ttl:PT10M}")
+    private Duration redisTtl;
+    private final Map<String, LocalEntry> localPrincipals = new ConcurrentHashMap<>();
+    public CachedPrincipal get(String login) {
+        LocalEntry local = localPrincipals.get(login);
+        if (local != null) {
+            if (!local.isExpired()) {
+                return local.principal();
+            }
+            localPrincipals.remove(login);
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(key(REALM, login));
+            if (json == null) {
+                return null;
+            }
+            CachedPrincipal principal = objectMapper.readValue(json, CachedPrincipal.class);
+            putLocal(login, principal);
+            return principal;
+        } catch (Exception e) {
+            log.warn("Cached principal for {} unavailable: {}", login, e.getMessage());
+            return null;
+        }
+    }
+    public void put(String login, CachedPrincipal principal) {
+        putLocal(login, principal);
+        try {
+            redisTemplate.opsForValue().set(key(REALM, login), objectMapper.writeValueAsString(principal), redisTtl);
+        } catch (Exception e) {
+            log.warn("Failed to cache principal for {}: {}", login, e.getMessage());
+        }
+    }
+    public void evict(String... logins) {
+        List<String> keys = distinctLogins(logins);
+        if (keys.isEmpty()) {
+            return;
+        }
+        keys.forEach(localPrincipals::remove);
+        try {
+            redisTemplate.delete(keys.stream().map(login -> key(REALM, login)).toList());
+            redisTemplate.convertAndSend(PRINCIPAL_CHANGED_CHANNEL,
+                    objectMapper.writeValueAsString(new PrincipalChangedEvent(REALM, keys)));
+        } catch (Exception e) {
+            log.error("❌ Failed to invalidate cached principals {}: {}", keys, e.getMessage());
+        }
+    }
+    public void handlePrincipalChanged(String payload) {
+        try {
+            PrincipalChangedEvent event = objectMapper.readValue(payload, PrincipalChangedEvent.class);
+            if (REALM.equals(event.realm()) && event.logins() != null) {
+                event.logins().forEach(localPrincipals::remove);
+                log.debug("Evicted cached principals {}", event.logins());
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to handle principal change {}: {}", payload, e.getMessage());
+        }
+    }
+    private void putLocal(String login, CachedPrincipal principal) {
+        if (localPrincipals.size() >= MAX_LOCAL_PRINCIPALS) {
+            localPrincipals.values().removeIf(LocalEntry::isExpired);
+            if (localPrincipals.size() >= MAX_LOCAL_PRINCIPALS) {
+                localPrincipals.clear();
+            }
+        }
+        localPrincipals.put(login, new LocalEntry(principal, Instant.now().plus(localTtl)));
+    }
+    private static List<String> distinctLogins(String... logins) {
+        return Arrays.stream(logins)
+                .filter(Objects::nonNull)
+                .filter(login -> !login.isBlank())
+                .distinct()
+                .toList();
+    }
+    static String key(String realm, String login) {
+        return PRINCIPAL_KEY_PREFIX + realm + ":" + login;
+    }
+    public record CachedPrincipal(String id, String username, boolean enabled, String role) {
+        public JwtPrincipal toPrincipal(Long tokenVersion) {
+            return toPrincipal("", tokenVersion);
+        }
+        public JwtPrincipal toPrincipal(String password, Long tokenVersion) {
+            return new JwtPrincipal(id, username, password, enabled,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role)), tokenVersion);
+        }
+    }
+    public record PrincipalChangedEvent(String realm, Collection<String> logins) {
+    }
+    private record LocalEntry(CachedPrincipal principal, Instant expiresAt) {
+        boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemchairman.entity.Bill;
+import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.location.House;
+import org.spacelab.housingutilitiessystemchairman.entity.location.Street;
+import org.spacelab.housingutilitiessystemchairman.exception.OperationException;
+import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptBatchRenderResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+@Slf4j
+@Service
+public class ReceiptRenderService {
+    static final String TEMPLATE = "receipt";
+    private static final String TEMPLATE_LOCATION = "templates/print/";
+    static final String PDF_RENDERER = "com.openhtmltopdf.pdfboxout.PdfRendererBuilder";
+    private static final String PDF_FONT_FAMILY = "DejaVu Sans";
+    private static final String HTML_EXTENSION = ".html";
+    private static final String PDF_EXTENSION = ".pdf";
+    private static final String NO_VALUE = "-";
+    private static final Locale LOCALE = Locale.forLanguageTag("ru");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final String[] RECEIPT_FIELDS = {"receiptNumber", "bill", "localDate"};
+    private static final String[] BILL_FIELDS = {"billNumber", "date", "owner"};
+    private static final String[] OWNER_FIELDS = {"lastName", "firstName", "middleName", "accountNumber",
+            "apartmentNumber", "houseNumber", "street"};
+    private final MongoTemplate mongoTemplate;
+    private final Executor workers;
+    private final SpringTemplateEngine templateEngine = compiledTemplates();
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private String templateDigest;
+    private Class<?> pdfRenderer;
+    @Value("${receipt.render.cache-dir:${java.io.tmpdir}/housing-receipts-chairman}")
+    private Path cacheDir;
+    @Value("${receipt.render.pdf.enabled:true}")
+    private boolean pdfEnabled;
+    @Value("${receipt.render.pdf.font:}")
+    private String pdfFont;
+    @Autowired
+    public ReceiptRenderService(MongoTemplate mongoTemplate,
+                                @Value("${receipt.render.workers:4}") int workers,
+                                @Value("${receipt.render.queue-capacity:200}") int queueCapacity) {
+        this(mongoTemplate, new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("receipt-render-"), new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+    ReceiptRenderService(MongoTemplate mongoTemplate, Executor workers) {
+        this.mongoTemplate = mongoTemplate;
+        this.workers = workers;
+    }
+    private static SpringTemplateEngine compiledTemplates() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(TEMPLATE_LOCATION);
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+        return engine;
+    }
+    @PostConstruct
+    void compileTemplate() {
+        try (InputStream template = getClass().getClassLoader()
+                .getResourceAsStream(TEMPLATE_LOCATION + TEMPLATE + ".html")) {
+            if (template == null) {
+                throw new IllegalStateException("Receipt template " + TEMPLATE_LOCATION + TEMPLATE + ".html is missing");
+            }
+            templateDigest = sha256(template.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        templateEngine.process(TEMPLATE, new Context(LOCALE));
+        ClassLoader classLoader = getClass().getClassLoader();
+        pdfRenderer = pdfEnabled && ClassUtils.isPresent(PDF_RENDERER, classLoader)
+                ? ClassUtils.resolveClassName(PDF_RENDERER, classLoader) : null;
+        if (pdfRenderer != null && !(StringUtils.hasText(pdfFont) && Files.isReadable(Path.of(pdfFont)))) {
+            log.warn("⚠️ Receipt PDF font '{}' is not readable, Cyrillic text cannot be embedded; falling back to HTML",
+                    pdfFont);
+            pdfRenderer = null;
+        }
+        log.info("🧾 Receipt template compiled, version {}, output {}", templateDigest.substring(0, 12),
+                pdfRenderer != null ? "PDF" : "HTML");
+    }
+    @PreDestroy
+    void shutdown() {
+        if (workers instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+    public Path render(String receiptId) {
+        List<ReceiptPrint> prints = load(query(where("_id").is(referenceId(receiptId))));
+        if (prints.isEmpty()) {
+            throw new OperationException("печати квитанции", "Квитанция с ID " + receiptId + " не найдена",
+                    HttpStatus.NOT_FOUND);
+        }
+        return join(renderAsync(prints.get(0)));
+    }
+    public ReceiptBatchRenderResponse renderHouse(String houseId, YearMonth period) {
+        Object houseRef = referenceId(houseId);
+        if (!mongoTemplate.exists(query(where("_id").is(houseRef)), House.class)) {
+            throw new OperationException("печати квитанций дома", "Дом с ID " + houseId + " не найден",
+                    HttpStatus.NOT_FOUND);
+        }
+        Query residentsQuery = query(where("house").is(houseRef));
+        residentsQuery.fields().include(OWNER_FIELDS);
+        Map<String, Document> owners = index(mongoTemplate.find(residentsQuery, Document.class,
+                mongoTemplate.getCollectionName(User.class)));
+        Map<String, Document> bills = Map.of();
+        if (!owners.isEmpty()) {
+            Query billsQuery = query(where("owner").in(owners.keySet())
+                    .and("date").gte(period.atDay(1)).lte(period.atEndOfMonth()));
+            billsQuery.fields().include(BILL_FIELDS);
+            bills = index(mongoTemplate.find(billsQuery, Document.class, mongoTemplate.getCollectionName(Bill.class)));
+        }
+        List<ReceiptPrint> prints = List.of();
+        if (!bills.isEmpty()) {
+            Query receiptsQuery = query(where("bill").in(bills.values().stream().map(bill -> bill.get("_id")).toList()));
+            receiptsQuery.fields().include(RECEIPT_FIELDS);
+            prints = toPrints(mongoTemplate.find(receiptsQuery, Document.class,
+                    mongoTemplate.getCollectionName(Receipt.class)), bills, owners);
+        }
+        int cached = 0;
+        List<CompletableFuture<Path>> renders = new ArrayList<>(prints.size());
+        for (ReceiptPrint print : prints) {
+            if (Files.exists(cachePath(print))) {
+                cached++;
+            } else {
+                renders.add(renderAsync(print));
+            }
+        }
+        join(CompletableFuture.allOf(renders.toArray(new CompletableFuture[0])));
+        log.info("🧾 Rendered {} receipts of house {} for {}, {} already cached", renders.size(), houseId, period, cached);
+        return ReceiptBatchRenderResponse.builder()
+                .houseId(houseId)
+                .period(period)
+                .receipts(prints.size())
+                .rendered(renders.size())
+                .cached(cached)
+                .build();
+    }
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+    CompletableFuture<Path> renderAsync(ReceiptPrint print) {
+        Path target = cachePath(print);
+        if (Files.exists(target)) {
+            return CompletableFuture.completedFuture(target);
+        }
+        CompletableFuture<Path> rendering = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(target, rendering);
+        if (running != null) {
+            return running;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    rendering.complete(write(print, target));
+                } catch (RuntimeException e) {
+                    rendering.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(target, rendering);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(target, rendering);
+            rendering.completeExceptionally(e);
+        }
+        return rendering;
+    }
+    Path cachePath(ReceiptPrint print) {
+        String version = sha256(String.join("\u0000", templateDigest, extension(), pdfRenderer != null ? pdfFont : "",
+                print.receiptId(), print.receiptNumber(), print.billNumber(), print.billDate(), print.receiptDate(),
+                print.payer(), print.accountNumber(), print.address()).getBytes(StandardCharsets.UTF_8));
+        return cacheDir.resolve(print.receiptId().replaceAll("[^A-Za-z0-9_-]", "_")).resolve(version + extension());
+    }
+    private String extension() {
+        return pdfRenderer != null ? PDF_EXTENSION : HTML_EXTENSION;
+    }
+    private Path write(ReceiptPrint print, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "render-", ".tmp");
+            try {
+                if (pdfRenderer != null) {
+                    writePdf(templateEngine.process(TEMPLATE, context(print)), temp);
+                } else {
+                    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                        templateEngine.process(TEMPLATE, context(print), writer);
+                    }
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            pruneStaleVersions(target);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private void writePdf(String html, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            Object builder = pdfRenderer.getConstructor().newInstance();
+            pdfRenderer.getMethod("useFastMode").invoke(builder);
+            pdfRenderer.getMethod("useFont", File.class, String.class).invoke(builder, new File(pdfFont), PDF_FONT_FAMILY);
+            pdfRenderer.getMethod("withHtmlContent", String.class, String.class)
+                    .invoke(builder, html, target.getParent().toUri().toString());
+            pdfRenderer.getMethod("toStream", OutputStream.class).invoke(builder, out);
+            pdfRenderer.getMethod("run").invoke(builder);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("PDF rendering failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported PDF renderer " + PDF_RENDERER, e);
+        }
+    }
+    private static void pruneStaleVersions(Path current) throws IOException {
+        try (DirectoryStream<Path> versions = Files.newDirectoryStream(current.getParent(),
+                "*{" + HTML_EXTENSION + "," + PDF_EXTENSION + "}")) {
+            for (Path version : versions) {
+                if (!version.equals(current)) {
+                    Files.deleteIfExists(version);
+                }
+            }
+        }
+    }
+    private static Context context(ReceiptPrint print) {
+        Context context = new Context(LOCALE);
+        context.setVariable("receiptNumber", print.receiptNumber());
+        context.setVariable("billNumber", print.billNumber());
+        context.setVariable("billDate", print.billDate());
+        context.setVariable("receiptDate", print.receiptDate());
+        context.setVariable("payer", print.payer());
+        context.setVariable("accountNumber", print.accountNumber());
+        context.setVariable("address", print.address());
+        return context;
+    }
+    List<ReceiptPrint> load(Query receiptsQuery) {
+        receiptsQuery.fields().include(RECEIPT_FIELDS);
+        List<Document> receipts = mongoTemplate.find(receiptsQuery, Document.class,
+                mongoTemplate.getCollectionName(Receipt.class));
+        if (receipts.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Document> bills = findByIds(Bill.class,
+                receipts.stream().map(receipt -> receipt.get("bill")).toList(), BILL_FIELDS);
+        Map<String, Document> owners = findByIds(User.class,
+                bills.values().stream().map(bill -> referenceId(bill.getString("owner"))).toList(), OWNER_FIELDS);
+        return toPrints(receipts, bills, owners);
+    }
+    private List<ReceiptPrint> toPrints(List<Document> receipts, Map<String, Document> bills,
+                                        Map<String, Document> owners) {
+        Map<String, Document> streets = findByIds(Street.class,
+                owners.values().stream().map(owner -> owner.get("street")).toList(), "name");
+        List<ReceiptPrint> prints = new ArrayList<>(receipts.size());
+        for (Document receipt : receipts) {
+            Document bill = lookup(bills, receipt.get("bill"));
+            Document owner = bill != null ? lookup(owners, bill.getString("owner")) : null;
+            Document street = owner != null ? lookup(streets, owner.get("street")) : null;
+            String receiptId = receipt.get("_id").toString();
+            prints.add(new ReceiptPrint(
+                    receiptId,
+                    Objects.toString(receipt.getString("receiptNumber"), receiptId),
+                    bill != null ? Objects.toString(bill.getString("billNumber"), NO_VALUE) : NO_VALUE,
+                    formatDate(bill != null ? bill.get("date") : null),
+                    formatDate(receipt.get("localDate")),
+                    owner != null ? fullName(owner) : NO_VALUE,
+                    owner != null ? Objects.toString(owner.getString("accountNumber"), NO_VALUE) : NO_VALUE,
+                    owner != null ? address(owner, street) : NO_VALUE));
+        }
+        return prints;
+    }
+    private Map<String, Document> findByIds(Class<?> entityClass, List<Object> ids, String... fields) {
+        List<Object> refs = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (refs.isEmpty()) {
+            return new HashMap<>();
+        }
+        Query byIds = query(where("_id").in(refs));
+        byIds.fields().include(fields);
+        return index(mongoTemplate.find(byIds, Document.class, mongoTemplate.getCollectionName(entityClass)));
+    }
+    private static Map<String, Document> index(List<Document> documents) {
+        Map<String, Document> byId = new HashMap<>();
+        for (Document document : documents) {
+            byId.put(document.get("_id").toString(), document);
+        }
+        return byId;
+    }
+    private static Document lookup(Map<String, Document> documents, Object reference) {
+        return reference != null ? documents.get(reference.toString()) : null;
+    }
+    private static String fullName(Document owner) {
+        return String.join(" ", Objects.toString(owner.getString("lastName"), ""),
+                Objects.toString(owner.getString("firstName"), ""),
+                Objects.toString(owner.getString("middleName"), "")).trim();
+    }
+    private static String address(Document owner, Document street) {
+        List<String> parts = new ArrayList<>();
+        if (street != null && street.getString("name") != null) {
+            parts.add("ул. " + street.getString("name"));
+        }
+        if (owner.getString("houseNumber") != null) {
+            parts.add("д. " + owner.getString("houseNumber"));
+        }
+        if (owner.getString("apartmentNumber") != null) {
+            parts.add("кв. " + owner.getString("apartmentNumber"));
+        }
+        return parts.isEmpty() ? NO_VALUE : String.join(", ", parts);
+    }
+    private static String formatDate(Object value) {
+        if (value instanceof Date date) {
+            return LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).format(DATE_FORMATTER);
+        }
+        return value instanceof LocalDate date ? date.format(DATE_FORMATTER) : NO_VALUE;
+    }
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    private static Object referenceId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+    record ReceiptPrint(String receiptId, String receiptNumber, String billNumber, String billDate,
+                        String receiptDate, String payer, String accountNumber, String address) {
+    }
+}
@@ -1,30 +1,49 @@
 package org.spacelab.housingutilitiessystemchairman.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
 import org.spacelab.housingutilitiessystemchairman.models.PageResponse;
 import org.spacelab.housingutilitiessystemchairman.models.filters.receipt.ReceiptRequestTable;
 import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptResponseTable;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.ReceiptRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ReceiptService {
     private static final DateTimeFormatter DISPLAY_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
     private final ReceiptRepository receiptRepository;
+    @Value("${receipt.number-backfill.batch-size:500}")
+    private int backfillBatchSize;
     public PageResponse<ReceiptResponseTable> getReceiptsTable(ReceiptRequestTable requestTable) {
         Page<Receipt> receiptsPage = receiptRepository.findReceiptsWithFilters(requestTable);
         Page<ReceiptResponseTable> mappedPage = receiptsPage.map(this::mapToResponse);
         return PageResponse.of(mappedPage);
     }
+    @Scheduled(fixedDelayString = "${receipt.number-backfill.interval-ms:60000}",
+            initialDelayString = "${receipt.number-backfill.initial-delay-ms:30000}")
+    public synchronized void backfillNumbers() {
+        try {
+            while (receiptRepository.backfillNumbers(backfillBatchSize) == backfillBatchSize) {
+                log.debug("Receipt number backfill batch of {} done, continuing", backfillBatchSize);
+            }
+        } catch (Exception e) {
+            log.error("❌ Receipt number backfill failed: {}", e.getMessage());
+        }
+    }
     private ReceiptResponseTable mapToResponse(Receipt receipt) {
-        String billNumber = receipt.getBill() != null ? receipt.getBill().getId() : "-";
+        String billNumber = receipt.getBillNumber() != null ? receipt.getBillNumber()
+                : receipt.getBill() != null ? receipt.getBill().getId() : "-";
         String formattedDate = receipt.getLocalDate() != null ? receipt.getLocalDate().format(DISPLAY_DATE_FORMATTER) : "-";
         return ReceiptResponseTable.builder()
-                .receiptNumber(receipt.getId())
+                .id(receipt.getId())
+                .receiptNumber(receipt.getReceiptNumber() != null ? receipt.getReceiptNumber() : receipt.getId())
                 .billNumber(billNumber)
                 .formattedDate(formattedDate)
                 .build();
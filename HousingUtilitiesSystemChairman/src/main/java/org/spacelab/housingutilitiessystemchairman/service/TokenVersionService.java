@@ -0,0 +1,60 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionService {
+    public static final String TOKEN_VERSION_KEY_PREFIX = "auth:token-version:";
+    public static final String TOKEN_VERSION_COLLECTION = "token_version";
+    static final RedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1])) "
+                    + "local version = tonumber(ARGV[1]) "
+                    + "if current == nil or current < version then "
+                    + "redis.call('SET', KEYS[1], ARGV[1]) "
+                    + "return version end "
+                    + "return current",
+            Long.class);
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    public long currentVersion(String userId) {
+        String value = redisTemplate.opsForValue().get(TOKEN_VERSION_KEY_PREFIX + userId);
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        Document stored = mongoTemplate.findById(userId, Document.class, TOKEN_VERSION_COLLECTION);
+        long version = stored != null ? stored.get("version", Number.class).longValue() : 0L;
+        Long raised = redisTemplate.execute(RAISE_SCRIPT, List.of(TOKEN_VERSION_KEY_PREFIX + userId),
+                Long.toString(version));
+        return raised != null ? raised : version;
+    }
+    public Long currentVersionOrNull(String userId) {
+        try {
+            return currentVersion(userId);
+        } catch (Exception e) {
+            log.warn("Token version for {} unavailable: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+    public void revoke(String userId) {
+        Document stored = mongoTemplate.findAndModify(query(where("_id").is(userId)), new Update().inc("version", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, TOKEN_VERSION_COLLECTION);
+        long version = stored.get("version", Number.class).longValue();
+        redisTemplate.execute(RAISE_SCRIPT, List.of(TOKEN_VERSION_KEY_PREFIX + userId), Long.toString(version));
+        log.info("🔒 Access tokens of {} revoked, token version is now {}", userId, version);
+    }
+}
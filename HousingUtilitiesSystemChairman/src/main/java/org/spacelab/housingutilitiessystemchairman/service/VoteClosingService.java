@@ -0,0 +1,121 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.entity.Vote;
+import org.spacelab.housingutilitiessystemchairman.models.vote.VoteClosedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteClosingService {
+    public static final String VOTE_CLOSED_CHANNEL = "vote:closed";
+    public static final String ACTIVE_STATUS = "Активное";
+    public static final String CLOSED_STATUS = "Закрыто";
+    public static final String RESULT_ACCEPTED = "Принято";
+    public static final String RESULT_REJECTED = "Отклонено";
+    private static final String[] TALLY_FIELDS = {"title", "quorumArea", "forVotesCount", "againstVotesCount",
+            "abstentionsCount", "forVotesArea", "againstVotesArea", "abstentionsArea", "totalVotedArea"};
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${vote.closing.batch-size:200}")
+    private int batchSize;
+    @Scheduled(fixedDelayString = "${vote.closing.interval-ms:30000}")
+    public void closeDueVotes() {
+        try {
+            closeBatch(new Date());
+            backfillResults();
+        } catch (Exception e) {
+            log.error("❌ Failed to close due votes: {}", e.getMessage());
+        }
+    }
+    int closeBatch(Date now) {
+        Query due = query(where("status").is(ACTIVE_STATUS).and("endTime").lte(now)).limit(batchSize);
+        due.fields().include(TALLY_FIELDS);
+        List<Vote> votes = mongoTemplate.find(due, Vote.class);
+        if (votes.isEmpty()) {
+            return 0;
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        for (Vote vote : votes) {
+            Query stillActive = query(where("_id").is(vote.getId()).and("status").is(ACTIVE_STATUS).and("endTime").lte(now));
+            updates.updateOne(stillActive, new Update()
+                    .set("status", CLOSED_STATUS)
+                    .set("result", evaluateResult(vote))
+                    .set("closedAt", now));
+        }
+        updates.execute();
+        Query closedNow = query(where("_id").in(votes.stream().map(Vote::getId).toList())
+                .and("status").is(CLOSED_STATUS)
+                .and("closedAt").is(now));
+        closedNow.fields().include(TALLY_FIELDS).include("status", "result", "closedAt");
+        List<Vote> closed = mongoTemplate.find(closedNow, Vote.class);
+        closed.forEach(this::publishClosed);
+        log.info("🗳️ Closed {} of {} due votes", closed.size(), votes.size());
+        return closed.size();
+    }
+    int backfillResults() {
+        Query missing = query(where("status").is(CLOSED_STATUS).and("result").exists(false)
+                .and(VoteTallyReconciler.TALLY_VERIFIED_FIELD).exists(true)).limit(batchSize);
+        missing.fields().include(TALLY_FIELDS);
+        List<Vote> votes = mongoTemplate.find(missing, Vote.class);
+        if (votes.isEmpty()) {
+            return 0;
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        for (Vote vote : votes) {
+            updates.updateOne(query(where("_id").is(vote.getId()).and("result").exists(false)),
+                    new Update().set("result", evaluateResult(vote)));
+        }
+        updates.execute();
+        return votes.size();
+    }
+    public static boolean isQuorumReached(Vote vote) {
+        return areaOrZero(vote.getTotalVotedArea()) >= areaOrZero(vote.getQuorumArea());
+    }
+    public static String evaluateResult(Vote vote) {
+        return evaluateResult(vote.getQuorumArea(), areaOrZero(vote.getForVotesArea()),
+                areaOrZero(vote.getAgainstVotesArea()), areaOrZero(vote.getTotalVotedArea()));
+    }
+    public static String evaluateResult(Double quorumArea, double forArea, double againstArea, double totalArea) {
+        boolean accepted = totalArea >= areaOrZero(quorumArea) && forArea > againstArea;
+        return accepted ? RESULT_ACCEPTED : RESULT_REJECTED;
+    }
+    void publishClosed(Vote vote) {
+        VoteClosedEvent event = VoteClosedEvent.builder()
+                .voteId(vote.getId())
+                .title(vote.getTitle())
+                .status(vote.getStatus())
+                .result(vote.getResult())
+                .quorumReached(isQuorumReached(vote))
+                .quorumArea(vote.getQuorumArea())
+                .forVotesArea(areaOrZero(vote.getForVotesArea()))
+                .againstVotesArea(areaOrZero(vote.getAgainstVotesArea()))
+                .abstentionsArea(areaOrZero(vote.getAbstentionsArea()))
+                .totalVotedArea(areaOrZero(vote.getTotalVotedArea()))
+                .closedAt(vote.getClosedAt())
+                .build();
+        try {
+            redisTemplate.convertAndSend(VOTE_CLOSED_CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.error("❌ Failed to publish closing of vote {}: {}", vote.getId(), e.getMessage());
+        }
+    }
+    private static double areaOrZero(Double area) {
+        return area != null ? area : 0.0;
+    }
+}
@@ -0,0 +1,26 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.models.vote.VoteTallySnapshot;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoteEventSubscriber {
+    public static final String VOTE_TALLY_CHANNEL = "vote:tally";
+    public static final String VOTE_TOPIC_PREFIX = "/topic/vote/";
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    public void handleVoteTally(String payload) {
+        try {
+            VoteTallySnapshot snapshot = objectMapper.readValue(payload, VoteTallySnapshot.class);
+            messagingTemplate.convertAndSend(VOTE_TOPIC_PREFIX + snapshot.getVoteId(), snapshot);
+            log.debug("📡 Broadcasted tally of vote {}", snapshot.getVoteId());
+        } catch (Exception e) {
+            log.error("❌ Failed to handle vote tally {}: {}", payload, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
+import org.spacelab.housingutilitiessystemchairman.models.vote.VoteParticipantResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoteExportService {
+    static final String[] HEADERS = {"ФИО", "№ квартиры", "S квартиры", "Телефон", "Позиция", "Время"};
+    private static final char CSV_SEPARATOR = ';';
+    private static final String CSV_FORMULA_PREFIXES = "=+-@\t\r";
+    private static final DateTimeFormatter VOTE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final int XLSX_ROWS_IN_MEMORY = 100;
+    private final MongoTemplate mongoTemplate;
+    @Value("${vote.export.batch-size:500}")
+    private int batchSize;
+    public void writeCsv(String voteId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writeCsvLine(writer, HEADERS);
+        try {
+            forEachBatch(voteId, batch -> {
+                try {
+                    for (VoteParticipantResponse participant : batch) {
+                        writeCsvLine(writer, participant.getFullName(), participant.getApartmentNumber(),
+                                participant.getApartmentArea() != null
+                                        ? String.format(Locale.ROOT, "%.2f", participant.getApartmentArea()) : "",
+                                participant.getPhone(), participant.getVoteTypeDisplay(),
+                                participant.getVoteTime() != null
+                                        ? VOTE_TIME_FORMAT.format(participant.getVoteTime().toInstant()) : "");
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+    public void writeXlsx(String voteId, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROWS_IN_MEMORY);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Участники");
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            CellStyle areaStyle = workbook.createCellStyle();
+            areaStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+            CellStyle timeStyle = workbook.createCellStyle();
+            timeStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.mm.yyyy hh:mm"));
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            int[] rowNum = {1};
+            forEachBatch(voteId, batch -> {
+                for (VoteParticipantResponse participant : batch) {
+                    Row row = sheet.createRow(rowNum[0]++);
+                    row.createCell(0).setCellValue(Objects.toString(participant.getFullName(), ""));
+                    row.createCell(1).setCellValue(Objects.toString(participant.getApartmentNumber(), ""));
+                    if (participant.getApartmentArea() != null) {
+                        Cell area = row.createCell(2);
+                        area.setCellValue(participant.getApartmentArea());
+                        area.setCellStyle(areaStyle);
+                    }
+                    row.createCell(3).setCellValue(Objects.toString(participant.getPhone(), ""));
+                    row.createCell(4).setCellValue(Objects.toString(participant.getVoteTypeDisplay(), ""));
+                    if (participant.getVoteTime() != null) {
+                        Cell time = row.createCell(5);
+                        time.setCellValue(participant.getVoteTime());
+                        time.setCellStyle(timeStyle);
+                    }
+                }
+            });
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    void forEachBatch(String voteId, Consumer<List<VoteParticipantResponse>> consumer) {
+        String recordCollection = mongoTemplate.getCollectionName(VoteRecord.class);
+        Query ballots = query(where("vote").is(referenceId(voteId))).with(Sort.by("_id")).cursorBatchSize(batchSize);
+        ballots.fields().include("user", "voteType", "voteTime", "apartmentArea");
+        List<Document> batch = new ArrayList<>(batchSize);
+        int exported = 0;
+        try (Stream<Document> cursor = mongoTemplate.stream(ballots, Document.class, recordCollection)) {
+            for (Document ballot : (Iterable<Document>) cursor::iterator) {
+                batch.add(ballot);
+                if (batch.size() >= batchSize) {
+                    consumer.accept(resolveVoters(batch));
+                    exported += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(resolveVoters(batch));
+            exported += batch.size();
+        }
+        log.info("Exported {} ballots of vote {}", exported, voteId);
+    }
+    private List<VoteParticipantResponse> resolveVoters(List<Document> ballots) {
+        List<Object> userRefs = ballots.stream().map(ballot -> ballot.get("user")).filter(Objects::nonNull).distinct().toList();
+        Map<String, Document> voters = new HashMap<>();
+        if (!userRefs.isEmpty()) {
+            Query usersQuery = query(where("_id").in(userRefs));
+            usersQuery.fields().include("lastName", "firstName", "middleName", "apartmentNumber", "apartmentArea", "phone");
+            for (Document voter : mongoTemplate.find(usersQuery, Document.class, mongoTemplate.getCollectionName(User.class))) {
+                voters.put(voter.get("_id").toString(), voter);
+            }
+        }
+        List<VoteParticipantResponse> participants = new ArrayList<>(ballots.size());
+        for (Document ballot : ballots) {
+            Object user = ballot.get("user");
+            Document voter = user != null ? voters.get(user.toString()) : null;
+            String voteType = ballot.getString("voteType");
+            participants.add(VoteParticipantResponse.builder()
+                    .id(ballot.get("_id").toString())
+                    .fullName(voter != null ? fullName(voter) : null)
+                    .apartmentNumber(voter != null ? voter.getString("apartmentNumber") : null)
+                    .apartmentArea(area(ballot.get("apartmentArea"), voter != null ? voter.get("apartmentArea") : null))
+                    .phone(voter != null ? voter.getString("phone") : null)
+                    .voteType(voteType)
+                    .voteTypeDisplay(VoteService.voteTypeDisplay(voteType))
+                    .voteTime(ballot.get("voteTime", Date.class))
+                    .build());
+        }
+        return participants;
+    }
+    private static String fullName(Document voter) {
+        return Objects.toString(voter.getString("lastName"), "") + " "
+                + Objects.toString(voter.getString("firstName"), "") + " "
+                + Objects.toString(voter.getString("middleName"), "");
+    }
+    private static Double area(Object ballotArea, Object voterArea) {
+        Object area = ballotArea != null ? ballotArea : voterArea;
+        return area instanceof Number number ? number.doubleValue() : null;
+    }
+    private static void writeCsvLine(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write("\r\n");
+    }
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && CSV_FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    private static Object referenceId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
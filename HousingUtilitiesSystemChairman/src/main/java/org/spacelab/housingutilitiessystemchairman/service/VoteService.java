@@ -1,7 +1,9 @@
 package org.spacelab.housingutilitiessystemchairman.service;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
 import org.spacelab.housingutilitiessystemchairman.entity.Vote;
 import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
 import org.spacelab.housingutilitiessystemchairman.mappers.VoteMapper;
@@ -12,26 +14,44 @@ import org.spacelab.housingutilitiessystemchairman.models.vote.VoteDetailRespons
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteParticipantResponse;
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteRequest;
 import org.spacelab.housingutilitiessystemchairman.models.vote.VoteResponseTable;
-import org.spacelab.housingutilitiessystemchairman.repository.mongo.VoteRecordRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.VoteRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 @Service
 @RequiredArgsConstructor
 public class VoteService {
+    private static final Document VOTER_PROJECTION = new Document("$project", new Document("_id", 0)
+            .append("fullName", new Document("$concat", List.of(
+                    new Document("$ifNull", List.of("$lastName", "")), " ",
+                    new Document("$ifNull", List.of("$firstName", "")), " ",
+                    new Document("$ifNull", List.of("$middleName", "")))))
+            .append("apartmentNumber", 1)
+            .append("apartmentArea", 1)
+            .append("phone", 1));
+    private static final AggregationOperation PARTICIPANT_PROJECTION = context -> new Document("$project", new Document()
+            .append("voteType", 1)
+            .append("voteTime", 1)
+            .append("fullName", new Document("$arrayElemAt", List.of("$voter.fullName", 0)))
+            .append("apartmentNumber", new Document("$arrayElemAt", List.of("$voter.apartmentNumber", 0)))
+            .append("phone", new Document("$arrayElemAt", List.of("$voter.phone", 0)))
+            .append("apartmentArea", new Document("$ifNull", List.of("$apartmentArea",
+                    new Document("$arrayElemAt", List.of("$voter.apartmentArea", 0))))));
     private final VoteRepository voteRepository;
-    private final VoteRecordRepository voteRecordRepository;
     private final MongoTemplate mongoTemplate;
     private final VoteMapper voteMapper;
     public Vote save(Vote vote) {
@@ -65,6 +85,9 @@ public class VoteService {
         if (request.getStatus() != null && !request.getStatus().isEmpty()) {
             criteriaList.add(Criteria.where("status").is(request.getStatus()));
         }
+        if (request.getResult() != null && !request.getResult().isEmpty()) {
+            criteriaList.add(Criteria.where("result").is(request.getResult()));
+        }
         if (!criteriaList.isEmpty()) {
             query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
         }
@@ -72,25 +95,22 @@ public class VoteService {
         query.with(pageable);
         List<Vote> votes = mongoTemplate.find(query, Vote.class);
         List<VoteResponseTable> responseList = voteMapper.toResponseTableList(votes);
-        if (request.getResult() != null && !request.getResult().isEmpty()) {
-            responseList = responseList.stream()
-                    .filter(v -> request.getResult().equals(v.getResult()))
-                    .collect(Collectors.toList());
-        }
         Page<VoteResponseTable> page = new PageImpl<>(responseList, pageable, total);
         return PageResponse.of(page);
     }
     public Vote createVote(VoteRequest request) {
         Vote vote = voteMapper.toEntity(request);
         if (vote.getStatus() == null) {
-            vote.setStatus("Активное");
+            vote.setStatus(VoteClosingService.ACTIVE_STATUS);
         }
+        applyOutcome(vote);
         return voteRepository.save(vote);
     }
     public Vote updateVote(String id, VoteRequest request) {
         Vote vote = voteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vote not found: " + id));
         voteMapper.partialUpdate(request, vote);
+        applyOutcome(vote);
         return voteRepository.save(vote);
     }
     public VoteResponseTable getVoteById(String id) {
@@ -101,21 +121,6 @@ public class VoteService {
     public VoteDetailResponse getVoteDetail(String id) {
         Vote vote = voteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vote not found: " + id));
-        List<VoteRecord> records = voteRecordRepository.findByVoteId(id);
-        double forArea = 0.0;
-        double againstArea = 0.0;
-        double abstainArea = 0.0;
-        for (VoteRecord record : records) {
-            if (record.getUser() != null && record.getUser().getApartmentArea() != null) {
-                double area = record.getUser().getApartmentArea();
-                switch (record.getVoteType()) {
-                    case "FOR" -> forArea += area;
-                    case "AGAINST" -> againstArea += area;
-                    case "ABSTENTION" -> abstainArea += area;
-                }
-            }
-        }
-        String result = determineResult(vote);
         return VoteDetailResponse.builder()
                 .id(vote.getId())
                 .title(vote.getTitle())
@@ -124,90 +129,98 @@ public class VoteService {
                 .endTime(vote.getEndTime())
                 .quorumArea(vote.getQuorumArea())
                 .status(vote.getStatus())
-                .result(result)
+                .result(vote.getResult())
                 .forVotesCount(vote.getForVotesCount())
                 .againstVotesCount(vote.getAgainstVotesCount())
                 .abstentionsCount(vote.getAbstentionsCount())
-                .forVotesArea(forArea)
-                .againstVotesArea(againstArea)
-                .abstentionsArea(abstainArea)
-                .totalVotedArea(forArea + againstArea + abstainArea)
+                .forVotesArea(areaOrZero(vote.getForVotesArea()))
+                .againstVotesArea(areaOrZero(vote.getAgainstVotesArea()))
+                .abstentionsArea(areaOrZero(vote.getAbstentionsArea()))
+                .totalVotedArea(areaOrZero(vote.getTotalVotedArea()))
                 .build();
     }
     public PageResponse<VoteParticipantResponse> getVoteParticipants(VoteParticipantRequestTable request) {
         Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
-        Query query = new Query();
         List<Criteria> criteriaList = new ArrayList<>();
         criteriaList.add(Criteria.where("vote").is(new ObjectId(request.getVoteId())));
         if (request.getVoteType() != null && !request.getVoteType().isEmpty()) {
             criteriaList.add(Criteria.where("voteType").is(request.getVoteType()));
         }
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
+        List<Criteria> voterCriteria = new ArrayList<>();
+        if (request.getFullName() != null && !request.getFullName().isEmpty()) {
+            voterCriteria.add(Criteria.where("fullName").regex(Pattern.quote(request.getFullName()), "i"));
         }
-        long total = mongoTemplate.count(query, VoteRecord.class);
-        query.with(pageable);
-        List<VoteRecord> records = mongoTemplate.find(query, VoteRecord.class);
-        List<VoteParticipantResponse> responseList = records.stream()
-                .map(this::mapToParticipantResponse)
-                .filter(p -> {
-                    if (request.getFullName() != null && !request.getFullName().isEmpty()) {
-                        if (p.getFullName() == null
-                                || !p.getFullName().toLowerCase().contains(request.getFullName().toLowerCase())) {
-                            return false;
-                        }
-                    }
-                    if (request.getApartmentNumber() != null && !request.getApartmentNumber().isEmpty()) {
-                        if (p.getApartmentNumber() == null
-                                || !p.getApartmentNumber().contains(request.getApartmentNumber())) {
-                            return false;
-                        }
-                    }
-                    if (request.getPhone() != null && !request.getPhone().isEmpty()) {
-                        if (p.getPhone() == null || !p.getPhone().contains(request.getPhone())) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
-        Page<VoteParticipantResponse> page = new PageImpl<>(responseList, pageable, total);
+        if (request.getApartmentNumber() != null && !request.getApartmentNumber().isEmpty()) {
+            voterCriteria.add(Criteria.where("apartmentNumber").regex(Pattern.quote(request.getApartmentNumber())));
+        }
+        if (request.getPhone() != null && !request.getPhone().isEmpty()) {
+            voterCriteria.add(Criteria.where("phone").regex(Pattern.quote(request.getPhone())));
+        }
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(new Criteria().andOperator(criteriaList.toArray(new Criteria[0]))));
+        stages.add(Aggregation.sort(Sort.Direction.ASC, "_id"));
+        List<AggregationOperation> rowStages = new ArrayList<>();
+        rowStages.add(Aggregation.skip(pageable.getOffset()));
+        rowStages.add(Aggregation.limit(pageable.getPageSize()));
+        if (voterCriteria.isEmpty()) {
+            rowStages.add(voterLookup(voterCriteria));
+        } else {
+            stages.add(voterLookup(voterCriteria));
+            stages.add(Aggregation.match(Criteria.where("voter").ne(List.of())));
+        }
+        rowStages.add(PARTICIPANT_PROJECTION);
+        stages.add(Aggregation.facet(rowStages.toArray(new AggregationOperation[0]))
+                .as("rows")
+                .and(Aggregation.count().as("total"))
+                .as("total"));
+        ParticipantFacet facet = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(VoteRecord.class), ParticipantFacet.class).getUniqueMappedResult();
+        List<VoteParticipantResponse> rows = facet != null && facet.rows() != null ? facet.rows() : List.of();
+        rows.forEach(row -> row.setVoteTypeDisplay(voteTypeDisplay(row.getVoteType())));
+        long total = facet != null && facet.total() != null && !facet.total().isEmpty()
+                ? facet.total().get(0).total() : 0L;
+        Page<VoteParticipantResponse> page = new PageImpl<>(rows, pageable, total);
         return PageResponse.of(page);
     }
-    private VoteParticipantResponse mapToParticipantResponse(VoteRecord record) {
-        String fullName = "";
-        String apartmentNumber = "";
-        Double apartmentArea = null;
-        String phone = "";
-        if (record.getUser() != null) {
-            fullName = record.getUser().getFullName();
-            apartmentNumber = record.getUser().getApartmentNumber();
-            apartmentArea = record.getUser().getApartmentArea();
-            phone = record.getUser().getPhone();
+    private AggregationOperation voterLookup(List<Criteria> voterCriteria) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(VOTER_PROJECTION);
+        if (!voterCriteria.isEmpty()) {
+            pipeline.add(new Document("$match",
+                    new Criteria().andOperator(voterCriteria.toArray(new Criteria[0])).getCriteriaObject()));
+        }
+        String userCollection = mongoTemplate.getCollectionName(User.class);
+        return context -> new Document("$lookup", new Document("from", userCollection)
+                .append("localField", "user")
+                .append("foreignField", "_id")
+                .append("pipeline", pipeline)
+                .append("as", "voter"));
+    }
+    static String voteTypeDisplay(String voteType) {
+        if (voteType == null) {
+            return null;
         }
-        String voteTypeDisplay = switch (record.getVoteType()) {
+        return switch (voteType) {
             case "FOR" -> "За";
             case "AGAINST" -> "Против";
             case "ABSTENTION" -> "Воздержался";
-            default -> record.getVoteType();
+            default -> voteType;
         };
-        return VoteParticipantResponse.builder()
-                .id(record.getId())
-                .fullName(fullName)
-                .apartmentNumber(apartmentNumber)
-                .apartmentArea(apartmentArea)
-                .phone(phone)
-                .voteType(record.getVoteType())
-                .voteTypeDisplay(voteTypeDisplay)
-                .voteTime(record.getVoteTime())
-                .build();
     }
-    private String determineResult(Vote vote) {
-        if (!"Закрыто".equals(vote.getStatus())) {
-            return null;
+    private static double areaOrZero(Double area) {
+        return area != null ? area : 0.0;
+    }
+    private static void applyOutcome(Vote vote) {
+        if (!VoteClosingService.CLOSED_STATUS.equals(vote.getStatus())) {
+            vote.setResult(null);
+            vote.setClosedAt(null);
+        } else if (vote.getResult() == null) {
+            vote.setResult(VoteClosingService.evaluateResult(vote));
+            vote.setClosedAt(new Date());
         }
-        Integer forVotes = vote.getForVotesCount() != null ? vote.getForVotesCount() : 0;
-        Integer againstVotes = vote.getAgainstVotesCount() != null ? vote.getAgainstVotesCount() : 0;
-        return forVotes > againstVotes ? "Принято" : "Отклонено";
+    }
+    record ParticipantFacet(List<VoteParticipantResponse> rows, List<FacetTotal> total) {
+    }
+    record FacetTotal(Long total) {
     }
 }
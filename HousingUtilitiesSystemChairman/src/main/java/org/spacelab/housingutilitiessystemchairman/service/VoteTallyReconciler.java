@@ -0,0 +1,249 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.Vote;
+import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteTallyReconciler {
+    static final double AREA_TOLERANCE = 0.01;
+    static final String TALLY_VERIFIED_FIELD = "tallyVerifiedAt";
+    private final MongoTemplate mongoTemplate;
+    private final VoteClosingService voteClosingService;
+    @Value("${vote.tally.batch-size:500}")
+    private int batchSize;
+    private final Map<String, Drift> suspectedDrift = new ConcurrentHashMap<>();
+    @Scheduled(fixedDelayString = "${vote.tally.reconcile-interval-ms:300000}",
+            initialDelayString = "${vote.tally.reconcile-initial-delay-ms:60000}")
+    public synchronized void reconcile() {
+        try {
+            int backfilled = backfillBallotAreas();
+            verifyOpenVotes();
+            if (backfilled < batchSize) {
+                reconcileClosedVotes();
+            }
+        } catch (Exception e) {
+            log.error("❌ Vote tally reconciliation failed: {}", e.getMessage());
+        }
+    }
+    int backfillBallotAreas() {
+        String recordCollection = mongoTemplate.getCollectionName(VoteRecord.class);
+        Query missing = query(where("apartmentArea").exists(false)).limit(batchSize);
+        missing.fields().include("user");
+        List<Document> ballots = mongoTemplate.find(missing, Document.class, recordCollection);
+        if (ballots.isEmpty()) {
+            return 0;
+        }
+        List<Object> userRefs = ballots.stream().map(ballot -> ballot.get("user")).filter(Objects::nonNull).distinct().toList();
+        Query usersQuery = query(where("_id").in(userRefs));
+        usersQuery.fields().include("apartmentArea");
+        Map<String, Double> areas = new HashMap<>();
+        for (Document user : mongoTemplate.find(usersQuery, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            Object area = user.get("apartmentArea");
+            areas.put(user.get("_id").toString(), area instanceof Number number ? number.doubleValue() : 0.0);
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, recordCollection);
+        for (Document ballot : ballots) {
+            Object user = ballot.get("user");
+            double area = user != null ? areas.getOrDefault(user.toString(), 0.0) : 0.0;
+            updates.updateOne(query(where("_id").is(ballot.get("_id")).and("apartmentArea").exists(false)),
+                    new Update().set("apartmentArea", area));
+        }
+        updates.execute();
+        log.info("Backfilled apartment area on {} vote ballots", ballots.size());
+        return ballots.size();
+    }
+    int verifyOpenVotes() {
+        List<Vote> votes = mongoTemplate.find(query(where("status").ne(VoteClosingService.CLOSED_STATUS)), Vote.class);
+        if (votes.isEmpty()) {
+            suspectedDrift.clear();
+            return 0;
+        }
+        Map<String, Tallies> actual = countBallots(votes);
+        suspectedDrift.keySet().retainAll(votes.stream().map(Vote::getId).toList());
+        int corrected = 0;
+        for (Vote vote : votes) {
+            Tallies stored = Tallies.of(vote);
+            Tallies counted = actual.getOrDefault(vote.getId(), Tallies.EMPTY);
+            if (stored.matches(counted)) {
+                suspectedDrift.remove(vote.getId());
+                continue;
+            }
+            Drift drift = new Drift(stored, counted);
+            Drift previous = suspectedDrift.put(vote.getId(), drift);
+            if (previous == null || !previous.matches(drift)) {
+                log.debug("Vote {} tallies differ from ballots, rechecking on the next run", vote.getId());
+                continue;
+            }
+            if (correct(vote, counted)) {
+                suspectedDrift.remove(vote.getId());
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+    int reconcileClosedVotes() {
+        Query unverified = query(where("status").is(VoteClosingService.CLOSED_STATUS)
+                .and(TALLY_VERIFIED_FIELD).exists(false)).limit(batchSize);
+        List<Vote> votes = mongoTemplate.find(unverified, Vote.class);
+        if (votes.isEmpty()) {
+            return 0;
+        }
+        Map<String, Tallies> actual = countBallots(votes);
+        Date now = new Date();
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        int corrected = 0;
+        List<String> revised = new ArrayList<>();
+        for (Vote vote : votes) {
+            Tallies counted = actual.getOrDefault(vote.getId(), Tallies.EMPTY);
+            if (!Tallies.of(vote).matches(counted)) {
+                log.warn("⚠️ Rebuilt tallies of closed vote {} from ballots: {} -> {}", vote.getId(), Tallies.of(vote), counted);
+                corrected++;
+            }
+            String result = VoteClosingService.evaluateResult(vote.getQuorumArea(), counted.forArea(),
+                    counted.againstArea(), counted.totalArea());
+            if (!result.equals(vote.getResult())) {
+                revised.add(vote.getId());
+            }
+            updates.updateOne(query(unchanged(vote).and(TALLY_VERIFIED_FIELD).exists(false)),
+                    tallyUpdate(counted).set("result", result).set(TALLY_VERIFIED_FIELD, now));
+        }
+        updates.execute();
+        if (!revised.isEmpty()) {
+            Query revisedNow = query(where("_id").in(revised).and(TALLY_VERIFIED_FIELD).is(now));
+            mongoTemplate.find(revisedNow, Vote.class).forEach(voteClosingService::publishClosed);
+        }
+        log.info("Verified tallies of {} closed votes, {} rebuilt from ballots, {} results revised",
+                votes.size(), corrected, revised.size());
+        return votes.size();
+    }
+    private Map<String, Tallies> countBallots(List<Vote> votes) {
+        List<Object> voteRefs = votes.stream().map(vote -> referenceId(vote.getId())).toList();
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("vote").in(voteRefs)),
+                group("vote", "voteType").count().as("count").sum("apartmentArea").as("area"));
+        Map<String, Tallies> tallies = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(VoteRecord.class),
+                Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            Number area = row.get("area", Number.class);
+            tallies.merge(id.get("vote").toString(),
+                    Tallies.EMPTY.plus(id.getString("voteType"), row.get("count", Number.class).intValue(),
+                            area != null ? area.doubleValue() : 0.0),
+                    Tallies::combine);
+        }
+        return tallies;
+    }
+    private boolean correct(Vote vote, Tallies counted) {
+        Query stillOpen = query(unchanged(vote).and("status").ne(VoteClosingService.CLOSED_STATUS));
+        boolean applied = mongoTemplate.updateFirst(stillOpen, tallyUpdate(counted), Vote.class)
+                .getModifiedCount() > 0;
+        if (applied) {
+            log.warn("⚠️ Corrected drifted tallies of vote {}: {} -> {}", vote.getId(), Tallies.of(vote), counted);
+        }
+        return applied;
+    }
+    private static Criteria unchanged(Vote vote) {
+        Criteria criteria = where("_id").is(vote.getId());
+        unchanged(criteria, "forVotesCount", vote.getForVotesCount());
+        unchanged(criteria, "againstVotesCount", vote.getAgainstVotesCount());
+        unchanged(criteria, "abstentionsCount", vote.getAbstentionsCount());
+        unchanged(criteria, "forVotesArea", vote.getForVotesArea());
+        unchanged(criteria, "againstVotesArea", vote.getAgainstVotesArea());
+        unchanged(criteria, "abstentionsArea", vote.getAbstentionsArea());
+        unchanged(criteria, "totalVotedArea", vote.getTotalVotedArea());
+        return criteria;
+    }
+    private static void unchanged(Criteria criteria, String field, Number value) {
+        if (value == null || value.doubleValue() == 0.0) {
+            criteria.and(field).in(value != null ? value : 0, null);
+        } else {
+            criteria.and(field).is(value);
+        }
+    }
+    private static Update tallyUpdate(Tallies counted) {
+        return new Update()
+                .set("forVotesCount", counted.forCount())
+                .set("againstVotesCount", counted.againstCount())
+                .set("abstentionsCount", counted.abstentionsCount())
+                .set("forVotesArea", counted.forArea())
+                .set("againstVotesArea", counted.againstArea())
+                .set("abstentionsArea", counted.abstentionsArea())
+                .set("totalVotedArea", counted.totalArea());
+    }
+    private static Object referenceId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+    private static double areaOrZero(Double area) {
+        return area != null ? area : 0.0;
+    }
+    private static int countOrZero(Integer count) {
+        return count != null ? count : 0;
+    }
+    record Tallies(int forCount, int againstCount, int abstentionsCount,
+                   double forArea, double againstArea, double abstentionsArea, double totalArea) {
+        static final Tallies EMPTY = new Tallies(0, 0, 0, 0.0, 0.0, 0.0, 0.0);
+        static Tallies of(Vote vote) {
+            return new Tallies(countOrZero(vote.getForVotesCount()), countOrZero(vote.getAgainstVotesCount()),
+                    countOrZero(vote.getAbstentionsCount()), areaOrZero(vote.getForVotesArea()),
+                    areaOrZero(vote.getAgainstVotesArea()), areaOrZero(vote.getAbstentionsArea()),
+                    areaOrZero(vote.getTotalVotedArea()));
+        }
+        Tallies plus(String voteType, int count, double area) {
+            return switch (voteType) {
+                case "FOR" -> new Tallies(forCount + count, againstCount, abstentionsCount,
+                        forArea + area, againstArea, abstentionsArea, totalArea + area);
+                case "AGAINST" -> new Tallies(forCount, againstCount + count, abstentionsCount,
+                        forArea, againstArea + area, abstentionsArea, totalArea + area);
+                case "ABSTENTION" -> new Tallies(forCount, againstCount, abstentionsCount + count,
+                        forArea, againstArea, abstentionsArea + area, totalArea + area);
+                default -> this;
+            };
+        }
+        Tallies combine(Tallies other) {
+            return new Tallies(forCount + other.forCount, againstCount + other.againstCount,
+                    abstentionsCount + other.abstentionsCount, forArea + other.forArea,
+                    againstArea + other.againstArea, abstentionsArea + other.abstentionsArea,
+                    totalArea + other.totalArea);
+        }
+        boolean matches(Tallies other) {
+            return forCount == other.forCount && againstCount == other.againstCount
+                    && abstentionsCount == other.abstentionsCount
+                    && Math.abs(forArea - other.forArea) <= AREA_TOLERANCE
+                    && Math.abs(againstArea - other.againstArea) <= AREA_TOLERANCE
+                    && Math.abs(abstentionsArea - other.abstentionsArea) <= AREA_TOLERANCE
+                    && Math.abs(totalArea - other.totalArea) <= AREA_TOLERANCE;
+        }
+    }
+    private record Drift(Tallies stored, Tallies counted) {
+        boolean matches(Drift other) {
+            return stored.matches(other.stored) && counted.matches(other.counted);
+        }
+    }
+}
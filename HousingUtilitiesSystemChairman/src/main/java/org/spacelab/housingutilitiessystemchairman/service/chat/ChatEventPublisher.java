@@ -1,23 +1,43 @@
 package org.spacelab.housingutilitiessystemchairman.service.chat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatEventPublisher {
-    private static final String CHAT_EVENTS_CHANNEL = "chat_events";
-    private static final String PRESENCE_EVENTS_CHANNEL = "presence_events";
-    private final RedisTemplate<String, Object> redisTemplate;
+    public static final String CHAT_EVENTS_STREAM = "chat:stream:events";
+    public static final String PRESENCE_EVENTS_STREAM = "chat:stream:presence";
+    public static final String USER_STREAM_PREFIX = "chat:stream:user:";
+    public static final String PAYLOAD_FIELD = "payload";
+    static final long CHAT_EVENTS_MAX_LEN = 10_000;
+    static final long PRESENCE_EVENTS_MAX_LEN = 1_000;
+    static final long USER_STREAM_MAX_LEN = 200;
+    static final Duration USER_STREAM_TTL = Duration.ofDays(7);
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
     public void publishMessageEvent(ChatEvent event) {
         try {
             log.debug("Publishing message event to Redis: conversationId={}, targetUserId={}",
                     event.getConversationId(), event.getTargetUserId());
-            redisTemplate.convertAndSend(CHAT_EVENTS_CHANNEL, event);
-            log.info("✅ Message event published to Redis channel '{}' for user {}",
-                    CHAT_EVENTS_CHANNEL, event.getTargetUserId());
+            if (event.getTargetUserId() != null) {
+                String userStream = userStreamKey(event.getTargetUserId());
+                RecordId eventId = append(userStream, event, USER_STREAM_MAX_LEN);
+                redisTemplate.expire(userStream, USER_STREAM_TTL);
+                event.setEventId(eventId != null ? eventId.getValue() : null);
+            }
+            append(CHAT_EVENTS_STREAM, event, CHAT_EVENTS_MAX_LEN);
+            log.info("✅ Message event {} appended to Redis stream '{}' for user {}",
+                    event.getEventId(), CHAT_EVENTS_STREAM, event.getTargetUserId());
         } catch (Exception e) {
             log.error("❌ Failed to publish message event to Redis: {}", e.getMessage(), e);
         }
@@ -26,12 +46,20 @@ public class ChatEventPublisher {
         try {
             log.debug("Publishing presence event to Redis: userId={}, isOnline={}",
                     event.getTargetUserId(), event.isOnline());
-            redisTemplate.convertAndSend(PRESENCE_EVENTS_CHANNEL, event);
-            log.info("✅ Presence event published to Redis channel '{}': {} is now {}",
-                    PRESENCE_EVENTS_CHANNEL, event.getTargetUserId(),
+            append(PRESENCE_EVENTS_STREAM, event, PRESENCE_EVENTS_MAX_LEN);
+            log.info("✅ Presence event appended to Redis stream '{}': {} is now {}",
+                    PRESENCE_EVENTS_STREAM, event.getTargetUserId(),
                     event.isOnline() ? "ONLINE" : "OFFLINE");
         } catch (Exception e) {
             log.error("❌ Failed to publish presence event to Redis: {}", e.getMessage(), e);
         }
     }
+    public static String userStreamKey(String userId) {
+        return USER_STREAM_PREFIX + userId;
+    }
+    private RecordId append(String stream, ChatEvent event, long maxLen) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(event);
+        return redisTemplate.opsForStream().add(stream, Map.of(PAYLOAD_FIELD, payload),
+                XAddOptions.maxlen(maxLen).approximateTrimming(true));
+    }
 }
@@ -0,0 +1,86 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatEventReplayResponse;
+import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatEventReplayService {
+    static final int MAX_REPLAY_EVENTS = 100;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    public ChatEventReplayResponse replaySince(String userId, String lastEventId) {
+        String stream = ChatEventPublisher.userStreamKey(userId);
+        StreamOperations<String, Object, Object> streamOps = redisTemplate.opsForStream();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return response(Collections.emptyList(), latestEventId(streamOps, stream), false);
+        }
+        String from;
+        try {
+            RecordId since = RecordId.of(lastEventId);
+            from = since.getTimestamp() + "-" + (since.getSequence() + 1);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid replay cursor '{}' from {}, forcing resync", lastEventId, userId);
+            return response(Collections.emptyList(), latestEventId(streamOps, stream), true);
+        }
+        List<MapRecord<String, Object, Object>> records = streamOps.range(stream,
+                Range.rightUnbounded(Range.Bound.inclusive(from)),
+                Limit.limit().count(MAX_REPLAY_EVENTS + 1));
+        if (records == null || records.isEmpty()) {
+            return response(Collections.emptyList(), lastEventId, false);
+        }
+        if (records.size() > MAX_REPLAY_EVENTS || wasTrimmedPast(streamOps, stream, records.get(0))) {
+            log.info("Replay for {} since {} exceeds retained history, forcing resync", userId, lastEventId);
+            return response(Collections.emptyList(), latestEventId(streamOps, stream), true);
+        }
+        List<ChatEvent> events = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            try {
+                ChatEvent event = objectMapper.readValue(
+                        String.valueOf(record.getValue().get(ChatEventPublisher.PAYLOAD_FIELD)), ChatEvent.class);
+                event.setEventId(record.getId().getValue());
+                events.add(event);
+            } catch (Exception e) {
+                log.error("❌ Skipping unreadable chat event {} in {}: {}", record.getId(), stream, e.getMessage());
+            }
+        }
+        String cursor = records.get(records.size() - 1).getId().getValue();
+        log.debug("Replaying {} chat events to {} since {}", events.size(), userId, lastEventId);
+        return response(events, cursor, false);
+    }
+    private boolean wasTrimmedPast(StreamOperations<String, Object, Object> streamOps, String stream,
+            MapRecord<String, Object, Object> firstMissed) {
+        Long length = streamOps.size(stream);
+        if (length == null || length < ChatEventPublisher.USER_STREAM_MAX_LEN) {
+            return false;
+        }
+        List<MapRecord<String, Object, Object>> oldest = streamOps.range(stream, Range.unbounded(),
+                Limit.limit().count(1));
+        return oldest != null && !oldest.isEmpty() && oldest.get(0).getId().equals(firstMissed.getId());
+    }
+    private String latestEventId(StreamOperations<String, Object, Object> streamOps, String stream) {
+        List<MapRecord<String, Object, Object>> latest = streamOps.reverseRange(stream, Range.unbounded(),
+                Limit.limit().count(1));
+        return latest != null && !latest.isEmpty() ? latest.get(0).getId().getValue() : null;
+    }
+    private ChatEventReplayResponse response(List<ChatEvent> events, String lastEventId, boolean resyncRequired) {
+        return ChatEventReplayResponse.builder()
+                .events(events)
+                .lastEventId(lastEventId)
+                .resyncRequired(resyncRequired)
+                .build();
+    }
+}
@@ -3,19 +3,18 @@ package org.spacelab.housingutilitiessystemchairman.service.chat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
-import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Set;
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatEventSubscriber {
     private final SimpMessagingTemplate messagingTemplate;
-    private final ChairmanRepository chairmanRepository;
+    private final LocalSessionRegistry localSessionRegistry;
+    private final SidebarUpdateCoalescer sidebarUpdateCoalescer;
     private final ObjectMapper objectMapper;
     public void handleMessage(String message) {
         try {
@@ -25,21 +24,16 @@ public class ChatEventSubscriber {
                 log.debug("Event not for Chairman, skipping. TargetRole: {}", event.getTargetUserRole());
                 return;
             }
-            Optional<Chairman> chairmanOpt = chairmanRepository.findById(event.getTargetUserId());
-            if (chairmanOpt.isEmpty()) {
-                log.warn("Chairman not found for ID: {}", event.getTargetUserId());
+            Set<String> principals = localSessionRegistry.getPrincipalNames(event.getTargetUserId());
+            if (principals.isEmpty()) {
+                log.debug("Chairman {} has no sessions on this node, skipping WebSocket notification",
+                        event.getTargetUserId());
                 return;
             }
-            Chairman chairman = chairmanOpt.get();
-            if (!chairman.isOnline()) {
-                log.debug("Chairman {} is offline, skipping WebSocket notification", chairman.getLogin());
-                return;
+            for (String principal : principals) {
+                log.debug("📨 Queueing sidebar update for Chairman {}", principal);
+                sidebarUpdateCoalescer.enqueue(principal, event);
             }
-            log.info("📨 Sending sidebar update to Chairman {} via WebSocket", chairman.getLogin());
-            messagingTemplate.convertAndSendToUser(
-                    chairman.getLogin(),
-                    "/queue/sidebar",
-                    event);
         } catch (Exception e) {
             log.error("❌ Failed to handle message event from Redis: {}", e.getMessage(), e);
         }
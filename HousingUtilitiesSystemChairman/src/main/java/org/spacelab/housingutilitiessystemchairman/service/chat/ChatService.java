@@ -6,13 +6,16 @@ import org.bson.types.ObjectId;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.entity.User;
 import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatParticipant;
 import org.spacelab.housingutilitiessystemchairman.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ConversationSummary;
 import org.spacelab.housingutilitiessystemchairman.entity.location.House;
 import org.spacelab.housingutilitiessystemchairman.entity.location.Status;
 import org.spacelab.housingutilitiessystemchairman.exception.OperationException;
 import org.spacelab.housingutilitiessystemchairman.mappers.chat.ChatMessageMapper;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatContactResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatConversationResponse;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatSidebarResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
@@ -21,6 +24,7 @@ import org.spacelab.housingutilitiessystemchairman.repository.mongo.HouseReposit
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.UserRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ChatMessageRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ConversationRepository;
+import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ConversationSummaryRepository;
 import org.spacelab.housingutilitiessystemchairman.service.ChairmanService;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
@@ -29,6 +33,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 @Service
@@ -43,6 +48,11 @@ public class ChatService {
         private final UserRepository userRepository;
         private final ChatMessageMapper chatMessageMapper;
         private final ChatEventPublisher chatEventPublisher;
+        private final ConversationSummaryRepository conversationSummaryRepository;
+        private final PresenceService presenceService;
+        private final ConversationMembershipCache conversationMembershipCache;
+        private final ChatMessageWriteBehind chatMessageWriteBehind;
+        private static final int MAX_HISTORY_PAGE_SIZE = 100;
         public Chairman getCurrentUser() {
                 Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
                 if (authentication == null || !authentication.isAuthenticated()) {
@@ -58,160 +68,49 @@ public class ChatService {
         public ChatSidebarResponse getChatSidebar() {
                 Chairman chairman = getCurrentUser();
                 log.debug("Building chat sidebar for chairman: {}", chairman.getId());
-                Set<Conversation> conversations = chairman.getConversations();
-                if (conversations == null) {
-                        conversations = new HashSet<>();
-                }
-                log.debug("Found {} conversations for chairman", conversations.size());
-            List<ObjectId> conversationIds = conversations.stream()
-                    .map(c -> new ObjectId(c.getId()))
-                    .collect(Collectors.toList());
-            Map<String, ChatMessage> lastMessageByConversation = new HashMap<>();
-            if (!conversationIds.isEmpty()) {
-                List<ChatMessage> allMessages = chatMessageRepository.findByConversationIdIn(conversationIds);
-                for (ChatMessage msg : allMessages) {
-                    String convId = msg.getConversation().getId();
-                    if (!lastMessageByConversation.containsKey(convId)) {
-                        lastMessageByConversation.put(convId, msg);
-                    }
-                }
-            }
-            Set<String> userParticipantIds = new HashSet<>();
-            Set<String> chairmanParticipantIds = new HashSet<>();
-            Map<String, ParticipantInfo> participantInfoByConversation = new HashMap<>();
-            for (ChatMessage msg : lastMessageByConversation.values()) {
-                if (!msg.getSenderId().equals(chairman.getId())) {
-                    String convId = msg.getConversation().getId();
-                    participantInfoByConversation.put(convId,
-                            new ParticipantInfo(msg.getSenderId(), msg.getSenderType()));
-                    if ("USER".equals(msg.getSenderType())) {
-                        userParticipantIds.add(msg.getSenderId());
-                    } else if ("CHAIRMAN".equals(msg.getSenderType())) {
-                        chairmanParticipantIds.add(msg.getSenderId());
-                    }
-                }
-            }
-            for (Conversation conv : conversations) {
-                if (!participantInfoByConversation.containsKey(conv.getId())) {
-                    List<ChatMessage> msgs = chatMessageRepository.findLatestByConversationId(conv.getId());
-                    for (ChatMessage msg : msgs) {
-                        if (!msg.getSenderId().equals(chairman.getId())) {
-                            participantInfoByConversation.put(conv.getId(),
-                                    new ParticipantInfo(msg.getSenderId(),
-                                            msg.getSenderType()));
-                            if ("USER".equals(msg.getSenderType())) {
-                                userParticipantIds.add(msg.getSenderId());
-                            } else if ("CHAIRMAN".equals(msg.getSenderType())) {
-                                chairmanParticipantIds.add(msg.getSenderId());
-                            }
-                            break;
-                        }
-                    }
-                }
-            }
-            Map<String, User> usersById = new HashMap<>();
-            if (!userParticipantIds.isEmpty()) {
-                List<ObjectId> userIds = userParticipantIds.stream()
-                        .map(ObjectId::new)
-                        .collect(Collectors.toList());
-                userRepository.findAllById(userIds).forEach(u -> usersById.put(u.getId(), u));
-            }
-            Map<String, Chairman> chairmansById = new HashMap<>();
-            if (!chairmanParticipantIds.isEmpty()) {
-                chairmanRepository.findAllById(chairmanParticipantIds)
-                        .forEach(c -> chairmansById.put(c.getId(), c));
-            }
-                List<ChatConversationResponse> conversationResponses = conversations.stream()
-                        .map(conv -> toConversationResponseOptimized(conv, chairman.getId(),
-                                lastMessageByConversation.get(conv.getId()),
-                                participantInfoByConversation.get(conv.getId()),
-                                usersById, chairmansById))
-                                .sorted((c1, c2) -> {
-                                        String t1 = c1.getLastMessageTime();
-                                        String t2 = c2.getLastMessageTime();
-                                        if (t1 == null || t1.isEmpty())
-                                                return 1;
-                                        if (t2 == null || t2.isEmpty())
-                                                return -1;
-                                        return t2.compareTo(t1);
-                                })
-                                .collect(Collectors.toList());
-            Set<String> participantsInConversations = participantInfoByConversation.values().stream()
-                    .map(ParticipantInfo::id)
-                    .collect(Collectors.toSet());
+                List<ConversationSummary> summaries = loadConversationSummaries(chairman);
+                log.debug("Found {} conversations for chairman", summaries.size());
+                Set<String> participantsInConversations = summaries.stream()
+                                .map(ConversationSummary::getParticipantId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet());
                 Set<House> chairmanHouses = houseRepository.findByChairman(chairman);
-            List<ChatContactResponse> contacts;
-            if (chairmanHouses.isEmpty()) {
-                contacts = new ArrayList<>();
-            } else {
-                contacts = userRepository.findByHouseIn(new ArrayList<>(chairmanHouses)).stream()
-                        .distinct()
-                        .filter(user -> user.getStatus() == Status.ACTIVE)
-                        .filter(user -> !participantsInConversations.contains(user.getId()))
-                        .sorted((u1, u2) -> Boolean.compare(u2.isOnline(), u1.isOnline()))
-                        .map(u -> ChatContactResponse.builder()
-                                .id(u.getId())
-                                .name(u.getFullName())
-                                .avatar(u.getPhoto())
-                                .online(u.isOnline())
-                                .participantType("USER")
-                                .build())
-                        .collect(Collectors.toList());
-            }
+                List<User> contactUsers = chairmanHouses.isEmpty()
+                                ? new ArrayList<>()
+                                : userRepository.findByHouseIn(new ArrayList<>(chairmanHouses)).stream()
+                                                .distinct()
+                                                .filter(user -> user.getStatus() == Status.ACTIVE)
+                                                .filter(user -> !participantsInConversations.contains(user.getId()))
+                                                .collect(Collectors.toList());
+                Set<String> presenceIds = new HashSet<>(participantsInConversations);
+                contactUsers.forEach(u -> presenceIds.add(u.getId()));
+                Map<String, Boolean> online = presenceService.isOnline(presenceIds);
+                List<ChatConversationResponse> conversationResponses = summaries.stream()
+                                .map(summary -> toConversationResponse(summary,
+                                                online.getOrDefault(summary.getParticipantId(), false)))
+                                .collect(Collectors.toList());
+                List<ChatContactResponse> contacts = contactUsers.stream()
+                                .map(u -> ChatContactResponse.builder()
+                                                .id(u.getId())
+                                                .name(u.getFullName())
+                                                .avatar(u.getPhoto())
+                                                .online(online.getOrDefault(u.getId(), false))
+                                                .participantType("USER")
+                                                .build())
+                                .sorted((c1, c2) -> Boolean.compare(c2.isOnline(), c1.isOnline()))
+                                .collect(Collectors.toList());
                 return ChatSidebarResponse.builder()
                                 .chatConversationResponses(conversationResponses)
                                 .chatContactResponses(contacts)
                                 .build();
         }
 
-    private ChatConversationResponse toConversationResponseOptimized(
-            Conversation conversation,
-            String currentUserId,
-            ChatMessage lastMessage,
-            ParticipantInfo participantInfo,
-            Map<String, User> usersById,
-            Map<String, Chairman> chairmansById) {
-        String name = "Новый диалог";
-        String avatar = null;
-        boolean online = false;
-        String participantId = null;
-        String participantType = null;
-        if (participantInfo != null) {
-            participantId = participantInfo.id();
-            participantType = participantInfo.type();
-            if ("USER".equals(participantType) && usersById.containsKey(participantId)) {
-                User u = usersById.get(participantId);
-                name = u.getFullName();
-                avatar = u.getPhoto();
-                online = u.isOnline();
-            } else if ("CHAIRMAN".equals(participantType) && chairmansById.containsKey(participantId)) {
-                Chairman ch = chairmansById.get(participantId);
-                name = ch.getFullName();
-                avatar = ch.getPhoto();
-                online = ch.isOnline();
-            }
-        }
-        return ChatConversationResponse.builder()
-                .id(conversation.getId())
-                .participantId(participantId)
-                .name(name)
-                .avatar(avatar)
-                .lastMessage(lastMessage != null ? lastMessage.getContent() : "")
-                .lastMessageTime(lastMessage != null ? lastMessage.getCreatedAt().toString() : "")
-                .online(online)
-                .participantType(participantType)
-                .build();
-    }
-
-    private record ParticipantInfo(String id, String type) {
-    }
         public ChatMessageResponse sendMessage(String conversationId, String content, Chairman sender) {
                 log.debug("Sending message to conversation {}: {}", conversationId, content);
                 Conversation conversation = conversationRepository.findById(conversationId)
                                 .orElseThrow(() -> new OperationException("отправке сообщения",
                                                 "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
-                if (sender.getConversations() == null ||
-                                !sender.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                if (!isParticipant(conversation, sender)) {
                         throw new OperationException("отправке сообщения",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
@@ -221,155 +120,321 @@ public class ChatService {
                 message.setSenderId(sender.getId());
                 message.setSenderType("CHAIRMAN");
                 message.setCreatedAt(Instant.now());
-                ChatMessage savedMessage = chatMessageRepository.save(message);
-                log.info("✅ Message saved: {}", savedMessage.getId());
-                conversation.setUpdatedAt(Instant.now());
-                conversationRepository.save(conversation);
-                String recipientId = getOtherParticipantId(conversation, sender.getId());
-                String recipientType = getOtherParticipantType(conversation, sender.getId());
-                if (recipientId != null && "USER".equals(recipientType)) {
-                        userRepository.findById(new ObjectId(recipientId)).ifPresent(user -> {
-                                if (user.isOnline()) {
-                                        log.info("📨 Recipient {} is online, publishing event via Redis",
-                                                        user.getLogin());
-                                        ChatEvent event = buildChatEventForUser(savedMessage, user, sender);
-                                        chatEventPublisher.publishMessageEvent(event);
+                ChatMessage savedMessage;
+                if (chatMessageWriteBehind.isEnabled()) {
+                        savedMessage = chatMessageWriteBehind.enqueue(message);
+                        conversation.setUpdatedAt(message.getCreatedAt());
+                        log.info("✅ Message queued for write-behind: {}", savedMessage.getId());
+                } else {
+                        savedMessage = chatMessageRepository.save(message);
+                        log.info("✅ Message saved: {}", savedMessage.getId());
+                        conversation.setUpdatedAt(Instant.now());
+                        conversationRepository.save(conversation);
+                }
+                ChatParticipant recipient = getOtherParticipant(conversation, sender);
+                if (recipient != null) {
+                        ChatParticipant recipientView = recipient;
+                        Map<String, Boolean> online = presenceService.isOnline(
+                                        List.of(sender.getId(), recipient.getId()));
+                        boolean senderOnline = online.getOrDefault(sender.getId(), false);
+                        boolean recipientOnline = online.getOrDefault(recipient.getId(), false);
+                        if (recipient.isUser()) {
+                                User user = userRepository.findById(new ObjectId(recipient.getId())).orElse(null);
+                                if (user != null) {
+                                        recipientView = toParticipant(user);
+                                        if (recipientOnline) {
+                                                log.info("📨 Recipient {} is online, publishing event via Redis",
+                                                                user.getLogin());
+                                                ChatEvent event = buildChatEventForUser(savedMessage, user, sender,
+                                                                senderOnline);
+                                                chatEventPublisher.publishMessageEvent(event);
+                                        }
                                 }
-                        });
-                } else if (recipientId != null && "CHAIRMAN".equals(recipientType)) {
-                        chairmanRepository.findById(recipientId).ifPresent(targetChairman -> {
-                                if (targetChairman.isOnline()) {
-                                        log.info("📨 Recipient {} is online, publishing event via Redis",
-                                                        targetChairman.getLogin());
-                                        ChatEvent event = buildChatEventForChairman(savedMessage, targetChairman,
-                                                        sender);
-                                        chatEventPublisher.publishMessageEvent(event);
+                        } else {
+                                Chairman targetChairman = chairmanRepository.findById(recipient.getId()).orElse(null);
+                                if (targetChairman != null) {
+                                        recipientView = toParticipant(targetChairman);
+                                        if (recipientOnline) {
+                                                log.info("📨 Recipient {} is online, publishing event via Redis",
+                                                                targetChairman.getLogin());
+                                                ChatEvent event = buildChatEventForChairman(savedMessage, targetChairman,
+                                                                sender, senderOnline);
+                                                chatEventPublisher.publishMessageEvent(event);
+                                        }
                                 }
-                        });
+                        }
+                        conversationSummaryRepository.recordMessage(sender.getId(), conversationId, recipientView,
+                                        savedMessage.getContent(), savedMessage.getCreatedAt(), false);
+                        conversationSummaryRepository.recordMessage(recipient.getId(), conversationId,
+                                        toParticipant(sender), savedMessage.getContent(), savedMessage.getCreatedAt(), true);
                 }
                 return chatMessageMapper.toResponse(savedMessage, sender.getId());
         }
         public Conversation getOrCreateConversation(String targetId, String targetType) {
                 Chairman chairman = getCurrentUser();
-                Set<Conversation> myConversations = chairman.getConversations();
-                if (myConversations != null) {
-                        for (Conversation conv : myConversations) {
-                                String otherId = getOtherParticipantId(conv, chairman.getId());
-                                if (targetId.equals(otherId)) {
-                                        log.debug("Found existing conversation with {}", targetId);
-                                        return conv;
-                                }
-                        }
+                Optional<Conversation> existing = findExistingConversation(chairman, targetId);
+                if (existing.isPresent()) {
+                        log.debug("Found existing conversation with {}", targetId);
+                        return existing.get();
                 }
                 log.info("Creating new conversation between chairman {} and {} {}",
                                 chairman.getId(), targetType, targetId);
-                Conversation newConversation = Conversation.builder()
-                                .createdAt(Instant.now())
-                                .updatedAt(Instant.now())
-                                .build();
-                Conversation savedConversation = conversationRepository.save(newConversation);
-                if (chairman.getConversations() == null) {
-                        chairman.setConversations(new HashSet<>());
-                }
-                chairman.getConversations().add(savedConversation);
-                chairmanRepository.save(chairman);
+                User targetUser = null;
+                Chairman targetChairman = null;
+                ChatParticipant targetParticipant;
                 if ("USER".equals(targetType) || targetType == null) {
-                        User target = userRepository.findById(new ObjectId(targetId))
+                        targetUser = userRepository.findById(new ObjectId(targetId))
                                         .orElseThrow(() -> new OperationException("создании диалога",
                                                         "Пользователь не найден: " + targetId, HttpStatus.NOT_FOUND));
-                        if (target.getConversations() == null) {
-                                target.setConversations(new HashSet<>());
-                        }
-                        target.getConversations().add(savedConversation);
-                        userRepository.save(target);
+                        targetParticipant = toParticipant(targetUser);
                 } else {
-                        Chairman target = chairmanRepository.findById(targetId)
+                        targetChairman = chairmanRepository.findById(targetId)
                                         .orElseThrow(() -> new OperationException("создании диалога",
                                                         "Председатель не найден: " + targetId, HttpStatus.NOT_FOUND));
-                        if (target.getConversations() == null) {
-                                target.setConversations(new HashSet<>());
-                        }
-                        target.getConversations().add(savedConversation);
-                        chairmanRepository.save(target);
+                        targetParticipant = toParticipant(targetChairman);
                 }
-                ChatMessage initMessage = ChatMessage.builder()
-                                .conversation(savedConversation)
-                                .content("")
-                                .senderId(targetId)
-                                .senderType(targetType != null ? targetType : "USER")
+                Conversation newConversation = Conversation.builder()
+                                .participants(new ArrayList<>(List.of(toParticipant(chairman), targetParticipant)))
                                 .createdAt(Instant.now())
+                                .updatedAt(Instant.now())
                                 .build();
-                chatMessageRepository.save(initMessage);
+                Conversation savedConversation = conversationRepository.save(newConversation);
+                conversationRepository.linkConversation(Chairman.class, chairman.getId(), savedConversation.getId());
+                conversationRepository.linkConversation(targetUser != null ? User.class : Chairman.class,
+                                targetParticipant.getId(), savedConversation.getId());
+                conversationSummaryRepository.initSummary(chairman.getId(), savedConversation.getId(),
+                                targetParticipant);
+                conversationSummaryRepository.initSummary(targetParticipant.getId(), savedConversation.getId(),
+                                toParticipant(chairman));
+                conversationMembershipCache.addConversation(savedConversation.getId(),
+                                List.of(chairman.getId(), targetParticipant.getId()));
                 return savedConversation;
         }
         public List<ChatMessageResponse> getConversationMessages(String conversationId, int limit) {
-                log.info("📥 Loading messages for conversation: {}, limit: {}", conversationId, limit);
-                Chairman chairman = getCurrentUser();
-                if (chairman.getConversations() == null ||
-                                !chairman.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                return getConversationMessages(conversationId, null, limit);
+        }
+        public List<ChatMessageResponse> getConversationMessages(String conversationId, String before, int limit) {
+                return getConversationHistory(conversationId, before, limit, getCurrentUser()).getMessages();
+        }
+        public ChatHistoryResponse getConversationHistory(String conversationId, String before, int limit,
+                        Chairman chairman) {
+                log.info("📥 Loading messages for conversation: {}, before: {}, limit: {}", conversationId, before, limit);
+                Conversation conversation = conversationRepository.findById(conversationId)
+                                .orElseThrow(() -> new OperationException("загрузке сообщений",
+                                                "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
+                if (!isParticipant(conversation, chairman)) {
                         throw new OperationException("загрузке сообщений",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
-                List<ChatMessage> messages = chatMessageRepository.findByConversationId(
-                                conversationId, PageRequest.of(0, limit));
+                int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+                List<ChatMessage> messages = findMessagesBefore(conversationId, before, pageSize + 1);
+                boolean hasMore = messages.size() > pageSize;
+                if (hasMore) {
+                        messages = new ArrayList<>(messages.subList(0, pageSize));
+                }
+                String nextBefore = messages.isEmpty() ? null : messages.get(messages.size() - 1).getId();
                 log.info("📨 Found {} messages for conversation {}", messages.size(), conversationId);
+                if (before == null || before.isBlank()) {
+                        conversationSummaryRepository.resetUnread(chairman.getId(), conversationId);
+                }
                 Collections.reverse(messages);
                 List<ChatMessage> filtered = messages.stream()
                                 .filter(msg -> msg.getContent() != null && !msg.getContent().isEmpty())
                                 .collect(Collectors.toList());
-                return chatMessageMapper.toResponseList(filtered, chairman.getId());
+                return ChatHistoryResponse.builder()
+                                .conversationId(conversationId)
+                                .messages(chatMessageMapper.toResponseList(filtered, chairman.getId()))
+                                .nextBefore(nextBefore)
+                                .hasMore(hasMore)
+                                .build();
         }
         public ChatConversationResponse getConversationInfo(String conversationId) {
                 Chairman chairman = getCurrentUser();
                 Conversation conversation = conversationRepository.findById(conversationId)
                                 .orElseThrow(() -> new OperationException("получении диалога",
                                                 "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
-                if (chairman.getConversations() == null ||
-                                !chairman.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                if (!isParticipant(conversation, chairman)) {
                         throw new OperationException("получении диалога",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
-                return toConversationResponse(conversation, chairman.getId());
+                return toConversationResponse(conversation, chairman);
+        }
+        private boolean isParticipant(Conversation conversation, Chairman chairman) {
+                List<ChatParticipant> participants = conversation.getParticipants();
+                if (participants != null && !participants.isEmpty()) {
+                        return participants.stream().anyMatch(p -> chairman.getId().equals(p.getId()));
+                }
+                return chairman.getConversations() != null &&
+                                chairman.getConversations().stream().anyMatch(c -> c.getId().equals(conversation.getId()));
         }
-        private String getOtherParticipantId(Conversation conversation, String currentUserId) {
-                List<ChatMessage> messages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                return messages.stream()
-                                .map(ChatMessage::getSenderId)
-                                .filter(id -> !id.equals(currentUserId))
+        private Optional<Conversation> findExistingConversation(Chairman chairman, String targetId) {
+                List<Conversation> found = conversationRepository.findByParticipantIds(chairman.getId(), targetId);
+                if (!found.isEmpty()) {
+                        return Optional.of(found.get(0));
+                }
+                if (chairman.getConversations() == null) {
+                        return Optional.empty();
+                }
+                return chairman.getConversations().stream()
+                                .filter(conv -> conv.getParticipants() == null || conv.getParticipants().isEmpty())
+                                .filter(conv -> {
+                                        ChatParticipant other = getOtherParticipant(conv, chairman);
+                                        return other != null && targetId.equals(other.getId());
+                                })
+                                .findFirst();
+        }
+        private ChatParticipant getOtherParticipant(Conversation conversation, Chairman current) {
+                return resolveParticipants(conversation, current).stream()
+                                .filter(p -> !p.getId().equals(current.getId()))
                                 .findFirst()
                                 .orElse(null);
         }
-        private String getOtherParticipantType(Conversation conversation, String currentUserId) {
-                List<ChatMessage> messages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                return messages.stream()
-                                .filter(msg -> !msg.getSenderId().equals(currentUserId))
-                                .map(ChatMessage::getSenderType)
+        private List<ChatParticipant> resolveParticipants(Conversation conversation, Chairman current) {
+                if (conversation.getParticipants() != null && !conversation.getParticipants().isEmpty()) {
+                        return conversation.getParticipants();
+                }
+                List<ChatParticipant> participants = new ArrayList<>();
+                participants.add(toParticipant(current));
+                chatMessageRepository.findLatestByConversationId(conversation.getId()).stream()
+                                .filter(msg -> !msg.getSenderId().equals(current.getId()))
                                 .findFirst()
-                                .orElse(null);
+                                .ifPresent(msg -> participants.add(buildParticipant(msg.getSenderId(), msg.getSenderType())));
+                if (participants.size() > 1) {
+                        conversation.setParticipants(participants);
+                        conversationRepository.save(conversation);
+                        log.info("Backfilled participants for conversation {}", conversation.getId());
+                }
+                return participants;
+        }
+        private ChatParticipant buildParticipant(String id, String type) {
+                if (ChatParticipant.TYPE_CHAIRMAN.equals(type)) {
+                        return chairmanRepository.findById(id)
+                                        .map(this::toParticipant)
+                                        .orElseGet(() -> ChatParticipant.builder().id(id).type(type).build());
+                }
+                return userRepository.findById(new ObjectId(id))
+                                .map(this::toParticipant)
+                                .orElseGet(() -> ChatParticipant.builder().id(id).type(ChatParticipant.TYPE_USER).build());
+        }
+        private ChatParticipant toParticipant(User user) {
+                return ChatParticipant.builder()
+                                .id(user.getId())
+                                .type(ChatParticipant.TYPE_USER)
+                                .fullName(user.getFullName())
+                                .avatar(user.getPhoto())
+                                .build();
+        }
+        private ChatParticipant toParticipant(Chairman chairman) {
+                return ChatParticipant.builder()
+                                .id(chairman.getId())
+                                .type(ChatParticipant.TYPE_CHAIRMAN)
+                                .fullName(chairman.getFullName())
+                                .avatar(chairman.getPhoto())
+                                .build();
+        }
+        private List<ConversationSummary> loadConversationSummaries(Chairman chairman) {
+                List<ConversationSummary> summaries = new ArrayList<>(
+                                conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc(chairman.getId()));
+                List<String> conversationIds = conversationRepository.findConversationIds(Chairman.class, chairman.getId());
+                if (conversationIds.size() <= summaries.size()) {
+                        return summaries;
+                }
+                Set<String> summarized = summaries.stream()
+                                .map(ConversationSummary::getConversationId)
+                                .collect(Collectors.toSet());
+                List<String> missing = conversationIds.stream()
+                                .filter(id -> !summarized.contains(id))
+                                .distinct()
+                                .collect(Collectors.toList());
+                if (missing.isEmpty()) {
+                        return summaries;
+                }
+                List<ConversationSummary> backfilled = new ArrayList<>();
+                conversationRepository.findAllById(missing)
+                                .forEach(conv -> backfilled.add(toSummary(toConversationResponse(conv, chairman), chairman.getId())));
+                if (backfilled.isEmpty()) {
+                        return summaries;
+                }
+                backfilled.forEach(conversationSummaryRepository::backfillSummary);
+                log.info("Backfilled {} conversation summaries for chairman {}", backfilled.size(), chairman.getId());
+                summaries.addAll(backfilled);
+                summaries.sort(Comparator.comparing(ConversationSummary::getLastMessageTime,
+                                Comparator.nullsLast(Comparator.reverseOrder())));
+                return summaries;
+        }
+        private ConversationSummary toSummary(ChatConversationResponse response, String ownerId) {
+                String lastMessageTime = response.getLastMessageTime();
+                return ConversationSummary.builder()
+                                .ownerId(ownerId)
+                                .conversationId(response.getId())
+                                .participantId(response.getParticipantId())
+                                .participantType(response.getParticipantType())
+                                .participantName(response.getName())
+                                .participantAvatar(response.getAvatar())
+                                .lastMessage(response.getLastMessage())
+                                .lastMessageTime(lastMessageTime == null || lastMessageTime.isEmpty()
+                                                ? null : Instant.parse(lastMessageTime))
+                                .updatedAt(Instant.now())
+                                .build();
+        }
+        private ChatConversationResponse toConversationResponse(ConversationSummary summary, boolean online) {
+                return ChatConversationResponse.builder()
+                                .id(summary.getConversationId())
+                                .participantId(summary.getParticipantId())
+                                .name(summary.getParticipantName() != null ? summary.getParticipantName() : "Новый диалог")
+                                .avatar(summary.getParticipantAvatar())
+                                .lastMessage(summary.getLastMessage() != null ? summary.getLastMessage() : "")
+                                .lastMessageTime(summary.getLastMessageTime() != null
+                                                ? summary.getLastMessageTime().toString() : "")
+                                .online(online)
+                                .participantType(summary.getParticipantType())
+                                .unreadCount(summary.getUnreadCount())
+                                .build();
+        }
+        private List<ChatMessage> findMessagesBefore(String conversationId, String before, int limit) {
+                PageRequest page = PageRequest.of(0, limit);
+                if (before == null || before.isBlank()) {
+                        return chatMessageRepository.findByConversationId(conversationId, page);
+                }
+                if (ObjectId.isValid(before)) {
+                        ChatMessage cursor = chatMessageRepository.findByIdAndConversationId(before, conversationId)
+                                        .orElseThrow(() -> new OperationException("загрузке сообщений",
+                                                        "Сообщение не найдено: " + before, HttpStatus.BAD_REQUEST));
+                        return chatMessageRepository.findByConversationIdBefore(
+                                        conversationId, cursor.getCreatedAt(), cursor.getId(), page);
+                }
+                try {
+                        return chatMessageRepository.findByConversationIdBefore(
+                                        conversationId, Instant.parse(before), page);
+                } catch (DateTimeParseException e) {
+                        throw new OperationException("загрузке сообщений",
+                                        "Некорректный параметр before: " + before, HttpStatus.BAD_REQUEST);
+                }
+        }
+        private ChatMessage findLastMessage(String conversationId) {
+                List<ChatMessage> messages = chatMessageRepository.findByConversationId(
+                                conversationId, PageRequest.of(0, 1));
+                return messages.isEmpty() ? null : messages.get(0);
         }
-        private ChatConversationResponse toConversationResponse(Conversation conversation, String currentUserId) {
-                List<ChatMessage> lastMessages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                ChatMessage lastMessage = lastMessages.isEmpty() ? null : lastMessages.get(0);
-                String otherId = getOtherParticipantId(conversation, currentUserId);
-                String otherType = getOtherParticipantType(conversation, currentUserId);
-                String name = "Новый диалог";
-                String avatar = null;
-                boolean online = false;
+        private ChatConversationResponse toConversationResponse(Conversation conversation, Chairman current) {
+                ChatMessage lastMessage = findLastMessage(conversation.getId());
+                ChatParticipant other = getOtherParticipant(conversation, current);
+                String otherId = other != null ? other.getId() : null;
+                String otherType = other != null ? other.getType() : null;
+                String name = other != null && other.getFullName() != null ? other.getFullName() : "Новый диалог";
+                String avatar = other != null ? other.getAvatar() : null;
+                boolean online = presenceService.isOnline(otherId);
                 if (otherId != null && "USER".equals(otherType)) {
-                        userRepository.findById(new ObjectId(otherId)).ifPresent(u -> {
-                        });
                         User u = userRepository.findById(new ObjectId(otherId)).orElse(null);
                         if (u != null) {
                                 name = u.getFullName();
                                 avatar = u.getPhoto();
-                                online = u.isOnline();
                         }
                 } else if (otherId != null && "CHAIRMAN".equals(otherType)) {
                         Chairman ch = chairmanRepository.findById(otherId).orElse(null);
                         if (ch != null) {
                                 name = ch.getFullName();
                                 avatar = ch.getPhoto();
-                                online = ch.isOnline();
                         }
                 }
                 return ChatConversationResponse.builder()
@@ -383,7 +448,8 @@ public class ChatService {
                                 .participantType(otherType)
                                 .build();
         }
-        private ChatEvent buildChatEventForUser(ChatMessage message, User recipient, Chairman sender) {
+        private ChatEvent buildChatEventForUser(ChatMessage message, User recipient, Chairman sender,
+                        boolean senderOnline) {
                 return ChatEvent.builder()
                                 .eventType("MESSAGE_SENT")
                                 .targetUserId(recipient.getId())
@@ -396,10 +462,11 @@ public class ChatService {
                                 .senderType("CHAIRMAN")
                                 .lastMessage(message.getContent())
                                 .timestamp(message.getCreatedAt())
-                                .isOnline(sender.isOnline())
+                                .isOnline(senderOnline)
                                 .build();
         }
-        private ChatEvent buildChatEventForChairman(ChatMessage message, Chairman recipient, Chairman sender) {
+        private ChatEvent buildChatEventForChairman(ChatMessage message, Chairman recipient, Chairman sender,
+                        boolean senderOnline) {
                 return ChatEvent.builder()
                                 .eventType("MESSAGE_SENT")
                                 .targetUserId(recipient.getId())
@@ -412,7 +479,7 @@ public class ChatService {
                                 .senderType("CHAIRMAN")
                                 .lastMessage(message.getContent())
                                 .timestamp(message.getCreatedAt())
-                                .isOnline(sender.isOnline())
+                                .isOnline(senderOnline)
                                 .build();
         }
 }
@@ -0,0 +1,99 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.config.websocket.WebSocketConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumer;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoGroup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatStreamGroups {
+    static final String CONSUMER_GROUP_PREFIX = "chairman-module:";
+    static final String RELAY_PRESENCE_GROUP = "chat-relay:presence";
+    private static final List<String> STREAMS =
+            List.of(ChatEventPublisher.CHAT_EVENTS_STREAM, ChatEventPublisher.PRESENCE_EVENTS_STREAM);
+    private final StringRedisTemplate redisTemplate;
+    @Value("${chat.events.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${chat.events.stale-group-idle:PT1H}")
+    private Duration staleGroupIdle;
+    private final Set<String> consumerlessGroups = ConcurrentHashMap.newKeySet();
+    public String nodeId() {
+        return nodeId;
+    }
+    public String chatGroup() {
+        return CONSUMER_GROUP_PREFIX + nodeId;
+    }
+    public String presenceGroup() {
+        return relayMode() ? RELAY_PRESENCE_GROUP : chatGroup();
+    }
+    @PreDestroy
+    public void leave() {
+        destroy(ChatEventPublisher.CHAT_EVENTS_STREAM, chatGroup());
+        if (!relayMode()) {
+            destroy(ChatEventPublisher.PRESENCE_EVENTS_STREAM, presenceGroup());
+        }
+    }
+    @Scheduled(fixedDelayString = "${chat.events.group-sweep-interval-ms:600000}",
+            initialDelayString = "${chat.events.group-sweep-interval-ms:600000}")
+    public void sweepStaleGroups() {
+        Set<String> consumerless = new HashSet<>();
+        for (String stream : STREAMS) {
+            try {
+                for (XInfoGroup group : redisTemplate.opsForStream().groups(stream)) {
+                    String name = group.groupName();
+                    if (!name.startsWith(CONSUMER_GROUP_PREFIX) || name.equals(chatGroup()) || name.equals(presenceGroup())) {
+                        continue;
+                    }
+                    if (group.consumerCount() == null || group.consumerCount() == 0) {
+                        String key = stream + " " + name;
+                        consumerless.add(key);
+                        if (consumerlessGroups.contains(key)) {
+                            destroy(stream, name);
+                        }
+                    } else if (allConsumersIdle(stream, name)) {
+                        destroy(stream, name);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to sweep consumer groups of stream '{}': {}", stream, e.getMessage());
+            }
+        }
+        consumerlessGroups.clear();
+        consumerlessGroups.addAll(consumerless);
+    }
+    private boolean allConsumersIdle(String stream, String group) {
+        for (XInfoConsumer consumer : redisTemplate.opsForStream().consumers(stream, group)) {
+            if (consumer.idleTimeMs() < staleGroupIdle.toMillis()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private void destroy(String stream, String group) {
+        try {
+            redisTemplate.opsForStream().destroyGroup(stream, group);
+            log.info("🧹 Removed consumer group '{}' from stream '{}'", group, stream);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to remove consumer group '{}' from stream '{}': {}", group, stream, e.getMessage());
+        }
+    }
+    private boolean relayMode() {
+        return WebSocketConfig.BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode);
+    }
+}
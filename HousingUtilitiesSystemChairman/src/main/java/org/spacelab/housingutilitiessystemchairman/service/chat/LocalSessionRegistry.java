@@ -0,0 +1,60 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class LocalSessionRegistry {
+    private final Map<String, LocalSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    public void register(String userId, String sessionId, String principalName) {
+        sessions.put(sessionId, new LocalSession(userId, principalName));
+        sessionsByUser.compute(userId, (id, userSessions) -> {
+            Set<String> updated = userSessions != null ? userSessions : ConcurrentHashMap.newKeySet();
+            updated.add(sessionId);
+            return updated;
+        });
+        log.debug("Registered local session {} of {} ({})", sessionId, userId, principalName);
+    }
+    public Optional<String> unregister(String sessionId) {
+        LocalSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        sessionsByUser.computeIfPresent(session.userId(), (id, userSessions) -> {
+            userSessions.remove(sessionId);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        log.debug("Unregistered local session {} of {}", sessionId, session.userId());
+        return Optional.of(session.userId());
+    }
+    public Optional<String> getUserId(String sessionId) {
+        LocalSession session = sessionId != null ? sessions.get(sessionId) : null;
+        return session != null ? Optional.of(session.userId()) : Optional.empty();
+    }
+    public Set<String> getPrincipalNames(String userId) {
+        Set<String> userSessions = userId != null ? sessionsByUser.get(userId) : null;
+        if (userSessions == null) {
+            return Collections.emptySet();
+        }
+        Set<String> principals = new HashSet<>();
+        for (String sessionId : userSessions) {
+            LocalSession session = sessions.get(sessionId);
+            if (session != null) {
+                principals.add(session.principalName());
+            }
+        }
+        return principals;
+    }
+    public Map<String, String> getSessionOwners() {
+        Map<String, String> owners = new HashMap<>();
+        sessions.forEach((sessionId, session) -> owners.put(sessionId, session.userId()));
+        return owners;
+    }
+    private record LocalSession(String userId, String principalName) {
+    }
+}
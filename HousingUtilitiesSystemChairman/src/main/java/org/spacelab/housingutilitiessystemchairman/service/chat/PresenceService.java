@@ -0,0 +1,149 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+    static final String SESSIONS_KEY_PREFIX = "presence:sessions:";
+    static final String ONLINE_KEY = "presence:online";
+    static final String LAST_ACTIVE_KEY = "presence:last_active";
+    static final Duration SESSION_TTL = Duration.ofSeconds(90);
+    static final long HEARTBEAT_INTERVAL_MS = 30_000;
+    static final int SWEEP_BATCH_SIZE = 500;
+    static final RedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3]) "
+                    + "local before = redis.call('ZCARD', KEYS[1]) "
+                    + "redis.call('ZADD', KEYS[1], ARGV[4], ARGV[2]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "local top = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES') "
+                    + "redis.call('ZADD', KEYS[2], top[2], ARGV[1]) "
+                    + "redis.call('HSET', KEYS[3], ARGV[1], ARGV[3]) "
+                    + "return before",
+            Long.class);
+    static final RedisScript<Long> DISCONNECT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[1], ARGV[2]) "
+                    + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3]) "
+                    + "redis.call('HSET', KEYS[3], ARGV[1], ARGV[3]) "
+                    + "if redis.call('ZCARD', KEYS[1]) > 0 then "
+                    + "local top = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES') "
+                    + "redis.call('ZADD', KEYS[2], top[2], ARGV[1]) "
+                    + "return 0 end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "return redis.call('ZREM', KEYS[2], ARGV[1])",
+            Long.class);
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static final RedisScript<List> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) "
+                    + "for _, id in ipairs(expired) do redis.call('ZREM', KEYS[1], id) end "
+                    + "return expired",
+            List.class);
+    private final StringRedisTemplate redisTemplate;
+    private final ChatEventPublisher chatEventPublisher;
+    private final LocalSessionRegistry localSessionRegistry;
+    public boolean connect(String userId, String sessionId) {
+        boolean cameOnline = touch(userId, sessionId);
+        if (cameOnline) {
+            publishPresenceEvent(userId, true);
+        }
+        log.debug("Session {} of {} registered, came online: {}", sessionId, userId, cameOnline);
+        return cameOnline;
+    }
+    public boolean disconnect(String userId, String sessionId) {
+        String now = String.valueOf(System.currentTimeMillis());
+        Long result = redisTemplate.execute(DISCONNECT_SCRIPT, presenceKeys(userId), userId, sessionId, now);
+        boolean wentOffline = result != null && result > 0;
+        if (wentOffline) {
+            publishPresenceEvent(userId, false);
+        }
+        log.debug("Session {} of {} closed, went offline: {}", sessionId, userId, wentOffline);
+        return wentOffline;
+    }
+    public boolean isOnline(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        Double expiresAt = redisTemplate.opsForZSet().score(ONLINE_KEY, userId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+    public Map<String, Boolean> isOnline(Collection<String> userIds) {
+        List<String> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Double> scores = redisTemplate.opsForZSet().score(ONLINE_KEY, ids.toArray());
+        long now = System.currentTimeMillis();
+        Map<String, Boolean> result = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Double expiresAt = scores != null && i < scores.size() ? scores.get(i) : null;
+            result.put(ids.get(i), expiresAt != null && expiresAt > now);
+        }
+        return result;
+    }
+    public Optional<Instant> getLastActiveAt(String userId) {
+        Object value = redisTemplate.opsForHash().get(LAST_ACTIVE_KEY, userId);
+        return value != null
+                ? Optional.of(Instant.ofEpochMilli(Long.parseLong(value.toString())))
+                : Optional.empty();
+    }
+    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS, initialDelay = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        localSessionRegistry.getSessionOwners().forEach((sessionId, userId) -> {
+            try {
+                if (touch(userId, sessionId)) {
+                    publishPresenceEvent(userId, true);
+                }
+            } catch (Exception e) {
+                log.error("❌ Failed to refresh presence of session {}: {}", sessionId, e.getMessage());
+            }
+        });
+    }
+    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS, initialDelay = HEARTBEAT_INTERVAL_MS)
+    public void sweepExpired() {
+        try {
+            List<?> expired = redisTemplate.execute(SWEEP_SCRIPT, List.of(ONLINE_KEY),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(SWEEP_BATCH_SIZE));
+            if (expired == null || expired.isEmpty()) {
+                return;
+            }
+            log.info("🧹 Presence of {} users expired without disconnect", expired.size());
+            expired.forEach(userId -> publishPresenceEvent(userId.toString(), false));
+        } catch (Exception e) {
+            log.error("❌ Failed to sweep expired presence: {}", e.getMessage());
+        }
+    }
+    private boolean touch(String userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        long ttl = SESSION_TTL.toMillis();
+        Long before = redisTemplate.execute(TOUCH_SCRIPT, presenceKeys(userId), userId, sessionId,
+                String.valueOf(now), String.valueOf(now + ttl), String.valueOf(ttl));
+        return before != null && before == 0;
+    }
+    private List<String> presenceKeys(String userId) {
+        return List.of(SESSIONS_KEY_PREFIX + userId, ONLINE_KEY, LAST_ACTIVE_KEY);
+    }
+    private void publishPresenceEvent(String userId, boolean isOnline) {
+        ChatEvent event = ChatEvent.builder()
+                .eventType(isOnline ? "USER_ONLINE" : "USER_OFFLINE")
+                .targetUserId(userId)
+                .isOnline(isOnline)
+                .timestamp(Instant.now())
+                .build();
+        chatEventPublisher.publishPresenceEvent(event);
+    }
+}
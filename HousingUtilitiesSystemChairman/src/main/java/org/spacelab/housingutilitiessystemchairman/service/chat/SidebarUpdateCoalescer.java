@@ -0,0 +1,79 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SidebarUpdateCoalescer {
+    static final String SIDEBAR_DESTINATION = "/queue/sidebar";
+    static final String RESYNC_EVENT_TYPE = "SIDEBAR_RESYNC";
+    static final int MAX_PENDING_PER_RECIPIENT = 50;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, PendingUpdates> pending = new ConcurrentHashMap<>();
+    public void enqueue(String principal, ChatEvent event) {
+        String key = event.getConversationId() != null ? event.getConversationId() : event.getEventId();
+        pending.compute(principal, (name, updates) -> {
+            PendingUpdates batch = updates != null ? updates : new PendingUpdates();
+            batch.add(key, event);
+            return batch;
+        });
+    }
+    @Scheduled(fixedDelayString = "${chat.sidebar.coalesce-window-ms:100}")
+    public void flush() {
+        for (String principal : pending.keySet()) {
+            PendingUpdates batch = pending.remove(principal);
+            if (batch == null) {
+                continue;
+            }
+            try {
+                messagingTemplate.convertAndSendToUser(principal, SIDEBAR_DESTINATION, batch.toPayload());
+                log.debug("📨 Flushed {} coalesced sidebar updates ({} received) to {}",
+                        batch.events.size(), batch.received, principal);
+            } catch (Exception e) {
+                log.error("❌ Failed to push sidebar updates to {}: {}", principal, e.getMessage());
+            }
+        }
+    }
+    private static final class PendingUpdates {
+        private final LinkedHashMap<String, ChatEvent> events = new LinkedHashMap<>();
+        private ChatEvent newest;
+        private boolean overflowed;
+        private int received;
+        private void add(String key, ChatEvent event) {
+            received++;
+            newest = event;
+            if (overflowed) {
+                return;
+            }
+            events.remove(key);
+            events.put(key, event);
+            if (events.size() > MAX_PENDING_PER_RECIPIENT) {
+                overflowed = true;
+                events.clear();
+            }
+        }
+        private Object toPayload() {
+            if (overflowed) {
+                return ChatEvent.builder()
+                        .eventType(RESYNC_EVENT_TYPE)
+                        .eventId(newest.getEventId())
+                        .targetUserId(newest.getTargetUserId())
+                        .timestamp(Instant.now())
+                        .build();
+            }
+            List<ChatEvent> ordered = new ArrayList<>(events.values());
+            return ordered.size() == 1 ? ordered.get(0) : ordered;
+        }
+    }
+}
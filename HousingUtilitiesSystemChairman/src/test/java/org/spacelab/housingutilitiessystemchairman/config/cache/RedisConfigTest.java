@@ -0,0 +1,74 @@
+package org.spacelab.housingutilitiessystemchairman.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ChatEventSubscriber;
+import org.spacelab.housingutilitiessystemchairman.service.chat.ChatStreamGroups;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisConfig Tests")
+class RedisConfigTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ChatEventSubscriber chatEventSubscriber;
+
+    @Mock
+    private ChatStreamGroups chatStreamGroups;
+
+    private final RedisConfig redisConfig = new RedisConfig();
+
+    @BeforeEach
+    void setUp() {
+        when(chatStreamGroups.nodeId()).thenReturn("node-a");
+        when(chatStreamGroups.chatGroup()).thenReturn("chairman-module:node-a");
+        when(chatStreamGroups.presenceGroup()).thenReturn("chairman-module:node-a");
+    }
+
+    @Nested
+    @DisplayName("Chat Event Stream Container")
+    class ChatEventStreamContainer {
+        @Test
+        @DisplayName("Should reuse consumer groups that already exist")
+        void chatEventStreamContainer_shouldAcceptExistingGroups() {
+            when(stringRedisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisSystemException(
+                    "Error in execution", new IllegalStateException("BUSYGROUP Consumer Group name already exists")));
+
+            assertThat(redisConfig.chatEventStreamContainer(connectionFactory, stringRedisTemplate, chatEventSubscriber,
+                    chatStreamGroups)).isNotNull();
+            verify(stringRedisTemplate, times(2)).execute(any(RedisCallback.class));
+        }
+
+        @Test
+        @DisplayName("Should fail startup when a consumer group cannot be created")
+        void chatEventStreamContainer_shouldFailOnOtherErrors() {
+            when(stringRedisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisSystemException(
+                    "Error in execution", new IllegalStateException("NOPERM this user has no permissions")));
+
+            assertThatThrownBy(() -> redisConfig.chatEventStreamContainer(connectionFactory, stringRedisTemplate,
+                    chatEventSubscriber, chatStreamGroups))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("chairman-module:node-a")
+                    .hasMessageContaining("NOPERM");
+        }
+    }
+}
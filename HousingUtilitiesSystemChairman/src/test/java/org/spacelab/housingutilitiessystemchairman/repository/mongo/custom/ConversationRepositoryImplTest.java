@@ -0,0 +1,78 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConversationRepositoryImpl Tests")
+class ConversationRepositoryImplTest {
+
+    private static final String OWNER_ID = "507f1f77bcf86cd799439012";
+    private static final String CONVERSATION_ID = "507f1f77bcf86cd799439016";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ConversationRepositoryImpl conversationRepository;
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = new ConversationRepositoryImpl(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should read only the conversation references of the owner without resolving them")
+    void findConversationIds_shouldProjectReferences() {
+        when(mongoTemplate.getCollectionName(Chairman.class)).thenReturn("chairman");
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("chairman")))
+                .thenReturn(new Document("conversations", List.of(new ObjectId(CONVERSATION_ID), "legacy-id")));
+
+        List<String> ids = conversationRepository.findConversationIds(Chairman.class, OWNER_ID);
+
+        assertThat(ids).containsExactly(CONVERSATION_ID, "legacy-id");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Document.class), eq("chairman"));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", new ObjectId(OWNER_ID)));
+        assertThat(query.getValue().getFieldsObject()).isEqualTo(new Document("conversations", 1));
+    }
+
+    @Test
+    @DisplayName("Should return no ids for an owner without conversations")
+    void findConversationIds_shouldHandleMissingOwner() {
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+
+        assertThat(conversationRepository.findConversationIds(User.class, OWNER_ID)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should add the conversation reference with $addToSet instead of rewriting the owner")
+    void linkConversation_shouldAddToSet() {
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+
+        conversationRepository.linkConversation(User.class, OWNER_ID, CONVERSATION_ID);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq("user"));
+        assertThat(update.getValue().getUpdateObject())
+                .isEqualTo(new Document("$addToSet", new Document("conversations", new ObjectId(CONVERSATION_ID))));
+    }
+}
@@ -0,0 +1,189 @@
+package org.spacelab.housingutilitiessystemchairman.repository.mongo.custom;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.Bill;
+import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
+import org.spacelab.housingutilitiessystemchairman.models.filters.receipt.ReceiptRequestTable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReceiptRepositoryImpl Tests")
+class ReceiptRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ReceiptRepositoryImpl receiptRepository;
+
+    @BeforeEach
+    void setUp() {
+        receiptRepository = new ReceiptRepositoryImpl(mongoTemplate);
+    }
+
+    @Nested
+    @DisplayName("Filtered Page")
+    class FilteredPage {
+        private void stubFacet(long total, Receipt... rows) {
+            when(mongoTemplate.getCollectionName(Receipt.class)).thenReturn("receipt");
+            when(mongoTemplate.aggregate(any(Aggregation.class), eq("receipt"), eq(ReceiptRepositoryImpl.ReceiptFacet.class)))
+                    .thenReturn(new AggregationResults<>(List.of(new ReceiptRepositoryImpl.ReceiptFacet(
+                            new ArrayList<>(List.of(rows)),
+                            total > 0 ? List.of(new ReceiptRepositoryImpl.FacetTotal(total)) : List.of())),
+                            new Document()));
+        }
+
+        private List<Document> pipeline() {
+            ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+            verify(mongoTemplate).aggregate(aggregation.capture(), eq("receipt"), eq(ReceiptRepositoryImpl.ReceiptFacet.class));
+            return aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        }
+
+        private Document match(List<Document> pipeline) {
+            return pipeline.get(0).get("$match", Document.class);
+        }
+
+        private ReceiptRequestTable request(int page, int size) {
+            ReceiptRequestTable request = new ReceiptRequestTable();
+            request.setPage(page);
+            request.setSize(size);
+            return request;
+        }
+
+        @Test
+        @DisplayName("Should match, sort newest first and page inside one $facet with its count")
+        void findReceiptsWithFilters_shouldPageInFacet() {
+            Receipt receipt = Receipt.builder().id("receipt-1").localDate(LocalDate.of(2024, 1, 15)).build();
+            stubFacet(25L, receipt);
+
+            Page<Receipt> page = receiptRepository.findReceiptsWithFilters(request(2, 5));
+
+            assertThat(page.getContent()).containsExactly(receipt);
+            assertThat(page.getTotalElements()).isEqualTo(25);
+            List<Document> pipeline = pipeline();
+            assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next())
+                    .containsExactly("$match", "$sort", "$facet");
+            assertThat(match(pipeline)).isEmpty();
+            assertThat(pipeline.get(1).get("$sort", Document.class))
+                    .isEqualTo(new Document("localDate", -1).append("_id", -1));
+            Document facet = pipeline.get(2).get("$facet", Document.class);
+            assertThat(facet.getList("rows", Document.class))
+                    .containsExactly(new Document("$skip", 10L), new Document("$limit", 5L));
+            assertThat(facet.getList("total", Document.class)).containsExactly(new Document("$count", "total"));
+            verify(mongoTemplate, never()).count(any(Query.class), eq(Receipt.class));
+        }
+
+        @Test
+        @DisplayName("Should filter on the denormalized numbers with anchored prefixes before paging")
+        void findReceiptsWithFilters_shouldFilterNumbersByPrefix() {
+            stubFacet(0L);
+            ReceiptRequestTable request = request(0, 10);
+            request.setReceiptNumber(" 65a1 ");
+            request.setBillNumber("BILL-2024.");
+
+            Page<Receipt> page = receiptRepository.findReceiptsWithFilters(request);
+
+            assertThat(page.getContent()).isEmpty();
+            assertThat(page.getTotalElements()).isZero();
+            String match = match(pipeline()).toJson();
+            assertThat(match)
+                    .contains("\"receiptNumber\": {\"$regularExpression\": {\"pattern\": \"^\\\\Q65a1\\\\E\"")
+                    .contains("\"billNumber\": {\"$regularExpression\": {\"pattern\": \"^\\\\QBILL-2024.\\\\E\"")
+                    .doesNotContain("billData")
+                    .doesNotContain("\"_id\"");
+        }
+
+        @Test
+        @DisplayName("Should bound localDate by the date range and ignore unparsable dates")
+        void findReceiptsWithFilters_shouldFilterDateRange() {
+            stubFacet(0L);
+            ReceiptRequestTable request = request(0, 10);
+            request.setDateFrom("01.01.2024");
+            request.setDateTo("31.01.2024");
+            request.setDate("15.01");
+
+            receiptRepository.findReceiptsWithFilters(request);
+
+            Document match = match(pipeline());
+            Document range = match.getList("$and", Document.class).get(0).get("localDate", Document.class);
+            assertThat(range).containsEntry("$gte", LocalDate.of(2024, 1, 1))
+                    .containsEntry("$lte", LocalDate.of(2024, 1, 31));
+            assertThat(match.getList("$and", Document.class)).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should clamp the page size")
+        void findReceiptsWithFilters_shouldClampSize() {
+            stubFacet(0L);
+
+            Page<Receipt> page = receiptRepository.findReceiptsWithFilters(request(0, 10_000));
+
+            assertThat(page.getSize()).isEqualTo(ReceiptRepositoryImpl.MAX_PAGE_SIZE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Number Backfill")
+    class NumberBackfill {
+        @Mock
+        private BulkOperations bulkOperations;
+
+        @Test
+        @DisplayName("Should copy the receipt id and the bill number onto receipts missing them")
+        void backfillNumbers_shouldFillMissingFields() {
+            ObjectId billId = new ObjectId();
+            Document linked = new Document("_id", new ObjectId()).append("bill", billId);
+            Document orphan = new Document("_id", "receipt-2").append("bill", "gone").append("receiptNumber", "R-2");
+            when(mongoTemplate.getCollectionName(Receipt.class)).thenReturn("receipt");
+            when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bill");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt"))).thenReturn(List.of(linked, orphan));
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bill")))
+                    .thenReturn(List.of(new Document("_id", billId).append("billNumber", "BILL-202401")));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "receipt")).thenReturn(bulkOperations);
+
+            int updated = receiptRepository.backfillNumbers(2);
+
+            assertThat(updated).isEqualTo(2);
+            verify(bulkOperations).updateOne(query(where("_id").is(linked.get("_id"))),
+                    new Update().set("receiptNumber", linked.get("_id").toString()).set("billNumber", "BILL-202401"));
+            verify(bulkOperations).updateOne(query(where("_id").is("receipt-2")),
+                    new Update().set("billNumber", null));
+            verify(bulkOperations).execute();
+        }
+
+        @Test
+        @DisplayName("Should do nothing when every receipt is already numbered")
+        void backfillNumbers_shouldSkipWhenNothingMissing() {
+            when(mongoTemplate.getCollectionName(Receipt.class)).thenReturn("receipt");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt"))).thenReturn(List.of());
+
+            assertThat(receiptRepository.backfillNumbers(100)).isZero();
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+        }
+    }
+}
@@ -231,29 +231,4 @@ class ChairmanServiceTest {
             assertThat(result).isFalse();
         }
     }
-
-    @Nested
-    @DisplayName("Online Status")
-    class OnlineStatus {
-        @Test
-        @DisplayName("Should update online status when chairman found")
-        void updateOnlineStatus_shouldUpdate() {
-            when(chairmanRepository.findByLogin("chairman@test.com")).thenReturn(Optional.of(testChairman));
-            when(chairmanRepository.save(any(Chairman.class))).thenReturn(testChairman);
-
-            chairmanService.updateOnlineStatus("chairman@test.com", true);
-
-            verify(chairmanRepository).save(any(Chairman.class));
-        }
-
-        @Test
-        @DisplayName("Should not update when chairman not found")
-        void updateOnlineStatus_shouldNotUpdate_whenNotFound() {
-            when(chairmanRepository.findByLogin("unknown")).thenReturn(Optional.empty());
-
-            chairmanService.updateOnlineStatus("unknown", true);
-
-            verify(chairmanRepository, never()).save(any(Chairman.class));
-        }
-    }
 }
@@ -35,6 +35,9 @@ class PasswordResetTokenServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @InjectMocks
     private PasswordResetTokenService passwordResetTokenService;
 
@@ -120,6 +123,7 @@ class PasswordResetTokenServiceTest {
 
             verify(passwordEncoder).encode("newPassword");
             verify(chairmanRepository).save(any(Chairman.class));
+            verify(principalCacheService).evict(null, "chairman@test.com");
         }
 
         @Test
@@ -0,0 +1,288 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.Bill;
+import org.spacelab.housingutilitiessystemchairman.entity.Receipt;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.location.House;
+import org.spacelab.housingutilitiessystemchairman.entity.location.Street;
+import org.spacelab.housingutilitiessystemchairman.exception.OperationException;
+import org.spacelab.housingutilitiessystemchairman.models.receipt.ReceiptBatchRenderResponse;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReceiptRenderService Tests")
+class ReceiptRenderServiceTest {
+
+    private static final ObjectId HOUSE_ID = new ObjectId();
+    private static final YearMonth PERIOD = YearMonth.of(2025, 10);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path cacheDir;
+
+    private ExecutorService pool;
+
+    private final Set<String> renderThreads = ConcurrentHashMap.newKeySet();
+
+    private ReceiptRenderService receiptRenderService;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(3);
+        receiptRenderService = new ReceiptRenderService(mongoTemplate, task -> pool.execute(() -> {
+            renderThreads.add(Thread.currentThread().getName());
+            task.run();
+        }));
+        ReflectionTestUtils.setField(receiptRenderService, "cacheDir", cacheDir);
+        receiptRenderService.compileTemplate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void stubCollections() {
+        lenient().when(mongoTemplate.getCollectionName(Receipt.class)).thenReturn("receipt");
+        lenient().when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bill");
+        lenient().when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+        lenient().when(mongoTemplate.getCollectionName(Street.class)).thenReturn("street");
+    }
+
+    private void stubHouse(int residents) {
+        stubCollections();
+        when(mongoTemplate.exists(any(Query.class), eq(House.class))).thenReturn(true);
+        List<Document> users = IntStream.range(0, residents)
+                .mapToObj(i -> new Document("_id", new ObjectId())
+                        .append("lastName", "Житель" + i)
+                        .append("firstName", "Иван")
+                        .append("middleName", "Иванович")
+                        .append("accountNumber", "ACC-" + i)
+                        .append("apartmentNumber", String.valueOf(i + 1)))
+                .toList();
+        List<Document> bills = users.stream()
+                .map(user -> new Document("_id", new ObjectId())
+                        .append("billNumber", "202510-" + user.getString("accountNumber"))
+                        .append("date", date(PERIOD.atDay(1)))
+                        .append("owner", user.get("_id").toString()))
+                .toList();
+        List<Document> receipts = bills.stream()
+                .map(bill -> new Document("_id", new ObjectId())
+                        .append("bill", bill.get("_id"))
+                        .append("localDate", date(PERIOD.atDay(1))))
+                .toList();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(users);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bill"))).thenReturn(bills);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt"))).thenReturn(receipts);
+    }
+
+    private List<Path> cachedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Single Receipt")
+    class SingleReceipt {
+        @Test
+        @DisplayName("Should render a receipt by id with the fallback values for missing data")
+        void render_shouldRenderReceipt() throws Exception {
+            stubCollections();
+            ObjectId receiptId = new ObjectId();
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt")))
+                    .thenReturn(List.of(new Document("_id", receiptId).append("localDate", date(LocalDate.of(2025, 10, 6)))));
+
+            Path file = receiptRenderService.render(receiptId.toString());
+
+            assertThat(file).hasParent(cacheDir.resolve(receiptId.toString()));
+            assertThat(Files.readString(file, StandardCharsets.UTF_8))
+                    .contains("Квитанция № <span>" + receiptId + "</span>")
+                    .contains("06.10.2025");
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("bill"));
+        }
+
+        @Test
+        @DisplayName("Should convert the rendered receipt to PDF when a converter is available")
+        void render_shouldRenderPdf() throws Exception {
+            ReflectionTestUtils.setField(receiptRenderService, "pdfRenderer", PdfRendererStub.class);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/DejaVuSans.ttf");
+            stubCollections();
+            ObjectId receiptId = new ObjectId();
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt")))
+                    .thenReturn(List.of(new Document("_id", receiptId).append("localDate", date(LocalDate.of(2025, 10, 6)))));
+
+            Path file = receiptRenderService.render(receiptId.toString());
+
+            assertThat(file.getFileName().toString()).endsWith(".pdf");
+            assertThat(Files.readString(file, StandardCharsets.UTF_8))
+                    .startsWith("%PDF")
+                    .contains("Квитанция № <span>" + receiptId + "</span>");
+        }
+
+        @Test
+        @DisplayName("Should key the cached file by output format and PDF font")
+        void cachePath_shouldDependOnFormatAndFont() {
+            ReceiptRenderService.ReceiptPrint print = new ReceiptRenderService.ReceiptPrint("receipt-1", "R-1", "B-1",
+                    "01.10.2025", "06.10.2025", "Иванов Иван", "ACC-1", "ул. Центральная, д. 1");
+            Path html = receiptRenderService.cachePath(print);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfRenderer", PdfRendererStub.class);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/DejaVuSans.ttf");
+            Path pdf = receiptRenderService.cachePath(print);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/PTSans.ttf");
+            Path otherFont = receiptRenderService.cachePath(print);
+
+            assertThat(html.getFileName().toString()).endsWith(".html");
+            assertThat(pdf.getFileName().toString()).endsWith(".pdf");
+            assertThat(List.of(html, pdf, otherFont)).doesNotHaveDuplicates();
+        }
+
+        @Test
+        @DisplayName("Should report an unknown receipt as not found")
+        void render_shouldFailForUnknownReceipt() {
+            stubCollections();
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt"))).thenReturn(List.of());
+
+            assertThatThrownBy(() -> receiptRenderService.render("missing"))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status")
+                    .isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Nested
+    @DisplayName("House Batch")
+    class HouseBatch {
+        @Test
+        @DisplayName("Should render every receipt of the house's bills for the period on the pool, reading each collection once")
+        void renderHouse_shouldRenderInParallel() throws Exception {
+            stubHouse(6);
+
+            ReceiptBatchRenderResponse response = receiptRenderService.renderHouse(HOUSE_ID.toString(), PERIOD);
+
+            assertThat(response.getReceipts()).isEqualTo(6);
+            assertThat(response.getRendered()).isEqualTo(6);
+            assertThat(response.getCached()).isZero();
+            assertThat(cachedFiles()).hasSize(6);
+            assertThat(renderThreads).isNotEmpty().noneMatch(name -> name.equals(Thread.currentThread().getName()));
+
+            ArgumentCaptor<Query> billsQuery = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(billsQuery.capture(), eq(Document.class), eq("bill"));
+            Document billsFilter = billsQuery.getValue().getQueryObject();
+            assertThat(billsFilter.get("date", Document.class))
+                    .containsEntry("$gte", PERIOD.atDay(1))
+                    .containsEntry("$lte", PERIOD.atEndOfMonth());
+            ArgumentCaptor<Query> residentsQuery = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(residentsQuery.capture(), eq(Document.class), eq("user"));
+            assertThat(residentsQuery.getValue().getQueryObject()).containsEntry("house", HOUSE_ID);
+        }
+
+        @Test
+        @DisplayName("Should count already rendered receipts as cached on a repeat run")
+        void renderHouse_shouldReuseCache() throws Exception {
+            stubHouse(4);
+            receiptRenderService.renderHouse(HOUSE_ID.toString(), PERIOD);
+
+            ReceiptBatchRenderResponse response = receiptRenderService.renderHouse(HOUSE_ID.toString(), PERIOD);
+
+            assertThat(response.getRendered()).isZero();
+            assertThat(response.getCached()).isEqualTo(4);
+            assertThat(cachedFiles()).hasSize(4);
+        }
+
+        @Test
+        @DisplayName("Should return an empty batch for a house without residents")
+        void renderHouse_shouldHandleEmptyHouse() {
+            stubCollections();
+            when(mongoTemplate.exists(any(Query.class), eq(House.class))).thenReturn(true);
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(List.of());
+
+            ReceiptBatchRenderResponse response = receiptRenderService.renderHouse(HOUSE_ID.toString(), PERIOD);
+
+            assertThat(response.getReceipts()).isZero();
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("receipt"));
+        }
+
+        @Test
+        @DisplayName("Should report an unknown house as not found")
+        void renderHouse_shouldFailForUnknownHouse() {
+            when(mongoTemplate.exists(any(Query.class), eq(House.class))).thenReturn(false);
+
+            assertThatThrownBy(() -> receiptRenderService.renderHouse(HOUSE_ID.toString(), PERIOD))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status")
+                    .isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    public static class PdfRendererStub {
+        private String html;
+        private OutputStream out;
+
+        public void useFastMode() {
+        }
+
+        public void useFont(File font, String family) {
+        }
+
+        public void withHtmlContent(String html, String baseUri) {
+            this.html = html;
+        }
+
+        public void toStream(OutputStream out) {
+            this.out = out;
+        }
+
+        public void run() throws Exception {
+            DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)));
+            out.write(("%PDF-stub\n" + html).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
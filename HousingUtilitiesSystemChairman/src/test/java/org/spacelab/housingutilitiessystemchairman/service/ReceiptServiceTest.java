@@ -17,6 +17,7 @@ import org.spacelab.housingutilitiessystemchairman.repository.mongo.ReceiptRepos
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -119,5 +120,48 @@ class ReceiptServiceTest {
 
             assertThat(result.getContent().get(0).getFormattedDate()).isEqualTo("-");
         }
+
+        @Test
+        @DisplayName("Should prefer the denormalized receipt and bill numbers")
+        void getReceiptsTable_shouldUseDenormalizedNumbers() {
+            testReceipt.setReceiptNumber("R-0001");
+            testReceipt.setBillNumber("BILL-202401");
+            ReceiptRequestTable requestTable = new ReceiptRequestTable();
+
+            Page<Receipt> receiptsPage = new PageImpl<>(List.of(testReceipt), PageRequest.of(0, 10), 1);
+
+            when(receiptRepository.findReceiptsWithFilters(requestTable)).thenReturn(receiptsPage);
+
+            PageResponse<ReceiptResponseTable> result = receiptService.getReceiptsTable(requestTable);
+
+            assertThat(result.getContent().get(0).getReceiptNumber()).isEqualTo("R-0001");
+            assertThat(result.getContent().get(0).getBillNumber()).isEqualTo("BILL-202401");
+        }
+    }
+
+    @Nested
+    @DisplayName("Number Backfill")
+    class NumberBackfill {
+        @Test
+        @DisplayName("Should keep backfilling while batches come back full")
+        void backfillNumbers_shouldDrainFullBatches() {
+            ReflectionTestUtils.setField(receiptService, "backfillBatchSize", 2);
+            when(receiptRepository.backfillNumbers(2)).thenReturn(2, 2, 1);
+
+            receiptService.backfillNumbers();
+
+            verify(receiptRepository, times(3)).backfillNumbers(2);
+        }
+
+        @Test
+        @DisplayName("Should swallow repository failures so the schedule keeps running")
+        void backfillNumbers_shouldSurviveFailures() {
+            ReflectionTestUtils.setField(receiptService, "backfillBatchSize", 2);
+            when(receiptRepository.backfillNumbers(2)).thenThrow(new RuntimeException("boom"));
+
+            receiptService.backfillNumbers();
+
+            verify(receiptRepository).backfillNumbers(2);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenVersionService Tests")
+class TokenVersionServiceTest {
+
+    private static final String KEY = TokenVersionService.TOKEN_VERSION_KEY_PREFIX + "user-123";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Nested
+    @DisplayName("Current Version")
+    class CurrentVersion {
+        @Test
+        @DisplayName("Should read the stored version without touching Mongo")
+        void currentVersion_shouldReadStoredVersion() {
+            when(valueOperations.get(KEY)).thenReturn("3");
+
+            assertThat(tokenVersionService.currentVersion("user-123")).isEqualTo(3L);
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should fall back to the durable copy and refill Redis when the key is missing")
+        void currentVersion_shouldFallBackToMongo() {
+            when(valueOperations.get(KEY)).thenReturn(null);
+            when(mongoTemplate.findById("user-123", Document.class, TokenVersionService.TOKEN_VERSION_COLLECTION))
+                    .thenReturn(new Document("_id", "user-123").append("version", 2L));
+            when(redisTemplate.execute(TokenVersionService.RAISE_SCRIPT, List.of(KEY), "2")).thenReturn(2L);
+
+            assertThat(tokenVersionService.currentVersion("user-123")).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Should keep a newer version written by a concurrent revoke")
+        void currentVersion_shouldNotLowerVersion() {
+            when(valueOperations.get(KEY)).thenReturn(null);
+            when(mongoTemplate.findById("user-123", Document.class, TokenVersionService.TOKEN_VERSION_COLLECTION))
+                    .thenReturn(new Document("_id", "user-123").append("version", 2L));
+            when(redisTemplate.execute(TokenVersionService.RAISE_SCRIPT, List.of(KEY), "2")).thenReturn(3L);
+
+            assertThat(tokenVersionService.currentVersion("user-123")).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Should default to zero for a user that was never revoked")
+        void currentVersion_shouldDefaultToZero() {
+            when(valueOperations.get(KEY)).thenReturn(null);
+            when(mongoTemplate.findById("user-123", Document.class, TokenVersionService.TOKEN_VERSION_COLLECTION))
+                    .thenReturn(null);
+            when(redisTemplate.execute(TokenVersionService.RAISE_SCRIPT, List.of(KEY), "0")).thenReturn(0L);
+
+            assertThat(tokenVersionService.currentVersion("user-123")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should return null when Redis is unavailable")
+        void currentVersionOrNull_shouldReturnNullOnFailure() {
+            when(valueOperations.get(KEY)).thenThrow(new RuntimeException("Redis down"));
+
+            assertThat(tokenVersionService.currentVersionOrNull("user-123")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Revoke")
+    class Revoke {
+        @Test
+        @DisplayName("Should increment the durable version and raise the Redis copy to it")
+        void revoke_shouldIncrementVersion() {
+            when(mongoTemplate.findAndModify(any(Query.class), eq(new Update().inc("version", 1L)),
+                    any(FindAndModifyOptions.class), eq(Document.class), eq(TokenVersionService.TOKEN_VERSION_COLLECTION)))
+                    .thenReturn(new Document("_id", "user-123").append("version", 4L));
+
+            tokenVersionService.revoke("user-123");
+
+            verify(redisTemplate).execute(TokenVersionService.RAISE_SCRIPT, List.of(KEY), "4");
+        }
+
+        @Test
+        @DisplayName("Should propagate Redis failures")
+        void revoke_shouldPropagateFailures() {
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(Document.class), eq(TokenVersionService.TOKEN_VERSION_COLLECTION)))
+                    .thenReturn(new Document("_id", "user-123").append("version", 1L));
+            when(redisTemplate.execute(TokenVersionService.RAISE_SCRIPT, List.of(KEY), "1"))
+                    .thenThrow(new RuntimeException("Redis down"));
+
+            assertThatThrownBy(() -> tokenVersionService.revoke("user-123"))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Redis down");
+        }
+    }
+}
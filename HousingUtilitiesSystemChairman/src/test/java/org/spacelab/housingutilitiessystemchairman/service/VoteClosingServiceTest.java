@@ -0,0 +1,209 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.Vote;
+import org.spacelab.housingutilitiessystemchairman.models.vote.VoteClosedEvent;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteClosingService Tests")
+class VoteClosingServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private VoteClosingService voteClosingService;
+
+    private final Date now = new Date();
+
+    @BeforeEach
+    void setUp() {
+        voteClosingService = new VoteClosingService(mongoTemplate, redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(voteClosingService, "batchSize", 200);
+    }
+
+    private Vote vote(String id, double quorumArea, double forArea, double againstArea) {
+        Vote vote = new Vote();
+        vote.setId(id);
+        vote.setTitle("Vote " + id);
+        vote.setStatus("Активное");
+        vote.setQuorumArea(quorumArea);
+        vote.setForVotesArea(forArea);
+        vote.setAgainstVotesArea(againstArea);
+        vote.setAbstentionsArea(0.0);
+        vote.setTotalVotedArea(forArea + againstArea);
+        return vote;
+    }
+
+    private Vote closed(Vote vote) {
+        vote.setStatus("Закрыто");
+        vote.setResult(VoteClosingService.evaluateResult(vote));
+        vote.setClosedAt(now);
+        return vote;
+    }
+
+    @Nested
+    @DisplayName("Result")
+    class Result {
+        @Test
+        @DisplayName("Should accept when quorum is reached and the for area wins")
+        void evaluateResult_shouldAccept() {
+            assertThat(VoteClosingService.evaluateResult(vote("v", 100.0, 80.0, 30.0))).isEqualTo("Принято");
+        }
+
+        @Test
+        @DisplayName("Should reject without quorum even if most voters are for")
+        void evaluateResult_shouldRejectWithoutQuorum() {
+            Vote vote = vote("v", 500.0, 80.0, 30.0);
+            vote.setForVotesCount(10);
+            vote.setAgainstVotesCount(1);
+
+            assertThat(VoteClosingService.isQuorumReached(vote)).isFalse();
+            assertThat(VoteClosingService.evaluateResult(vote)).isEqualTo("Отклонено");
+        }
+
+        @Test
+        @DisplayName("Should weigh by area rather than head count")
+        void evaluateResult_shouldWeighByArea() {
+            Vote vote = vote("v", 100.0, 40.0, 90.0);
+            vote.setForVotesCount(5);
+            vote.setAgainstVotesCount(1);
+
+            assertThat(VoteClosingService.evaluateResult(vote)).isEqualTo("Отклонено");
+        }
+
+        @Test
+        @DisplayName("Should treat missing tallies and quorum as zero")
+        void evaluateResult_shouldHandleNulls() {
+            Vote vote = new Vote();
+            vote.setForVotesArea(null);
+            vote.setAgainstVotesArea(null);
+            vote.setTotalVotedArea(null);
+
+            assertThat(VoteClosingService.isQuorumReached(vote)).isTrue();
+            assertThat(VoteClosingService.evaluateResult(vote)).isEqualTo("Отклонено");
+        }
+    }
+
+    @Nested
+    @DisplayName("Closing")
+    class Closing {
+        @Test
+        @DisplayName("Should close due votes with one conditional bulk write and announce them")
+        void closeBatch_shouldCloseAndPublish() throws Exception {
+            Vote accepted = vote("vote-1", 100.0, 80.0, 30.0);
+            Vote rejected = vote("vote-2", 100.0, 20.0, 10.0);
+            when(mongoTemplate.find(any(Query.class), eq(Vote.class)))
+                    .thenReturn(List.of(accepted, rejected))
+                    .thenReturn(List.of(closed(vote("vote-1", 100.0, 80.0, 30.0))));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class)).thenReturn(bulkOperations);
+
+            int closedCount = voteClosingService.closeBatch(now);
+
+            assertThat(closedCount).isEqualTo(1);
+            ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+            verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+            verify(bulkOperations).execute();
+            assertThat(queries.getAllValues().get(0).getQueryObject())
+                    .containsEntry("_id", "vote-1")
+                    .containsEntry("status", "Активное")
+                    .containsEntry("endTime", new Document("$lte", now));
+            assertThat(updates.getAllValues())
+                    .extracting(update -> update.getUpdateObject().get("$set", Document.class).get("result"))
+                    .containsExactly("Принято", "Отклонено");
+
+            ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+            verify(redisTemplate).convertAndSend(eq(VoteClosingService.VOTE_CLOSED_CHANNEL), payload.capture());
+            VoteClosedEvent event = objectMapper.readValue(payload.getValue(), VoteClosedEvent.class);
+            assertThat(event.getVoteId()).isEqualTo("vote-1");
+            assertThat(event.getResult()).isEqualTo("Принято");
+            assertThat(event.isQuorumReached()).isTrue();
+            assertThat(event.getTotalVotedArea()).isEqualTo(110.0);
+        }
+
+        @Test
+        @DisplayName("Should look up due votes through status and end time")
+        void closeBatch_shouldQueryDueVotes() {
+            when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of());
+
+            assertThat(voteClosingService.closeBatch(now)).isZero();
+
+            ArgumentCaptor<Query> due = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(due.capture(), eq(Vote.class));
+            assertThat(due.getValue().getQueryObject())
+                    .containsEntry("status", "Активное")
+                    .containsEntry("endTime", new Document("$lte", now));
+            assertThat(due.getValue().getLimit()).isEqualTo(200);
+            verifyNoInteractions(redisTemplate);
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Vote.class));
+        }
+
+        @Test
+        @DisplayName("Should keep closing when the announcement cannot be published")
+        void closeBatch_shouldSurvivePublishFailure() {
+            when(mongoTemplate.find(any(Query.class), eq(Vote.class)))
+                    .thenReturn(List.of(vote("vote-1", 100.0, 80.0, 30.0)))
+                    .thenReturn(List.of(closed(vote("vote-1", 100.0, 80.0, 30.0))));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class)).thenReturn(bulkOperations);
+            doThrow(new RuntimeException("Redis down")).when(redisTemplate).convertAndSend(anyString(), anyString());
+
+            assertThat(voteClosingService.closeBatch(now)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should store results of closed votes whose tallies were rebuilt from ballots")
+        void backfillResults_shouldSetMissingResults() {
+            Vote legacy = vote("vote-3", 100.0, 80.0, 30.0);
+            legacy.setStatus("Закрыто");
+            when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(legacy));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class)).thenReturn(bulkOperations);
+
+            assertThat(voteClosingService.backfillResults()).isEqualTo(1);
+
+            ArgumentCaptor<Query> selected = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(selected.capture(), eq(Vote.class));
+            assertThat(selected.getValue().getQueryObject())
+                    .containsEntry("result", new Document("$exists", false))
+                    .containsEntry(VoteTallyReconciler.TALLY_VERIFIED_FIELD, new Document("$exists", true));
+
+            verify(bulkOperations).updateOne(any(Query.class), eq(new Update().set("result", "Принято")));
+            verify(bulkOperations).execute();
+            verifyNoInteractions(redisTemplate);
+        }
+    }
+}
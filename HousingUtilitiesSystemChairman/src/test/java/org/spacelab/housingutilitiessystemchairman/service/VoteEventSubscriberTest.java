@@ -0,0 +1,50 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.models.vote.VoteTallySnapshot;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteEventSubscriber Tests")
+class VoteEventSubscriberTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private VoteEventSubscriber voteEventSubscriber;
+
+    @BeforeEach
+    void setUp() {
+        voteEventSubscriber = new VoteEventSubscriber(messagingTemplate, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should forward a tally snapshot to the vote's own topic")
+    void handleVoteTally_shouldBroadcastToVoteTopic() {
+        voteEventSubscriber.handleVoteTally("{\"voteId\":\"vote-1\",\"againstVotesArea\":40.0,\"totalVotedArea\":190.5}");
+
+        ArgumentCaptor<VoteTallySnapshot> snapshot = ArgumentCaptor.forClass(VoteTallySnapshot.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/vote/vote-1"), snapshot.capture());
+        assertThat(snapshot.getValue().getAgainstVotesArea()).isEqualTo(40.0);
+        assertThat(snapshot.getValue().getTotalVotedArea()).isEqualTo(190.5);
+    }
+
+    @Test
+    @DisplayName("Should ignore a malformed payload")
+    void handleVoteTally_shouldIgnoreMalformedPayload() {
+        voteEventSubscriber.handleVoteTally("{");
+
+        verifyNoInteractions(messagingTemplate);
+    }
+}
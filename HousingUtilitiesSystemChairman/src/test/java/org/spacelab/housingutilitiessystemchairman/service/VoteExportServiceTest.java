@@ -0,0 +1,181 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteExportService Tests")
+class VoteExportServiceTest {
+
+    private static final String VOTE_ID = "507f1f77bcf86cd799439020";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private VoteExportService voteExportService;
+
+    @BeforeEach
+    void setUp() {
+        voteExportService = new VoteExportService(mongoTemplate);
+        ReflectionTestUtils.setField(voteExportService, "batchSize", 2);
+    }
+
+    private Document ballot(String userId, String voteType, Double area) {
+        return new Document("_id", new ObjectId())
+                .append("user", userId)
+                .append("voteType", voteType)
+                .append("voteTime", new Date(0))
+                .append("apartmentArea", area);
+    }
+
+    private Document voter(String id, String lastName, String phone) {
+        return new Document("_id", id)
+                .append("lastName", lastName)
+                .append("firstName", "Иван")
+                .append("middleName", "Петрович")
+                .append("apartmentNumber", "12")
+                .append("apartmentArea", 48.0)
+                .append("phone", phone);
+    }
+
+    private void stubStore(List<Document> ballots, List<Document> voters) {
+        when(mongoTemplate.getCollectionName(VoteRecord.class)).thenReturn("voteRecord");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("voteRecord"))).thenReturn(ballots.stream());
+        lenient().when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenAnswer(invocation -> {
+            List<?> ids = (List<?>) invocation.<Query>getArgument(0).getQueryObject().get("_id", Document.class).get("$in");
+            return voters.stream().filter(voter -> ids.contains(voter.get("_id"))).toList();
+        });
+    }
+
+    @Nested
+    @DisplayName("Cursor")
+    class Cursor {
+        @Test
+        @DisplayName("Should stream ballots of the vote and resolve voters once per batch")
+        void export_shouldResolveVotersInBatches() throws Exception {
+            List<Document> ballots = IntStream.range(0, 5)
+                    .mapToObj(i -> ballot("user-" + i, "FOR", 50.0))
+                    .toList();
+            List<Document> voters = IntStream.range(0, 5)
+                    .mapToObj(i -> voter("user-" + i, "Иванов" + i, "380" + i))
+                    .toList();
+            stubStore(ballots, voters);
+
+            voteExportService.writeCsv(VOTE_ID, new ByteArrayOutputStream());
+
+            ArgumentCaptor<Query> cursorQuery = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).stream(cursorQuery.capture(), eq(Document.class), eq("voteRecord"));
+            assertThat(cursorQuery.getValue().getQueryObject()).containsEntry("vote", new ObjectId(VOTE_ID));
+            assertThat(cursorQuery.getValue().getFieldsObject()).containsKeys("user", "voteType", "voteTime", "apartmentArea");
+            verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), eq("user"));
+            verify(mongoTemplate, never()).find(any(Query.class), eq(VoteRecord.class));
+        }
+
+        @Test
+        @DisplayName("Should keep ballots whose voter no longer exists")
+        void export_shouldKeepOrphanBallots() {
+            stubStore(List.of(ballot("deleted-user", "AGAINST", null)), List.of());
+            List<String> names = new ArrayList<>();
+
+            voteExportService.forEachBatch(VOTE_ID, batch -> batch.forEach(row -> names.add(row.getVoteTypeDisplay())));
+
+            assertThat(names).containsExactly("Против");
+        }
+    }
+
+    @Nested
+    @DisplayName("Formats")
+    class Formats {
+        @Test
+        @DisplayName("Should write a UTF-8 CSV with a BOM, quoting values that need it")
+        void writeCsv_shouldWriteRows() throws Exception {
+            stubStore(List.of(ballot("user-1", "FOR", null), ballot("user-2", "ABSTENTION", 61.25)),
+                    List.of(voter("user-1", "Шевченко", "380501112233"), voter("user-2", "O\"Brien;", "380")));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            voteExportService.writeCsv(VOTE_ID, out);
+
+            String csv = out.toString(StandardCharsets.UTF_8);
+            assertThat(csv).startsWith("\uFEFFФИО;№ квартиры;S квартиры;Телефон;Позиция;Время\r\n");
+            List<String> lines = csv.lines().toList();
+            assertThat(lines).hasSize(3);
+            assertThat(lines.get(1)).startsWith("Шевченко Иван Петрович;12;48.00;380501112233;За;");
+            assertThat(lines.get(2)).startsWith("\"O\"\"Brien; Иван Петрович\";12;61.25;380;Воздержался;");
+        }
+
+        @Test
+        @DisplayName("Should write an XLSX sheet with numeric areas and vote times")
+        void writeXlsx_shouldWriteRows() throws Exception {
+            stubStore(List.of(ballot("user-1", "FOR", 55.5), ballot("user-2", "AGAINST", 40.0),
+                            ballot("user-3", "ABSTENTION", 30.0)),
+                    List.of(voter("user-1", "Коваленко", "1"), voter("user-2", "Бондаренко", "2"),
+                            voter("user-3", "Ткаченко", "3")));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            voteExportService.writeXlsx(VOTE_ID, out);
+
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                Sheet sheet = workbook.getSheetAt(0);
+                assertThat(sheet.getLastRowNum()).isEqualTo(3);
+                assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("ФИО");
+                Row first = sheet.getRow(1);
+                assertThat(first.getCell(0).getStringCellValue()).isEqualTo("Коваленко Иван Петрович");
+                assertThat(first.getCell(2).getNumericCellValue()).isEqualTo(55.5);
+                assertThat(first.getCell(4).getStringCellValue()).isEqualTo("За");
+                assertThat(first.getCell(5).getDateCellValue()).isEqualTo(new Date(0));
+                assertThat(sheet.getRow(3).getCell(4).getStringCellValue()).isEqualTo("Воздержался");
+            }
+        }
+
+        @Test
+        @DisplayName("Should escape only values containing separators, quotes or line breaks")
+        void csvValue_shouldEscape() {
+            assertThat(VoteExportService.csvValue(null)).isEmpty();
+            assertThat(VoteExportService.csvValue("кв. 12")).isEqualTo("кв. 12");
+            assertThat(VoteExportService.csvValue("a;b")).isEqualTo("\"a;b\"");
+            assertThat(VoteExportService.csvValue("line\nbreak")).isEqualTo("\"line\nbreak\"");
+        }
+
+        @Test
+        @DisplayName("Should neutralize values a spreadsheet would evaluate as a formula")
+        void csvValue_shouldGuardFormulas() {
+            assertThat(VoteExportService.csvValue("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+            assertThat(VoteExportService.csvValue("+1")).isEqualTo("'+1");
+            assertThat(VoteExportService.csvValue("-2")).isEqualTo("'-2");
+            assertThat(VoteExportService.csvValue("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+            assertThat(VoteExportService.csvValue("\tcmd")).isEqualTo("'\tcmd");
+            assertThat(VoteExportService.csvValue("\rcmd")).isEqualTo("\"'\rcmd\"");
+            assertThat(VoteExportService.csvValue("a=b")).isEqualTo("a=b");
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package org.spacelab.housingutilitiessystemchairman.service;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
 import org.spacelab.housingutilitiessystemchairman.entity.Vote;
 import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
 import org.spacelab.housingutilitiessystemchairman.mappers.VoteMapper;
@@ -15,12 +18,14 @@ import org.spacelab.housingutilitiessystemchairman.models.PageResponse;
 import org.spacelab.housingutilitiessystemchairman.models.filters.vote.VoteParticipantRequestTable;
 import org.spacelab.housingutilitiessystemchairman.models.filters.vote.VoteRequestTable;
 import org.spacelab.housingutilitiessystemchairman.models.vote.*;
-import org.spacelab.housingutilitiessystemchairman.repository.mongo.VoteRecordRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.VoteRepository;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,9 +41,6 @@ class VoteServiceTest {
     @Mock
     private VoteRepository voteRepository;
 
-    @Mock
-    private VoteRecordRepository voteRecordRepository;
-
     @Mock
     private MongoTemplate mongoTemplate;
 
@@ -191,6 +193,27 @@ class VoteServiceTest {
 
             assertThat(result).isNotNull();
         }
+
+        @Test
+        @DisplayName("Should filter by stored result in the query")
+        void getVotesTable_shouldFilterByResultInQuery() {
+            VoteRequestTable requestTable = new VoteRequestTable();
+            requestTable.setPage(0);
+            requestTable.setSize(1);
+            requestTable.setResult("Принято");
+
+            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(7L);
+            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
+            when(voteMapper.toResponseTableList(any())).thenReturn(List.of(testVoteResponseTable));
+
+            PageResponse<VoteResponseTable> result = voteService.getVotesTable(requestTable);
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).count(query.capture(), eq(Vote.class));
+            assertThat(query.getValue().getQueryObject().toJson()).contains("\"result\": \"Принято\"");
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getTotalElements()).isEqualTo(7L);
+        }
     }
 
     @Nested
@@ -237,6 +260,37 @@ class VoteServiceTest {
             verify(voteMapper).partialUpdate(testVoteRequest, testVote);
         }
 
+        @Test
+        @DisplayName("Should evaluate the area-weighted result when closed by hand")
+        void updateVote_shouldEvaluateResultWhenClosed() {
+            testVote.setStatus("Закрыто");
+            testVote.setQuorumArea(100.0);
+            testVote.setForVotesArea(70.0);
+            testVote.setAgainstVotesArea(40.0);
+            testVote.setTotalVotedArea(110.0);
+            when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
+            when(voteRepository.save(any(Vote.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Vote result = voteService.updateVote("507f1f77bcf86cd799439020", testVoteRequest);
+
+            assertThat(result.getResult()).isEqualTo("Принято");
+            assertThat(result.getClosedAt()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should clear the result when a vote is reopened")
+        void updateVote_shouldClearResultWhenReopened() {
+            testVote.setStatus("Активное");
+            testVote.setResult("Отклонено");
+            when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
+            when(voteRepository.save(any(Vote.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Vote result = voteService.updateVote("507f1f77bcf86cd799439020", testVoteRequest);
+
+            assertThat(result.getResult()).isNull();
+            assertThat(result.getClosedAt()).isNull();
+        }
+
         @Test
         @DisplayName("Should throw exception when not found")
         void updateVote_shouldThrowException_whenNotFound() {
@@ -278,7 +332,6 @@ class VoteServiceTest {
         @DisplayName("Should get vote detail")
         void getVoteDetail_shouldReturnDetail() {
             when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("507f1f77bcf86cd799439020")).thenReturn(Collections.emptyList());
 
             VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
 
@@ -287,6 +340,23 @@ class VoteServiceTest {
             assertThat(result.getAgainstVotesCount()).isEqualTo(5);
         }
 
+        @Test
+        @DisplayName("Should read area tallies stored on the vote")
+        void getVoteDetail_shouldReturnStoredAreaTallies() {
+            testVote.setForVotesArea(120.5);
+            testVote.setAgainstVotesArea(60.0);
+            testVote.setAbstentionsArea(null);
+            testVote.setTotalVotedArea(180.5);
+            when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
+
+            VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
+
+            assertThat(result.getForVotesArea()).isEqualTo(120.5);
+            assertThat(result.getAgainstVotesArea()).isEqualTo(60.0);
+            assertThat(result.getAbstentionsArea()).isEqualTo(0.0);
+            assertThat(result.getTotalVotedArea()).isEqualTo(180.5);
+        }
+
         @Test
         @DisplayName("Should throw exception when not found")
         void getVoteDetail_shouldThrowException_whenNotFound() {
@@ -297,13 +367,11 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should return result Принято when forVotes > againstVotes and status is Закрыто")
+        @DisplayName("Should return the stored result of a closed vote")
         void getVoteDetail_shouldReturnResultPrinyato() {
             testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(10);
-            testVote.setAgainstVotesCount(5);
+            testVote.setResult("Принято");
             when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("507f1f77bcf86cd799439020")).thenReturn(Collections.emptyList());
 
             VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
 
@@ -311,13 +379,13 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should return result Отклонено when againstVotes >= forVotes")
+        @DisplayName("Should not recompute the stored result from head counts")
         void getVoteDetail_shouldReturnResultOtkloneno() {
             testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(5);
-            testVote.setAgainstVotesCount(10);
+            testVote.setForVotesCount(10);
+            testVote.setAgainstVotesCount(5);
+            testVote.setResult("Отклонено");
             when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("507f1f77bcf86cd799439020")).thenReturn(Collections.emptyList());
 
             VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
 
@@ -329,7 +397,6 @@ class VoteServiceTest {
         void getVoteDetail_shouldReturnNullResultWhenNotClosed() {
             testVote.setStatus("Активное");
             when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("507f1f77bcf86cd799439020")).thenReturn(Collections.emptyList());
 
             VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
 
@@ -337,179 +404,171 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should handle null vote counts")
+        @DisplayName("Should return no result for a closed vote not yet evaluated")
         void getVoteDetail_shouldHandleNullCounts() {
             testVote.setStatus("Закрыто");
             testVote.setForVotesCount(null);
             testVote.setAgainstVotesCount(null);
             when(voteRepository.findById("507f1f77bcf86cd799439020")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("507f1f77bcf86cd799439020")).thenReturn(Collections.emptyList());
 
             VoteDetailResponse result = voteService.getVoteDetail("507f1f77bcf86cd799439020");
 
-            // With null counts, 0 vs 0, so Отклонено (not >)
-            assertThat(result.getResult()).isEqualTo("Отклонено");
+            assertThat(result.getResult()).isNull();
         }
     }
 
     @Nested
     @DisplayName("Vote Participants")
     class VoteParticipants {
-        @Test
-        @DisplayName("Should get vote participants")
-        void getVoteParticipants_shouldReturnParticipants() {
+        private VoteParticipantRequestTable request(int page, int size) {
             VoteParticipantRequestTable request = new VoteParticipantRequestTable();
             request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
+            request.setPage(page);
+            request.setSize(size);
+            return request;
+        }
 
-            VoteRecord record = new VoteRecord();
-            record.setId("record-id");
-            record.setVoteType("FOR");
+        private VoteParticipantResponse row(String id, String voteType) {
+            return VoteParticipantResponse.builder()
+                    .id(id)
+                    .fullName("Doe John M")
+                    .apartmentNumber("101")
+                    .apartmentArea(55.5)
+                    .phone("1234567890")
+                    .voteType(voteType)
+                    .build();
+        }
 
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class))).thenReturn(List.of(record));
+        private void stubFacet(long total, VoteParticipantResponse... rows) {
+            when(mongoTemplate.getCollectionName(VoteRecord.class)).thenReturn("voteRecord");
+            when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+            when(mongoTemplate.aggregate(any(Aggregation.class), eq("voteRecord"), eq(VoteService.ParticipantFacet.class)))
+                    .thenReturn(new AggregationResults<>(List.of(new VoteService.ParticipantFacet(
+                            new ArrayList<>(List.of(rows)),
+                            total > 0 ? List.of(new VoteService.FacetTotal(total)) : List.of())),
+                            new Document()));
+        }
 
-            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
+        private List<Document> pipeline() {
+            ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+            verify(mongoTemplate).aggregate(aggregation.capture(), eq("voteRecord"), eq(VoteService.ParticipantFacet.class));
+            return aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        }
 
-            assertThat(result).isNotNull();
+        private List<String> stageNames(List<Document> stages) {
+            return stages.stream().map(stage -> stage.keySet().iterator().next()).toList();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Document> facetRows(List<Document> pipeline) {
+            Document facet = pipeline.get(pipeline.size() - 1).get("$facet", Document.class);
+            return (List<Document>) facet.get("rows");
+        }
+
+        @Test
+        @DisplayName("Should page ballots first and join only the page's voters when no voter filter is set")
+        void getVoteParticipants_shouldReturnParticipants() {
+            stubFacet(25L, row("record-1", "FOR"));
+
+            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request(2, 1));
+
+            assertThat(result.getContent()).extracting(VoteParticipantResponse::getId).containsExactly("record-1");
+            assertThat(result.getTotalElements()).isEqualTo(25);
+            List<Document> pipeline = pipeline();
+            assertThat(stageNames(pipeline)).containsExactly("$match", "$sort", "$facet");
+            assertThat(pipeline.get(0).get("$match", Document.class).toJson())
+                    .contains("507f1f77bcf86cd799439020")
+                    .doesNotContain("voteType");
+            assertThat(stageNames(facetRows(pipeline))).containsExactly("$skip", "$limit", "$lookup", "$project");
+            assertThat(facetRows(pipeline).get(0)).containsEntry("$skip", 2L);
+            verify(mongoTemplate, never()).find(any(Query.class), eq(VoteRecord.class));
         }
 
         @Test
-        @DisplayName("Should filter by vote type")
+        @DisplayName("Should filter by vote type in the indexed match")
         void getVoteParticipants_shouldFilterByVoteType() {
-            VoteParticipantRequestTable request = new VoteParticipantRequestTable();
-            request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
+            VoteParticipantRequestTable request = request(0, 10);
             request.setVoteType("FOR");
+            stubFacet(1L, row("record-1", "FOR"));
 
-            VoteRecord record = new VoteRecord();
-            record.setId("record-id");
-            record.setVoteType("FOR");
-
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class))).thenReturn(List.of(record));
-
-            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
+            voteService.getVoteParticipants(request);
 
-            assertThat(result).isNotNull();
+            assertThat(pipeline().get(0).get("$match", Document.class).toJson()).contains("\"voteType\": \"FOR\"");
         }
 
         @Test
-        @DisplayName("Should filter by fullName")
+        @DisplayName("Should filter by fullName inside the lookup before paging")
         void getVoteParticipants_shouldFilterByFullName() {
-            VoteParticipantRequestTable request = new VoteParticipantRequestTable();
-            request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
-            request.setFullName("John");
-
-            org.spacelab.housingutilitiessystemchairman.entity.User user = 
-                new org.spacelab.housingutilitiessystemchairman.entity.User();
-            user.setFirstName("John");
-            user.setMiddleName("M");
-            user.setLastName("Doe");
-            user.setApartmentNumber("101");
-            user.setPhone("123");
-
-            VoteRecord record = new VoteRecord();
-            record.setId("record-id");
-            record.setVoteType("FOR");
-            record.setUser(user);
-
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class))).thenReturn(List.of(record));
-
-            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
-
-            assertThat(result).isNotNull();
+            VoteParticipantRequestTable request = request(0, 10);
+            request.setFullName("John (Jr.)");
+            stubFacet(1L, row("record-1", "FOR"));
+
+            voteService.getVoteParticipants(request);
+
+            List<Document> pipeline = pipeline();
+            assertThat(stageNames(pipeline)).containsExactly("$match", "$sort", "$lookup", "$match", "$facet");
+            assertThat(stageNames(facetRows(pipeline))).containsExactly("$skip", "$limit", "$project");
+            Document lookup = pipeline.get(2).get("$lookup", Document.class);
+            assertThat(lookup).containsEntry("from", "user").containsEntry("localField", "user");
+            List<Document> voterPipeline = lookup.getList("pipeline", Document.class);
+            assertThat(voterPipeline).hasSize(2);
+            assertThat(voterPipeline.get(0).get("$project", Document.class)).containsKeys("fullName", "phone");
+            assertThat(voterPipeline.get(1).toJson()).contains("fullName").contains("\\\\QJohn (Jr.)\\\\E");
+            assertThat(pipeline.get(3).toJson()).contains("\"voter\": {\"$ne\": []}");
         }
 
         @Test
-        @DisplayName("Should filter by apartment number")
+        @DisplayName("Should filter by apartment number before paging")
         void getVoteParticipants_shouldFilterByApartmentNumber() {
-            VoteParticipantRequestTable request = new VoteParticipantRequestTable();
-            request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
+            VoteParticipantRequestTable request = request(0, 10);
             request.setApartmentNumber("101");
-
-            org.spacelab.housingutilitiessystemchairman.entity.User user = 
-                new org.spacelab.housingutilitiessystemchairman.entity.User();
-            user.setFirstName("John");
-            user.setApartmentNumber("101");
-
-            VoteRecord record = new VoteRecord();
-            record.setId("record-id");
-            record.setVoteType("AGAINST");
-            record.setUser(user);
-
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class))).thenReturn(List.of(record));
+            stubFacet(1L, row("record-1", "AGAINST"));
 
             PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
 
-            assertThat(result).isNotNull();
+            assertThat(result.getContent()).hasSize(1);
+            Document lookup = pipeline().get(2).get("$lookup", Document.class);
+            assertThat(lookup.getList("pipeline", Document.class).get(1).toJson()).contains("apartmentNumber");
         }
 
         @Test
-        @DisplayName("Should filter by phone")
+        @DisplayName("Should filter by phone before paging and report the filtered total")
         void getVoteParticipants_shouldFilterByPhone() {
-            VoteParticipantRequestTable request = new VoteParticipantRequestTable();
-            request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
+            VoteParticipantRequestTable request = request(0, 1);
             request.setPhone("123");
+            stubFacet(7L, row("record-1", "ABSTENTION"));
 
-            org.spacelab.housingutilitiessystemchairman.entity.User user = 
-                new org.spacelab.housingutilitiessystemchairman.entity.User();
-            user.setPhone("1234567890");
+            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
 
-            VoteRecord record = new VoteRecord();
-            record.setId("record-id");
-            record.setVoteType("ABSTENTION");
-            record.setUser(user);
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getTotalElements()).isEqualTo(7);
+            Document lookup = pipeline().get(2).get("$lookup", Document.class);
+            assertThat(lookup.getList("pipeline", Document.class).get(1).toJson()).contains("phone");
+        }
 
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class))).thenReturn(List.of(record));
+        @Test
+        @DisplayName("Should return an empty page when nothing matches")
+        void getVoteParticipants_shouldHandleEmptyResult() {
+            VoteParticipantRequestTable request = request(0, 10);
+            request.setFullName("Nobody");
+            stubFacet(0L);
 
             PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
 
-            assertThat(result).isNotNull();
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.getTotalElements()).isZero();
         }
 
         @Test
         @DisplayName("Should map all vote types correctly")
         void getVoteParticipants_shouldMapVoteTypes() {
-            VoteParticipantRequestTable request = new VoteParticipantRequestTable();
-            request.setVoteId("507f1f77bcf86cd799439020");
-            request.setPage(0);
-            request.setSize(10);
-
-            VoteRecord forRecord = new VoteRecord();
-            forRecord.setId("for-id");
-            forRecord.setVoteType("FOR");
+            stubFacet(4L, row("for-id", "FOR"), row("against-id", "AGAINST"),
+                    row("abstention-id", "ABSTENTION"), row("other-id", "OTHER"));
 
-            VoteRecord againstRecord = new VoteRecord();
-            againstRecord.setId("against-id");
-            againstRecord.setVoteType("AGAINST");
-
-            VoteRecord abstentionRecord = new VoteRecord();
-            abstentionRecord.setId("abstention-id");
-            abstentionRecord.setVoteType("ABSTENTION");
-
-            VoteRecord otherRecord = new VoteRecord();
-            otherRecord.setId("other-id");
-            otherRecord.setVoteType("OTHER");
-
-            when(mongoTemplate.count(any(), eq(VoteRecord.class))).thenReturn(4L);
-            when(mongoTemplate.find(any(), eq(VoteRecord.class)))
-                .thenReturn(List.of(forRecord, againstRecord, abstentionRecord, otherRecord));
-
-            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request);
+            PageResponse<VoteParticipantResponse> result = voteService.getVoteParticipants(request(0, 10));
 
-            assertThat(result.getContent()).hasSize(4);
+            assertThat(result.getContent()).extracting(VoteParticipantResponse::getVoteTypeDisplay)
+                    .containsExactly("За", "Против", "Воздержался", "OTHER");
         }
     }
 }
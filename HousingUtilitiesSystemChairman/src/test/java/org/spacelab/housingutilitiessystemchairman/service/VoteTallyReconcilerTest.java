@@ -0,0 +1,276 @@
+package org.spacelab.housingutilitiessystemchairman.service;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.entity.User;
+import org.spacelab.housingutilitiessystemchairman.entity.Vote;
+import org.spacelab.housingutilitiessystemchairman.entity.VoteRecord;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteTallyReconciler Tests")
+class VoteTallyReconcilerTest {
+
+    private static final String VOTE_ID = "vote-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private VoteClosingService voteClosingService;
+
+    private VoteTallyReconciler reconciler;
+
+    private Vote vote;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new VoteTallyReconciler(mongoTemplate, voteClosingService);
+        ReflectionTestUtils.setField(reconciler, "batchSize", 500);
+
+        vote = new Vote();
+        vote.setId(VOTE_ID);
+        vote.setStatus("Активное");
+        vote.setForVotesCount(2);
+        vote.setAgainstVotesCount(1);
+        vote.setAbstentionsCount(0);
+        vote.setForVotesArea(120.5);
+        vote.setAgainstVotesArea(60.0);
+        vote.setAbstentionsArea(0.0);
+        vote.setTotalVotedArea(180.5);
+    }
+
+    private Document row(String voteType, int count, Double area) {
+        return new Document("_id", new Document("vote", VOTE_ID).append("voteType", voteType))
+                .append("count", count)
+                .append("area", area);
+    }
+
+    private void stubBallots(Document... rows) {
+        when(mongoTemplate.getCollectionName(VoteRecord.class)).thenReturn("voteRecord");
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("voteRecord"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(rows), new Document()));
+    }
+
+    @Nested
+    @DisplayName("Verify")
+    class Verify {
+        @Test
+        @DisplayName("Should leave matching tallies untouched")
+        void verifyOpenVotes_shouldNotUpdateMatchingTallies() {
+            stubBallots(row("FOR", 2, 120.5), row("AGAINST", 1, 60.0));
+
+            assertThat(reconciler.verifyOpenVotes()).isZero();
+            assertThat(reconciler.verifyOpenVotes()).isZero();
+
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+        }
+
+        @Test
+        @DisplayName("Should tolerate floating point noise in area sums")
+        void verifyOpenVotes_shouldTolerateRoundingNoise() {
+            vote.setForVotesArea(120.50000000001);
+            vote.setTotalVotedArea(180.50000000001);
+            stubBallots(row("FOR", 2, 120.5), row("AGAINST", 1, 60.0));
+
+            reconciler.verifyOpenVotes();
+            reconciler.verifyOpenVotes();
+
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+        }
+
+        @Test
+        @DisplayName("Should correct a drift only after seeing it on two consecutive runs")
+        void verifyOpenVotes_shouldCorrectPersistentDrift() {
+            stubBallots(row("FOR", 3, 170.5), row("AGAINST", 1, 60.0), row("ABSTENTION", 1, null));
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Vote.class)))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+            assertThat(reconciler.verifyOpenVotes()).isZero();
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+
+            assertThat(reconciler.verifyOpenVotes()).isEqualTo(1);
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Vote.class));
+            assertThat(query.getValue().getQueryObject())
+                    .containsEntry("_id", VOTE_ID)
+                    .containsEntry("forVotesCount", 2)
+                    .containsEntry("totalVotedArea", 180.5)
+                    .containsEntry("abstentionsCount", new Document("$in", Arrays.asList(0, null)))
+                    .containsEntry("abstentionsArea", new Document("$in", Arrays.asList(0.0, null)))
+                    .containsEntry("status", new Document("$ne", VoteClosingService.CLOSED_STATUS));
+            Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+            assertThat(set)
+                    .containsEntry("forVotesCount", 3)
+                    .containsEntry("abstentionsCount", 1)
+                    .containsEntry("forVotesArea", 170.5)
+                    .containsEntry("abstentionsArea", 0.0)
+                    .containsEntry("totalVotedArea", 230.5);
+        }
+
+        @Test
+        @DisplayName("Should not correct a transient mismatch that resolves itself")
+        void verifyOpenVotes_shouldIgnoreTransientMismatch() {
+            stubBallots(row("FOR", 3, 170.5), row("AGAINST", 1, 60.0));
+            reconciler.verifyOpenVotes();
+
+            vote.setForVotesCount(3);
+            vote.setForVotesArea(170.5);
+            vote.setTotalVotedArea(230.5);
+            reconciler.verifyOpenVotes();
+            reconciler.verifyOpenVotes();
+
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+        }
+
+        @Test
+        @DisplayName("Should keep the drift suspected when a concurrent ballot changes the tallies")
+        void verifyOpenVotes_shouldSkipWhenTalliesChangedConcurrently() {
+            stubBallots(row("FOR", 3, 170.5), row("AGAINST", 1, 60.0));
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Vote.class)))
+                    .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+            reconciler.verifyOpenVotes();
+            assertThat(reconciler.verifyOpenVotes()).isZero();
+            assertThat(reconciler.verifyOpenVotes()).isEqualTo(1);
+
+            verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Closed Votes")
+    class ClosedVotes {
+        @Test
+        @DisplayName("Should rebuild tallies of unverified closed votes from ballots once, matching missing fields")
+        void reconcileClosedVotes_shouldRebuildFromBallots() {
+            vote.setStatus(VoteClosingService.CLOSED_STATUS);
+            vote.setQuorumArea(150.0);
+            vote.setResult(VoteClosingService.RESULT_REJECTED);
+            vote.setForVotesCount(0);
+            vote.setAgainstVotesCount(0);
+            vote.setForVotesArea(0.0);
+            vote.setAgainstVotesArea(0.0);
+            vote.setTotalVotedArea(0.0);
+            stubBallots(row("FOR", 2, 120.5), row("AGAINST", 1, 60.0));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class)).thenReturn(bulkOperations);
+
+            assertThat(reconciler.reconcileClosedVotes()).isEqualTo(1);
+
+            ArgumentCaptor<Query> selected = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate, times(2)).find(selected.capture(), eq(Vote.class));
+            assertThat(selected.getAllValues().get(0).getQueryObject())
+                    .containsEntry("status", VoteClosingService.CLOSED_STATUS)
+                    .containsEntry(VoteTallyReconciler.TALLY_VERIFIED_FIELD, new Document("$exists", false));
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(bulkOperations).updateOne(query.capture(), update.capture());
+            assertThat(query.getValue().getQueryObject())
+                    .containsEntry("forVotesArea", new Document("$in", Arrays.asList(0.0, null)))
+                    .containsEntry(VoteTallyReconciler.TALLY_VERIFIED_FIELD, new Document("$exists", false));
+            Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+            assertThat(set)
+                    .containsEntry("forVotesCount", 2)
+                    .containsEntry("forVotesArea", 120.5)
+                    .containsEntry("totalVotedArea", 180.5)
+                    .containsEntry("result", VoteClosingService.RESULT_ACCEPTED)
+                    .containsKey(VoteTallyReconciler.TALLY_VERIFIED_FIELD);
+            verify(bulkOperations).execute();
+            assertThat(selected.getAllValues().get(1).getQueryObject()).containsKey(VoteTallyReconciler.TALLY_VERIFIED_FIELD);
+            verify(voteClosingService).publishClosed(vote);
+        }
+
+        @Test
+        @DisplayName("Should not announce a closed vote again when the rebuilt tallies keep its result")
+        void reconcileClosedVotes_shouldNotRepublishUnchangedResult() {
+            vote.setStatus(VoteClosingService.CLOSED_STATUS);
+            vote.setQuorumArea(150.0);
+            vote.setResult(VoteClosingService.RESULT_ACCEPTED);
+            stubBallots(row("FOR", 2, 120.5), row("AGAINST", 1, 60.0));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class)).thenReturn(bulkOperations);
+
+            assertThat(reconciler.reconcileClosedVotes()).isEqualTo(1);
+
+            verify(mongoTemplate).find(any(Query.class), eq(Vote.class));
+            verifyNoInteractions(voteClosingService);
+        }
+
+        @Test
+        @DisplayName("Should do nothing once every closed vote is verified")
+        void reconcileClosedVotes_shouldSkipWhenAllVerified() {
+            when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of());
+
+            assertThat(reconciler.reconcileClosedVotes()).isZero();
+
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Vote.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Backfill")
+    class Backfill {
+        @Test
+        @DisplayName("Should snapshot voter areas onto legacy ballots in one bulk write")
+        void backfillBallotAreas_shouldSetAreaFromVoters() {
+            when(mongoTemplate.getCollectionName(VoteRecord.class)).thenReturn("voteRecord");
+            when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("voteRecord"))).thenReturn(List.of(
+                    new Document("_id", "record-1").append("user", "user-1"),
+                    new Document("_id", "record-2").append("user", "user-2"),
+                    new Document("_id", "record-3")));
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(List.of(
+                    new Document("_id", "user-1").append("apartmentArea", 55.5),
+                    new Document("_id", "user-2")));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "voteRecord")).thenReturn(bulkOperations);
+
+            assertThat(reconciler.backfillBallotAreas()).isEqualTo(3);
+
+            ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+            verify(bulkOperations, times(3)).updateOne(any(Query.class), updates.capture());
+            assertThat(updates.getAllValues())
+                    .extracting(update -> update.getUpdateObject().get("$set", Document.class).get("apartmentArea"))
+                    .containsExactly(55.5, 0.0, 0.0);
+            verify(bulkOperations).execute();
+        }
+
+        @Test
+        @DisplayName("Should do nothing when every ballot has an area")
+        void backfillBallotAreas_shouldSkipWhenNothingMissing() {
+            when(mongoTemplate.getCollectionName(VoteRecord.class)).thenReturn("voteRecord");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("voteRecord"))).thenReturn(List.of());
+
+            assertThat(reconciler.backfillBallotAreas()).isZero();
+
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), anyString());
+        }
+    }
+}
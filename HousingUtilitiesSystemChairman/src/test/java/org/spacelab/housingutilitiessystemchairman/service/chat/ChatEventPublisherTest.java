@@ -1,20 +1,25 @@
 package org.spacelab.housingutilitiessystemchairman.service.chat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.time.Instant;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,15 +27,23 @@ import static org.mockito.Mockito.*;
 class ChatEventPublisherTest {
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
 
-    @InjectMocks
     private ChatEventPublisher chatEventPublisher;
 
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     private ChatEvent testEvent;
 
     @BeforeEach
     void setUp() {
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        chatEventPublisher = new ChatEventPublisher(redisTemplate, objectMapper);
         testEvent = ChatEvent.builder()
                 .eventType("MESSAGE_SENT")
                 .targetUserId("user-123")
@@ -50,25 +63,47 @@ class ChatEventPublisherTest {
     @DisplayName("Publish Message Event")
     class PublishMessageEvent {
         @Test
-        @DisplayName("Should publish message event successfully")
-        void publishMessageEvent_shouldPublish() {
-            when(redisTemplate.convertAndSend(eq("chat_events"), any())).thenReturn(1L);
+        @DisplayName("Should append to the recipient stream and the shared stream")
+        void publishMessageEvent_shouldAppendToStreams() {
+            when(streamOperations.add(eq("chat:stream:user:user-123"), anyMap(), any(XAddOptions.class)))
+                    .thenReturn(RecordId.of("1700000000000-0"));
+
+            chatEventPublisher.publishMessageEvent(testEvent);
+
+            verify(streamOperations).add(eq("chat:stream:user:user-123"), anyMap(), any(XAddOptions.class));
+            verify(streamOperations).add(eq(ChatEventPublisher.CHAT_EVENTS_STREAM),
+                    argThat(fields -> String.valueOf(fields.get(ChatEventPublisher.PAYLOAD_FIELD))
+                            .contains("\"eventId\":\"1700000000000-0\"")),
+                    any(XAddOptions.class));
+            verify(redisTemplate).expire("chat:stream:user:user-123", ChatEventPublisher.USER_STREAM_TTL);
+            assertThat(testEvent.getEventId()).isEqualTo("1700000000000-0");
+        }
+
+        @Test
+        @DisplayName("Should cap streams with approximate MAXLEN trimming")
+        void publishMessageEvent_shouldTrimStreams() {
+            when(streamOperations.add(anyString(), anyMap(), any(XAddOptions.class)))
+                    .thenReturn(RecordId.of("1700000000000-0"));
 
             chatEventPublisher.publishMessageEvent(testEvent);
 
-            verify(redisTemplate).convertAndSend("chat_events", testEvent);
+            verify(streamOperations).add(eq("chat:stream:user:user-123"), anyMap(), argThat((XAddOptions options) ->
+                    options.getMaxlen() == ChatEventPublisher.USER_STREAM_MAX_LEN && options.isApproximateTrimming()));
+            verify(streamOperations).add(eq(ChatEventPublisher.CHAT_EVENTS_STREAM), anyMap(),
+                    argThat((XAddOptions options) -> options.getMaxlen() == ChatEventPublisher.CHAT_EVENTS_MAX_LEN));
         }
 
         @Test
-        @DisplayName("Should handle exception when publishing message event")
+        @DisplayName("Should handle exception gracefully")
         void publishMessageEvent_shouldHandleException() {
-            when(redisTemplate.convertAndSend(eq("chat_events"), any()))
+            when(streamOperations.add(anyString(), anyMap(), any(XAddOptions.class)))
                     .thenThrow(new RuntimeException("Redis error"));
 
-            // Should not throw exception, just log error
+            // Should not throw, just log error
             chatEventPublisher.publishMessageEvent(testEvent);
 
-            verify(redisTemplate).convertAndSend("chat_events", testEvent);
+            verify(streamOperations, never()).add(eq(ChatEventPublisher.CHAT_EVENTS_STREAM), anyMap(),
+                    any(XAddOptions.class));
         }
     }
 
@@ -76,41 +111,34 @@ class ChatEventPublisherTest {
     @DisplayName("Publish Presence Event")
     class PublishPresenceEvent {
         @Test
-        @DisplayName("Should publish presence event successfully")
-        void publishPresenceEvent_shouldPublish() {
-            when(redisTemplate.convertAndSend(eq("presence_events"), any())).thenReturn(1L);
-
-            chatEventPublisher.publishPresenceEvent(testEvent);
-
-            verify(redisTemplate).convertAndSend("presence_events", testEvent);
-        }
-
-        @Test
-        @DisplayName("Should publish offline presence event")
-        void publishPresenceEvent_shouldPublishOffline() {
-            ChatEvent offlineEvent = ChatEvent.builder()
-                    .eventType("PRESENCE_CHANGED")
+        @DisplayName("Should append presence event to the presence stream")
+        void publishPresenceEvent_shouldAppend() {
+            testEvent = ChatEvent.builder()
+                    .eventType("USER_ONLINE")
                     .targetUserId("user-123")
-                    .isOnline(false)
+                    .isOnline(true)
                     .build();
 
-            when(redisTemplate.convertAndSend(eq("presence_events"), any())).thenReturn(1L);
-
-            chatEventPublisher.publishPresenceEvent(offlineEvent);
+            chatEventPublisher.publishPresenceEvent(testEvent);
 
-            verify(redisTemplate).convertAndSend("presence_events", offlineEvent);
+            verify(streamOperations).add(eq(ChatEventPublisher.PRESENCE_EVENTS_STREAM),
+                    argThat(fields -> String.valueOf(fields.get(ChatEventPublisher.PAYLOAD_FIELD))
+                            .contains("\"targetUserId\":\"user-123\"")),
+                    any(XAddOptions.class));
+            verify(redisTemplate, never()).expire(anyString(), any());
         }
 
         @Test
-        @DisplayName("Should handle exception when publishing presence event")
+        @DisplayName("Should handle exception gracefully")
         void publishPresenceEvent_shouldHandleException() {
-            when(redisTemplate.convertAndSend(eq("presence_events"), any()))
+            when(streamOperations.add(anyString(), anyMap(), any(XAddOptions.class)))
                     .thenThrow(new RuntimeException("Redis error"));
 
-            // Should not throw exception, just log error
+            // Should not throw, just log error
             chatEventPublisher.publishPresenceEvent(testEvent);
 
-            verify(redisTemplate).convertAndSend("presence_events", testEvent);
+            verify(streamOperations).add(eq(ChatEventPublisher.PRESENCE_EVENTS_STREAM), anyMap(),
+                    any(XAddOptions.class));
         }
     }
 }
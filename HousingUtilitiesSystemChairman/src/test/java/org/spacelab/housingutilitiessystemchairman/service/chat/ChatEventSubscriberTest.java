@@ -10,13 +10,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
-import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -29,7 +28,10 @@ class ChatEventSubscriberTest {
     private SimpMessagingTemplate messagingTemplate;
 
     @Mock
-    private ChairmanRepository chairmanRepository;
+    private LocalSessionRegistry localSessionRegistry;
+
+    @Mock
+    private SidebarUpdateCoalescer sidebarUpdateCoalescer;
 
     @Mock
     private ObjectMapper objectMapper;
@@ -38,7 +40,6 @@ class ChatEventSubscriberTest {
     private ChatEventSubscriber chatEventSubscriber;
 
     private ChatEvent testEvent;
-    private Chairman testChairman;
     private String testMessageJson;
 
     @BeforeEach
@@ -57,11 +58,6 @@ class ChatEventSubscriberTest {
                 .isOnline(true)
                 .build();
 
-        testChairman = new Chairman();
-        testChairman.setId("chairman-123");
-        testChairman.setLogin("chairman");
-        testChairman.setOnline(true);
-
         testMessageJson = "{\"eventType\":\"MESSAGE_SENT\",\"targetUserId\":\"chairman-123\",\"targetUserRole\":\"CHAIRMAN\"}";
     }
 
@@ -69,17 +65,14 @@ class ChatEventSubscriberTest {
     @DisplayName("Handle Message")
     class HandleMessage {
         @Test
-        @DisplayName("Should forward message to online Chairman via WebSocket")
-        void handleMessage_shouldForwardToOnlineChairman() throws Exception {
+        @DisplayName("Should forward message to locally connected Chairman via WebSocket")
+        void handleMessage_shouldForwardToLocalChairman() throws Exception {
             when(objectMapper.readValue(testMessageJson, ChatEvent.class)).thenReturn(testEvent);
-            when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
+            when(localSessionRegistry.getPrincipalNames("chairman-123")).thenReturn(Set.of("chairman"));
 
             chatEventSubscriber.handleMessage(testMessageJson);
 
-            verify(messagingTemplate).convertAndSendToUser(
-                    eq("chairman"),
-                    eq("/queue/sidebar"),
-                    any(ChatEvent.class));
+            verify(sidebarUpdateCoalescer).enqueue("chairman", testEvent);
         }
 
         @Test
@@ -93,30 +86,19 @@ class ChatEventSubscriberTest {
 
             chatEventSubscriber.handleMessage(testMessageJson);
 
-            verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
-        }
-
-        @Test
-        @DisplayName("Should skip if Chairman not found")
-        void handleMessage_shouldSkipIfChairmanNotFound() throws Exception {
-            when(objectMapper.readValue(testMessageJson, ChatEvent.class)).thenReturn(testEvent);
-            when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.empty());
-
-            chatEventSubscriber.handleMessage(testMessageJson);
-
-            verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+            verifyNoInteractions(localSessionRegistry);
+            verify(sidebarUpdateCoalescer, never()).enqueue(anyString(), any());
         }
 
         @Test
-        @DisplayName("Should skip if Chairman is offline")
-        void handleMessage_shouldSkipIfChairmanOffline() throws Exception {
-            testChairman.setOnline(false);
+        @DisplayName("Should drop message if Chairman has no session on this node")
+        void handleMessage_shouldSkipIfNotConnectedLocally() throws Exception {
             when(objectMapper.readValue(testMessageJson, ChatEvent.class)).thenReturn(testEvent);
-            when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
+            when(localSessionRegistry.getPrincipalNames("chairman-123")).thenReturn(Collections.emptySet());
 
             chatEventSubscriber.handleMessage(testMessageJson);
 
-            verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+            verify(sidebarUpdateCoalescer, never()).enqueue(anyString(), any());
         }
 
         @Test
@@ -128,7 +110,7 @@ class ChatEventSubscriberTest {
             // Should not throw, just log error
             chatEventSubscriber.handleMessage("invalid json");
 
-            verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+            verify(sidebarUpdateCoalescer, never()).enqueue(anyString(), any());
         }
     }
 
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -13,12 +14,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.spacelab.housingutilitiessystemchairman.entity.Chairman;
 import org.spacelab.housingutilitiessystemchairman.entity.User;
 import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ChatParticipant;
 import org.spacelab.housingutilitiessystemchairman.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemchairman.entity.chat.ConversationSummary;
 import org.spacelab.housingutilitiessystemchairman.entity.location.House;
 import org.spacelab.housingutilitiessystemchairman.entity.location.Status;
 import org.spacelab.housingutilitiessystemchairman.exception.OperationException;
 import org.spacelab.housingutilitiessystemchairman.mappers.chat.ChatMessageMapper;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatContactResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatConversationResponse;
+import org.spacelab.housingutilitiessystemchairman.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemchairman.models.chat.ChatSidebarResponse;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.ChairmanRepository;
@@ -26,7 +31,9 @@ import org.spacelab.housingutilitiessystemchairman.repository.mongo.HouseReposit
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.UserRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ChatMessageRepository;
 import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ConversationRepository;
+import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ConversationSummaryRepository;
 import org.spacelab.housingutilitiessystemchairman.service.ChairmanService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -67,6 +74,18 @@ class ChatServiceTest {
     @Mock
     private ChatEventPublisher chatEventPublisher;
 
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private PresenceService presenceService;
+
+    @Mock
+    private ConversationMembershipCache conversationMembershipCache;
+
+    @Mock
+    private ChatMessageWriteBehind chatMessageWriteBehind;
+
     @Mock
     private Authentication authentication;
 
@@ -111,7 +130,6 @@ class ChatServiceTest {
         testChairman.setFirstName("Chairman");
         testChairman.setMiddleName("C");
         testChairman.setLastName("Test");
-        testChairman.setOnline(true);
         testChairman.setConversations(new HashSet<>());
 
         otherChairman = new Chairman();
@@ -120,7 +138,6 @@ class ChatServiceTest {
         otherChairman.setFirstName("Other");
         otherChairman.setMiddleName("O");
         otherChairman.setLastName("Chairman");
-        otherChairman.setOnline(true);
         otherChairman.setConversations(new HashSet<>());
 
         testUser = new User();
@@ -129,7 +146,6 @@ class ChatServiceTest {
         testUser.setFirstName("Test");
         testUser.setMiddleName("M");
         testUser.setLastName("User");
-        testUser.setOnline(true);
         testUser.setStatus(Status.ACTIVE);
         testUser.setHouse(testHouse);
         testUser.setConversations(new HashSet<>());
@@ -140,7 +156,6 @@ class ChatServiceTest {
         otherUser.setFirstName("Other");
         otherUser.setMiddleName("O");
         otherUser.setLastName("User");
-        otherUser.setOnline(true);
         otherUser.setStatus(Status.ACTIVE);
         otherUser.setConversations(new HashSet<>());
 
@@ -154,6 +169,9 @@ class ChatServiceTest {
         testConversation2.setCreatedAt(Instant.now().minusSeconds(100));
         testConversation2.setUpdatedAt(Instant.now().minusSeconds(100));
 
+        testConversation.setParticipants(new ArrayList<>(List.of(participant(testChairman), participant(testUser))));
+        testConversation2.setParticipants(new ArrayList<>(List.of(participant(testChairman), participant(testUser))));
+
         testMessage = ChatMessage.builder()
                 .id(msgId)
                 .conversation(testConversation)
@@ -182,6 +200,34 @@ class ChatServiceTest {
                 .build();
     }
 
+    private ChatParticipant participant(Chairman chairman) {
+        return ChatParticipant.builder()
+                .id(chairman.getId())
+                .type(ChatParticipant.TYPE_CHAIRMAN)
+                .fullName(chairman.getFullName())
+                .build();
+    }
+
+    private ChatParticipant participant(User user) {
+        return ChatParticipant.builder()
+                .id(user.getId())
+                .type(ChatParticipant.TYPE_USER)
+                .fullName(user.getFullName())
+                .build();
+    }
+
+    private ConversationSummary summary(String conversationId, String participantId, String type, Instant time) {
+        return ConversationSummary.builder()
+                .ownerId("507f1f77bcf86cd799439012")
+                .conversationId(conversationId)
+                .participantId(participantId)
+                .participantType(type)
+                .participantName("USER".equals(type) ? testUser.getFullName() : otherChairman.getFullName())
+                .lastMessage("Hi")
+                .lastMessageTime(time)
+                .build();
+    }
+
     private void mockSecurityContext() {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
@@ -272,8 +318,8 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(chatMessageRepository.findByConversationIdIn(anyList())).thenReturn(List.of(userMessage));
-                when(userRepository.findAllById(anyList())).thenReturn(List.of(testUser));
+                when(conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc("507f1f77bcf86cd799439012"))
+                        .thenReturn(List.of(summary("507f1f77bcf86cd799439016", testUser.getId(), "USER", Instant.now())));
                 when(houseRepository.findByChairman(testChairman)).thenReturn(Set.of(testHouse));
                 when(userRepository.findByHouseIn(anyList())).thenReturn(List.of(testUser, otherUser));
 
@@ -281,6 +327,12 @@ class ChatServiceTest {
 
                 assertThat(result).isNotNull();
                 assertThat(result.getChatConversationResponses()).hasSize(1);
+                assertThat(result.getChatConversationResponses().get(0).getName()).isEqualTo(testUser.getFullName());
+                assertThat(result.getChatContactResponses()).extracting(ChatContactResponse::getId)
+                        .containsExactly(otherUser.getId());
+                verifyNoInteractions(chatMessageRepository);
+                verify(conversationRepository, never()).findAllById(any());
+                verify(conversationSummaryRepository, never()).backfillSummary(any());
             }
         }
 
@@ -323,37 +375,54 @@ class ChatServiceTest {
         void getChatSidebar_shouldHandleChairmanParticipant() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+                testConversation.setParticipants(List.of(participant(testChairman), participant(otherChairman)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(chatMessageRepository.findByConversationIdIn(anyList())).thenReturn(List.of(chairmanMessage));
-                when(chairmanRepository.findAllById(anyIterable())).thenReturn(List.of(otherChairman));
+                ConversationSummary chairmanSummary = summary(
+                        "507f1f77bcf86cd799439016", otherChairman.getId(), "CHAIRMAN", Instant.now());
+                chairmanSummary.setUnreadCount(3);
+                when(conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc("507f1f77bcf86cd799439012"))
+                        .thenReturn(List.of(chairmanSummary));
                 when(houseRepository.findByChairman(testChairman)).thenReturn(Collections.emptySet());
+                when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(otherChairman.getId(), true));
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
 
-                assertThat(result).isNotNull();
+                ChatConversationResponse response = result.getChatConversationResponses().get(0);
+                assertThat(response.getParticipantType()).isEqualTo("CHAIRMAN");
+                assertThat(response.isOnline()).isTrue();
+                assertThat(response.getUnreadCount()).isEqualTo(3);
             }
         }
 
         @Test
-        @DisplayName("Should search participant in all messages when not in last message")
-        void getChatSidebar_shouldSearchInAllMessages() {
+        @DisplayName("Should backfill participants from message history for legacy conversation")
+        void getChatSidebar_shouldBackfillLegacyParticipants() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+                testConversation.setParticipants(null);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                // Return message from current chairman, so participant not found in last messages
-                when(chatMessageRepository.findByConversationIdIn(anyList())).thenReturn(List.of(testMessage));
-                // Return user message when searching in all messages
+                when(conversationRepository.findConversationIds(Chairman.class, "507f1f77bcf86cd799439012"))
+                        .thenReturn(List.of("507f1f77bcf86cd799439016"));
+                when(conversationRepository.findAllById(List.of("507f1f77bcf86cd799439016")))
+                        .thenReturn(List.of(testConversation));
                 when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
-                when(userRepository.findAllById(anyList())).thenReturn(List.of(testUser));
+                when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
                 when(houseRepository.findByChairman(testChairman)).thenReturn(Collections.emptySet());
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
 
                 assertThat(result).isNotNull();
+                assertThat(testConversation.getParticipants())
+                        .extracting(ChatParticipant::getId)
+                        .containsExactly("507f1f77bcf86cd799439012", "507f1f77bcf86cd799439014");
+                verify(conversationRepository).save(testConversation);
+                ArgumentCaptor<ConversationSummary> captor = ArgumentCaptor.forClass(ConversationSummary.class);
+                verify(conversationSummaryRepository).backfillSummary(captor.capture());
+                assertThat(captor.getValue().getOwnerId()).isEqualTo("507f1f77bcf86cd799439012");
+                assertThat(captor.getValue().getParticipantId()).isEqualTo("507f1f77bcf86cd799439014");
             }
         }
 
@@ -378,29 +447,34 @@ class ChatServiceTest {
         }
 
         @Test
-        @DisplayName("Should sort conversations by last message time")
+        @DisplayName("Should backfill only unsummarized conversations and sort by last message time")
         void getChatSidebar_shouldSortConversations() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testChairman.setConversations(new HashSet<>(Set.of(testConversation, testConversation2)));
-                ChatMessage olderMessage = ChatMessage.builder()
-                        .id("msg-old")
-                        .conversation(testConversation2)
-                        .content("Old")
-                        .senderId("507f1f77bcf86cd799439014")
-                        .senderType("USER")
-                        .createdAt(Instant.now().minusSeconds(1000))
-                        .build();
+                Instant older = Instant.now().minusSeconds(1000);
+                ConversationSummary existing = summary("507f1f77bcf86cd799439016", testUser.getId(), "USER", older);
 
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(chatMessageRepository.findByConversationIdIn(anyList())).thenReturn(List.of(userMessage, olderMessage));
-                when(userRepository.findAllById(anyList())).thenReturn(List.of(testUser));
+                when(conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc("507f1f77bcf86cd799439012"))
+                        .thenReturn(List.of(existing));
+                when(conversationRepository.findConversationIds(Chairman.class, "507f1f77bcf86cd799439012"))
+                        .thenReturn(List.of("507f1f77bcf86cd799439016", "507f1f77bcf86cd799439017"));
+                when(conversationRepository.findAllById(List.of("507f1f77bcf86cd799439017")))
+                        .thenReturn(List.of(testConversation2));
+                when(chatMessageRepository.findByConversationId(eq("507f1f77bcf86cd799439017"), any(Pageable.class)))
+                        .thenReturn(List.of(userMessage));
+                when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
                 when(houseRepository.findByChairman(testChairman)).thenReturn(Collections.emptySet());
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
 
-                assertThat(result.getChatConversationResponses()).hasSize(2);
+                assertThat(result.getChatConversationResponses()).extracting(ChatConversationResponse::getId)
+                        .containsExactly("507f1f77bcf86cd799439017", "507f1f77bcf86cd799439016");
+                ArgumentCaptor<ConversationSummary> captor = ArgumentCaptor.forClass(ConversationSummary.class);
+                verify(conversationSummaryRepository).backfillSummary(captor.capture());
+                assertThat(captor.getValue().getConversationId()).isEqualTo("507f1f77bcf86cd799439017");
+                assertThat(captor.getValue().getLastMessageTime()).isEqualTo(userMessage.getCreatedAt());
             }
         }
     }
@@ -419,8 +493,8 @@ class ChatServiceTest {
 
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-            when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
             when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(testUser.getId(), true));
             when(chatMessageMapper.toResponse(any(), anyString())).thenReturn(expectedResponse);
 
             ChatMessageResponse result = chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman);
@@ -430,6 +504,41 @@ class ChatServiceTest {
             verify(chatEventPublisher).publishMessageEvent(any());
         }
 
+        @Test
+        @DisplayName("Should hand the message to write-behind instead of saving it")
+        void sendMessage_shouldQueueWhenWriteBehindEnabled() {
+            testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+            when(chatMessageWriteBehind.isEnabled()).thenReturn(true);
+            when(chatMessageWriteBehind.enqueue(any(ChatMessage.class))).thenReturn(testMessage);
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(testUser.getId(), true));
+
+            chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman);
+
+            verify(chatMessageWriteBehind).enqueue(any(ChatMessage.class));
+            verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+            verify(conversationRepository, never()).save(any(Conversation.class));
+            verify(chatEventPublisher).publishMessageEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should update both conversation summaries")
+        void sendMessage_shouldUpdateSummaries() {
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
+            when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+
+            chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman);
+
+            verify(conversationSummaryRepository).recordMessage(eq("507f1f77bcf86cd799439012"),
+                    eq("507f1f77bcf86cd799439016"), argThat(p -> p.getId().equals("507f1f77bcf86cd799439014")),
+                    eq(testMessage.getContent()), eq(testMessage.getCreatedAt()), eq(false));
+            verify(conversationSummaryRepository).recordMessage(eq("507f1f77bcf86cd799439014"),
+                    eq("507f1f77bcf86cd799439016"), argThat(p -> p.getId().equals("507f1f77bcf86cd799439012")),
+                    eq(testMessage.getContent()), eq(testMessage.getCreatedAt()), eq(true));
+        }
+
         @Test
         @DisplayName("Should throw when conversation not found")
         void sendMessage_shouldThrowWhenConversationNotFound() {
@@ -443,6 +552,7 @@ class ChatServiceTest {
         @DisplayName("Should throw when no access to conversation")
         void sendMessage_shouldThrowWhenNoAccess() {
             testChairman.setConversations(new HashSet<>());
+            testConversation.setParticipants(List.of(participant(testUser), participant(otherUser)));
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
 
             assertThatThrownBy(() -> chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman))
@@ -453,6 +563,7 @@ class ChatServiceTest {
         @DisplayName("Should throw when sender has null conversations")
         void sendMessage_shouldThrowWhenNullConversations() {
             testChairman.setConversations(null);
+            testConversation.setParticipants(null);
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
 
             assertThatThrownBy(() -> chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman))
@@ -467,8 +578,8 @@ class ChatServiceTest {
 
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-            when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
             when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(testUser.getId(), true));
             when(chatMessageMapper.toResponse(any(), anyString())).thenReturn(expectedResponse);
 
             chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman);
@@ -480,12 +591,13 @@ class ChatServiceTest {
         @DisplayName("Should publish event to online Chairman recipient")
         void sendMessage_shouldPublishEventToChairman() {
             testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+            testConversation.setParticipants(List.of(participant(testChairman), participant(otherChairman)));
             ChatMessageResponse expectedResponse = ChatMessageResponse.builder().id("msg-123").build();
 
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-            when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(chairmanMessage));
             when(chairmanRepository.findById("507f1f77bcf86cd799439013")).thenReturn(Optional.of(otherChairman));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(otherChairman.getId(), true));
             when(chatMessageMapper.toResponse(any(), anyString())).thenReturn(expectedResponse);
 
             chatService.sendMessage("507f1f77bcf86cd799439016", "Hello!", testChairman);
@@ -496,13 +608,12 @@ class ChatServiceTest {
         @Test
         @DisplayName("Should not publish event when User is offline")
         void sendMessage_shouldNotPublishWhenUserOffline() {
-            testUser.setOnline(false);
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(testUser.getId(), false));
             testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
             ChatMessageResponse expectedResponse = ChatMessageResponse.builder().id("msg-123").build();
 
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-            when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
             when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
             when(chatMessageMapper.toResponse(any(), anyString())).thenReturn(expectedResponse);
 
@@ -514,13 +625,13 @@ class ChatServiceTest {
         @Test
         @DisplayName("Should not publish event when Chairman is offline")
         void sendMessage_shouldNotPublishWhenChairmanOffline() {
-            otherChairman.setOnline(false);
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(otherChairman.getId(), false));
             testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+            testConversation.setParticipants(List.of(participant(testChairman), participant(otherChairman)));
             ChatMessageResponse expectedResponse = ChatMessageResponse.builder().id("msg-123").build();
 
             when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-            when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(chairmanMessage));
             when(chairmanRepository.findById("507f1f77bcf86cd799439013")).thenReturn(Optional.of(otherChairman));
             when(chatMessageMapper.toResponse(any(), anyString())).thenReturn(expectedResponse);
 
@@ -541,12 +652,33 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
+                when(conversationRepository.findByParticipantIds("507f1f77bcf86cd799439012", "507f1f77bcf86cd799439014"))
+                        .thenReturn(List.of(testConversation));
 
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439014", "USER");
 
                 assertThat(result).isEqualTo(testConversation);
                 verify(conversationRepository, never()).save(any());
+                verifyNoInteractions(chatMessageRepository);
+            }
+        }
+
+        @Test
+        @DisplayName("Should find existing legacy conversation without participants")
+        void getOrCreateConversation_shouldReturnExistingLegacy() {
+            try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+                testConversation.setParticipants(null);
+                testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+                mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+                mockSecurityContext();
+                when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
+                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
+                when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
+
+                Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439014", "USER");
+
+                assertThat(result).isEqualTo(testConversation);
+                assertThat(result.getParticipants()).hasSize(2);
             }
         }
 
@@ -564,7 +696,20 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439014", "USER");
 
                 assertThat(result).isNotNull();
-                verify(conversationRepository).save(any(Conversation.class));
+                ArgumentCaptor<Conversation> captor = ArgumentCaptor.forClass(Conversation.class);
+                verify(conversationRepository).save(captor.capture());
+                assertThat(captor.getValue().getParticipants())
+                        .extracting(ChatParticipant::getId, ChatParticipant::getType)
+                        .containsExactly(
+                                tuple("507f1f77bcf86cd799439012", "CHAIRMAN"),
+                                tuple("507f1f77bcf86cd799439014", "USER"));
+                verify(chatMessageRepository, never()).save(any());
+                verify(conversationRepository).linkConversation(Chairman.class, "507f1f77bcf86cd799439012",
+                        "507f1f77bcf86cd799439016");
+                verify(conversationRepository).linkConversation(User.class, "507f1f77bcf86cd799439014",
+                        "507f1f77bcf86cd799439016");
+                verify(conversationMembershipCache).addConversation(testConversation.getId(),
+                        List.of("507f1f77bcf86cd799439012", "507f1f77bcf86cd799439014"));
             }
         }
 
@@ -600,7 +745,10 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439013", "CHAIRMAN");
 
                 assertThat(result).isNotNull();
-                verify(chairmanRepository, times(2)).save(any(Chairman.class));
+                verify(conversationRepository).linkConversation(Chairman.class, "507f1f77bcf86cd799439012",
+                        "507f1f77bcf86cd799439016");
+                verify(conversationRepository).linkConversation(Chairman.class, "507f1f77bcf86cd799439013",
+                        "507f1f77bcf86cd799439016");
             }
         }
 
@@ -612,7 +760,6 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
                 when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
 
                 assertThatThrownBy(() -> chatService.getOrCreateConversation("507f1f77bcf86cd799439fff", "USER"))
@@ -628,17 +775,17 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
-                when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
                 when(chairmanRepository.findById("507f1f77bcf86cd799439fff")).thenReturn(Optional.empty());
 
                 assertThatThrownBy(() -> chatService.getOrCreateConversation("507f1f77bcf86cd799439fff", "CHAIRMAN"))
                         .isInstanceOf(OperationException.class);
+                verify(conversationRepository, never()).save(any());
             }
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for chairman")
-        void getOrCreateConversation_shouldInitNullConversationsForChairman() {
+        @DisplayName("Should link the conversation without rewriting the chairman document")
+        void getOrCreateConversation_shouldLinkWithoutSavingChairman() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(null);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -650,13 +797,14 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439014", "USER");
 
                 assertThat(result).isNotNull();
-                assertThat(testChairman.getConversations()).isNotNull();
+                assertThat(testChairman.getConversations()).isNull();
+                verify(chairmanRepository, never()).save(any());
             }
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for target User")
-        void getOrCreateConversation_shouldInitNullConversationsForUser() {
+        @DisplayName("Should link the conversation without rewriting the target User document")
+        void getOrCreateConversation_shouldLinkWithoutSavingUser() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testUser.setConversations(null);
                 testChairman.setConversations(new HashSet<>());
@@ -669,13 +817,14 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439014", "USER");
 
                 assertThat(result).isNotNull();
-                assertThat(testUser.getConversations()).isNotNull();
+                assertThat(testUser.getConversations()).isNull();
+                verify(userRepository, never()).save(any());
             }
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for target Chairman")
-        void getOrCreateConversation_shouldInitNullConversationsForTargetChairman() {
+        @DisplayName("Should link the conversation without rewriting the target Chairman document")
+        void getOrCreateConversation_shouldLinkWithoutSavingTargetChairman() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 otherChairman.setConversations(null);
                 testChairman.setConversations(new HashSet<>());
@@ -688,7 +837,8 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("507f1f77bcf86cd799439013", "CHAIRMAN");
 
                 assertThat(result).isNotNull();
-                assertThat(otherChairman.getConversations()).isNotNull();
+                assertThat(otherChairman.getConversations()).isNull();
+                verify(chairmanRepository, never()).save(any());
             }
         }
     }
@@ -704,6 +854,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
+                when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("507f1f77bcf86cd799439016"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage)));
                 when(chatMessageMapper.toResponseList(anyList(), anyString()))
@@ -720,9 +871,11 @@ class ChatServiceTest {
         void getConversationMessages_shouldThrowWhenNoAccess() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(new HashSet<>());
+                testConversation.setParticipants(List.of(participant(testUser), participant(otherUser)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
+                when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
 
                 assertThatThrownBy(() -> chatService.getConversationMessages("507f1f77bcf86cd799439016", 50))
                         .isInstanceOf(OperationException.class);
@@ -734,9 +887,11 @@ class ChatServiceTest {
         void getConversationMessages_shouldThrowWhenNullConversations() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(null);
+                testConversation.setParticipants(null);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
+                when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
 
                 assertThatThrownBy(() -> chatService.getConversationMessages("507f1f77bcf86cd799439016", 50))
                         .isInstanceOf(OperationException.class);
@@ -760,6 +915,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
+                when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("507f1f77bcf86cd799439016"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage, emptyMessage)));
                 when(chatMessageMapper.toResponseList(anyList(), anyString()))
@@ -772,6 +928,75 @@ class ChatServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get Conversation History")
+    class GetConversationHistory {
+        @Test
+        @DisplayName("Should read page before message id cursor")
+        void getConversationHistory_shouldUseMessageIdCursor() {
+            Instant cursorTime = Instant.parse("2025-01-01T10:00:00Z");
+            String cursorId = "507f1f77bcf86cd7994390ff";
+            ChatMessage cursor = ChatMessage.builder().id(cursorId).createdAt(cursorTime).build();
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByIdAndConversationId(cursorId, "507f1f77bcf86cd799439016"))
+                    .thenReturn(Optional.of(cursor));
+            when(chatMessageRepository.findByConversationIdBefore(eq("507f1f77bcf86cd799439016"), eq(cursorTime),
+                    eq(cursorId), any(Pageable.class))).thenReturn(new ArrayList<>(List.of(testMessage)));
+            when(chatMessageMapper.toResponseList(anyList(), anyString()))
+                    .thenReturn(List.of(ChatMessageResponse.builder().id("507f1f77bcf86cd799439018").build()));
+
+            ChatHistoryResponse result = chatService.getConversationHistory(
+                    "507f1f77bcf86cd799439016", cursorId, 20, testChairman);
+
+            assertThat(result.getMessages()).hasSize(1);
+            assertThat(result.isHasMore()).isFalse();
+            assertThat(result.getNextBefore()).isEqualTo("507f1f77bcf86cd799439018");
+            verify(chatMessageRepository, never()).findByConversationId(anyString(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should reject a message cursor that belongs to another conversation")
+        void getConversationHistory_shouldRejectForeignMessageCursor() {
+            String cursorId = "507f1f77bcf86cd7994390ff";
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByIdAndConversationId(cursorId, "507f1f77bcf86cd799439016"))
+                    .thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> chatService.getConversationHistory(
+                    "507f1f77bcf86cd799439016", cursorId, 20, testChairman))
+                    .isInstanceOf(OperationException.class);
+            verify(chatMessageRepository, never()).findById(anyString());
+            verify(chatMessageRepository, never()).findByConversationIdBefore(anyString(), any(Instant.class),
+                    anyString(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should fetch one extra row to detect more history")
+        void getConversationHistory_shouldDetectMorePages() {
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByConversationId(eq("507f1f77bcf86cd799439016"), any(Pageable.class)))
+                    .thenReturn(new ArrayList<>(List.of(chairmanMessage, testMessage)));
+            when(chatMessageMapper.toResponseList(anyList(), anyString())).thenReturn(List.of());
+
+            ChatHistoryResponse result = chatService.getConversationHistory(
+                    "507f1f77bcf86cd799439016", null, 1, testChairman);
+
+            assertThat(result.isHasMore()).isTrue();
+            assertThat(result.getNextBefore()).isEqualTo(chairmanMessage.getId());
+            verify(chatMessageRepository).findByConversationId("507f1f77bcf86cd799439016", PageRequest.of(0, 2));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed cursor")
+        void getConversationHistory_shouldRejectMalformedCursor() {
+            when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
+
+            assertThatThrownBy(() -> chatService.getConversationHistory(
+                    "507f1f77bcf86cd799439016", "yesterday", 20, testChairman))
+                    .isInstanceOf(OperationException.class);
+        }
+    }
+
     @Nested
     @DisplayName("Get Conversation Info")
     class GetConversationInfo {
@@ -784,7 +1009,6 @@ class ChatServiceTest {
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
                 when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
-                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
                 when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
 
                 ChatConversationResponse result = chatService.getConversationInfo("507f1f77bcf86cd799439016");
@@ -812,6 +1036,7 @@ class ChatServiceTest {
         void getConversationInfo_shouldThrowWhenNoAccess() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(new HashSet<>());
+                testConversation.setParticipants(List.of(participant(testUser), participant(otherUser)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
@@ -831,7 +1056,6 @@ class ChatServiceTest {
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
                 when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
-                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
                 when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(testUser));
 
                 ChatConversationResponse result = chatService.getConversationInfo("507f1f77bcf86cd799439016");
@@ -845,11 +1069,11 @@ class ChatServiceTest {
         void getConversationInfo_shouldReturnWithChairman() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
+                testConversation.setParticipants(List.of(participant(testChairman), participant(otherChairman)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
                 when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
-                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(chairmanMessage));
                 when(chairmanRepository.findById("507f1f77bcf86cd799439013")).thenReturn(Optional.of(otherChairman));
 
                 ChatConversationResponse result = chatService.getConversationInfo("507f1f77bcf86cd799439016");
@@ -862,6 +1086,7 @@ class ChatServiceTest {
         @DisplayName("Should handle empty messages")
         void getConversationInfo_shouldHandleEmptyMessages() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+                testConversation.setParticipants(null);
                 testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
@@ -877,7 +1102,7 @@ class ChatServiceTest {
         }
 
         @Test
-        @DisplayName("Should handle User not found")
+        @DisplayName("Should fall back to cached participant name when User not found")
         void getConversationInfo_shouldHandleUserNotFound() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
@@ -885,12 +1110,12 @@ class ChatServiceTest {
                 mockSecurityContext();
                 when(chairmanService.findByEmail("chairman@test.com")).thenReturn(Optional.of(testChairman));
                 when(conversationRepository.findById("507f1f77bcf86cd799439016")).thenReturn(Optional.of(testConversation));
-                when(chatMessageRepository.findLatestByConversationId("507f1f77bcf86cd799439016")).thenReturn(List.of(userMessage));
                 when(userRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
 
                 ChatConversationResponse result = chatService.getConversationInfo("507f1f77bcf86cd799439016");
 
-                assertThat(result.getName()).isEqualTo("Новый диалог");
+                assertThat(result.getName()).isEqualTo(testUser.getFullName());
+                assertThat(result.isOnline()).isFalse();
             }
         }
 
@@ -898,6 +1123,7 @@ class ChatServiceTest {
         @DisplayName("Should handle Chairman not found")
         void getConversationInfo_shouldHandleChairmanNotFound() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+                testConversation.setParticipants(null);
                 testChairman.setConversations(new HashSet<>(Set.of(testConversation)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
@@ -0,0 +1,121 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.repository.mongo.chat.ConversationRepository;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConversationMembershipCache Tests")
+class ConversationMembershipCacheTest {
+
+    private static final String KEY = ConversationMembershipCache.MEMBERSHIP_KEY_PREFIX + "user-123";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @InjectMocks
+    private ConversationMembershipCache membershipCache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Nested
+    @DisplayName("Is Member")
+    class IsMember {
+        @Test
+        @DisplayName("Should answer from the Redis set without touching MongoDB")
+        void isMember_shouldUseRedisSet() {
+            when(setOperations.isMember(KEY, "conv-1")).thenReturn(true);
+
+            assertThat(membershipCache.isMember("user-123", "conv-1")).isTrue();
+            verifyNoInteractions(conversationRepository);
+        }
+
+        @Test
+        @DisplayName("Should load from MongoDB on miss and cache a positive result")
+        void isMember_shouldLoadAndRememberOnMiss() {
+            when(setOperations.isMember(KEY, "conv-1")).thenReturn(false);
+            when(conversationRepository.existsByIdAndParticipantsId("conv-1", "user-123")).thenReturn(true);
+
+            assertThat(membershipCache.isMember("user-123", "conv-1")).isTrue();
+            verify(setOperations).add(KEY, "conv-1");
+            verify(redisTemplate).expire(KEY, ConversationMembershipCache.MEMBERSHIP_TTL);
+        }
+
+        @Test
+        @DisplayName("Should not cache a negative result")
+        void isMember_shouldNotCacheNonMember() {
+            when(setOperations.isMember(KEY, "conv-1")).thenReturn(false);
+            when(conversationRepository.existsByIdAndParticipantsId("conv-1", "user-123")).thenReturn(false);
+
+            assertThat(membershipCache.isMember("user-123", "conv-1")).isFalse();
+            verify(setOperations, never()).add(anyString(), any(String[].class));
+        }
+
+        @Test
+        @DisplayName("Should fall back to MongoDB when Redis is unavailable")
+        void isMember_shouldFallBackWhenRedisFails() {
+            when(setOperations.isMember(KEY, "conv-1")).thenThrow(new RuntimeException("Redis down"));
+            when(conversationRepository.existsByIdAndParticipantsId("conv-1", "user-123")).thenReturn(true);
+
+            assertThat(membershipCache.isMember("user-123", "conv-1")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should answer repeated checks from the STOMP session")
+        void isMember_shouldUseSessionCache() {
+            Map<String, Object> sessionAttributes = new ConcurrentHashMap<>();
+            when(setOperations.isMember(KEY, "conv-1")).thenReturn(true);
+
+            assertThat(membershipCache.isMember("user-123", "conv-1", sessionAttributes)).isTrue();
+            assertThat(membershipCache.isMember("user-123", "conv-1", sessionAttributes)).isTrue();
+
+            verify(setOperations, times(1)).isMember(KEY, "conv-1");
+        }
+
+        @Test
+        @DisplayName("Should reject missing identifiers")
+        void isMember_shouldRejectNulls() {
+            assertThat(membershipCache.isMember(null, "conv-1")).isFalse();
+            assertThat(membershipCache.isMember("user-123", null)).isFalse();
+            verifyNoInteractions(redisTemplate, conversationRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Add Conversation")
+    class AddConversation {
+        @Test
+        @DisplayName("Should add the conversation to every participant's set")
+        void addConversation_shouldRememberAllParticipants() {
+            membershipCache.addConversation("conv-1", List.of("user-123", "chairman-1"));
+
+            verify(setOperations).add(KEY, "conv-1");
+            verify(setOperations).add(ConversationMembershipCache.MEMBERSHIP_KEY_PREFIX + "chairman-1", "conv-1");
+        }
+    }
+}
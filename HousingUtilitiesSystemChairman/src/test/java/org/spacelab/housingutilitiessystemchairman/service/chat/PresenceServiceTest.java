@@ -0,0 +1,219 @@
+package org.spacelab.housingutilitiessystemchairman.service.chat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemchairman.models.chat.event.ChatEvent;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PresenceService Tests")
+class PresenceServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ChatEventPublisher chatEventPublisher;
+
+    @Mock
+    private LocalSessionRegistry localSessionRegistry;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @InjectMocks
+    private PresenceService presenceService;
+
+    private static final List<String> USER_KEYS = List.of(
+            PresenceService.SESSIONS_KEY_PREFIX + "user-123",
+            PresenceService.ONLINE_KEY,
+            PresenceService.LAST_ACTIVE_KEY);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    private void stubTouch(long sessionsBefore) {
+        when(redisTemplate.execute(eq(PresenceService.TOUCH_SCRIPT), eq(USER_KEYS), any(Object[].class)))
+                .thenReturn(sessionsBefore);
+    }
+
+    @Nested
+    @DisplayName("Connect")
+    class Connect {
+        @Test
+        @DisplayName("Should publish USER_ONLINE for the first session")
+        void connect_shouldPublishOnlineForFirstSession() {
+            stubTouch(0L);
+
+            boolean cameOnline = presenceService.connect("user-123", "session-1");
+
+            assertThat(cameOnline).isTrue();
+            verify(chatEventPublisher).publishPresenceEvent(argThat(event ->
+                    "USER_ONLINE".equals(event.getEventType())
+                            && "user-123".equals(event.getTargetUserId())
+                            && event.isOnline()));
+        }
+
+        @Test
+        @DisplayName("Should not publish for an additional tab")
+        void connect_shouldNotPublishForAdditionalTab() {
+            stubTouch(1L);
+
+            boolean cameOnline = presenceService.connect("user-123", "session-2");
+
+            assertThat(cameOnline).isFalse();
+            verify(chatEventPublisher, never()).publishPresenceEvent(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Disconnect")
+    class Disconnect {
+        @Test
+        @DisplayName("Should publish USER_OFFLINE when the last session closes")
+        void disconnect_shouldPublishOfflineForLastSession() {
+            when(redisTemplate.execute(eq(PresenceService.DISCONNECT_SCRIPT), eq(USER_KEYS), any(Object[].class)))
+                    .thenReturn(1L);
+
+            boolean wentOffline = presenceService.disconnect("user-123", "session-1");
+
+            assertThat(wentOffline).isTrue();
+            verify(chatEventPublisher).publishPresenceEvent(argThat(event ->
+                    "USER_OFFLINE".equals(event.getEventType()) && !event.isOnline()));
+        }
+
+        @Test
+        @DisplayName("Should stay online while other tabs are open")
+        void disconnect_shouldStayOnlineWithOtherTabs() {
+            when(redisTemplate.execute(eq(PresenceService.DISCONNECT_SCRIPT), eq(USER_KEYS), any(Object[].class)))
+                    .thenReturn(0L);
+
+            boolean wentOffline = presenceService.disconnect("user-123", "session-2");
+
+            assertThat(wentOffline).isFalse();
+            verify(chatEventPublisher, never()).publishPresenceEvent(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Is Online")
+    class IsOnline {
+        @Test
+        @DisplayName("Should treat unexpired session as online")
+        void isOnline_shouldReturnTrueForLiveSession() {
+            when(zSetOperations.score(PresenceService.ONLINE_KEY, "user-123"))
+                    .thenReturn((double) (System.currentTimeMillis() + 60_000));
+
+            assertThat(presenceService.isOnline("user-123")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should treat expired heartbeat as offline")
+        void isOnline_shouldReturnFalseForExpiredSession() {
+            when(zSetOperations.score(PresenceService.ONLINE_KEY, "user-123"))
+                    .thenReturn((double) (System.currentTimeMillis() - 1_000));
+
+            assertThat(presenceService.isOnline("user-123")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should resolve many users with a single lookup")
+        void isOnline_shouldResolveBatch() {
+            double alive = System.currentTimeMillis() + 60_000;
+            when(zSetOperations.score(PresenceService.ONLINE_KEY, "user-1", "user-2", "user-3"))
+                    .thenReturn(Arrays.asList(alive, null, 1.0));
+
+            Map<String, Boolean> result = presenceService.isOnline(List.of("user-1", "user-2", "user-3", "user-1"));
+
+            assertThat(result).containsOnly(
+                    Map.entry("user-1", true),
+                    Map.entry("user-2", false),
+                    Map.entry("user-3", false));
+            verify(zSetOperations, times(1)).score(eq(PresenceService.ONLINE_KEY), any(Object[].class));
+        }
+
+        @Test
+        @DisplayName("Should skip Redis for empty batch")
+        void isOnline_shouldSkipEmptyBatch() {
+            assertThat(presenceService.isOnline(Collections.emptyList())).isEmpty();
+            verifyNoInteractions(redisTemplate);
+        }
+    }
+
+    @Nested
+    @DisplayName("Heartbeat and Sweep")
+    class HeartbeatAndSweep {
+        @Test
+        @DisplayName("Should republish online when heartbeat finds the session expired")
+        void heartbeat_shouldRepublishAfterExpiry() {
+            when(localSessionRegistry.getSessionOwners()).thenReturn(Map.of("session-1", "user-123"));
+            stubTouch(0L);
+
+            presenceService.heartbeat();
+
+            verify(chatEventPublisher).publishPresenceEvent(any(ChatEvent.class));
+        }
+
+        @Test
+        @DisplayName("Should only refresh TTL for sessions that are still alive")
+        void heartbeat_shouldRefreshLiveSessionsQuietly() {
+            when(localSessionRegistry.getSessionOwners()).thenReturn(Map.of("session-1", "user-123"));
+            stubTouch(1L);
+
+            presenceService.heartbeat();
+
+            verify(redisTemplate).execute(eq(PresenceService.TOUCH_SCRIPT), eq(USER_KEYS), any(Object[].class));
+            verify(chatEventPublisher, never()).publishPresenceEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should publish offline for users whose heartbeats expired")
+        void sweepExpired_shouldPublishOffline() {
+            when(redisTemplate.execute(eq(PresenceService.SWEEP_SCRIPT), eq(List.of(PresenceService.ONLINE_KEY)),
+                    any(Object[].class))).thenReturn(List.of("user-1", "user-2"));
+
+            presenceService.sweepExpired();
+
+            verify(chatEventPublisher, times(2)).publishPresenceEvent(argThat(event -> !event.isOnline()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Last Active")
+    class LastActive {
+        @Test
+        @DisplayName("Should read last activity from Redis")
+        void getLastActiveAt_shouldParseTimestamp() {
+            when(hashOperations.get(PresenceService.LAST_ACTIVE_KEY, "user-123")).thenReturn("1700000000000");
+
+            Optional<Instant> result = presenceService.getLastActiveAt("user-123");
+
+            assertThat(result).contains(Instant.ofEpochMilli(1_700_000_000_000L));
+        }
+    }
+}
@@ -2,8 +2,10 @@ package org.spacelab.housingutilitiessystemuser;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HousingUtilitiesSystemUserApplication {
 
 	public static void main(String[] args) {
@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
+import org.spacelab.housingutilitiessystemuser.service.chat.ConversationMembershipCache;
+import org.spacelab.housingutilitiessystemuser.service.chat.LocalSessionRegistry;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessagingException;
@@ -14,6 +16,7 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.Optional;
 import java.util.Set;
 
 
@@ -23,6 +26,8 @@ import java.util.Set;
 public class ChatSubscriptionInterceptor implements ChannelInterceptor {
 
     private final UserRepository userRepository;
+    private final LocalSessionRegistry localSessionRegistry;
+    private final ConversationMembershipCache conversationMembershipCache;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -44,7 +49,7 @@ public class ChatSubscriptionInterceptor implements ChannelInterceptor {
                     throw new MessagingException("Требуется аутентификация для подписки на чат");
                 }
 
-                if (!hasAccessToConversation(principal.getName(), conversationId)) {
+                if (!hasAccessToConversation(accessor, principal.getName(), conversationId)) {
                     log.warn("🚫 Subscription rejected: user {} has no access to conversation {}",
                             principal.getName(), conversationId);
                     throw new MessagingException("Нет доступа к диалогу: " + conversationId);
@@ -59,15 +64,29 @@ public class ChatSubscriptionInterceptor implements ChannelInterceptor {
     }
 
     
-    private boolean hasAccessToConversation(String userLogin, String conversationId) {
+    private boolean hasAccessToConversation(StompHeaderAccessor accessor, String userLogin, String conversationId) {
+        Optional<String> userId = localSessionRegistry.getUserId(accessor.getSessionId());
+        if (userId.isPresent() && conversationMembershipCache.isMember(userId.get(), conversationId,
+                accessor.getSessionAttributes())) {
+            return true;
+        }
+        return hasLegacyAccess(userLogin, conversationId);
+    }
+
+    
+    private boolean hasLegacyAccess(String userLogin, String conversationId) {
         return userRepository.findByEmail(userLogin)
                 .map(user -> {
                     Set<Conversation> conversations = user.getConversations();
                     if (conversations == null) {
                         return false;
                     }
-                    return conversations.stream()
+                    boolean member = conversations.stream()
                             .anyMatch(c -> c.getId().equals(conversationId));
+                    if (member) {
+                        conversationMembershipCache.remember(user.getId(), conversationId);
+                    }
+                    return member;
                 })
                 .orElse(false);
     }
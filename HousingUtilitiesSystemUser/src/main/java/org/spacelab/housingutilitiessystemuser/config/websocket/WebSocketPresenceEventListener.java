@@ -3,9 +3,9 @@ package org.spacelab.housingutilitiessystemuser.config.websocket;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.entity.User;
-import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
-import org.spacelab.housingutilitiessystemuser.service.chat.ChatEventPublisher;
+import org.spacelab.housingutilitiessystemuser.service.chat.LocalSessionRegistry;
+import org.spacelab.housingutilitiessystemuser.service.chat.PresenceService;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.security.core.Authentication;
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import java.time.Instant;
 import java.util.Optional;
 
 
@@ -23,7 +22,8 @@ import java.util.Optional;
 public class WebSocketPresenceEventListener {
 
     private final UserRepository userRepository;
-    private final ChatEventPublisher chatEventPublisher;
+    private final PresenceService presenceService;
+    private final LocalSessionRegistry localSessionRegistry;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -33,11 +33,12 @@ public class WebSocketPresenceEventListener {
         if (auth != null && auth.isAuthenticated()) {
             String login = auth.getName();
             log.info("✅ USER CONNECTED: {}", login);
-            String userId = updateStatus(login, true);
+            String userId = resolveUserId(login);
 
             
             if (userId != null) {
-                publishPresenceEvent(userId, login, true);
+                localSessionRegistry.register(userId, accessor.getSessionId(), login);
+                presenceService.connect(userId, accessor.getSessionId());
             }
         }
     }
@@ -48,20 +49,13 @@ public class WebSocketPresenceEventListener {
         Authentication auth = (Authentication) accessor.getUser();
 
         if (auth != null) {
-            String login = auth.getName();
-            log.info("❌ USER DISCONNECTED: {}", login);
-            String userId = updateStatus(login, false);
-
-            
-            if (userId != null) {
-                publishPresenceEvent(userId, login, false);
-            }
+            log.info("❌ USER DISCONNECTED: {}", auth.getName());
+            localSessionRegistry.unregister(event.getSessionId())
+                    .ifPresent(userId -> presenceService.disconnect(userId, event.getSessionId()));
         }
     }
 
-    private String updateStatus(String login, boolean isOnline) {
-        Instant now = Instant.now();
-
+    private String resolveUserId(String login) {
         
         Optional<User> userOpt = userRepository.findByEmail(login);
         if (userOpt.isEmpty()) {
@@ -70,32 +64,10 @@ public class WebSocketPresenceEventListener {
         }
 
         if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setOnline(isOnline);
-            user.setLastActiveAt(now);
-            userRepository.save(user);
-            log.debug("Updated User {} status to {}", login, isOnline ? "ONLINE" : "OFFLINE");
-            return user.getId();
+            return userOpt.get().getId();
         }
 
         log.warn("User not found for login: {}", login);
         return null;
     }
-
-    
-    private void publishPresenceEvent(String userId, String login, boolean isOnline) {
-        try {
-            ChatEvent event = ChatEvent.builder()
-                    .eventType(isOnline ? "USER_ONLINE" : "USER_OFFLINE")
-                    .targetUserId(userId)
-                    .targetUserRole("USER")
-                    .isOnline(isOnline)
-                    .timestamp(Instant.now())
-                    .build();
-
-            chatEventPublisher.publishPresenceEvent(event);
-        } catch (Exception e) {
-            log.error("Failed to publish presence event for user {}: {}", login, e.getMessage());
-        }
-    }
 }
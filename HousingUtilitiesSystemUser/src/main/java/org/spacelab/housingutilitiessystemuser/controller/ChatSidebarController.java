@@ -36,9 +36,10 @@ public class ChatSidebarController {
     @ResponseBody
     public ResponseEntity<List<ChatMessageResponse>> getMessages(
             @PathVariable String id,
+            @RequestParam(required = false) String before,
             @RequestParam(defaultValue = "50") int limit) {
-        log.info("📥 GET /chat/conversation/{}/messages?limit={}", id, limit);
-        List<ChatMessageResponse> messages = chatService.getConversationMessages(id, limit);
+        log.info("📥 GET /chat/conversation/{}/messages?before={}&limit={}", id, before, limit);
+        List<ChatMessageResponse> messages = chatService.getConversationMessages(id, before, limit);
         return ResponseEntity.ok(messages);
     }
 
@@ -4,12 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.entity.Bill;
 import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.models.bill.BillPageResponse;
 import org.spacelab.housingutilitiessystemuser.service.BillService;
+import org.spacelab.housingutilitiessystemuser.service.ReceiptRenderService;
 import org.spacelab.housingutilitiessystemuser.service.UserService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,11 +21,17 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -32,13 +41,14 @@ public class BillRestController {
 
     private final BillService billService;
     private final UserService userService;
+    private final ReceiptRenderService receiptRenderService;
 
     private static final DateTimeFormatter FILE_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     
     @GetMapping
-    public ResponseEntity<Page<Bill>> getBills(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<BillPageResponse> getBills(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String billNumber,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -49,8 +59,7 @@ public class BillRestController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Bill> bills = billService.findByUserWithFilters(user, billNumber, startDate, endDate, pageable);
+        BillPageResponse bills = billService.findByUserWithFilters(user, billNumber, startDate, endDate, cursor, size);
 
         return ResponseEntity.ok(bills);
     }
@@ -63,22 +72,31 @@ public class BillRestController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        
-        boolean userHasBill = user.getBills() != null &&
-                user.getBills().stream().anyMatch(b -> b.getId().equals(id));
+        return billService.findById(id)
+                .map(bill -> user.getId() != null && user.getId().equals(bill.getOwner())
+                        ? ResponseEntity.ok(bill)
+                        : ResponseEntity.status(HttpStatus.FORBIDDEN).<Bill>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        if (!userHasBill) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    
+    @GetMapping("/{id}/receipt")
+    public ResponseEntity<Resource> printReceipt(@PathVariable String id) {
+        User user = getCurrentUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         return billService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(bill -> user.getId() != null && user.getId().equals(bill.getOwner())
+                        ? printable(() -> receiptRenderService.renderLatestForBill(id))
+                        : ResponseEntity.status(HttpStatus.FORBIDDEN).<Resource>build())
                 .orElse(ResponseEntity.notFound().build());
     }
 
     
     @GetMapping("/export/excel")
-    public ResponseEntity<byte[]> exportToExcel(
+    public ResponseEntity<StreamingResponseBody> exportToExcel(
             @RequestParam(required = false) String billNumber,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
@@ -88,25 +106,64 @@ public class BillRestController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            List<Bill> bills = billService.getFilteredBills(user, billNumber, startDate, endDate);
-            byte[] excelContent = billService.generateExcel(bills);
+        StreamingResponseBody body = out -> billService.writeXlsx(user, billNumber, startDate, endDate, out);
+        return attachment(body, exportFilename("xlsx"),
+                MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+    }
+
+    
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportToCsv(
+            @RequestParam(required = false) String billNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-            String filename = "bills_" + LocalDate.now().format(FILE_DATE_FORMATTER) + ".xlsx";
+        User user = getCurrentUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(
-                    MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(excelContent.length);
+        StreamingResponseBody body = out -> billService.writeCsv(user, billNumber, startDate, endDate, out);
+        return attachment(body, exportFilename("csv"), new MediaType("text", "csv", StandardCharsets.UTF_8));
+    }
 
-            return new ResponseEntity<>(excelContent, headers, HttpStatus.OK);
+    private static String exportFilename(String extension) {
+        return "bills_" + LocalDate.now().format(FILE_DATE_FORMATTER) + "." + extension;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(StreamingResponseBody body, String filename,
+            MediaType contentType) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString())
+                .contentType(contentType)
+                .body(body);
+    }
+
+    private static ResponseEntity<Resource> printable(Supplier<Path> render) {
+        try {
+            try {
+                return printable(render.get());
+            } catch (NoSuchFileException e) {
+                log.debug("Receipt {} was pruned by a newer render, rendering again", e.getFile());
+                return printable(render.get());
+            }
         } catch (IOException e) {
-            log.error("Error generating Excel file", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            throw new UncheckedIOException(e);
         }
     }
 
+    private static ResponseEntity<Resource> printable(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        return ResponseEntity.ok()
+                .eTag(fileName.substring(0, fileName.lastIndexOf('.')))
+                .lastModified(Files.getLastModifiedTime(file).toInstant())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(fileName.endsWith(".pdf") ? MediaType.APPLICATION_PDF
+                        : new MediaType("text", "html", StandardCharsets.UTF_8))
+                .body(new FileSystemResource(file));
+    }
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof UserDetails) {
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.models.profile.ProfileResponse;
 import org.spacelab.housingutilitiessystemuser.service.FileService;
+import org.spacelab.housingutilitiessystemuser.service.PrincipalCacheService;
 import org.spacelab.housingutilitiessystemuser.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -28,6 +29,7 @@ public class ProfileRestController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final FileService fileService;
+    private final PrincipalCacheService principalCacheService;
 
     @GetMapping
     public ResponseEntity<ProfileResponse> getProfile() {
@@ -70,6 +72,9 @@ public class ProfileRestController {
         }
 
         User saved = userService.save(user);
+        if (password != null && !password.isEmpty()) {
+            principalCacheService.evict(saved.getLogin(), saved.getEmail());
+        }
         return ResponseEntity.ok(toProfileResponse(saved));
     }
 
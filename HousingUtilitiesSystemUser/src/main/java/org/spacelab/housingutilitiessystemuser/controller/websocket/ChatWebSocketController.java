@@ -4,16 +4,24 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.exception.OperationException;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatEventReplayRequest;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatEventReplayResponse;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatHistoryRequest;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatSendMessageRequest;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.spacelab.housingutilitiessystemuser.service.ChatService;
+import org.spacelab.housingutilitiessystemuser.service.chat.ChatEventReplayService;
+import org.spacelab.housingutilitiessystemuser.service.chat.LocalSessionRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -27,6 +35,10 @@ public class ChatWebSocketController {
     private final ChatService chatService;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ChatEventReplayService chatEventReplayService;
+    private final LocalSessionRegistry localSessionRegistry;
+
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
 
     
     @MessageMapping("/chat/{conversationId}/sendMessage")
@@ -63,4 +75,42 @@ public class ChatWebSocketController {
 
         return response;
     }
+
+    
+    @MessageMapping("/chat/{conversationId}/history")
+    @SendToUser(destinations = "/queue/chat/history", broadcast = false)
+    public ChatHistoryResponse loadHistory(
+            @DestinationVariable String conversationId,
+            @Payload ChatHistoryRequest request,
+            Principal principal) {
+
+        String login = principal != null ? principal.getName() : null;
+        if (login == null) {
+            throw new OperationException("загрузке сообщений", "Не удалось определить пользователя",
+                    HttpStatus.UNAUTHORIZED);
+        }
+
+        User user = userRepository.findByEmail(login)
+                .orElseThrow(() -> new OperationException("загрузке сообщений",
+                        "Пользователь не найден: " + login, HttpStatus.UNAUTHORIZED));
+
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_HISTORY_LIMIT;
+        log.debug("📥 WebSocket history request for conversation {} before {}", conversationId, request.getBefore());
+        return chatService.getConversationHistory(conversationId, request.getBefore(), limit, user);
+    }
+
+    
+    @MessageMapping("/chat/events/replay")
+    @SendToUser(destinations = "/queue/sidebar/replay", broadcast = false)
+    public ChatEventReplayResponse replayEvents(
+            @Payload ChatEventReplayRequest request,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        String userId = localSessionRegistry.getUserId(headerAccessor.getSessionId())
+                .orElseThrow(() -> new OperationException("восстановлении событий",
+                        "Сессия не зарегистрирована", HttpStatus.UNAUTHORIZED));
+
+        log.debug("🔁 WebSocket replay request from {} since {}", userId, request.getLastEventId());
+        return chatEventReplayService.replaySince(userId, request.getLastEventId());
+    }
 }
@@ -2,6 +2,7 @@ package org.spacelab.housingutilitiessystemuser.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -11,11 +12,13 @@ import java.util.List;
 
 @Data
 @Document
+@CompoundIndex(name = "owner_date", def = "{'owner': 1, 'date': -1, '_id': -1}")
 public class Bill {
     @Id
     private String id;
     private String billNumber; 
     private LocalDate date; 
+    private String owner;
 
     @DocumentReference(lazy = true)
     private List<Receipt> receipt = new ArrayList<>();
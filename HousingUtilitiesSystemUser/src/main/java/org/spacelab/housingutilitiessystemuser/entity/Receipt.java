@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -13,6 +14,7 @@ import java.time.LocalDate;
 
 @Data
 @Document
+@CompoundIndex(name = "bill_localDate", def = "{'bill': 1, 'localDate': -1}")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -7,6 +7,7 @@ import org.spacelab.housingutilitiessystemuser.entity.location.House;
 import org.spacelab.housingutilitiessystemuser.entity.location.Street;
 import org.spacelab.housingutilitiessystemuser.entity.location.Status;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -45,13 +46,13 @@ public class User {
     private String login;
     private String photo;
     private Role role = Role.USER;
-    private boolean online;
     private Instant lastActiveAt;
     private boolean enabled = true; 
 
     @DocumentReference(lazy = true)
     private Set<Conversation> conversations = new HashSet<>();
 
+    @Indexed
     @DocumentReference(lazy = true)
     private List<Bill> bills = new ArrayList<>();
 
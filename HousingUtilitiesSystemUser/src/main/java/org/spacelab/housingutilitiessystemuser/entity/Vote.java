@@ -2,12 +2,14 @@ package org.spacelab.housingutilitiessystemuser.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Data
 @Document
+@CompoundIndex(name = "status_end_time", def = "{'status': 1, 'endTime': 1}")
 public class Vote {
     @Id
     private String id;
@@ -21,4 +23,10 @@ public class Vote {
     private Integer forVotesCount = 0;
     private Integer againstVotesCount = 0;
     private Integer abstentionsCount = 0;
+    private Double forVotesArea = 0.0;
+    private Double againstVotesArea = 0.0;
+    private Double abstentionsArea = 0.0;
+    private Double totalVotedArea = 0.0;
+    private String result;
+    private Date closedAt;
 }
@@ -2,6 +2,7 @@ package org.spacelab.housingutilitiessystemuser.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -10,6 +11,7 @@ import java.util.Date;
 
 @Data
 @Document
+@CompoundIndex(name = "vote_user", def = "{'vote': 1, 'user': 1}", unique = true)
 public class VoteRecord {
     @Id
     private String id;
@@ -24,4 +26,6 @@ public class VoteRecord {
     private String voteType;
 
     private Date voteTime;
+
+    private Double apartmentArea;
 }
@@ -7,11 +7,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 
 
@@ -20,6 +22,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "conversation")
+@CompoundIndex(name = "participants_updatedAt", def = "{'participants.id': 1, 'updatedAt': -1}")
 public class Conversation {
     @Id
     private String id;
@@ -29,6 +32,8 @@ public class Conversation {
     @JsonManagedReference
     private Set<ChatMessage> messages;
 
+    private List<ChatParticipant> participants;
+
     @CreatedDate
     private Instant createdAt;
 
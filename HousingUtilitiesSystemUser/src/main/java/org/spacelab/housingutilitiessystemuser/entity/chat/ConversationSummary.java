@@ -0,0 +1,42 @@
+package org.spacelab.housingutilitiessystemuser.entity.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "conversation_summary")
+@CompoundIndexes({
+        @CompoundIndex(name = "owner_conversation", def = "{'ownerId': 1, 'conversationId': 1}", unique = true),
+        @CompoundIndex(name = "owner_lastMessageTime", def = "{'ownerId': 1, 'lastMessageTime': -1}")
+})
+public class ConversationSummary {
+    @Id
+    private String id;
+
+    private String ownerId;
+    private String conversationId;
+
+    @Indexed
+    private String participantId;
+    private String participantType;
+    private String participantName;
+    private String participantAvatar;
+
+    private String lastMessage;
+    private Instant lastMessageTime;
+    private int unreadCount;
+    private Instant updatedAt;
+}
@@ -0,0 +1,26 @@
+package org.spacelab.housingutilitiessystemuser.models.bill;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.spacelab.housingutilitiessystemuser.entity.Bill;
+
+import java.util.List;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillPageResponse {
+
+    private List<Bill> content;
+
+    private int size;
+
+    
+    private String nextCursor;
+
+    private boolean hasNext;
+}
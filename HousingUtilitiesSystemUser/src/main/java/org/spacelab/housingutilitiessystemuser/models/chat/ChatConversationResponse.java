@@ -19,4 +19,5 @@ public class ChatConversationResponse {
     String lastMessageTime;
     boolean isOnline;
     String participantType; 
+    int unreadCount;
 }
@@ -0,0 +1,17 @@
+package org.spacelab.housingutilitiessystemuser.models.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEventReplayRequest {
+
+    
+    private String lastEventId;
+}
@@ -0,0 +1,26 @@
+package org.spacelab.housingutilitiessystemuser.models.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
+
+import java.util.List;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEventReplayResponse {
+
+    
+    private List<ChatEvent> events;
+
+    
+    private String lastEventId;
+
+    
+    private boolean resyncRequired;
+}
@@ -16,6 +16,9 @@ import java.time.Instant;
 public class ChatEvent implements Serializable {
 
     
+    private String eventId;
+
+    
     private String eventType;
 
     
@@ -0,0 +1,27 @@
+package org.spacelab.housingutilitiessystemuser.models.vote;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteClosedEvent {
+    private String voteId;
+    private String title;
+    private String status;
+    private String result;
+    private boolean quorumReached;
+    private Double quorumArea;
+    private Double forVotesArea;
+    private Double againstVotesArea;
+    private Double abstentionsArea;
+    private Double totalVotedArea;
+    private Date closedAt;
+}
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ConversationRepository extends MongoRepository<Conversation, String> {
+public interface ConversationRepository extends MongoRepository<Conversation, String>, ConversationRepositoryCustom {
 
     
     @Query(value = "{'user': ObjectId(?0)}", sort = "{updatedAt: -1}")
@@ -22,4 +22,15 @@ public interface ConversationRepository extends MongoRepository<Conversation, St
     
     @Query("{'chairman': ?0, 'user': ObjectId(?1)}")
     Optional<Conversation> findByChairmanIdAndUserId(String chairmanId, String userId);
+
+    
+    @Query(value = "{'participants.id': ?0}", sort = "{updatedAt: -1}")
+    List<Conversation> findByParticipantId(String participantId);
+
+    
+    @Query(value = "{'participants.id': {$all: [?0, ?1]}}", sort = "{updatedAt: -1}")
+    List<Conversation> findByParticipantIds(String firstParticipantId, String secondParticipantId);
+
+    
+    boolean existsByIdAndParticipantsId(String id, String participantId);
 }
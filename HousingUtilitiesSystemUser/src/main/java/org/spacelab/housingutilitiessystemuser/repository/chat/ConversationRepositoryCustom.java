@@ -0,0 +1,10 @@
+package org.spacelab.housingutilitiessystemuser.repository.chat;
+
+import java.util.List;
+
+public interface ConversationRepositoryCustom {
+
+    List<String> findConversationIds(Class<?> ownerType, String ownerId);
+
+    void linkConversation(Class<?> ownerType, String ownerId, String conversationId);
+}
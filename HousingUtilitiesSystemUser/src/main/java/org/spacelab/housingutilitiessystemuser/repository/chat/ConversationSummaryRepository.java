@@ -0,0 +1,15 @@
+package org.spacelab.housingutilitiessystemuser.repository.chat;
+
+import org.spacelab.housingutilitiessystemuser.entity.chat.ConversationSummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends MongoRepository<ConversationSummary, String>,
+        ConversationSummaryRepositoryCustom {
+
+    
+    List<ConversationSummary> findByOwnerIdOrderByLastMessageTimeDesc(String ownerId);
+}
@@ -0,0 +1,18 @@
+package org.spacelab.housingutilitiessystemuser.repository.chat;
+
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatParticipant;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ConversationSummary;
+
+import java.time.Instant;
+
+public interface ConversationSummaryRepositoryCustom {
+
+    void initSummary(String ownerId, String conversationId, ChatParticipant participant);
+
+    void recordMessage(String ownerId, String conversationId, ChatParticipant participant,
+            String lastMessage, Instant lastMessageTime, boolean unread);
+
+    void resetUnread(String ownerId, String conversationId);
+
+    void backfillSummary(ConversationSummary summary);
+}
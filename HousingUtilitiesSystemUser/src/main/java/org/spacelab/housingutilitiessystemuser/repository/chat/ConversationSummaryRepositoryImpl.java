@@ -0,0 +1,78 @@
+package org.spacelab.housingutilitiessystemuser.repository.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatParticipant;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ConversationSummary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummaryRepositoryImpl implements ConversationSummaryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void initSummary(String ownerId, String conversationId, ChatParticipant participant) {
+        Update update = participantUpdate(participant)
+                .setOnInsert("unreadCount", 0)
+                .set("updatedAt", Instant.now());
+        mongoTemplate.upsert(ownerQuery(ownerId, conversationId), update, ConversationSummary.class);
+    }
+
+    @Override
+    public void recordMessage(String ownerId, String conversationId, ChatParticipant participant,
+            String lastMessage, Instant lastMessageTime, boolean unread) {
+        Update update = participantUpdate(participant)
+                .set("lastMessage", lastMessage)
+                .set("lastMessageTime", lastMessageTime)
+                .set("updatedAt", Instant.now());
+        if (unread) {
+            update.inc("unreadCount", 1);
+        } else {
+            update.set("unreadCount", 0);
+        }
+        mongoTemplate.upsert(ownerQuery(ownerId, conversationId), update, ConversationSummary.class);
+    }
+
+    @Override
+    public void resetUnread(String ownerId, String conversationId) {
+        Query query = ownerQuery(ownerId, conversationId).addCriteria(Criteria.where("unreadCount").gt(0));
+        mongoTemplate.updateFirst(query, Update.update("unreadCount", 0), ConversationSummary.class);
+    }
+
+    @Override
+    public void backfillSummary(ConversationSummary summary) {
+        Update update = new Update()
+                .setOnInsert("participantId", summary.getParticipantId())
+                .setOnInsert("participantType", summary.getParticipantType())
+                .setOnInsert("participantName", summary.getParticipantName())
+                .setOnInsert("participantAvatar", summary.getParticipantAvatar())
+                .setOnInsert("lastMessage", summary.getLastMessage())
+                .setOnInsert("lastMessageTime", summary.getLastMessageTime())
+                .setOnInsert("unreadCount", summary.getUnreadCount())
+                .setOnInsert("updatedAt", summary.getUpdatedAt());
+        mongoTemplate.upsert(ownerQuery(summary.getOwnerId(), summary.getConversationId()), update,
+                ConversationSummary.class);
+    }
+
+    private Query ownerQuery(String ownerId, String conversationId) {
+        return Query.query(Criteria.where("ownerId").is(ownerId).and("conversationId").is(conversationId));
+    }
+
+    private Update participantUpdate(ChatParticipant participant) {
+        return new Update()
+                .set("participantId", participant.getId())
+                .set("participantType", participant.getType())
+                .set("participantName", participant.getFullName())
+                .set("participantAvatar", participant.getAvatar());
+    }
+}
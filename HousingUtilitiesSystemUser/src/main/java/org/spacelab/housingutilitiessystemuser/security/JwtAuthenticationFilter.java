@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.spacelab.housingutilitiessystemuser.service.JwtService;
+import org.spacelab.housingutilitiessystemuser.service.TokenVersionService;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -35,6 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String SECURITY_CONTEXT_ATTR = "SAVED_SECURITY_CONTEXT";
 
     private final JwtService jwtService;
+    private final TokenVersionService tokenVersionService;
     private final UserUserDetailsService userDetailsService;
 
     @Override
@@ -96,12 +98,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } else {
             
             try {
-                var username = jwtService.extractUserName(accessToken);
+                VerifiedJwt verifiedToken = jwtService.verify(accessToken);
+                var username = verifiedToken.getSubject();
 
-                if (StringUtils.hasText(username)) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (StringUtils.hasText(username) && !authenticateFromClaims(verifiedToken, request, response)) {
+                    UserDetails userDetails = userDetailsService.loadPrincipal(username);
 
-                    if (jwtService.isTokenValid(accessToken, userDetails)) {
+                    if (jwtService.isTokenValid(verifiedToken, userDetails)) {
                         authenticateUser(userDetails, request);
                         log.debug("✅ Пользователь {} аутентифицирован через access token", username);
                     } else {
@@ -126,6 +129,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     
+    private boolean authenticateFromClaims(VerifiedJwt token, HttpServletRequest request, HttpServletResponse response) {
+        JwtPrincipal principal = jwtService.extractPrincipal(token);
+        if (principal == null) {
+            return false;
+        }
+        long currentVersion;
+        try {
+            currentVersion = tokenVersionService.currentVersion(principal.getId());
+        } catch (Exception e) {
+            log.warn("Версия токена недоступна, проверяем пользователя в базе: {}", e.getMessage());
+            return false;
+        }
+
+        if (currentVersion == principal.getTokenVersion()) {
+            authenticateUser(principal, request);
+            log.debug("✅ Пользователь {} аутентифицирован по данным access token", principal.getUsername());
+        } else {
+            log.info("⚠️ Access token пользователя {} отозван, пробуем refresh", principal.getUsername());
+            tryCreateAccessTokenFromRefresh(request, response);
+        }
+        return true;
+    }
+
+    
     private boolean tryCreateAccessTokenFromRefresh(HttpServletRequest request, HttpServletResponse response) {
         Optional<String> refreshToken = getCookieValue(request, REFRESH_TOKEN_COOKIE);
 
@@ -135,16 +162,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            String username = jwtService.extractUserName(refreshToken.get());
+            VerifiedJwt verifiedRefreshToken = jwtService.verify(refreshToken.get());
+            String username = verifiedRefreshToken.getSubject();
 
             if (!StringUtils.hasText(username)) {
                 log.warn("Username не извлечен из refresh token");
                 return false;
             }
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = userDetailsService.loadPrincipal(username);
 
-            if (jwtService.isTokenValid(refreshToken.get(), userDetails)) {
+            if (userDetails.isEnabled() && jwtService.isTokenValid(verifiedRefreshToken, userDetails)) {
                 
                 String newAccessToken = jwtService.generateToken(userDetails);
 
@@ -172,7 +200,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             UserDetails userDetails) {
         Optional<String> refreshToken = getCookieValue(request, REFRESH_TOKEN_COOKIE);
 
-        if (refreshToken.isPresent() && jwtService.isTokenValid(refreshToken.get(), userDetails)) {
+        if (refreshToken.isPresent() && userDetails.isEnabled()
+                && jwtService.isTokenValid(refreshToken.get(), userDetails)) {
             String newAccessToken = jwtService.generateToken(userDetails);
 
             Cookie accessCookie = createAccessTokenCookie(newAccessToken);
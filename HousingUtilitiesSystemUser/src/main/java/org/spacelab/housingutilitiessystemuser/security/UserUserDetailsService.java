@@ -1,44 +1,55 @@
 package org.spacelab.housingutilitiessystemuser.security;
 
 import lombok.RequiredArgsConstructor;
-import org.spacelab.housingutilitiessystemuser.entity.Role;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.spacelab.housingutilitiessystemuser.service.PrincipalCacheService;
+import org.spacelab.housingutilitiessystemuser.service.PrincipalCacheService.CachedPrincipal;
+import org.spacelab.housingutilitiessystemuser.service.TokenVersionService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 public class UserUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalCacheService principalCacheService;
 
     
     @Override
     public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(login)
+        User user = findUser(login);
+        CachedPrincipal principal = toCachedPrincipal(user);
+        principalCacheService.put(login, principal);
+        return principal.toPrincipal(user.getPassword(), tokenVersionService.currentVersionOrNull(principal.id()));
+    }
+
+    
+    public UserDetails loadPrincipal(String login) throws UsernameNotFoundException {
+        CachedPrincipal principal = principalCacheService.get(login);
+        if (principal == null) {
+            principal = toCachedPrincipal(findUser(login));
+            principalCacheService.put(login, principal);
+        }
+
+        return principal.toPrincipal(tokenVersionService.currentVersionOrNull(principal.id()));
+    }
+
+    private User findUser(String login) {
+        return userRepository.findByEmail(login)
                 .or(() -> userRepository.findByLogin(login))
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь с login " + login + " не найден"));
+    }
 
-        return new org.springframework.security.core.userdetails.User(
+    private static CachedPrincipal toCachedPrincipal(User user) {
+        return new CachedPrincipal(
+                user.getId(),
                 user.getLogin() != null ? user.getLogin() : user.getEmail(),
-                user.getPassword(),
                 user.isEnabled(),
-                true, 
-                true, 
-                true, 
-                mapRolesToAuthorities(user.getRole()));
-    }
-
-    
-    private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Role role) {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+                user.getRole().name());
     }
 }
@@ -1,79 +1,163 @@
 package org.spacelab.housingutilitiessystemuser.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.bson.Document;
 import org.spacelab.housingutilitiessystemuser.entity.Bill;
 import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.exception.OperationException;
+import org.spacelab.housingutilitiessystemuser.models.bill.BillPageResponse;
 import org.spacelab.housingutilitiessystemuser.repository.BillRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BillService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    private static final Sort BILL_ORDER = Sort.by(Sort.Direction.DESC, "date", "_id");
+    private static final char CURSOR_SEPARATOR = ':';
+    private static final String NO_DATE = "-";
+    static final String[] EXPORT_HEADERS = { "№ п/п", "№ Квитанции", "Дата" };
+    private static final int[] EXPORT_COLUMN_WIDTHS = { 8, 24, 14 };
+    private static final int XLSX_ROWS_IN_MEMORY = 100;
+    private static final char CSV_SEPARATOR = ';';
+    private static final String CSV_FORMULA_PREFIXES = "=+-@\t\r";
+    static final String OWNER_CHECKED_FIELD = "ownerCheckedAt";
+
     private final BillRepository billRepository;
+    private final MongoTemplate mongoTemplate;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
+    @Value("${bill.export.batch-size:500}")
+    private int exportBatchSize;
+
+    @Value("${bill.owner-backfill.batch-size:500}")
+    private int backfillBatchSize;
+
+    @Value("${bill.owner-backfill.recheck-after:PT24H}")
+    private Duration backfillRecheckAfter;
+
     
-    public Page<Bill> findByUserWithFilters(User user, String billNumber, LocalDate startDate,
-            LocalDate endDate, Pageable pageable) {
-        if (user == null || user.getBills() == null || user.getBills().isEmpty()) {
-            return Page.empty(pageable);
-        }
-
-        List<Bill> allBills = user.getBills();
-
-        
-        List<Bill> filteredBills = allBills.stream()
-                .filter(bill -> {
-                    
-                    if (billNumber != null && !billNumber.trim().isEmpty()) {
-                        if (bill.getBillNumber() == null ||
-                                !bill.getBillNumber().toLowerCase().contains(billNumber.toLowerCase())) {
-                            return false;
-                        }
-                    }
-                    
-                    if (startDate != null && bill.getDate() != null) {
-                        if (bill.getDate().isBefore(startDate)) {
-                            return false;
-                        }
-                    }
-                    
-                    if (endDate != null && bill.getDate() != null) {
-                        if (bill.getDate().isAfter(endDate)) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                
-                .sorted(Comparator.comparing(Bill::getDate, Comparator.nullsLast(Comparator.reverseOrder())))
-                .collect(Collectors.toList());
-
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filteredBills.size());
-
-        if (start > filteredBills.size()) {
-            return new PageImpl<>(List.of(), pageable, filteredBills.size());
-        }
-
-        List<Bill> pagedBills = filteredBills.subList(start, end);
-        return new PageImpl<>(pagedBills, pageable, filteredBills.size());
+    public BillPageResponse findByUserWithFilters(User user, String billNumber, LocalDate startDate,
+            LocalDate endDate, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (user == null || user.getId() == null) {
+            return BillPageResponse.builder().content(List.of()).size(pageSize).build();
+        }
+
+        Criteria criteria = filterCriteria(user.getId(), billNumber, startDate, endDate);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.andOperator(afterCursor(cursor));
+        }
+        Query page = query(criteria).with(BILL_ORDER).limit(pageSize + 1);
+        List<Bill> bills = mongoTemplate.find(page, Bill.class);
+
+        boolean hasNext = bills.size() > pageSize;
+        if (hasNext) {
+            bills = new ArrayList<>(bills.subList(0, pageSize));
+        }
+        return BillPageResponse.builder()
+                .content(bills)
+                .size(pageSize)
+                .nextCursor(hasNext ? encodeCursor(bills.get(bills.size() - 1)) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static Criteria filterCriteria(String ownerId, String billNumber, LocalDate startDate, LocalDate endDate) {
+        Criteria criteria = where("owner").is(ownerId);
+        if (billNumber != null && !billNumber.trim().isEmpty()) {
+            criteria.and("billNumber").regex(Pattern.compile(Pattern.quote(billNumber.trim()), Pattern.CASE_INSENSITIVE));
+        }
+        if (startDate != null || endDate != null) {
+            Criteria range = where("date");
+            if (startDate != null) {
+                range.gte(startDate);
+            }
+            if (endDate != null) {
+                range.lte(endDate);
+            }
+            criteria.orOperator(where("date").is(null), range);
+        }
+        return criteria;
+    }
+
+    
+    private static Criteria afterCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(cursor);
+        }
+        int separator = decoded.indexOf(CURSOR_SEPARATOR);
+        if (separator <= 0 || separator == decoded.length() - 1) {
+            throw invalidCursor(cursor);
+        }
+        String datePart = decoded.substring(0, separator);
+        String id = decoded.substring(separator + 1);
+        if (NO_DATE.equals(datePart)) {
+            return new Criteria().andOperator(where("date").is(null), where("_id").lt(id));
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.ofEpochDay(Long.parseLong(datePart));
+        } catch (RuntimeException e) {
+            throw invalidCursor(cursor);
+        }
+        return new Criteria().orOperator(
+                where("date").lt(date),
+                where("date").is(date).and("_id").lt(id),
+                where("date").is(null));
+    }
+
+    static String encodeCursor(Bill bill) {
+        String datePart = bill.getDate() != null ? String.valueOf(bill.getDate().toEpochDay()) : NO_DATE;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((datePart + CURSOR_SEPARATOR + bill.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OperationException invalidCursor(String cursor) {
+        return new OperationException("загрузке счетов", "Некорректный параметр cursor: " + cursor,
+                HttpStatus.BAD_REQUEST);
     }
 
     
@@ -92,8 +176,11 @@ public class BillService {
     }
 
     
-    public byte[] generateExcel(List<Bill> bills) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
+    public void writeXlsx(User user, String billNumber, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROWS_IN_MEMORY);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Счета");
 
             
@@ -117,20 +204,20 @@ public class BillService {
 
             
             Row headerRow = sheet.createRow(0);
-            String[] headers = { "№ п/п", "№ Квитанции", "Дата" };
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < EXPORT_HEADERS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+                cell.setCellValue(EXPORT_HEADERS[i]);
                 cell.setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, EXPORT_COLUMN_WIDTHS[i] * 256);
             }
 
             
-            int rowNum = 1;
-            for (Bill bill : bills) {
-                Row row = sheet.createRow(rowNum);
+            int[] rowNum = {1};
+            forEachBill(user, billNumber, startDate, endDate, bill -> {
+                Row row = sheet.createRow(rowNum[0]);
 
                 Cell cell0 = row.createCell(0);
-                cell0.setCellValue(rowNum);
+                cell0.setCellValue(rowNum[0]);
                 cell0.setCellStyle(dataStyle);
 
                 Cell cell1 = row.createCell(1);
@@ -141,47 +228,133 @@ public class BillService {
                 cell2.setCellValue(bill.getDate() != null ? bill.getDate().format(DATE_FORMATTER) : "");
                 cell2.setCellStyle(dataStyle);
 
-                rowNum++;
-            }
+                rowNum[0]++;
+            });
 
-            
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    
+    public void writeCsv(User user, String billNumber, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writeCsvLine(writer, EXPORT_HEADERS);
+        int[] rowNum = {1};
+        try {
+            forEachBill(user, billNumber, startDate, endDate, bill -> {
+                try {
+                    writeCsvLine(writer, String.valueOf(rowNum[0]++), bill.getBillNumber(),
+                            bill.getDate() != null ? bill.getDate().format(DATE_FORMATTER) : "");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    
+    void forEachBill(User user, String billNumber, LocalDate startDate, LocalDate endDate, Consumer<Bill> consumer) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        Query bills = query(filterCriteria(user.getId(), billNumber, startDate, endDate))
+                .with(BILL_ORDER)
+                .cursorBatchSize(exportBatchSize);
+        bills.fields().include("billNumber", "date");
+        try (Stream<Bill> cursor = mongoTemplate.stream(bills, Bill.class)) {
+            cursor.forEach(consumer);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
             }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write("\r\n");
+    }
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && CSV_FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
         }
+        if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 
     
-    public List<Bill> getFilteredBills(User user, String billNumber, LocalDate startDate, LocalDate endDate) {
-        if (user == null || user.getBills() == null || user.getBills().isEmpty()) {
-            return List.of();
-        }
-
-        return user.getBills().stream()
-                .filter(bill -> {
-                    if (billNumber != null && !billNumber.trim().isEmpty()) {
-                        if (bill.getBillNumber() == null ||
-                                !bill.getBillNumber().toLowerCase().contains(billNumber.toLowerCase())) {
-                            return false;
-                        }
-                    }
-                    if (startDate != null && bill.getDate() != null) {
-                        if (bill.getDate().isBefore(startDate)) {
-                            return false;
-                        }
-                    }
-                    if (endDate != null && bill.getDate() != null) {
-                        if (bill.getDate().isAfter(endDate)) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .sorted(Comparator.comparing(Bill::getDate, Comparator.nullsLast(Comparator.reverseOrder())))
-                .collect(Collectors.toList());
+    @Scheduled(fixedDelayString = "${bill.owner-backfill.interval-ms:60000}")
+    public void assignMissingOwners() {
+        try {
+            int assigned = backfillOwners();
+            if (assigned > 0) {
+                log.info("🧾 Assigned owners to {} bills", assigned);
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to assign bill owners: {}", e.getMessage());
+        }
+    }
+
+    
+    int backfillOwners() {
+        Date recheckBefore = Date.from(Instant.now().minus(backfillRecheckAfter));
+        Query missing = query(where("owner").exists(false).orOperator(
+                where(OWNER_CHECKED_FIELD).exists(false),
+                where(OWNER_CHECKED_FIELD).lt(recheckBefore))).limit(backfillBatchSize);
+        missing.fields().include("_id");
+        List<Document> bills = mongoTemplate.find(missing, Document.class, mongoTemplate.getCollectionName(Bill.class));
+        if (bills.isEmpty()) {
+            return 0;
+        }
+        List<Object> billIds = bills.stream().map(bill -> bill.get("_id")).toList();
+
+        Query holders = query(where("bills").in(billIds));
+        holders.fields().include("bills");
+        Map<String, String> owners = new HashMap<>();
+        for (Document holder : mongoTemplate.find(holders, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            List<?> references = holder.get("bills", List.class);
+            if (references == null) {
+                continue;
+            }
+            for (Object reference : references) {
+                if (reference != null) {
+                    owners.putIfAbsent(reference.toString(), holder.get("_id").toString());
+                }
+            }
+        }
+
+        Date checkedAt = new Date();
+        int assigned = 0;
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class);
+        for (Object billId : billIds) {
+            String owner = owners.get(billId.toString());
+            if (owner != null) {
+                updates.updateOne(query(where("_id").is(billId).and("owner").exists(false)),
+                        new Update().set("owner", owner));
+                assigned++;
+            } else {
+                updates.updateOne(query(where("_id").is(billId).and("owner").exists(false)),
+                        new Update().set(OWNER_CHECKED_FIELD, checkedAt));
+            }
+        }
+        updates.execute();
+        return assigned;
     }
 }
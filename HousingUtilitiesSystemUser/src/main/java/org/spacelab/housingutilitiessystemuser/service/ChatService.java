@@ -2,14 +2,18 @@ package org.spacelab.housingutilitiessystemuser.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.spacelab.housingutilitiessystemuser.entity.Chairman;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatParticipant;
 import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ConversationSummary;
 import org.spacelab.housingutilitiessystemuser.entity.location.Status;
 import org.spacelab.housingutilitiessystemuser.exception.OperationException;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatContactResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatConversationResponse;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatSidebarResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
@@ -17,7 +21,11 @@ import org.spacelab.housingutilitiessystemuser.repository.ChairmanRepository;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.spacelab.housingutilitiessystemuser.repository.chat.ChatMessageRepository;
 import org.spacelab.housingutilitiessystemuser.repository.chat.ConversationRepository;
+import org.spacelab.housingutilitiessystemuser.repository.chat.ConversationSummaryRepository;
 import org.spacelab.housingutilitiessystemuser.service.chat.ChatEventPublisher;
+import org.spacelab.housingutilitiessystemuser.service.chat.ChatMessageWriteBehind;
+import org.spacelab.housingutilitiessystemuser.service.chat.ConversationMembershipCache;
+import org.spacelab.housingutilitiessystemuser.service.chat.PresenceService;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
@@ -25,6 +33,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -39,6 +48,12 @@ public class ChatService {
         private final UserRepository userRepository;
         private final ChairmanRepository chairmanRepository;
         private final ChatEventPublisher chatEventPublisher;
+        private final ConversationSummaryRepository conversationSummaryRepository;
+        private final PresenceService presenceService;
+        private final ConversationMembershipCache conversationMembershipCache;
+        private final ChatMessageWriteBehind chatMessageWriteBehind;
+
+        private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
         
         public User getCurrentUser() {
@@ -60,68 +75,63 @@ public class ChatService {
                 log.debug("Building chat sidebar for user: {}", user.getId());
 
                 
-                Set<Conversation> conversations = user.getConversations();
-                if (conversations == null) {
-                        conversations = new HashSet<>();
-                }
-                log.debug("Found {} conversations for user", conversations.size());
-
-                
-                List<ChatConversationResponse> conversationResponses = conversations.stream()
-                                .map(conv -> toConversationResponse(conv, user.getId()))
-                                .sorted((c1, c2) -> {
-                                        
-                                        String t1 = c1.getLastMessageTime();
-                                        String t2 = c2.getLastMessageTime();
-                                        if (t1 == null || t1.isEmpty())
-                                                return 1;
-                                        if (t2 == null || t2.isEmpty())
-                                                return -1;
-                                        return t2.compareTo(t1);
-                                })
-                                .collect(Collectors.toList());
+                List<ConversationSummary> summaries = loadConversationSummaries(user);
+                log.debug("Found {} conversations for user", summaries.size());
 
                 
-                Set<String> participantsInConversations = new HashSet<>();
-                for (Conversation conv : conversations) {
-                        String otherId = getOtherParticipantId(conv, user.getId());
-                        if (otherId != null) {
-                                participantsInConversations.add(otherId);
-                        }
-                }
+                Set<String> participantsInConversations = summaries.stream()
+                                .map(ConversationSummary::getParticipantId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet());
 
                 
-                ChatContactResponse chairman = null;
+                Chairman houseChairman = null;
+                List<User> contactUsers = new ArrayList<>();
                 if (user.getHouse() != null) {
-                        chairman = chairmanRepository.findByHouseId(user.getHouse().getId())
+                        houseChairman = chairmanRepository.findByHouseId(user.getHouse().getId())
                                         .filter(ch -> !participantsInConversations.contains(ch.getId()))
-                                        .map(ch -> ChatContactResponse.builder()
-                                                        .id(ch.getId())
-                                                        .name(ch.getFullName())
-                                                        .avatar(ch.getPhoto())
-                                                        .isOnline(ch.isOnline())
-                                                        .participantType("CHAIRMAN")
-                                                        .build())
                                         .orElse(null);
-                }
-
-                
-                List<ChatContactResponse> contacts = new ArrayList<>();
-                if (user.getHouse() != null) {
-                        contacts = userRepository.findByHouse(user.getHouse()).stream()
+                        contactUsers = userRepository.findByHouse(user.getHouse()).stream()
                                         .filter(u -> !u.getId().equals(user.getId()))
                                         .filter(u -> Status.ACTIVE.equals(u.getStatus())) 
                                         .filter(u -> !participantsInConversations.contains(u.getId()))
-                                        .map(u -> ChatContactResponse.builder()
-                                                        .id(u.getId())
-                                                        .name(u.getFullName())
-                                                        .avatar(u.getPhoto())
-                                                        .isOnline(u.isOnline())
-                                                        .participantType("USER")
-                                                        .build())
                                         .collect(Collectors.toList());
                 }
 
+                
+                Set<String> presenceIds = new HashSet<>(participantsInConversations);
+                if (houseChairman != null) {
+                        presenceIds.add(houseChairman.getId());
+                }
+                contactUsers.forEach(u -> presenceIds.add(u.getId()));
+                Map<String, Boolean> online = presenceService.isOnline(presenceIds);
+
+                List<ChatConversationResponse> conversationResponses = summaries.stream()
+                                .map(summary -> toConversationResponse(summary,
+                                                online.getOrDefault(summary.getParticipantId(), false)))
+                                .collect(Collectors.toList());
+
+                ChatContactResponse chairman = null;
+                if (houseChairman != null) {
+                        chairman = ChatContactResponse.builder()
+                                        .id(houseChairman.getId())
+                                        .name(houseChairman.getFullName())
+                                        .avatar(houseChairman.getPhoto())
+                                        .isOnline(online.getOrDefault(houseChairman.getId(), false))
+                                        .participantType("CHAIRMAN")
+                                        .build();
+                }
+
+                List<ChatContactResponse> contacts = contactUsers.stream()
+                                .map(u -> ChatContactResponse.builder()
+                                                .id(u.getId())
+                                                .name(u.getFullName())
+                                                .avatar(u.getPhoto())
+                                                .isOnline(online.getOrDefault(u.getId(), false))
+                                                .participantType("USER")
+                                                .build())
+                                .collect(Collectors.toList());
+
                 return ChatSidebarResponse.builder()
                                 .chatConversationResponses(conversationResponses)
                                 .chairman(chairman)
@@ -139,8 +149,7 @@ public class ChatService {
                                                 "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
 
                 
-                if (sender.getConversations() == null ||
-                                !sender.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                if (!isParticipant(conversation, sender)) {
                         throw new OperationException("отправке сообщения",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
@@ -154,35 +163,60 @@ public class ChatService {
                                 .createdAt(Instant.now())
                                 .build();
 
-                ChatMessage savedMessage = chatMessageRepository.save(message);
-                log.info("✅ Message saved: {}", savedMessage.getId());
+                ChatMessage savedMessage;
+                if (chatMessageWriteBehind.isEnabled()) {
+                        savedMessage = chatMessageWriteBehind.enqueue(message);
+                        conversation.setUpdatedAt(message.getCreatedAt());
+                        log.info("✅ Message queued for write-behind: {}", savedMessage.getId());
+                } else {
+                        savedMessage = chatMessageRepository.save(message);
+                        log.info("✅ Message saved: {}", savedMessage.getId());
 
-                
-                conversation.setUpdatedAt(Instant.now());
-                conversationRepository.save(conversation);
+                        
+                        conversation.setUpdatedAt(Instant.now());
+                        conversationRepository.save(conversation);
+                }
 
                 
-                String recipientId = getOtherParticipantId(conversation, sender.getId());
-                String recipientType = getOtherParticipantType(conversation, sender.getId());
-
-                if (recipientId != null && "CHAIRMAN".equals(recipientType)) {
-                        chairmanRepository.findById(recipientId).ifPresent(chairman -> {
-                                if (chairman.isOnline()) {
-                                        log.info("📨 Recipient {} is online, publishing event via Redis",
-                                                        chairman.getLogin());
-                                        ChatEvent event = buildChatEventForChairman(savedMessage, chairman, sender);
-                                        chatEventPublisher.publishMessageEvent(event);
+                ChatParticipant recipient = getOtherParticipant(conversation, sender);
+                if (recipient != null) {
+                        ChatParticipant recipientView = recipient;
+                        Map<String, Boolean> online = presenceService.isOnline(
+                                        List.of(sender.getId(), recipient.getId()));
+                        boolean senderOnline = online.getOrDefault(sender.getId(), false);
+                        boolean recipientOnline = online.getOrDefault(recipient.getId(), false);
+
+                        if (recipient.isChairman()) {
+                                Chairman chairman = chairmanRepository.findById(recipient.getId()).orElse(null);
+                                if (chairman != null) {
+                                        recipientView = toParticipant(chairman);
+                                        if (recipientOnline) {
+                                                log.info("📨 Recipient {} is online, publishing event via Redis",
+                                                                chairman.getLogin());
+                                                ChatEvent event = buildChatEventForChairman(savedMessage, chairman, sender,
+                                                                senderOnline);
+                                                chatEventPublisher.publishMessageEvent(event);
+                                        }
                                 }
-                        });
-                } else if (recipientId != null && "USER".equals(recipientType)) {
-                        userRepository.findById(recipientId).ifPresent(targetUser -> {
-                                if (targetUser.isOnline()) {
-                                        log.info("📨 Recipient {} is online, publishing event via Redis",
-                                                        targetUser.getEmail());
-                                        ChatEvent event = buildChatEventForUser(savedMessage, targetUser, sender);
-                                        chatEventPublisher.publishMessageEvent(event);
+                        } else {
+                                User targetUser = userRepository.findById(recipient.getId()).orElse(null);
+                                if (targetUser != null) {
+                                        recipientView = toParticipant(targetUser);
+                                        if (recipientOnline) {
+                                                log.info("📨 Recipient {} is online, publishing event via Redis",
+                                                                targetUser.getEmail());
+                                                ChatEvent event = buildChatEventForUser(savedMessage, targetUser, sender,
+                                                                senderOnline);
+                                                chatEventPublisher.publishMessageEvent(event);
+                                        }
                                 }
-                        });
+                        }
+
+                        
+                        conversationSummaryRepository.recordMessage(sender.getId(), conversationId, recipientView,
+                                        savedMessage.getContent(), savedMessage.getCreatedAt(), false);
+                        conversationSummaryRepository.recordMessage(recipient.getId(), conversationId,
+                                        toParticipant(sender), savedMessage.getContent(), savedMessage.getCreatedAt(), true);
                 }
 
                 return toMessageResponse(savedMessage, sender.getId());
@@ -193,95 +227,109 @@ public class ChatService {
                 User currentUser = getCurrentUser();
 
                 
-                Set<Conversation> myConversations = currentUser.getConversations();
-                if (myConversations != null) {
-                        for (Conversation conv : myConversations) {
-                                String otherId = getOtherParticipantId(conv, currentUser.getId());
-                                if (targetId.equals(otherId)) {
-                                        log.debug("Found existing conversation with {}", targetId);
-                                        return conv;
-                                }
-                        }
+                Optional<Conversation> existing = findExistingConversation(currentUser, targetId);
+                if (existing.isPresent()) {
+                        log.debug("Found existing conversation with {}", targetId);
+                        return existing.get();
                 }
 
                 
                 log.info("Creating new conversation between user {} and {} {}",
                                 currentUser.getId(), targetType, targetId);
 
-                Conversation newConversation = Conversation.builder()
-                                .createdAt(Instant.now())
-                                .updatedAt(Instant.now())
-                                .build();
-                Conversation savedConversation = conversationRepository.save(newConversation);
-
-                
-                if (currentUser.getConversations() == null) {
-                        currentUser.setConversations(new HashSet<>());
-                }
-                currentUser.getConversations().add(savedConversation);
-                userRepository.save(currentUser);
-
-                
+                Chairman targetChairman = null;
+                User targetUser = null;
+                ChatParticipant targetParticipant;
                 if ("CHAIRMAN".equals(targetType)) {
-                        Chairman target = chairmanRepository.findById(targetId)
+                        targetChairman = chairmanRepository.findById(targetId)
                                         .orElseThrow(() -> new OperationException("создании диалога",
                                                         "Председатель не найден: " + targetId, HttpStatus.NOT_FOUND));
-                        if (target.getConversations() == null) {
-                                target.setConversations(new HashSet<>());
-                        }
-                        target.getConversations().add(savedConversation);
-                        chairmanRepository.save(target);
+                        targetParticipant = toParticipant(targetChairman);
                 } else {
-                        User target = userRepository.findById(targetId)
+                        targetUser = userRepository.findById(targetId)
                                         .orElseThrow(() -> new OperationException("создании диалога",
                                                         "Пользователь не найден: " + targetId, HttpStatus.NOT_FOUND));
-                        if (target.getConversations() == null) {
-                                target.setConversations(new HashSet<>());
-                        }
-                        target.getConversations().add(savedConversation);
-                        userRepository.save(target);
+                        targetParticipant = toParticipant(targetUser);
                 }
 
-                
-                ChatMessage initMessage = ChatMessage.builder()
-                                .conversation(savedConversation)
-                                .content("")
-                                .senderId(targetId)
-                                .senderType(targetType)
+                Conversation newConversation = Conversation.builder()
+                                .participants(new ArrayList<>(List.of(toParticipant(currentUser), targetParticipant)))
                                 .createdAt(Instant.now())
+                                .updatedAt(Instant.now())
                                 .build();
-                chatMessageRepository.save(initMessage);
+                Conversation savedConversation = conversationRepository.save(newConversation);
+
+                
+                conversationRepository.linkConversation(User.class, currentUser.getId(), savedConversation.getId());
+                conversationRepository.linkConversation(targetChairman != null ? Chairman.class : User.class,
+                                targetParticipant.getId(), savedConversation.getId());
+
+                
+                conversationSummaryRepository.initSummary(currentUser.getId(), savedConversation.getId(),
+                                targetParticipant);
+                conversationSummaryRepository.initSummary(targetParticipant.getId(), savedConversation.getId(),
+                                toParticipant(currentUser));
+                conversationMembershipCache.addConversation(savedConversation.getId(),
+                                List.of(currentUser.getId(), targetParticipant.getId()));
 
                 return savedConversation;
         }
 
         
         public List<ChatMessageResponse> getConversationMessages(String conversationId, int limit) {
-                log.info("📥 Loading messages for conversation: {}, limit: {}", conversationId, limit);
+                return getConversationMessages(conversationId, null, limit);
+        }
 
-                User user = getCurrentUser();
+        
+        public List<ChatMessageResponse> getConversationMessages(String conversationId, String before, int limit) {
+                return getConversationHistory(conversationId, before, limit, getCurrentUser()).getMessages();
+        }
+
+        
+        public ChatHistoryResponse getConversationHistory(String conversationId, String before, int limit, User user) {
+                log.info("📥 Loading messages for conversation: {}, before: {}, limit: {}", conversationId, before, limit);
+
+                Conversation conversation = conversationRepository.findById(conversationId)
+                                .orElseThrow(() -> new OperationException("загрузке сообщений",
+                                                "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
 
                 
-                if (user.getConversations() == null ||
-                                !user.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                if (!isParticipant(conversation, user)) {
                         throw new OperationException("загрузке сообщений",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
 
                 
-                List<ChatMessage> messages = chatMessageRepository.findByConversationId(
-                                conversationId, PageRequest.of(0, limit));
+                int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+                List<ChatMessage> messages = findMessagesBefore(conversationId, before, pageSize + 1);
+                boolean hasMore = messages.size() > pageSize;
+                if (hasMore) {
+                        messages = new ArrayList<>(messages.subList(0, pageSize));
+                }
+                String nextBefore = messages.isEmpty() ? null : messages.get(messages.size() - 1).getId();
 
                 log.info("📨 Found {} messages for conversation {}", messages.size(), conversationId);
 
                 
+                if (before == null || before.isBlank()) {
+                        conversationSummaryRepository.resetUnread(user.getId(), conversationId);
+                }
+
+                
                 Collections.reverse(messages);
 
                 
-                return messages.stream()
+                List<ChatMessageResponse> responses = messages.stream()
                                 .filter(msg -> msg.getContent() != null && !msg.getContent().isEmpty())
                                 .map(msg -> toMessageResponse(msg, user.getId()))
                                 .collect(Collectors.toList());
+
+                return ChatHistoryResponse.builder()
+                                .conversationId(conversationId)
+                                .messages(responses)
+                                .nextBefore(nextBefore)
+                                .hasMore(hasMore)
+                                .build();
         }
 
         
@@ -293,49 +341,212 @@ public class ChatService {
                                                 "Диалог не найден: " + conversationId, HttpStatus.NOT_FOUND));
 
                 
-                if (user.getConversations() == null ||
-                                !user.getConversations().stream().anyMatch(c -> c.getId().equals(conversationId))) {
+                if (!isParticipant(conversation, user)) {
                         throw new OperationException("получении диалога",
                                         "Нет доступа к диалогу", HttpStatus.FORBIDDEN);
                 }
 
-                return toConversationResponse(conversation, user.getId());
+                return toConversationResponse(conversation, user);
+        }
+
+        
+
+        
+        private boolean isParticipant(Conversation conversation, User user) {
+                List<ChatParticipant> participants = conversation.getParticipants();
+                if (participants != null && !participants.isEmpty()) {
+                        return participants.stream().anyMatch(p -> user.getId().equals(p.getId()));
+                }
+                return user.getConversations() != null &&
+                                user.getConversations().stream().anyMatch(c -> c.getId().equals(conversation.getId()));
         }
 
         
+        private Optional<Conversation> findExistingConversation(User currentUser, String targetId) {
+                List<Conversation> found = conversationRepository.findByParticipantIds(currentUser.getId(), targetId);
+                if (!found.isEmpty()) {
+                        return Optional.of(found.get(0));
+                }
+                if (currentUser.getConversations() == null) {
+                        return Optional.empty();
+                }
+                return currentUser.getConversations().stream()
+                                .filter(conv -> conv.getParticipants() == null || conv.getParticipants().isEmpty())
+                                .filter(conv -> {
+                                        ChatParticipant other = getOtherParticipant(conv, currentUser);
+                                        return other != null && targetId.equals(other.getId());
+                                })
+                                .findFirst();
+        }
 
         
-        private String getOtherParticipantId(Conversation conversation, String currentUserId) {
-                List<ChatMessage> messages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                return messages.stream()
-                                .map(ChatMessage::getSenderId)
-                                .filter(id -> !id.equals(currentUserId))
+        private ChatParticipant getOtherParticipant(Conversation conversation, User current) {
+                return resolveParticipants(conversation, current).stream()
+                                .filter(p -> !p.getId().equals(current.getId()))
                                 .findFirst()
                                 .orElse(null);
         }
 
         
-        private String getOtherParticipantType(Conversation conversation, String currentUserId) {
-                List<ChatMessage> messages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                return messages.stream()
-                                .filter(msg -> !msg.getSenderId().equals(currentUserId))
-                                .map(ChatMessage::getSenderType)
+        private List<ChatParticipant> resolveParticipants(Conversation conversation, User current) {
+                if (conversation.getParticipants() != null && !conversation.getParticipants().isEmpty()) {
+                        return conversation.getParticipants();
+                }
+
+                
+                List<ChatParticipant> participants = new ArrayList<>();
+                participants.add(toParticipant(current));
+                chatMessageRepository.findLatestByConversationId(conversation.getId()).stream()
+                                .filter(msg -> !msg.getSenderId().equals(current.getId()))
                                 .findFirst()
-                                .orElse(null);
+                                .ifPresent(msg -> participants.add(buildParticipant(msg.getSenderId(), msg.getSenderType())));
+
+                if (participants.size() > 1) {
+                        conversation.setParticipants(participants);
+                        conversationRepository.save(conversation);
+                        log.info("Backfilled participants for conversation {}", conversation.getId());
+                }
+                return participants;
+        }
+
+        private ChatParticipant buildParticipant(String id, String type) {
+                if (ChatParticipant.TYPE_CHAIRMAN.equals(type)) {
+                        return chairmanRepository.findById(id)
+                                        .map(this::toParticipant)
+                                        .orElseGet(() -> ChatParticipant.builder().id(id).type(type).build());
+                }
+                return userRepository.findById(id)
+                                .map(this::toParticipant)
+                                .orElseGet(() -> ChatParticipant.builder().id(id).type(ChatParticipant.TYPE_USER).build());
+        }
+
+        private ChatParticipant toParticipant(User user) {
+                return ChatParticipant.builder()
+                                .id(user.getId())
+                                .type(ChatParticipant.TYPE_USER)
+                                .fullName(user.getFullName())
+                                .avatar(user.getPhoto())
+                                .build();
+        }
+
+        private ChatParticipant toParticipant(Chairman chairman) {
+                return ChatParticipant.builder()
+                                .id(chairman.getId())
+                                .type(ChatParticipant.TYPE_CHAIRMAN)
+                                .fullName(chairman.getFullName())
+                                .avatar(chairman.getPhoto())
+                                .build();
+        }
+
+        private List<ConversationSummary> loadConversationSummaries(User user) {
+                List<ConversationSummary> summaries = new ArrayList<>(
+                                conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc(user.getId()));
+
+                
+                List<String> conversationIds = conversationRepository.findConversationIds(User.class, user.getId());
+                if (conversationIds.size() <= summaries.size()) {
+                        return summaries;
+                }
+
+                Set<String> summarized = summaries.stream()
+                                .map(ConversationSummary::getConversationId)
+                                .collect(Collectors.toSet());
+                List<String> missing = conversationIds.stream()
+                                .filter(id -> !summarized.contains(id))
+                                .distinct()
+                                .collect(Collectors.toList());
+                if (missing.isEmpty()) {
+                        return summaries;
+                }
+
+                List<ConversationSummary> backfilled = new ArrayList<>();
+                conversationRepository.findAllById(missing)
+                                .forEach(conv -> backfilled.add(toSummary(toConversationResponse(conv, user), user.getId())));
+                if (backfilled.isEmpty()) {
+                        return summaries;
+                }
+
+                backfilled.forEach(conversationSummaryRepository::backfillSummary);
+                log.info("Backfilled {} conversation summaries for user {}", backfilled.size(), user.getId());
+                summaries.addAll(backfilled);
+                summaries.sort(Comparator.comparing(ConversationSummary::getLastMessageTime,
+                                Comparator.nullsLast(Comparator.reverseOrder())));
+                return summaries;
+        }
+
+        private ConversationSummary toSummary(ChatConversationResponse response, String ownerId) {
+                String lastMessageTime = response.getLastMessageTime();
+                return ConversationSummary.builder()
+                                .ownerId(ownerId)
+                                .conversationId(response.getId())
+                                .participantId(response.getParticipantId())
+                                .participantType(response.getParticipantType())
+                                .participantName(response.getName())
+                                .participantAvatar(response.getAvatar())
+                                .lastMessage(response.getLastMessage())
+                                .lastMessageTime(lastMessageTime == null || lastMessageTime.isEmpty()
+                                                ? null : Instant.parse(lastMessageTime))
+                                .updatedAt(Instant.now())
+                                .build();
+        }
+
+        private ChatConversationResponse toConversationResponse(ConversationSummary summary, boolean online) {
+                return ChatConversationResponse.builder()
+                                .id(summary.getConversationId())
+                                .participantId(summary.getParticipantId())
+                                .name(summary.getParticipantName() != null ? summary.getParticipantName() : "Новый диалог")
+                                .avatar(summary.getParticipantAvatar())
+                                .lastMessage(summary.getLastMessage() != null ? summary.getLastMessage() : "")
+                                .lastMessageTime(summary.getLastMessageTime() != null
+                                                ? summary.getLastMessageTime().toString() : "")
+                                .isOnline(online)
+                                .participantType(summary.getParticipantType())
+                                .unreadCount(summary.getUnreadCount())
+                                .build();
+        }
+
+        private List<ChatMessage> findMessagesBefore(String conversationId, String before, int limit) {
+                PageRequest page = PageRequest.of(0, limit);
+                if (before == null || before.isBlank()) {
+                        return chatMessageRepository.findByConversationId(conversationId, page);
+                }
+
+                
+                if (ObjectId.isValid(before)) {
+                        ChatMessage cursor = chatMessageRepository.findByIdAndConversationId(before, conversationId)
+                                        .orElseThrow(() -> new OperationException("загрузке сообщений",
+                                                        "Сообщение не найдено: " + before, HttpStatus.BAD_REQUEST));
+                        return chatMessageRepository.findByConversationIdBefore(
+                                        conversationId, cursor.getCreatedAt(), cursor.getId(), page);
+                }
+
+                try {
+                        return chatMessageRepository.findByConversationIdBefore(
+                                        conversationId, Instant.parse(before), page);
+                } catch (DateTimeParseException e) {
+                        throw new OperationException("загрузке сообщений",
+                                        "Некорректный параметр before: " + before, HttpStatus.BAD_REQUEST);
+                }
+        }
+
+        private ChatMessage findLastMessage(String conversationId) {
+                List<ChatMessage> messages = chatMessageRepository.findByConversationId(
+                                conversationId, PageRequest.of(0, 1));
+                return messages.isEmpty() ? null : messages.get(0);
         }
 
         
-        private ChatConversationResponse toConversationResponse(Conversation conversation, String currentUserId) {
-                List<ChatMessage> lastMessages = chatMessageRepository.findLatestByConversationId(conversation.getId());
-                ChatMessage lastMessage = lastMessages.isEmpty() ? null : lastMessages.get(0);
+        private ChatConversationResponse toConversationResponse(Conversation conversation, User current) {
+                ChatMessage lastMessage = findLastMessage(conversation.getId());
 
                 
-                String otherId = getOtherParticipantId(conversation, currentUserId);
-                String otherType = getOtherParticipantType(conversation, currentUserId);
+                ChatParticipant other = getOtherParticipant(conversation, current);
+                String otherId = other != null ? other.getId() : null;
+                String otherType = other != null ? other.getType() : null;
 
-                String name = "Новый диалог";
-                String avatar = null;
-                boolean online = false;
+                String name = other != null && other.getFullName() != null ? other.getFullName() : "Новый диалог";
+                String avatar = other != null ? other.getAvatar() : null;
+                boolean online = presenceService.isOnline(otherId);
                 String participantType = otherType;
 
                 if (otherId != null && "CHAIRMAN".equals(otherType)) {
@@ -343,14 +554,12 @@ public class ChatService {
                         if (ch != null) {
                                 name = ch.getFullName();
                                 avatar = ch.getPhoto();
-                                online = ch.isOnline();
                         }
                 } else if (otherId != null && "USER".equals(otherType)) {
                         User u = userRepository.findById(otherId).orElse(null);
                         if (u != null) {
                                 name = u.getFullName();
                                 avatar = u.getPhoto();
-                                online = u.isOnline();
                         }
                 }
 
@@ -397,7 +606,8 @@ public class ChatService {
         }
 
         
-        private ChatEvent buildChatEventForChairman(ChatMessage message, Chairman recipient, User sender) {
+        private ChatEvent buildChatEventForChairman(ChatMessage message, Chairman recipient, User sender,
+                        boolean senderOnline) {
                 return ChatEvent.builder()
                                 .eventType("MESSAGE_SENT")
                                 .targetUserId(recipient.getId())
@@ -410,12 +620,13 @@ public class ChatService {
                                 .senderType("USER")
                                 .lastMessage(message.getContent())
                                 .timestamp(message.getCreatedAt())
-                                .isOnline(sender.isOnline())
+                                .isOnline(senderOnline)
                                 .build();
         }
 
         
-        private ChatEvent buildChatEventForUser(ChatMessage message, User recipient, User sender) {
+        private ChatEvent buildChatEventForUser(ChatMessage message, User recipient, User sender,
+                        boolean senderOnline) {
                 return ChatEvent.builder()
                                 .eventType("MESSAGE_SENT")
                                 .targetUserId(recipient.getId())
@@ -428,7 +639,7 @@ public class ChatService {
                                 .senderType("USER")
                                 .lastMessage(message.getContent())
                                 .timestamp(message.getCreatedAt())
-                                .isOnline(sender.isOnline())
+                                .isOnline(senderOnline)
                                 .build();
         }
 }
@@ -1,26 +1,44 @@
 package org.spacelab.housingutilitiessystemuser.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemuser.security.JwtPrincipal;
+import org.spacelab.housingutilitiessystemuser.security.VerifiedJwt;
 import org.spacelab.housingutilitiessystemuser.security.CustomOidcUser;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final String AUDIENCE = "housing-user";
+    static final Set<String> ALLOWED_ROLES = Set.of("ROLE_USER", "ROLE_MANAGER", "ROLE_ADMIN");
+
+    static final int MAX_VERIFIED_TOKENS = 10_000;
+
     @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String jwtSigningKey;
 
@@ -30,9 +48,34 @@ public class JwtService {
     @Value("${jwt.refresh-expiration:604800000}")
     private long refreshExpiration;
 
+    private final Map<String, VerifiedJwt> verifiedTokens = new ConcurrentHashMap<>();
+
+    private volatile SecretKey signingKey;
+
+    private volatile JwtParser parser;
+
     
     public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
+    }
+
+    
+    public VerifiedJwt verify(String token) {
+        String cacheKey = hash(token);
+        VerifiedJwt cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            verifiedTokens.remove(cacheKey);
+        }
+
+        VerifiedJwt verified = new VerifiedJwt(extractAllClaims(token));
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            evictVerifiedTokens();
+        }
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
     }
 
     
@@ -41,6 +84,7 @@ public class JwtService {
         if (userDetails instanceof CustomOidcUser) {
             claims.put("email", ((CustomOidcUser) userDetails).getEmail());
         }
+        putPrincipalClaims(claims, userDetails);
         return generateToken(claims, userDetails);
     }
 
@@ -50,6 +94,7 @@ public class JwtService {
         if (authentication.getPrincipal() instanceof CustomOidcUser) {
             claims.put("email", ((CustomOidcUser) authentication.getPrincipal()).getEmail());
         }
+        putPrincipalClaims(claims, authentication.getPrincipal());
         return buildToken(claims, authentication.getName(), jwtExpiration);
     }
 
@@ -65,14 +110,24 @@ public class JwtService {
 
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    
+    public boolean isTokenValid(VerifiedJwt token, UserDetails userDetails) {
+        return token.getSubject().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolvers.apply(claims);
+    public JwtPrincipal extractPrincipal(VerifiedJwt token) {
+        String userId = token.get(USER_ID_CLAIM, String.class);
+        String role = token.get(ROLE_CLAIM, String.class);
+        Long tokenVersion = token.get(TOKEN_VERSION_CLAIM, Long.class);
+        if (userId == null || role == null || tokenVersion == null || !ALLOWED_ROLES.contains(role)) {
+            return null;
+        }
+        return new JwtPrincipal(userId, token.getSubject(), "", true,
+                List.of(new SimpleGrantedAuthority(role)), tokenVersion);
     }
 
     
@@ -85,6 +140,8 @@ public class JwtService {
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(username)
+                .issuer(AUDIENCE)
+                .audience().add(AUDIENCE).and()
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey())
@@ -92,27 +149,63 @@ public class JwtService {
     }
 
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private void putPrincipalClaims(Map<String, Object> claims, Object principal) {
+        if (principal instanceof JwtPrincipal jwtPrincipal && jwtPrincipal.getTokenVersion() != null) {
+            claims.put(USER_ID_CLAIM, jwtPrincipal.getId());
+            jwtPrincipal.getAuthorities().stream()
+                    .findFirst()
+                    .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.getAuthority()));
+            claims.put(TOKEN_VERSION_CLAIM, jwtPrincipal.getTokenVersion());
+        }
     }
 
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey)))
-                .build()
+        return getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     
+    private void evictVerifiedTokens() {
+        verifiedTokens.values().removeIf(VerifiedJwt::isExpired);
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            verifiedTokens.clear();
+        }
+    }
+
+    
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .requireIssuer(AUDIENCE)
+                    .requireAudience(AUDIENCE)
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
+    
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey current = signingKey;
+        if (current == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
+            current = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = current;
+        }
+        return current;
+    }
+
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
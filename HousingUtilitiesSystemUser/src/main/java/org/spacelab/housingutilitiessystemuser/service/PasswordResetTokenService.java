@@ -20,6 +20,7 @@ public class PasswordResetTokenService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCacheService principalCacheService;
 
     public void updatePassword(String token, String password) {
         log.debug("updatePassword() - Starting password update for token: {}", token);
@@ -36,6 +37,7 @@ public class PasswordResetTokenService {
 
         managedUser.setPassword(passwordEncoder.encode(password));
         userRepository.save(managedUser);
+        principalCacheService.evict(managedUser.getLogin(), managedUser.getEmail());
         log.debug("updatePassword() - Password updated successfully for user: {}", managedUser.getEmail());
     }
 
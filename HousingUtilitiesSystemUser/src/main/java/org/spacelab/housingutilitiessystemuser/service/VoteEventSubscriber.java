@@ -0,0 +1,49 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteClosedEvent;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteTallySnapshot;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoteEventSubscriber {
+
+    public static final String VOTE_CLOSED_CHANNEL = "vote:closed";
+    public static final String VOTES_TOPIC = "/topic/votes";
+    public static final String VOTE_TOPIC_PREFIX = "/topic/vote/";
+    public static final String VOTE_CLOSED_SUFFIX = "/closed";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+
+    public void handleVoteClosed(String payload) {
+        try {
+            VoteClosedEvent event = objectMapper.readValue(payload, VoteClosedEvent.class);
+            messagingTemplate.convertAndSend(VOTE_TOPIC_PREFIX + event.getVoteId() + VOTE_CLOSED_SUFFIX, event);
+            messagingTemplate.convertAndSend(VOTES_TOPIC, Map.of("voteId", event.getVoteId()));
+            log.info("📡 Broadcasted closing of vote {} with result {}", event.getVoteId(), event.getResult());
+        } catch (Exception e) {
+            log.error("❌ Failed to handle vote closed event {}: {}", payload, e.getMessage());
+        }
+    }
+
+
+    public void handleVoteTally(String payload) {
+        try {
+            VoteTallySnapshot snapshot = objectMapper.readValue(payload, VoteTallySnapshot.class);
+            messagingTemplate.convertAndSend(VOTE_TOPIC_PREFIX + snapshot.getVoteId(), snapshot);
+            log.debug("📡 Broadcasted tally of vote {}", snapshot.getVoteId());
+        } catch (Exception e) {
+            log.error("❌ Failed to handle vote tally {}: {}", payload, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.spacelab.housingutilitiessystemuser.service;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.entity.Vote;
 import org.spacelab.housingutilitiessystemuser.entity.VoteRecord;
@@ -8,23 +10,31 @@ import org.spacelab.housingutilitiessystemuser.models.PageResponse;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteDetailResponse;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteTableRequest;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteTableResponse;
-import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.spacelab.housingutilitiessystemuser.repository.VoteRecordRepository;
 import org.spacelab.housingutilitiessystemuser.repository.VoteRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 @RequiredArgsConstructor
@@ -32,8 +42,23 @@ public class VoteService {
 
     private final VoteRepository voteRepository;
     private final VoteRecordRepository voteRecordRepository;
-    private final UserRepository userRepository;
     private final MongoTemplate mongoTemplate;
+    private final VoteTallyBroadcaster voteTallyBroadcaster;
+
+    private static final String TOTAL_VOTED_AREA = "totalVotedArea";
+    private static final Map<String, VoteTally> VOTE_TALLIES = Map.of(
+            "FOR", new VoteTally("forVotesCount", "forVotesArea"),
+            "AGAINST", new VoteTally("againstVotesCount", "againstVotesArea"),
+            "ABSTENTION", new VoteTally("abstentionsCount", "abstentionsArea"));
+    private static final AggregationOperation VOTE_TABLE_PROJECTION = context -> new Document("$project", new Document()
+            .append("title", 1)
+            .append("endTime", 1)
+            .append("status", 1)
+            .append("forVotesCount", 1)
+            .append("againstVotesCount", 1)
+            .append("abstentionsCount", 1)
+            .append(TOTAL_VOTED_AREA, new Document("$ifNull", List.of("$" + TOTAL_VOTED_AREA, 0.0)))
+            .append("result", 1));
 
     
     public PageResponse<VoteTableResponse> getVotesTable(VoteTableRequest request) {
@@ -41,7 +66,6 @@ public class VoteService {
                 request.getPage() != null ? request.getPage() : 0,
                 request.getSize() != null ? request.getSize() : 10);
 
-        Query query = new Query();
         List<Criteria> criteriaList = new ArrayList<>();
 
         
@@ -54,28 +78,28 @@ public class VoteService {
             criteriaList.add(Criteria.where("status").is(request.getStatus()));
         }
 
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
-        }
-
-        long total = mongoTemplate.count(query, Vote.class);
-
-        query.with(pageable);
-        List<Vote> votes = mongoTemplate.find(query, Vote.class);
-
-        
-        List<VoteTableResponse> responseList = votes.stream()
-                .map(this::mapToTableResponse)
-                .collect(Collectors.toList());
-
         
         if (request.getResult() != null && !request.getResult().isEmpty()) {
-            responseList = responseList.stream()
-                    .filter(v -> request.getResult().equals(v.getResult()))
-                    .collect(Collectors.toList());
+            criteriaList.add(Criteria.where("result").is(request.getResult()));
         }
 
-        Page<VoteTableResponse> page = new PageImpl<>(responseList, pageable, total);
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (!criteriaList.isEmpty()) {
+            stages.add(Aggregation.match(new Criteria().andOperator(criteriaList.toArray(new Criteria[0]))));
+        }
+        stages.add(VOTE_TABLE_PROJECTION);
+        stages.add(Aggregation.facet(Aggregation.skip(pageable.getOffset()), Aggregation.limit(pageable.getPageSize()))
+                .as("rows")
+                .and(Aggregation.count().as("total"))
+                .as("total"));
+
+        VoteTableFacet facet = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(Vote.class), VoteTableFacet.class).getUniqueMappedResult();
+        List<VoteTableResponse> rows = facet != null && facet.rows() != null ? facet.rows() : List.of();
+        long total = facet != null && facet.total() != null && !facet.total().isEmpty()
+                ? facet.total().get(0).total() : 0L;
+
+        Page<VoteTableResponse> page = new PageImpl<>(rows, pageable, total);
         return PageResponse.of(page);
     }
 
@@ -85,32 +109,11 @@ public class VoteService {
                 .orElseThrow(() -> new RuntimeException("Vote not found: " + voteId));
 
         
-        List<VoteRecord> records = voteRecordRepository.findByVoteId(voteId);
-
-        double forArea = 0.0;
-        double againstArea = 0.0;
-        double abstainArea = 0.0;
-
-        for (VoteRecord record : records) {
-            if (record.getUser() != null && record.getUser().getApartmentArea() != null) {
-                double area = record.getUser().getApartmentArea();
-                switch (record.getVoteType()) {
-                    case "FOR" -> forArea += area;
-                    case "AGAINST" -> againstArea += area;
-                    case "ABSTENTION" -> abstainArea += area;
-                }
-            }
-        }
-
-        
-        Optional<VoteRecord> userVote = voteRecordRepository.findByVoteIdAndUserId(voteId, userId);
-        boolean userHasVoted = userVote.isPresent();
-        String userVoteType = userHasVoted ? userVote.get().getVoteType() : null;
+        VoteRecord userVote = findBallot(voteId, userId);
+        boolean userHasVoted = userVote != null;
+        String userVoteType = userHasVoted ? userVote.getVoteType() : null;
         String userVoteTypeDisplay = getVoteTypeDisplay(userVoteType);
 
-        
-        String result = determineResult(vote);
-
         return VoteDetailResponse.builder()
                 .id(vote.getId())
                 .title(vote.getTitle())
@@ -119,14 +122,14 @@ public class VoteService {
                 .endTime(vote.getEndTime())
                 .quorumArea(vote.getQuorumArea())
                 .status(vote.getStatus())
-                .result(result)
+                .result(vote.getResult())
                 .forVotesCount(vote.getForVotesCount())
                 .againstVotesCount(vote.getAgainstVotesCount())
                 .abstentionsCount(vote.getAbstentionsCount())
-                .forVotesArea(forArea)
-                .againstVotesArea(againstArea)
-                .abstentionsArea(abstainArea)
-                .totalVotedArea(forArea + againstArea + abstainArea)
+                .forVotesArea(areaOrZero(vote.getForVotesArea()))
+                .againstVotesArea(areaOrZero(vote.getAgainstVotesArea()))
+                .abstentionsArea(areaOrZero(vote.getAbstentionsArea()))
+                .totalVotedArea(areaOrZero(vote.getTotalVotedArea()))
                 .userHasVoted(userHasVoted)
                 .userVoteType(userVoteType)
                 .userVoteTypeDisplay(userVoteTypeDisplay)
@@ -135,47 +138,47 @@ public class VoteService {
 
     
     public void castVote(String voteId, String userId, String voteType) {
+        if (!VOTE_TALLIES.containsKey(voteType)) {
+            throw new RuntimeException("Неизвестный тип голоса: " + voteType);
+        }
+
         Vote vote = voteRepository.findById(voteId)
                 .orElseThrow(() -> new RuntimeException("Vote not found: " + voteId));
 
         
-        if (!"Активное".equals(vote.getStatus())) {
+        if (!"Активное".equals(vote.getStatus())
+                || (vote.getEndTime() != null && !vote.getEndTime().after(new Date()))) {
             throw new RuntimeException("Голосование закрыто");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
+        Query voterQuery = query(where("_id").is(userId));
+        voterQuery.fields().include("apartmentArea");
+        User voter = mongoTemplate.findOne(voterQuery, User.class);
+        if (voter == null) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+        double area = areaOrZero(voter.getApartmentArea());
 
         
-        Optional<VoteRecord> existingVote = voteRecordRepository.findByVoteIdAndUserId(voteId, userId);
-
-        if (existingVote.isPresent()) {
-            
-            VoteRecord record = existingVote.get();
-            String oldVoteType = record.getVoteType();
-
-            
-            decrementVoteCount(vote, oldVoteType);
-            incrementVoteCount(vote, voteType);
-
-            
-            record.setVoteType(voteType);
-            record.setVoteTime(new Date());
-            voteRecordRepository.save(record);
-        } else {
-            
-            VoteRecord record = new VoteRecord();
-            record.setVote(vote);
-            record.setUser(user);
-            record.setVoteType(voteType);
-            record.setVoteTime(new Date());
-            voteRecordRepository.save(record);
-
-            
-            incrementVoteCount(vote, voteType);
+        Query ballot = ballotQuery(voteId, userId);
+        Update update = new Update()
+                .set("voteType", voteType)
+                .set("voteTime", new Date())
+                .set("apartmentArea", area);
+        VoteRecord previous;
+        try {
+            previous = mongoTemplate.findAndModify(ballot, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), VoteRecord.class);
+        } catch (DuplicateKeyException e) {
+            previous = mongoTemplate.findAndModify(ballot, update,
+                    FindAndModifyOptions.options().returnNew(false), VoteRecord.class);
         }
 
-        voteRepository.save(vote);
+        Update tallies = tallyChange(previous, voteType, area);
+        if (!tallies.getUpdateObject().isEmpty()) {
+            mongoTemplate.updateFirst(query(where("_id").is(voteId)), tallies, Vote.class);
+            voteTallyBroadcaster.markChanged(voteId);
+        }
     }
 
     
@@ -183,38 +186,6 @@ public class VoteService {
         return voteRecordRepository.findByVoteIdAndUserId(voteId, userId);
     }
 
-    private VoteTableResponse mapToTableResponse(Vote vote) {
-        
-        List<VoteRecord> records = voteRecordRepository.findByVoteId(vote.getId());
-        double totalArea = records.stream()
-                .filter(r -> r.getUser() != null && r.getUser().getApartmentArea() != null)
-                .mapToDouble(r -> r.getUser().getApartmentArea())
-                .sum();
-
-        String result = determineResult(vote);
-
-        return VoteTableResponse.builder()
-                .id(vote.getId())
-                .title(vote.getTitle())
-                .endTime(vote.getEndTime())
-                .status(vote.getStatus())
-                .result(result)
-                .forVotesCount(vote.getForVotesCount())
-                .againstVotesCount(vote.getAgainstVotesCount())
-                .abstentionsCount(vote.getAbstentionsCount())
-                .totalVotedArea(totalArea)
-                .build();
-    }
-
-    private String determineResult(Vote vote) {
-        if (!"Закрыто".equals(vote.getStatus())) {
-            return null;
-        }
-        Integer forVotes = vote.getForVotesCount() != null ? vote.getForVotesCount() : 0;
-        Integer againstVotes = vote.getAgainstVotesCount() != null ? vote.getAgainstVotesCount() : 0;
-        return forVotes > againstVotes ? "Принято" : "Отклонено";
-    }
-
     private String getVoteTypeDisplay(String voteType) {
         if (voteType == null)
             return null;
@@ -226,24 +197,59 @@ public class VoteService {
         };
     }
 
-    private void incrementVoteCount(Vote vote, String voteType) {
-        switch (voteType) {
-            case "FOR" -> vote.setForVotesCount((vote.getForVotesCount() != null ? vote.getForVotesCount() : 0) + 1);
-            case "AGAINST" ->
-                vote.setAgainstVotesCount((vote.getAgainstVotesCount() != null ? vote.getAgainstVotesCount() : 0) + 1);
-            case "ABSTENTION" ->
-                vote.setAbstentionsCount((vote.getAbstentionsCount() != null ? vote.getAbstentionsCount() : 0) + 1);
+    private static Update tallyChange(VoteRecord previous, String voteType, double area) {
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Double> areas = new HashMap<>();
+        VoteTally previousTally = previous != null ? VOTE_TALLIES.get(previous.getVoteType()) : null;
+        if (previousTally != null) {
+            double previousArea = areaOrZero(previous.getApartmentArea());
+            counts.merge(previousTally.countField(), -1, Integer::sum);
+            areas.merge(previousTally.areaField(), -previousArea, Double::sum);
+            areas.merge(TOTAL_VOTED_AREA, -previousArea, Double::sum);
         }
+        VoteTally tally = VOTE_TALLIES.get(voteType);
+        counts.merge(tally.countField(), 1, Integer::sum);
+        areas.merge(tally.areaField(), area, Double::sum);
+        areas.merge(TOTAL_VOTED_AREA, area, Double::sum);
+
+        Update update = new Update();
+        counts.forEach((field, delta) -> {
+            if (delta != 0) {
+                update.inc(field, delta);
+            }
+        });
+        areas.forEach((field, delta) -> {
+            if (delta != 0.0) {
+                update.inc(field, delta);
+            }
+        });
+        return update;
     }
 
-    private void decrementVoteCount(Vote vote, String voteType) {
-        switch (voteType) {
-            case "FOR" ->
-                vote.setForVotesCount(Math.max(0, (vote.getForVotesCount() != null ? vote.getForVotesCount() : 0) - 1));
-            case "AGAINST" -> vote.setAgainstVotesCount(
-                    Math.max(0, (vote.getAgainstVotesCount() != null ? vote.getAgainstVotesCount() : 0) - 1));
-            case "ABSTENTION" -> vote.setAbstentionsCount(
-                    Math.max(0, (vote.getAbstentionsCount() != null ? vote.getAbstentionsCount() : 0) - 1));
-        }
+    private VoteRecord findBallot(String voteId, String userId) {
+        return mongoTemplate.findOne(ballotQuery(voteId, userId), VoteRecord.class);
+    }
+
+    private static Query ballotQuery(String voteId, String userId) {
+        Query ballot = query(where("vote").is(referenceId(voteId)).and("user").is(referenceId(userId)));
+        ballot.fields().include("voteType").include("apartmentArea");
+        return ballot;
+    }
+
+    private static Object referenceId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static double areaOrZero(Double area) {
+        return area != null ? area : 0.0;
+    }
+
+    record VoteTableFacet(List<VoteTableResponse> rows, List<FacetTotal> total) {
+    }
+
+    record FacetTotal(Long total) {
+    }
+
+    private record VoteTally(String countField, String areaField) {
     }
 }
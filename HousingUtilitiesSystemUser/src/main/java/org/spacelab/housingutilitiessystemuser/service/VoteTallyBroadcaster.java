@@ -0,0 +1,139 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemuser.config.websocket.WebSocketConfig;
+import org.spacelab.housingutilitiessystemuser.entity.Vote;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteTallySnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteTallyBroadcaster {
+
+    public static final String VOTE_TALLY_CHANNEL = "vote:tally";
+    static final String THROTTLE_KEY_PREFIX = "vote:tally:throttle:";
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${vote.live.max-updates-per-second:2}")
+    private int maxUpdatesPerSecond;
+
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    private final Set<String> changedVotes = ConcurrentHashMap.newKeySet();
+
+
+    public void markChanged(String voteId) {
+        changedVotes.add(voteId);
+    }
+
+
+    @Scheduled(fixedDelayString = "${vote.live.flush-interval-ms:100}")
+    public void flush() {
+        if (changedVotes.isEmpty()) {
+            return;
+        }
+        List<String> permitted = new ArrayList<>();
+        for (String voteId : List.copyOf(changedVotes)) {
+            changedVotes.remove(voteId);
+            try {
+                if (acquireSlot(voteId)) {
+                    permitted.add(voteId);
+                } else {
+                    changedVotes.add(voteId);
+                }
+            } catch (Exception e) {
+                changedVotes.add(voteId);
+                log.error("❌ Failed to throttle tally update of vote {}, will retry: {}", voteId, e.getMessage());
+            }
+        }
+        if (permitted.isEmpty()) {
+            return;
+        }
+
+        Query tallies = query(where("_id").in(permitted));
+        tallies.fields().include("status", "quorumArea", "forVotesCount", "againstVotesCount", "abstentionsCount",
+                "forVotesArea", "againstVotesArea", "abstentionsArea", "totalVotedArea");
+        Date now = new Date();
+        List<Vote> votes;
+        try {
+            votes = mongoTemplate.find(tallies, Vote.class);
+        } catch (Exception e) {
+            changedVotes.addAll(permitted);
+            log.error("❌ Failed to read tallies of {} votes, will retry: {}", permitted.size(), e.getMessage());
+            return;
+        }
+        for (Vote vote : votes) {
+            if (!publish(toSnapshot(vote, now))) {
+                changedVotes.add(vote.getId());
+            }
+        }
+    }
+
+    private boolean acquireSlot(String voteId) {
+        Duration window = Duration.ofMillis(1000L / Math.max(1, maxUpdatesPerSecond));
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(THROTTLE_KEY_PREFIX + voteId, "1", window));
+    }
+
+    private boolean publish(VoteTallySnapshot snapshot) {
+        try {
+            if (WebSocketConfig.BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+                messagingTemplate.convertAndSend(VoteEventSubscriber.VOTE_TOPIC_PREFIX + snapshot.getVoteId(), snapshot);
+            } else {
+                redisTemplate.convertAndSend(VOTE_TALLY_CHANNEL, objectMapper.writeValueAsString(snapshot));
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Failed to publish tally of vote {}, will retry: {}", snapshot.getVoteId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static VoteTallySnapshot toSnapshot(Vote vote, Date now) {
+        return VoteTallySnapshot.builder()
+                .voteId(vote.getId())
+                .status(vote.getStatus())
+                .forVotesCount(countOrZero(vote.getForVotesCount()))
+                .againstVotesCount(countOrZero(vote.getAgainstVotesCount()))
+                .abstentionsCount(countOrZero(vote.getAbstentionsCount()))
+                .forVotesArea(areaOrZero(vote.getForVotesArea()))
+                .againstVotesArea(areaOrZero(vote.getAgainstVotesArea()))
+                .abstentionsArea(areaOrZero(vote.getAbstentionsArea()))
+                .totalVotedArea(areaOrZero(vote.getTotalVotedArea()))
+                .quorumArea(vote.getQuorumArea())
+                .updatedAt(now)
+                .build();
+    }
+
+    private static int countOrZero(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    private static double areaOrZero(Double area) {
+        return area != null ? area : 0.0;
+    }
+}
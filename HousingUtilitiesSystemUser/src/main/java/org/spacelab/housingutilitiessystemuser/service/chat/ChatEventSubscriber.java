@@ -3,13 +3,11 @@ package org.spacelab.housingutilitiessystemuser.service.chat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
-import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Set;
 
 
 @Service
@@ -18,7 +16,8 @@ import java.util.Optional;
 public class ChatEventSubscriber {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    private final LocalSessionRegistry localSessionRegistry;
+    private final SidebarUpdateCoalescer sidebarUpdateCoalescer;
     private final ObjectMapper objectMapper;
 
     
@@ -34,36 +33,19 @@ public class ChatEventSubscriber {
             }
 
             
-            Optional<User> userOpt = userRepository.findById(event.getTargetUserId());
-            if (userOpt.isEmpty()) {
-                log.warn("User not found for ID: {}", event.getTargetUserId());
+            Set<String> principals = localSessionRegistry.getPrincipalNames(event.getTargetUserId());
+            if (principals.isEmpty()) {
+                log.debug("User {} has no sessions on this node, skipping WebSocket notification",
+                        event.getTargetUserId());
                 return;
             }
 
-            User user = userOpt.get();
-
             
-            if (!user.isOnline()) {
-                log.debug("User {} is offline, skipping WebSocket notification", user.getLogin());
-                return;
+            for (String principal : principals) {
+                log.debug("📨 Queueing sidebar update for User {}", principal);
+                sidebarUpdateCoalescer.enqueue(principal, event);
             }
 
-            
-            String username = user.getLogin() != null ? user.getLogin() : user.getEmail();
-
-            
-            log.info("📨 Sending sidebar update to User {} via WebSocket", username);
-            messagingTemplate.convertAndSendToUser(
-                    username,
-                    "/queue/sidebar",
-                    event);
-
-            
-            
-            
-            
-            
-
         } catch (Exception e) {
             log.error("❌ Failed to handle message event from Redis: {}", e.getMessage(), e);
         }
@@ -0,0 +1,249 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageWriteBehind {
+
+    static final String SPILL_FILE_NAME = "pending-chat-messages.jsonl";
+    static final String QUARANTINE_FILE_NAME = "pending-chat-messages.quarantine.jsonl";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.write-behind.spill-dir:${user.dir}/chat-spill}")
+    private String spillDir;
+
+    private final Queue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object spillLock = new Object();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    public ChatMessage enqueue(ChatMessage message) {
+        if (message.getId() == null) {
+            message.setId(new ObjectId().toHexString());
+        }
+        PendingMessage pending = PendingMessage.from(message);
+        if (queue.size() >= queueCapacity) {
+            log.warn("⚠️ Write-behind queue full ({}), spilling message {} to disk", queueCapacity, pending.id());
+            spill(List.of(pending));
+            return message;
+        }
+
+        queue.add(pending);
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+        return message;
+    }
+
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (!enabled) {
+            return;
+        }
+        replaySpill();
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        PendingMessage next;
+        while ((next = queue.poll()) != null) {
+            batch.add(next);
+            if (batch.size() >= batchSize) {
+                writeOrSpill(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeOrSpill(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void writeOrSpill(List<PendingMessage> batch) {
+        try {
+            write(batch);
+        } catch (Exception e) {
+            log.error("❌ Bulk write of {} chat messages failed, spilling to disk: {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+
+    private void write(List<PendingMessage> batch) {
+        BulkOperations messages = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessage.class);
+        Map<String, Instant> conversationBumps = new HashMap<>();
+        for (PendingMessage pending : batch) {
+            messages.replaceOne(query(where("_id").is(pending.id())), pending.toEntity(),
+                    FindAndReplaceOptions.options().upsert());
+            conversationBumps.merge(pending.conversationId(), pending.createdAt(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+        messages.execute();
+
+        BulkOperations conversations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        conversationBumps.forEach((conversationId, updatedAt) ->
+                conversations.updateOne(query(where("_id").is(conversationId)), new Update().max("updatedAt", updatedAt)));
+        conversations.execute();
+        log.debug("💾 Persisted {} chat messages across {} conversations", batch.size(), conversationBumps.size());
+    }
+
+    private void spill(List<PendingMessage> batch) {
+        Path file = Path.of(spillDir, SPILL_FILE_NAME);
+        try {
+            List<String> lines = new ArrayList<>(batch.size());
+            for (PendingMessage pending : batch) {
+                lines.add(objectMapper.writeValueAsString(pending));
+            }
+            synchronized (spillLock) {
+                Files.createDirectories(file.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String line : lines) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("❌ Failed to spill {} chat messages to {}: {}", batch.size(), file, e.getMessage());
+        }
+    }
+
+
+    private void replaySpill() {
+        Path file = Path.of(spillDir, SPILL_FILE_NAME);
+        Path replaying = file.resolveSibling(SPILL_FILE_NAME + ".replaying");
+        if (!Files.exists(file) && !Files.exists(replaying)) {
+            return;
+        }
+        try {
+            synchronized (spillLock) {
+                if (!Files.exists(replaying)) {
+                    Files.move(file, replaying);
+                }
+            }
+            List<PendingMessage> spilled = new ArrayList<>();
+            List<String> corrupt = new ArrayList<>();
+            String content = new String(Files.readAllBytes(replaying), StandardCharsets.UTF_8);
+            for (String line : content.split("\\R")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                PendingMessage pending = parse(line);
+                if (pending == null) {
+                    corrupt.add(line);
+                } else {
+                    spilled.add(pending);
+                }
+            }
+            for (int from = 0; from < spilled.size(); from += batchSize) {
+                write(spilled.subList(from, Math.min(from + batchSize, spilled.size())));
+            }
+            if (!corrupt.isEmpty()) {
+                quarantine(corrupt);
+            }
+            Files.delete(replaying);
+            log.info("♻️ Replayed {} spilled chat messages", spilled.size());
+        } catch (Exception e) {
+            log.warn("Spilled chat messages not replayed yet, will retry: {}", e.getMessage());
+        }
+    }
+
+    private PendingMessage parse(String line) {
+        try {
+            PendingMessage pending = objectMapper.readValue(line, PendingMessage.class);
+            return pending != null && pending.id() != null && pending.conversationId() != null ? pending : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void quarantine(List<String> lines) throws IOException {
+        Path file = Path.of(spillDir, QUARANTINE_FILE_NAME);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        log.error("❌ Moved {} unreadable spilled chat messages to {}", lines.size(), file);
+    }
+
+    record PendingMessage(String id, String conversationId, String content, String senderId, String senderType,
+            Instant createdAt) {
+
+        static PendingMessage from(ChatMessage message) {
+            return new PendingMessage(message.getId(), message.getConversation().getId(), message.getContent(),
+                    message.getSenderId(), message.getSenderType(), message.getCreatedAt());
+        }
+
+        ChatMessage toEntity() {
+            return ChatMessage.builder()
+                    .id(id)
+                    .conversation(Conversation.builder().id(conversationId).build())
+                    .content(content)
+                    .senderId(senderId)
+                    .senderType(senderType)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+}
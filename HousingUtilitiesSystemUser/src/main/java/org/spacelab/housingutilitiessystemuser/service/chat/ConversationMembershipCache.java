@@ -0,0 +1,92 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.spacelab.housingutilitiessystemuser.repository.chat.ConversationRepository;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationMembershipCache {
+
+    static final String MEMBERSHIP_KEY_PREFIX = "chat:membership:";
+    static final String SESSION_ATTRIBUTE = "chat.conversationMemberships";
+    static final Duration MEMBERSHIP_TTL = Duration.ofHours(12);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConversationRepository conversationRepository;
+
+
+    public boolean isMember(String userId, String conversationId) {
+        return isMember(userId, conversationId, null);
+    }
+
+
+    public boolean isMember(String userId, String conversationId, Map<String, Object> sessionAttributes) {
+        if (userId == null || conversationId == null) {
+            return false;
+        }
+        Set<String> sessionMemberships = sessionMemberships(sessionAttributes);
+        if (sessionMemberships != null && sessionMemberships.contains(conversationId)) {
+            return true;
+        }
+
+        boolean member = isCachedMember(userId, conversationId)
+                || loadMembership(userId, conversationId);
+        if (member && sessionMemberships != null) {
+            sessionMemberships.add(conversationId);
+        }
+        return member;
+    }
+
+
+    public void remember(String userId, String conversationId) {
+        try {
+            String key = MEMBERSHIP_KEY_PREFIX + userId;
+            redisTemplate.opsForSet().add(key, conversationId);
+            redisTemplate.expire(key, MEMBERSHIP_TTL);
+        } catch (Exception e) {
+            log.warn("Failed to cache membership of {} in {}: {}", userId, conversationId, e.getMessage());
+        }
+    }
+
+
+    public void addConversation(String conversationId, Collection<String> participantIds) {
+        participantIds.forEach(participantId -> remember(participantId, conversationId));
+    }
+
+    private boolean isCachedMember(String userId, String conversationId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(MEMBERSHIP_KEY_PREFIX + userId, conversationId));
+        } catch (Exception e) {
+            log.warn("Membership cache unavailable, falling back to MongoDB: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean loadMembership(String userId, String conversationId) {
+        boolean member = conversationRepository.existsByIdAndParticipantsId(conversationId, userId);
+        if (member) {
+            remember(userId, conversationId);
+        }
+        return member;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> sessionMemberships(Map<String, Object> sessionAttributes) {
+        if (sessionAttributes == null) {
+            return null;
+        }
+        return (Set<String>) sessionAttributes.computeIfAbsent(SESSION_ATTRIBUTE,
+                key -> ConcurrentHashMap.newKeySet());
+    }
+}
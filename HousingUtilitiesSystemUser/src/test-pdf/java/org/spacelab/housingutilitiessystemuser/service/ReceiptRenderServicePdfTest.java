@@ -0,0 +1,75 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReceiptRenderService PDF Tests")
+class ReceiptRenderServicePdfTest {
+
+    private static final Path FONT = Path.of(System.getProperty("receipt.pdf.test-font",
+            "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf"));
+
+    private static final ReceiptRenderService.ReceiptPrint PRINT = new ReceiptRenderService.ReceiptPrint(
+            "receipt-1", "R-202510-1", "202510-ACC-1", "01.10.2025", "06.10.2025",
+            "Иванов Иван Иванович", "ACC-1", "ул. Центральная, д. 1, кв. 5");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path cacheDir;
+
+    private ReceiptRenderService receiptRenderService;
+
+    @BeforeEach
+    void setUp() {
+        receiptRenderService = new ReceiptRenderService(mongoTemplate, Runnable::run);
+        ReflectionTestUtils.setField(receiptRenderService, "cacheDir", cacheDir);
+        ReflectionTestUtils.setField(receiptRenderService, "pdfEnabled", true);
+    }
+
+    @Test
+    @DisplayName("Should render a PDF with the Cyrillic text of the receipt through the real converter")
+    void render_shouldEmbedCyrillicText() throws Exception {
+        assumeTrue(Files.isReadable(FONT), "Font " + FONT + " is not installed");
+        ReflectionTestUtils.setField(receiptRenderService, "pdfFont", FONT.toString());
+        receiptRenderService.compileTemplate();
+
+        Path pdf = receiptRenderService.renderAsync(PRINT).join();
+
+        assertThat(pdf.getFileName().toString()).endsWith(".pdf");
+        try (PDDocument document = PDDocument.load(pdf.toFile())) {
+            assertThat(new PDFTextStripper().getText(document))
+                    .contains("Квитанция", "Иванов Иван Иванович", "ул. Центральная");
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to HTML when no PDF font is configured")
+    void render_shouldFallBackToHtmlWithoutFont() throws Exception {
+        ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "");
+        receiptRenderService.compileTemplate();
+
+        Path html = receiptRenderService.renderAsync(PRINT).join();
+
+        assertThat(html.getFileName().toString()).endsWith(".html");
+        assertThat(Files.readString(html, StandardCharsets.UTF_8)).contains("Иванов Иван Иванович");
+    }
+}
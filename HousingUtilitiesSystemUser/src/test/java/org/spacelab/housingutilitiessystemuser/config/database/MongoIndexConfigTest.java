@@ -0,0 +1,82 @@
+package org.spacelab.housingutilitiessystemuser.config.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.entity.VoteRecord;
+import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MongoIndexConfig Tests")
+class MongoIndexConfigTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final Map<Class<?>, IndexOperations> indexOps = new HashMap<>();
+
+    private MongoIndexConfig mongoIndexConfig;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.indexOps(any(Class.class))).thenAnswer(invocation ->
+                indexOps.computeIfAbsent(invocation.getArgument(0), type -> mock(IndexOperations.class)));
+        mongoIndexConfig = new MongoIndexConfig(mongoTemplate);
+    }
+
+    private List<Object> createdIndexNames(Class<?> entityClass) {
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps.get(entityClass), atLeastOnce()).createIndex(indexes.capture());
+        return indexes.getAllValues().stream().map(index -> index.getIndexOptions().get("name")).toList();
+    }
+
+    @Test
+    @DisplayName("Should create only the listed indexes of each entity")
+    void ensureIndexes_shouldCreateListedIndexes() {
+        mongoIndexConfig.ensureIndexes();
+
+        assertThat(indexOps).containsOnlyKeys(MongoIndexConfig.INDEXES.keySet());
+        MongoIndexConfig.INDEXES.forEach((entityClass, names) ->
+                assertThat(createdIndexNames(entityClass)).containsExactlyInAnyOrderElementsOf(names));
+        assertThat(createdIndexNames(Conversation.class)).doesNotContain("messages");
+        assertThat(createdIndexNames(User.class)).containsExactly("bills");
+    }
+
+    @Test
+    @DisplayName("Should keep creating the other indexes when one of them fails")
+    void ensureIndexes_shouldSurviveFailedIndex() {
+        IndexOperations voteRecordIndexes = mock(IndexOperations.class);
+        indexOps.put(VoteRecord.class, voteRecordIndexes);
+        when(voteRecordIndexes.createIndex(argThat(index -> "vote_user".equals(index.getIndexOptions().get("name")))))
+                .thenThrow(new UncategorizedMongoDbException("E11000 duplicate key error", null));
+
+        mongoIndexConfig.ensureIndexes();
+
+        assertThat(createdIndexNames(User.class)).containsExactly("bills");
+    }
+}
@@ -0,0 +1,93 @@
+package org.spacelab.housingutilitiessystemuser.config.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.tcp.ReconnectStrategy;
+import org.springframework.messaging.tcp.TcpConnectionHandler;
+import org.springframework.messaging.tcp.TcpOperations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("WebSocketConfig Tests")
+class WebSocketConfigTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(WebSocketConfig.class, StubRelayTransport.class)
+            .withBean(ChatSubscriptionInterceptor.class, () -> mock(ChatSubscriptionInterceptor.class));
+
+    @Test
+    @DisplayName("Should relay broker destinations to the configured external broker in relay mode")
+    void relayMode_shouldLoadBrokerRelay() {
+        contextRunner
+                .withPropertyValues("chat.broker.mode=relay", "chat.broker.relay.host=broker.internal",
+                        "chat.broker.relay.port=61614", "chat.broker.relay.system-login=housing",
+                        "chat.broker.relay.virtual-host=/housing")
+                .run(context -> {
+                    assertThat(context).hasNotFailed().doesNotHaveBean(SimpleBrokerMessageHandler.class);
+                    StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+                    assertThat(relay.getRelayHost()).isEqualTo("broker.internal");
+                    assertThat(relay.getRelayPort()).isEqualTo(61614);
+                    assertThat(relay.getSystemLogin()).isEqualTo("housing");
+                    assertThat(relay.getVirtualHost()).isEqualTo("/housing");
+                    assertThat(relay.getDestinationPrefixes()).containsExactlyInAnyOrder("/topic", "/queue");
+                    assertThat(relay.isRunning()).isTrue();
+                    assertThat(((StubTcpClient) relay.getTcpClient()).connects).hasPositiveValue();
+                });
+    }
+
+    @Test
+    @DisplayName("Should keep the in-memory broker when relay mode is off")
+    void simpleMode_shouldLoadSimpleBroker() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed()
+                    .hasSingleBean(SimpleBrokerMessageHandler.class)
+                    .doesNotHaveBean(StompBrokerRelayMessageHandler.class);
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class StubRelayTransport {
+        @Bean
+        static BeanPostProcessor stubRelayTcpClient() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof StompBrokerRelayMessageHandler relay) {
+                        relay.setTcpClient(new StubTcpClient());
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class StubTcpClient implements TcpOperations<byte[]> {
+        private final AtomicInteger connects = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler) {
+            connects.incrementAndGet();
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler, ReconnectStrategy strategy) {
+            return connectAsync(handler);
+        }
+
+        @Override
+        public CompletableFuture<Void> shutdownAsync() {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
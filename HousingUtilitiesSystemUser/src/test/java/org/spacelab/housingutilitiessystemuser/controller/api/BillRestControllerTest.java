@@ -0,0 +1,136 @@
+package org.spacelab.housingutilitiessystemuser.controller.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.Bill;
+import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.service.BillService;
+import org.spacelab.housingutilitiessystemuser.service.ReceiptRenderService;
+import org.spacelab.housingutilitiessystemuser.service.UserService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BillRestController Tests")
+class BillRestControllerTest {
+
+    private static final String EMAIL = "owner@example.com";
+
+    @Mock
+    private BillService billService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ReceiptRenderService receiptRenderService;
+
+    @InjectMocks
+    private BillRestController billRestController;
+
+    @TempDir
+    private Path cacheDir;
+
+    private User currentUser;
+
+    @BeforeEach
+    void setUp() {
+        currentUser = new User();
+        currentUser.setId("user-1");
+        UserDetails principal = org.springframework.security.core.userdetails.User.withUsername(EMAIL)
+                .password("secret")
+                .roles("USER")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        when(userService.findByEmail(EMAIL)).thenReturn(Optional.of(currentUser));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Bill bill(String owner) {
+        Bill bill = new Bill();
+        bill.setId("bill-1");
+        bill.setOwner(owner);
+        return bill;
+    }
+
+    @Nested
+    @DisplayName("Print Receipt")
+    class PrintReceipt {
+        @Test
+        @DisplayName("Should forbid printing the receipt of a bill owned by another user")
+        void printReceipt_shouldForbidForeignBill() {
+            when(billService.findById("bill-1")).thenReturn(Optional.of(bill("user-2")));
+
+            ResponseEntity<Resource> response = billRestController.printReceipt("bill-1");
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+            assertThat(response.getBody()).isNull();
+            verifyNoInteractions(receiptRenderService);
+        }
+
+        @Test
+        @DisplayName("Should report an unknown bill as not found")
+        void printReceipt_shouldReturnNotFoundForUnknownBill() {
+            when(billService.findById("bill-1")).thenReturn(Optional.empty());
+
+            ResponseEntity<Resource> response = billRestController.printReceipt("bill-1");
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+            verifyNoInteractions(receiptRenderService);
+        }
+
+        @Test
+        @DisplayName("Should serve the owner's receipt with its version as the ETag")
+        void printReceipt_shouldServeOwnReceipt() throws Exception {
+            Path pdf = Files.writeString(cacheDir.resolve("abc123.pdf"), "%PDF");
+            when(billService.findById("bill-1")).thenReturn(Optional.of(bill("user-1")));
+            when(receiptRenderService.renderLatestForBill("bill-1")).thenReturn(pdf);
+
+            ResponseEntity<Resource> response = billRestController.printReceipt("bill-1");
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"abc123\"");
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PDF);
+        }
+
+        @Test
+        @DisplayName("Should render again when a concurrent render pruned the file it was handed")
+        void printReceipt_shouldRenderAgainWhenFileWasPruned() throws Exception {
+            Path pruned = cacheDir.resolve("old.html");
+            Path current = Files.writeString(cacheDir.resolve("new.html"), "<html/>");
+            when(billService.findById("bill-1")).thenReturn(Optional.of(bill("user-1")));
+            when(receiptRenderService.renderLatestForBill("bill-1")).thenReturn(pruned, current);
+
+            ResponseEntity<Resource> response = billRestController.printReceipt("bill-1");
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"new\"");
+            verify(receiptRenderService, times(2)).renderLatestForBill("bill-1");
+        }
+    }
+}
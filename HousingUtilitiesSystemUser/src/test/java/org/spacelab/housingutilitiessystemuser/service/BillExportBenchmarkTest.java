@@ -0,0 +1,128 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.Bill;
+import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.repository.BillRepository;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retained heap of the streaming bill export from 100 to 1,000,000 rows.
+ * Run with {@code mvn test -Dtest=BillExportBenchmarkTest -Dbill.export.benchmark=true}.
+ */
+@ExtendWith(MockitoExtension.class)
+@EnabledIfSystemProperty(named = "bill.export.benchmark", matches = "true")
+@DisplayName("Bill Export Benchmark")
+@Slf4j
+class BillExportBenchmarkTest {
+
+    private static final int SAMPLE_EVERY = 50_000;
+    private static final long MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+
+    @Mock
+    private BillRepository billRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private BillService billService;
+
+    private User user;
+
+    private long peakRetained;
+
+    @BeforeEach
+    void setUp() {
+        billService = new BillService(billRepository, mongoTemplate);
+        ReflectionTestUtils.setField(billService, "exportBatchSize", 500);
+        user = new User();
+        user.setId("user-id");
+    }
+
+    private void stubRows(int rows, long baseline) {
+        peakRetained = 0;
+        when(mongoTemplate.stream(any(Query.class), eq(Bill.class))).thenAnswer(invocation ->
+                IntStream.range(0, rows).mapToObj(i -> {
+                    if (i % SAMPLE_EVERY == 0 || i == rows - 1) {
+                        peakRetained = Math.max(peakRetained, retainedHeap() - baseline);
+                    }
+                    Bill bill = new Bill();
+                    bill.setId("bill-" + i);
+                    bill.setBillNumber("BILL-" + i);
+                    bill.setDate(LocalDate.of(2000, 1, 1).plusDays(i % 10_000));
+                    return bill;
+                }));
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @ParameterizedTest(name = "XLSX, {0} rows")
+    @ValueSource(ints = {100, 10_000, 100_000, 1_000_000})
+    void writeXlsx_shouldKeepHeapFlat(int rows) throws IOException {
+        stubRows(rows, retainedHeap());
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+
+        billService.writeXlsx(user, null, null, null, out);
+
+        report("XLSX", rows, out.count, start);
+        assertThat(peakRetained).isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    @ParameterizedTest(name = "CSV, {0} rows")
+    @ValueSource(ints = {100, 10_000, 100_000, 1_000_000})
+    void writeCsv_shouldKeepHeapFlat(int rows) throws IOException {
+        stubRows(rows, retainedHeap());
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+
+        billService.writeCsv(user, null, null, null, out);
+
+        report("CSV", rows, out.count, start);
+        assertThat(peakRetained).isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    private void report(String format, int rows, long bytes, long start) {
+        assertThat(bytes).isPositive();
+        log.info("📊 {} export of {} rows: {} ms, {} bytes written, {} KB peak retained heap",
+                format, rows, (System.nanoTime() - start) / 1_000_000, bytes, peakRetained / 1024);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
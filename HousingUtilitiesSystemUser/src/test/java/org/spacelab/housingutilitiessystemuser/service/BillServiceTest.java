@@ -1,27 +1,49 @@
 package org.spacelab.housingutilitiessystemuser.service;
 
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.spacelab.housingutilitiessystemuser.entity.Bill;
 import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.exception.OperationException;
+import org.spacelab.housingutilitiessystemuser.models.bill.BillPageResponse;
 import org.spacelab.housingutilitiessystemuser.repository.BillRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +53,12 @@ class BillServiceTest {
     @Mock
     private BillRepository billRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
     @InjectMocks
     private BillService billService;
 
@@ -43,223 +71,160 @@ class BillServiceTest {
         testBill.setId("bill-id");
         testBill.setBillNumber("BILL-001");
         testBill.setDate(LocalDate.now());
+        testBill.setOwner("user-id");
 
         testUser = new User();
         testUser.setId("user-id");
         testUser.setEmail("test@test.com");
         testUser.setBills(new ArrayList<>(List.of(testBill)));
+
+        ReflectionTestUtils.setField(billService, "backfillBatchSize", 50);
+        ReflectionTestUtils.setField(billService, "backfillRecheckAfter", Duration.ofHours(24));
+    }
+
+    private Bill bill(String id, LocalDate date) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber("BILL-" + id);
+        bill.setDate(date);
+        bill.setOwner("user-id");
+        return bill;
+    }
+
+    private Query capturePageQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Bill.class));
+        return query.getValue();
     }
 
     @Nested
     @DisplayName("Find By User With Filters")
     class FindByUserWithFilters {
         @Test
-        @DisplayName("Should return bills for user without filters")
-        void findByUserWithFilters_shouldReturnBills() {
-            Pageable pageable = PageRequest.of(0, 10);
+        @DisplayName("Should read one page of the owner's bills ordered by date and id")
+        void findByUserWithFilters_shouldQueryOwnerPage() {
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>(List.of(testBill)));
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, null, pageable);
+            BillPageResponse result = billService.findByUserWithFilters(testUser, null, null, null, null, 10);
 
-            assertThat(result.getContent()).hasSize(1);
-            assertThat(result.getContent().get(0).getBillNumber()).isEqualTo("BILL-001");
+            assertThat(result.getContent()).containsExactly(testBill);
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+            Query query = capturePageQuery();
+            assertThat(query.getQueryObject()).isEqualTo(new Document("owner", "user-id"));
+            assertThat(query.getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+            assertThat(query.getLimit()).isEqualTo(11);
         }
 
         @Test
         @DisplayName("Should return empty page for null user")
         void findByUserWithFilters_shouldReturnEmptyForNullUser() {
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(null, null, null, null, pageable);
+            BillPageResponse result = billService.findByUserWithFilters(null, null, null, null, null, 10);
 
             assertThat(result.getContent()).isEmpty();
+            assertThat(result.isHasNext()).isFalse();
+            verifyNoInteractions(mongoTemplate);
         }
 
         @Test
-        @DisplayName("Should return empty page for user without bills")
-        void findByUserWithFilters_shouldReturnEmptyForNoBills() {
-            testUser.setBills(null);
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, null, pageable);
-
-            assertThat(result.getContent()).isEmpty();
-        }
-
-        @Test
-        @DisplayName("Should return empty page for user with empty bills list")
-        void findByUserWithFilters_shouldReturnEmptyForEmptyBillsList() {
-            testUser.setBills(new ArrayList<>());
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, null, pageable);
-
-            assertThat(result.getContent()).isEmpty();
-        }
-
-        @Test
-        @DisplayName("Should filter by bill number")
+        @DisplayName("Should match bill number as a case insensitive literal substring")
         void findByUserWithFilters_shouldFilterByBillNumber() {
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "BILL", null, null, pageable);
-
-            assertThat(result.getContent()).hasSize(1);
-        }
-
-        @Test
-        @DisplayName("Should filter by bill number case insensitive")
-        void findByUserWithFilters_shouldFilterByBillNumberCaseInsensitive() {
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "bill", null, null, pageable);
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            assertThat(result.getContent()).hasSize(1);
-        }
+            billService.findByUserWithFilters(testUser, " bill.1 ", null, null, null, 10);
 
-        @Test
-        @DisplayName("Should filter out non-matching bill number")
-        void findByUserWithFilters_shouldFilterOutNonMatching() {
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "INVOICE", null, null, pageable);
-
-            assertThat(result.getContent()).isEmpty();
+            Pattern pattern = (Pattern) capturePageQuery().getQueryObject().get("billNumber");
+            assertThat(pattern.matcher("BILL.1-2024").find()).isTrue();
+            assertThat(pattern.matcher("BILLX1").find()).isFalse();
         }
 
         @Test
-        @DisplayName("Should handle empty string bill number filter")
+        @DisplayName("Should ignore a blank bill number filter")
         void findByUserWithFilters_shouldHandleEmptyBillNumber() {
-            Pageable pageable = PageRequest.of(0, 10);
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "   ", null, null, pageable);
+            billService.findByUserWithFilters(testUser, "   ", null, null, null, 10);
 
-            assertThat(result.getContent()).hasSize(1); // Empty string should not filter
+            assertThat(capturePageQuery().getQueryObject()).doesNotContainKey("billNumber");
         }
 
         @Test
-        @DisplayName("Should handle bill with null billNumber")
-        void findByUserWithFilters_shouldHandleNullBillNumber() {
-            testBill.setBillNumber(null);
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "BILL", null, null, pageable);
-
-            assertThat(result.getContent()).isEmpty(); // Should filter out null billNumber
-        }
-
-        @Test
-        @DisplayName("Should filter by start date")
-        void findByUserWithFilters_shouldFilterByStartDate() {
-            LocalDate startDate = LocalDate.now().minusDays(7);
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, startDate, null, pageable);
-
-            assertThat(result.getContent()).hasSize(1);
-        }
-
-        @Test
-        @DisplayName("Should filter out before start date")
-        void findByUserWithFilters_shouldFilterOutBeforeStartDate() {
-            LocalDate startDate = LocalDate.now().plusDays(1);
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, startDate, null, pageable);
-
-            assertThat(result.getContent()).isEmpty();
-        }
-
-        @Test
-        @DisplayName("Should filter by end date")
-        void findByUserWithFilters_shouldFilterByEndDate() {
-            LocalDate endDate = LocalDate.now().plusDays(1);
-            Pageable pageable = PageRequest.of(0, 10);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, endDate, pageable);
-
-            assertThat(result.getContent()).hasSize(1);
-        }
-
-        @Test
-        @DisplayName("Should filter out after end date")
-        void findByUserWithFilters_shouldFilterOutAfterEndDate() {
-            LocalDate endDate = LocalDate.now().minusDays(1);
-            Pageable pageable = PageRequest.of(0, 10);
+        @DisplayName("Should filter by date range while keeping undated bills")
+        void findByUserWithFilters_shouldFilterByDateRange() {
+            LocalDate startDate = LocalDate.of(2024, 1, 1);
+            LocalDate endDate = LocalDate.of(2024, 12, 31);
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, endDate, pageable);
+            billService.findByUserWithFilters(testUser, null, startDate, endDate, null, 10);
 
-            assertThat(result.getContent()).isEmpty();
+            assertThat(capturePageQuery().getQueryObject().get("$or", List.class)).containsExactly(
+                    new Document("date", null),
+                    new Document("date", new Document("$gte", startDate).append("$lte", endDate)));
         }
 
         @Test
-        @DisplayName("Should filter by date range")
-        void findByUserWithFilters_shouldFilterByDateRange() {
-            LocalDate startDate = LocalDate.now().minusDays(7);
-            LocalDate endDate = LocalDate.now().plusDays(1);
-            Pageable pageable = PageRequest.of(0, 10);
+        @DisplayName("Should fetch one extra bill to issue a continuation token")
+        void findByUserWithFilters_shouldReturnNextCursor() {
+            LocalDate date = LocalDate.of(2024, 5, 1);
+            List<Bill> bills = List.of(bill("b3", date), bill("b2", date), bill("b1", date.minusMonths(1)));
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>(bills));
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, startDate, endDate, pageable);
+            BillPageResponse result = billService.findByUserWithFilters(testUser, null, null, null, null, 2);
 
-            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getContent()).extracting(Bill::getId).containsExactly("b3", "b2");
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(result.getNextCursor()).isEqualTo(BillService.encodeCursor(bills.get(1)));
         }
 
         @Test
-        @DisplayName("Should handle bill with null date")
-        void findByUserWithFilters_shouldHandleNullDate() {
-            testBill.setDate(null);
-            LocalDate startDate = LocalDate.now().minusDays(7);
-            Pageable pageable = PageRequest.of(0, 10);
+        @DisplayName("Should continue after the cursor bill, then into undated bills")
+        void findByUserWithFilters_shouldContinueAfterCursor() {
+            LocalDate date = LocalDate.of(2024, 5, 1);
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, startDate, null, pageable);
+            billService.findByUserWithFilters(testUser, null, null, null, BillService.encodeCursor(bill("b2", date)), 2);
 
-            // Null date bills should pass date filters (no comparison possible)
-            assertThat(result.getContent()).hasSize(1);
+            Document keyset = (Document) capturePageQuery().getQueryObject().get("$and", List.class).get(0);
+            assertThat(keyset.get("$or", List.class)).containsExactly(
+                    new Document("date", new Document("$lt", date)),
+                    new Document("date", date).append("_id", new Document("$lt", "b2")),
+                    new Document("date", null));
         }
 
         @Test
-        @DisplayName("Should return empty when start offset exceeds size")
-        void findByUserWithFilters_shouldReturnEmptyWhenStartExceedsSize() {
-            Pageable pageable = PageRequest.of(10, 10); // Offset 100, but only 1 bill
+        @DisplayName("Should continue among undated bills by id")
+        void findByUserWithFilters_shouldContinueAfterUndatedCursor() {
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, null, pageable);
+            billService.findByUserWithFilters(testUser, null, null, null, BillService.encodeCursor(bill("b0", null)), 2);
 
-            assertThat(result.getContent()).isEmpty();
-            assertThat(result.getTotalElements()).isEqualTo(1);
+            Document keyset = (Document) capturePageQuery().getQueryObject().get("$and", List.class).get(0);
+            assertThat(keyset.get("$and", List.class)).containsExactly(
+                    new Document("date", null),
+                    new Document("_id", new Document("$lt", "b0")));
         }
 
         @Test
-        @DisplayName("Should return properly paged results")
-        void findByUserWithFilters_shouldReturnPagedResults() {
-            // Add more bills
-            Bill bill2 = new Bill();
-            bill2.setId("bill-2");
-            bill2.setBillNumber("BILL-002");
-            bill2.setDate(LocalDate.now().minusDays(1));
-
-            Bill bill3 = new Bill();
-            bill3.setId("bill-3");
-            bill3.setBillNumber("BILL-003");
-            bill3.setDate(LocalDate.now().minusDays(2));
-
-            testUser.setBills(new ArrayList<>(List.of(testBill, bill2, bill3)));
-            Pageable pageable = PageRequest.of(0, 2);
-
-            Page<Bill> result = billService.findByUserWithFilters(testUser, null, null, null, pageable);
-
-            assertThat(result.getContent()).hasSize(2);
-            assertThat(result.getTotalElements()).isEqualTo(3);
+        @DisplayName("Should reject a malformed continuation token")
+        void findByUserWithFilters_shouldRejectInvalidCursor() {
+            assertThatThrownBy(() -> billService.findByUserWithFilters(testUser, null, null, null, "%%%", 10))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+            String noId = Base64.getUrlEncoder().encodeToString("19000:".getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> billService.findByUserWithFilters(testUser, null, null, null, noId, 10))
+                    .isInstanceOf(OperationException.class);
+            verifyNoInteractions(mongoTemplate);
         }
 
         @Test
-        @DisplayName("Should apply combined filters")
-        void findByUserWithFilters_shouldApplyCombinedFilters() {
-            LocalDate startDate = LocalDate.now().minusDays(7);
-            LocalDate endDate = LocalDate.now().plusDays(1);
-            Pageable pageable = PageRequest.of(0, 10);
+        @DisplayName("Should clamp the page size")
+        void findByUserWithFilters_shouldClampPageSize() {
+            when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(new ArrayList<>());
 
-            Page<Bill> result = billService.findByUserWithFilters(testUser, "BILL", startDate, endDate, pageable);
+            BillPageResponse result = billService.findByUserWithFilters(testUser, null, null, null, null, 10_000);
 
-            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getSize()).isEqualTo(BillService.MAX_PAGE_SIZE);
+            assertThat(capturePageQuery().getLimit()).isEqualTo(BillService.MAX_PAGE_SIZE + 1);
         }
     }
 
@@ -314,138 +279,145 @@ class BillServiceTest {
     }
 
     @Nested
-    @DisplayName("Generate Excel")
-    class GenerateExcel {
-        @Test
-        @DisplayName("Should generate excel for bills")
-        void generateExcel_shouldGenerateBytes() throws IOException {
-            byte[] result = billService.generateExcel(List.of(testBill));
-
-            assertThat(result).isNotNull();
-            assertThat(result.length).isGreaterThan(0);
+    @DisplayName("Export")
+    class Export {
+        private void stubCursor(Bill... bills) {
+            when(mongoTemplate.stream(any(Query.class), eq(Bill.class))).thenReturn(Stream.of(bills));
         }
 
         @Test
-        @DisplayName("Should generate empty excel for empty list")
-        void generateExcel_shouldGenerateEmptyExcel() throws IOException {
-            byte[] result = billService.generateExcel(List.of());
-
-            assertThat(result).isNotNull();
-        }
-
-        @Test
-        @DisplayName("Should handle null values gracefully")
-        void generateExcel_shouldHandleNullValues() throws IOException {
-            Bill nullBill = new Bill();
-            nullBill.setBillNumber(null);
-            nullBill.setDate(null);
+        @DisplayName("Should stream the owner's filtered bills through a projected cursor")
+        void export_shouldStreamOwnerBills() throws IOException {
+            stubCursor(testBill);
+            ReflectionTestUtils.setField(billService, "exportBatchSize", 250);
 
-            byte[] result = billService.generateExcel(List.of(nullBill));
+            billService.writeCsv(testUser, "BILL", null, null, new ByteArrayOutputStream());
 
-            assertThat(result).isNotNull();
+            ArgumentCaptor<Query> cursor = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).stream(cursor.capture(), eq(Bill.class));
+            assertThat(cursor.getValue().getQueryObject()).containsEntry("owner", "user-id").containsKey("billNumber");
+            assertThat(cursor.getValue().getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+            assertThat(cursor.getValue().getFieldsObject()).containsOnlyKeys("billNumber", "date");
+            assertThat(cursor.getValue().getMeta().getCursorBatchSize()).isEqualTo(250);
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Bill.class));
         }
 
         @Test
-        @DisplayName("Should generate excel with multiple bills")
-        void generateExcel_shouldHandleMultipleBills() throws IOException {
-            Bill bill2 = new Bill();
-            bill2.setId("bill-2");
-            bill2.setBillNumber("BILL-002");
-            bill2.setDate(LocalDate.now().minusDays(1));
-
-            byte[] result = billService.generateExcel(List.of(testBill, bill2));
-
-            assertThat(result).isNotNull();
-            assertThat(result.length).isGreaterThan(0);
-        }
-    }
-
-    @Nested
-    @DisplayName("Get Filtered Bills")
-    class GetFilteredBills {
-        @Test
-        @DisplayName("Should get filtered bills without pagination")
-        void getFilteredBills_shouldReturnFilteredBills() {
-            List<Bill> result = billService.getFilteredBills(testUser, null, null, null);
-
-            assertThat(result).hasSize(1);
-        }
-
-        @Test
-        @DisplayName("Should return empty for null user")
-        void getFilteredBills_shouldReturnEmptyForNullUser() {
-            List<Bill> result = billService.getFilteredBills(null, null, null, null);
-
-            assertThat(result).isEmpty();
-        }
+        @DisplayName("Should write an XLSX sheet with fixed column widths")
+        void writeXlsx_shouldWriteRows() throws IOException {
+            Bill nullBill = new Bill();
+            stubCursor(testBill, nullBill);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-        @Test
-        @DisplayName("Should return empty for user with null bills")
-        void getFilteredBills_shouldReturnEmptyForNullBills() {
-            testUser.setBills(null);
-            List<Bill> result = billService.getFilteredBills(testUser, null, null, null);
+            billService.writeXlsx(testUser, null, null, null, out);
 
-            assertThat(result).isEmpty();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                Sheet sheet = workbook.getSheetAt(0);
+                assertThat(sheet.getLastRowNum()).isEqualTo(2);
+                assertThat(sheet.getRow(0).getCell(1).getStringCellValue()).isEqualTo("№ Квитанции");
+                assertThat(sheet.getRow(1).getCell(0).getNumericCellValue()).isEqualTo(1);
+                assertThat(sheet.getRow(1).getCell(1).getStringCellValue()).isEqualTo("BILL-001");
+                assertThat(sheet.getRow(2).getCell(2).getStringCellValue()).isEmpty();
+                assertThat(sheet.getColumnWidth(1)).isEqualTo(24 * 256);
+            }
         }
 
         @Test
-        @DisplayName("Should return empty for user with empty bills")
-        void getFilteredBills_shouldReturnEmptyForEmptyBills() {
-            testUser.setBills(new ArrayList<>());
-            List<Bill> result = billService.getFilteredBills(testUser, null, null, null);
+        @DisplayName("Should write only the header for a null user")
+        void writeXlsx_shouldWriteHeaderForNullUser() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-            assertThat(result).isEmpty();
-        }
-
-        @Test
-        @DisplayName("Should filter by bill number")
-        void getFilteredBills_shouldFilterByBillNumber() {
-            List<Bill> result = billService.getFilteredBills(testUser, "BILL", null, null);
+            billService.writeXlsx(null, null, null, null, out);
 
-            assertThat(result).hasSize(1);
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                assertThat(workbook.getSheetAt(0).getLastRowNum()).isZero();
+            }
+            verifyNoInteractions(mongoTemplate);
         }
 
         @Test
-        @DisplayName("Should filter out non-matching")
-        void getFilteredBills_shouldFilterOutNonMatching() {
-            List<Bill> result = billService.getFilteredBills(testUser, "INVOICE", null, null);
-
-            assertThat(result).isEmpty();
-        }
+        @DisplayName("Should write a UTF-8 CSV with a BOM, quoting values that need it")
+        void writeCsv_shouldWriteRows() throws IOException {
+            Bill quoted = bill("b2", LocalDate.of(2024, 3, 5));
+            quoted.setBillNumber("A;\"1\"");
+            stubCursor(testBill, quoted);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-        @Test
-        @DisplayName("Should handle null bill number in entity")
-        void getFilteredBills_shouldHandleNullBillNumberInEntity() {
-            testBill.setBillNumber(null);
-            List<Bill> result = billService.getFilteredBills(testUser, "BILL", null, null);
+            billService.writeCsv(testUser, null, null, null, out);
 
-            assertThat(result).isEmpty();
+            List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+            assertThat(lines).hasSize(3);
+            assertThat(lines.get(0)).isEqualTo("\uFEFF№ п/п;№ Квитанции;Дата");
+            assertThat(lines.get(1)).startsWith("1;BILL-001;");
+            assertThat(lines.get(2)).isEqualTo("2;\"A;\"\"1\"\"\";05.03.2024");
         }
 
         @Test
-        @DisplayName("Should filter by start date")
-        void getFilteredBills_shouldFilterByStartDate() {
-            LocalDate startDate = LocalDate.now().minusDays(7);
-            List<Bill> result = billService.getFilteredBills(testUser, null, startDate, null);
-
-            assertThat(result).hasSize(1);
+        @DisplayName("Should escape only values containing separators, quotes or line breaks")
+        void csvValue_shouldEscape() {
+            assertThat(BillService.csvValue(null)).isEmpty();
+            assertThat(BillService.csvValue("BILL-001")).isEqualTo("BILL-001");
+            assertThat(BillService.csvValue("a;b")).isEqualTo("\"a;b\"");
+            assertThat(BillService.csvValue("line\nbreak")).isEqualTo("\"line\nbreak\"");
         }
 
         @Test
-        @DisplayName("Should filter by end date")
-        void getFilteredBills_shouldFilterByEndDate() {
-            LocalDate endDate = LocalDate.now().plusDays(1);
-            List<Bill> result = billService.getFilteredBills(testUser, null, null, endDate);
-
-            assertThat(result).hasSize(1);
+        @DisplayName("Should neutralize values that spreadsheets would run as formulas")
+        void csvValue_shouldPrefixFormulaValues() {
+            assertThat(BillService.csvValue("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+            assertThat(BillService.csvValue("+1")).isEqualTo("'+1");
+            assertThat(BillService.csvValue("-1")).isEqualTo("'-1");
+            assertThat(BillService.csvValue("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+            assertThat(BillService.csvValue("\tcmd")).isEqualTo("'\tcmd");
+            assertThat(BillService.csvValue("\rcmd")).isEqualTo("\"'\rcmd\"");
+            assertThat(BillService.csvValue("")).isEmpty();
         }
+    }
 
-        @Test
-        @DisplayName("Should handle empty string filter")
-        void getFilteredBills_shouldHandleEmptyStringFilter() {
-            List<Bill> result = billService.getFilteredBills(testUser, "   ", null, null);
-
-            assertThat(result).hasSize(1);
+    @Nested
+    @DisplayName("Owner Backfill")
+    class OwnerBackfill {
+        @Test
+        @DisplayName("Should assign owners from user bill references and recheck orphans once the marker is old")
+        void backfillOwners_shouldAssignOwners() {
+            ObjectId owned = new ObjectId();
+            ObjectId orphan = new ObjectId();
+            when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bill");
+            when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bill")))
+                    .thenReturn(List.of(new Document("_id", owned), new Document("_id", orphan)));
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user")))
+                    .thenReturn(List.of(new Document("_id", "user-id").append("bills", List.of(new ObjectId(), owned))));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class)).thenReturn(bulkOperations);
+
+            assertThat(billService.backfillOwners()).isEqualTo(1);
+
+            ArgumentCaptor<Query> missing = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(missing.capture(), eq(Document.class), eq("bill"));
+            assertThat(missing.getValue().getLimit()).isEqualTo(50);
+            List<?> checked = missing.getValue().getQueryObject().get("$or", List.class);
+            assertThat(checked).hasSize(2).first()
+                    .isEqualTo(new Document(BillService.OWNER_CHECKED_FIELD, new Document("$exists", false)));
+            Date recheckBefore = ((Document) checked.get(1)).get(BillService.OWNER_CHECKED_FIELD, Document.class)
+                    .get("$lt", Date.class);
+            assertThat(recheckBefore).isCloseTo(Date.from(Instant.now().minus(Duration.ofHours(24))), 60_000);
+            verify(bulkOperations).updateOne(any(Query.class), eq(new Update().set("owner", "user-id")));
+            ArgumentCaptor<Update> orphanUpdate = ArgumentCaptor.forClass(Update.class);
+            verify(bulkOperations, times(2)).updateOne(any(Query.class), orphanUpdate.capture());
+            Document orphanSet = orphanUpdate.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+            assertThat(orphanSet).containsOnlyKeys(BillService.OWNER_CHECKED_FIELD);
+            verify(bulkOperations).execute();
+        }
+
+        @Test
+        @DisplayName("Should do nothing once every bill has an owner")
+        void backfillOwners_shouldSkipWhenDone() {
+            when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bill");
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bill"))).thenReturn(List.of());
+
+            assertThat(billService.backfillOwners()).isZero();
+
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Bill.class));
         }
     }
 }
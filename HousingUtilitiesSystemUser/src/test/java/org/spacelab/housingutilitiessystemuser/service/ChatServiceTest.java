@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -14,16 +15,24 @@ import org.spacelab.housingutilitiessystemuser.entity.location.House;
 import org.spacelab.housingutilitiessystemuser.entity.location.Status;
 import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatParticipant;
 import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ConversationSummary;
 import org.spacelab.housingutilitiessystemuser.exception.OperationException;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatConversationResponse;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatHistoryResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatMessageResponse;
 import org.spacelab.housingutilitiessystemuser.models.chat.ChatSidebarResponse;
 import org.spacelab.housingutilitiessystemuser.repository.ChairmanRepository;
 import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.spacelab.housingutilitiessystemuser.repository.chat.ChatMessageRepository;
 import org.spacelab.housingutilitiessystemuser.repository.chat.ConversationRepository;
+import org.spacelab.housingutilitiessystemuser.repository.chat.ConversationSummaryRepository;
 import org.spacelab.housingutilitiessystemuser.service.chat.ChatEventPublisher;
+import org.spacelab.housingutilitiessystemuser.service.chat.ChatMessageWriteBehind;
+import org.spacelab.housingutilitiessystemuser.service.chat.ConversationMembershipCache;
+import org.spacelab.housingutilitiessystemuser.service.chat.PresenceService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -34,6 +43,7 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -56,6 +66,18 @@ class ChatServiceTest {
     @Mock
     private ChatEventPublisher chatEventPublisher;
 
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private PresenceService presenceService;
+
+    @Mock
+    private ConversationMembershipCache conversationMembershipCache;
+
+    @Mock
+    private ChatMessageWriteBehind chatMessageWriteBehind;
+
     @Mock
     private Authentication authentication;
 
@@ -87,7 +109,6 @@ class ChatServiceTest {
         testUser.setMiddleName("M");
         testUser.setLastName("User");
         testUser.setHouse(testHouse);
-        testUser.setOnline(true);
         testUser.setStatus(Status.ACTIVE);
         testUser.setConversations(new HashSet<>());
 
@@ -97,7 +118,6 @@ class ChatServiceTest {
         otherUser.setFirstName("Other");
         otherUser.setMiddleName("O");
         otherUser.setLastName("User");
-        otherUser.setOnline(true);
         otherUser.setStatus(Status.ACTIVE);
         otherUser.setConversations(new HashSet<>());
 
@@ -107,7 +127,6 @@ class ChatServiceTest {
         testChairman.setFirstName("Chairman");
         testChairman.setMiddleName("C");
         testChairman.setLastName("Test");
-        testChairman.setOnline(true);
         testChairman.setConversations(new HashSet<>());
 
         testConversation = new Conversation();
@@ -139,6 +158,21 @@ class ChatServiceTest {
                 .build();
     }
 
+    private ChatParticipant participant(String id, String type) {
+        return ChatParticipant.builder().id(id).type(type).build();
+    }
+
+    private void linkConversations(Conversation... conversations) {
+        List<Conversation> linked = List.of(conversations);
+        when(conversationRepository.findConversationIds(User.class, "user-123"))
+                .thenReturn(linked.stream().map(Conversation::getId).toList());
+        when(conversationRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<String> ids = new ArrayList<>();
+            inv.<Iterable<String>>getArgument(0).forEach(ids::add);
+            return linked.stream().filter(conv -> ids.contains(conv.getId())).toList();
+        });
+    }
+
     private void mockSecurityContext() {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
@@ -261,7 +295,7 @@ class ChatServiceTest {
         @DisplayName("Should exclude chairman already in conversation")
         void getChatSidebar_shouldExcludeChairmanInConversation() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+                linkConversations(testConversation);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
@@ -281,7 +315,7 @@ class ChatServiceTest {
         @DisplayName("Should sort conversations by last message time")
         void getChatSidebar_shouldSortByLastMessageTime() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testUser.setConversations(new HashSet<>(Set.of(testConversation, testConversation2)));
+                linkConversations(testConversation, testConversation2);
                 ChatMessage olderMessage = ChatMessage.builder()
                         .id("msg-old")
                         .conversation(testConversation2)
@@ -303,7 +337,9 @@ class ChatServiceTest {
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
 
-                assertThat(result.getChatConversationResponses()).hasSize(2);
+                assertThat(result.getChatConversationResponses()).extracting(ChatConversationResponse::getId)
+                        .containsExactly("conv-123", "conv-456");
+                verify(conversationSummaryRepository, times(2)).backfillSummary(any(ConversationSummary.class));
             }
         }
 
@@ -311,7 +347,7 @@ class ChatServiceTest {
         @DisplayName("Should handle conversations with null last message time")
         void getChatSidebar_shouldHandleNullLastMessageTime() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testUser.setConversations(new HashSet<>(Set.of(testConversation, testConversation2)));
+                linkConversations(testConversation, testConversation2);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
@@ -326,6 +362,45 @@ class ChatServiceTest {
             }
         }
 
+        @Test
+        @DisplayName("Should build conversations from materialized summaries")
+        void getChatSidebar_shouldReadSummaries() {
+            try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+                testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+                ConversationSummary summary = ConversationSummary.builder()
+                        .ownerId("user-123")
+                        .conversationId("conv-123")
+                        .participantId("chairman-123")
+                        .participantType("CHAIRMAN")
+                        .participantName("Test Chairman C")
+                        .lastMessage("Hi")
+                        .lastMessageTime(Instant.parse("2025-01-01T10:00:00Z"))
+                        .unreadCount(2)
+                        .build();
+
+                mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+                mockSecurityContext();
+                when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc("user-123"))
+                        .thenReturn(List.of(summary));
+                when(userRepository.findByHouse(testHouse)).thenReturn(List.of(testUser));
+                when(chairmanRepository.findByHouseId("house-123")).thenReturn(Optional.of(testChairman));
+                when(presenceService.isOnline(anyCollection())).thenReturn(Map.of("chairman-123", true));
+
+                ChatSidebarResponse result = chatService.getChatSidebar();
+
+                assertThat(result.getChatConversationResponses()).singleElement().satisfies(conv -> {
+                    assertThat(conv.getId()).isEqualTo("conv-123");
+                    assertThat(conv.getName()).isEqualTo("Test Chairman C");
+                    assertThat(conv.getLastMessageTime()).isEqualTo("2025-01-01T10:00:00Z");
+                    assertThat(conv.getUnreadCount()).isEqualTo(2);
+                    assertThat(conv.isOnline()).isTrue();
+                });
+                assertThat(result.getChairman()).isNull();
+                verifyNoInteractions(chatMessageRepository);
+            }
+        }
+
         @Test
         @DisplayName("Should filter inactive users from contacts")
         void getChatSidebar_shouldFilterInactiveUsers() {
@@ -359,7 +434,7 @@ class ChatServiceTest {
                 conv2.setId("conv-no-time");
                 conv2.setCreatedAt(Instant.now());
                 
-                testUser.setConversations(new HashSet<>(Set.of(conv1, conv2)));
+                linkConversations(conv1, conv2);
                 
                 ChatMessage msgWithTime = ChatMessage.builder()
                         .id("msg-1")
@@ -379,6 +454,9 @@ class ChatServiceTest {
                         .thenReturn(List.of(msgWithTime));
                 when(chatMessageRepository.findLatestByConversationId("conv-no-time"))
                         .thenReturn(Collections.emptyList());
+                when(chatMessageRepository.findByConversationId(anyString(), any(Pageable.class)))
+                        .thenAnswer(inv -> "conv-with-time".equals(inv.getArgument(0))
+                                ? List.of(msgWithTime) : Collections.emptyList());
                 when(userRepository.findById("other-user")).thenReturn(Optional.of(otherUser));
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
@@ -400,7 +478,7 @@ class ChatServiceTest {
                 conv2.setId("conv-with-time-second");
                 conv2.setCreatedAt(Instant.now());
                 
-                testUser.setConversations(new HashSet<>(Set.of(conv1, conv2)));
+                linkConversations(conv1, conv2);
                 
                 ChatMessage msgWithTime = ChatMessage.builder()
                         .id("msg-2")
@@ -420,6 +498,9 @@ class ChatServiceTest {
                         .thenReturn(Collections.emptyList());
                 when(chatMessageRepository.findLatestByConversationId("conv-with-time-second"))
                         .thenReturn(List.of(msgWithTime));
+                when(chatMessageRepository.findByConversationId(anyString(), any(Pageable.class)))
+                        .thenAnswer(inv -> "conv-with-time-second".equals(inv.getArgument(0))
+                                ? List.of(msgWithTime) : Collections.emptyList());
                 when(userRepository.findById("other-user")).thenReturn(Optional.of(otherUser));
 
                 ChatSidebarResponse result = chatService.getChatSidebar();
@@ -443,7 +524,7 @@ class ChatServiceTest {
                         .createdAt(Instant.now())
                         .build();
                         
-                testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+                linkConversations(testConversation);
                 otherUser.setHouse(testHouse);
                 
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -471,7 +552,6 @@ class ChatServiceTest {
                 activeUser.setFirstName("Active");
                 activeUser.setMiddleName("A");
                 activeUser.setLastName("User");
-                activeUser.setOnline(true);
                 activeUser.setPhoto("photo.jpg");
                 activeUser.setStatus(Status.ACTIVE);
                 activeUser.setHouse(testHouse);
@@ -496,7 +576,7 @@ class ChatServiceTest {
         @DisplayName("Should handle otherId null in participants loop")
         void getChatSidebar_shouldHandleNullOtherIdInLoop() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
-                testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+                linkConversations(testConversation);
                 
                 // Only current user's messages - no other participant
                 ChatMessage ownMessage = ChatMessage.builder()
@@ -544,6 +624,62 @@ class ChatServiceTest {
             verify(chatMessageRepository).save(any(ChatMessage.class));
         }
 
+        @Test
+        @DisplayName("Should hand the message to write-behind instead of saving it")
+        void sendMessage_shouldQueueWhenWriteBehindEnabled() {
+            testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageWriteBehind.isEnabled()).thenReturn(true);
+            when(chatMessageWriteBehind.enqueue(any(ChatMessage.class))).thenReturn(testMessage);
+            when(chatMessageRepository.findLatestByConversationId("conv-123")).thenReturn(List.of(testMessage));
+            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
+
+            ChatMessageResponse result = chatService.sendMessage("conv-123", "Hello!", testUser);
+
+            assertThat(result.getContent()).isEqualTo("Hello!");
+            verify(chatMessageWriteBehind).enqueue(any(ChatMessage.class));
+            verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+            verify(conversationRepository, never()).save(any(Conversation.class));
+        }
+
+        @Test
+        @DisplayName("Should resolve recipient from embedded participants")
+        void sendMessage_shouldUseEmbeddedParticipants() {
+            testConversation.setParticipants(List.of(
+                    participant("user-123", ChatParticipant.TYPE_USER),
+                    participant("chairman-123", ChatParticipant.TYPE_CHAIRMAN)));
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
+            when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of("chairman-123", true));
+            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
+
+            chatService.sendMessage("conv-123", "Hello!", testUser);
+
+            verify(chatEventPublisher).publishMessageEvent(any());
+            verify(chatMessageRepository, never()).findLatestByConversationId(anyString());
+            verify(conversationSummaryRepository).recordMessage(eq("user-123"), eq("conv-123"),
+                    argThat(p -> p.getId().equals("chairman-123")), eq("Hello!"),
+                    eq(testMessage.getCreatedAt()), eq(false));
+            verify(conversationSummaryRepository).recordMessage(eq("chairman-123"), eq("conv-123"),
+                    argThat(p -> p.getId().equals("user-123")), eq("Hello!"),
+                    eq(testMessage.getCreatedAt()), eq(true));
+        }
+
+        @Test
+        @DisplayName("Should deny access when sender is not an embedded participant")
+        void sendMessage_shouldThrowWhenNotEmbeddedParticipant() {
+            testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+            testConversation.setParticipants(List.of(
+                    participant("other-user", ChatParticipant.TYPE_USER),
+                    participant("chairman-123", ChatParticipant.TYPE_CHAIRMAN)));
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+
+            assertThatThrownBy(() -> chatService.sendMessage("conv-123", "Hello!", testUser))
+                    .isInstanceOf(OperationException.class);
+            verify(chatMessageRepository, never()).save(any());
+        }
+
         @Test
         @DisplayName("Should throw when conversation not found")
         void sendMessage_shouldThrowWhenConversationNotFound() {
@@ -581,6 +717,7 @@ class ChatServiceTest {
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
             when(chatMessageRepository.findLatestByConversationId("conv-123")).thenReturn(List.of(testMessage, chairmanMessage));
             when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of("chairman-123", true));
             when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
 
             chatService.sendMessage("conv-123", "Hello!", testUser);
@@ -605,6 +742,7 @@ class ChatServiceTest {
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
             when(chatMessageRepository.findLatestByConversationId("conv-123")).thenReturn(List.of(testMessage, userMessage));
             when(userRepository.findById("other-user")).thenReturn(Optional.of(otherUser));
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of("other-user", true));
             when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
 
             chatService.sendMessage("conv-123", "Hello!", testUser);
@@ -615,7 +753,7 @@ class ChatServiceTest {
         @Test
         @DisplayName("Should not publish event when Chairman is offline")
         void sendMessage_shouldNotPublishWhenChairmanOffline() {
-            testChairman.setOnline(false);
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(testChairman.getId(), false));
             testUser.setConversations(new HashSet<>(Set.of(testConversation)));
             when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
             when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
@@ -631,7 +769,7 @@ class ChatServiceTest {
         @Test
         @DisplayName("Should not publish event when User is offline")
         void sendMessage_shouldNotPublishWhenUserOffline() {
-            otherUser.setOnline(false);
+            when(presenceService.isOnline(anyCollection())).thenReturn(Map.of(otherUser.getId(), false));
             testUser.setConversations(new HashSet<>(Set.of(testConversation)));
             ChatMessage userMessage = ChatMessage.builder()
                     .id("msg-user")
@@ -676,6 +814,25 @@ class ChatServiceTest {
         @Test
         @DisplayName("Should return existing conversation")
         void getOrCreateConversation_shouldReturnExisting() {
+            try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+                testUser.setConversations(new HashSet<>(Set.of(testConversation)));
+                mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+                mockSecurityContext();
+                when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findByParticipantIds("user-123", "chairman-123"))
+                        .thenReturn(List.of(testConversation));
+
+                Conversation result = chatService.getOrCreateConversation("chairman-123", "CHAIRMAN");
+
+                assertThat(result).isEqualTo(testConversation);
+                verify(conversationRepository, never()).save(any());
+                verifyNoInteractions(chatMessageRepository);
+            }
+        }
+
+        @Test
+        @DisplayName("Should find existing legacy conversation and backfill participants")
+        void getOrCreateConversation_shouldReturnExistingLegacy() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testUser.setConversations(new HashSet<>(Set.of(testConversation)));
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -683,11 +840,15 @@ class ChatServiceTest {
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
                 when(chatMessageRepository.findLatestByConversationId("conv-123"))
                         .thenReturn(List.of(chairmanMessage));
+                when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
 
                 Conversation result = chatService.getOrCreateConversation("chairman-123", "CHAIRMAN");
 
                 assertThat(result).isEqualTo(testConversation);
-                verify(conversationRepository, never()).save(any());
+                assertThat(result.getParticipants())
+                        .extracting(ChatParticipant::getId)
+                        .containsExactly("user-123", "chairman-123");
+                verify(conversationRepository).save(testConversation);
             }
         }
 
@@ -705,9 +866,18 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("chairman-123", "CHAIRMAN");
 
                 assertThat(result).isNotNull();
-                verify(conversationRepository).save(any(Conversation.class));
-                verify(userRepository).save(testUser);
-                verify(chairmanRepository).save(testChairman);
+                ArgumentCaptor<Conversation> captor = ArgumentCaptor.forClass(Conversation.class);
+                verify(conversationRepository).save(captor.capture());
+                assertThat(captor.getValue().getParticipants())
+                        .extracting(ChatParticipant::getId, ChatParticipant::getType)
+                        .containsExactly(tuple("user-123", "USER"), tuple("chairman-123", "CHAIRMAN"));
+                verify(chatMessageRepository, never()).save(any());
+                verify(conversationRepository).linkConversation(User.class, "user-123", "conv-123");
+                verify(conversationRepository).linkConversation(Chairman.class, "chairman-123", "conv-123");
+                verify(userRepository, never()).save(any());
+                verify(chairmanRepository, never()).save(any());
+                verify(conversationMembershipCache).addConversation(testConversation.getId(),
+                        List.of("user-123", "chairman-123"));
             }
         }
 
@@ -737,11 +907,11 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
-                when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
                 when(chairmanRepository.findById("unknown")).thenReturn(Optional.empty());
 
                 assertThatThrownBy(() -> chatService.getOrCreateConversation("unknown", "CHAIRMAN"))
                         .isInstanceOf(OperationException.class);
+                verify(conversationRepository, never()).save(any());
             }
         }
 
@@ -753,7 +923,6 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
-                when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
                 when(userRepository.findById("unknown")).thenReturn(Optional.empty());
 
                 assertThatThrownBy(() -> chatService.getOrCreateConversation("unknown", "USER"))
@@ -762,8 +931,8 @@ class ChatServiceTest {
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for current user")
-        void getOrCreateConversation_shouldInitNullConversationsForCurrentUser() {
+        @DisplayName("Should link the conversation without rewriting the current user document")
+        void getOrCreateConversation_shouldLinkWithoutSavingCurrentUser() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testUser.setConversations(null);
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -775,13 +944,14 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("chairman-123", "CHAIRMAN");
 
                 assertThat(result).isNotNull();
-                assertThat(testUser.getConversations()).isNotNull();
+                assertThat(testUser.getConversations()).isNull();
+                verify(userRepository, never()).save(any());
             }
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for Chairman target")
-        void getOrCreateConversation_shouldInitNullConversationsForChairman() {
+        @DisplayName("Should link the conversation without rewriting the Chairman target document")
+        void getOrCreateConversation_shouldLinkWithoutSavingChairman() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 testChairman.setConversations(null);
                 testUser.setConversations(new HashSet<>());
@@ -794,13 +964,14 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("chairman-123", "CHAIRMAN");
 
                 assertThat(result).isNotNull();
-                assertThat(testChairman.getConversations()).isNotNull();
+                assertThat(testChairman.getConversations()).isNull();
+                verify(chairmanRepository, never()).save(any());
             }
         }
 
         @Test
-        @DisplayName("Should initialize null conversations for User target")
-        void getOrCreateConversation_shouldInitNullConversationsForUser() {
+        @DisplayName("Should link the conversation without rewriting the User target document")
+        void getOrCreateConversation_shouldLinkWithoutSavingUser() {
             try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
                 otherUser.setConversations(null);
                 testUser.setConversations(new HashSet<>());
@@ -813,7 +984,9 @@ class ChatServiceTest {
                 Conversation result = chatService.getOrCreateConversation("other-user", "USER");
 
                 assertThat(result).isNotNull();
-                assertThat(otherUser.getConversations()).isNotNull();
+                assertThat(otherUser.getConversations()).isNull();
+                verify(conversationRepository).linkConversation(User.class, "other-user", "conv-123");
+                verify(userRepository, never()).save(any());
             }
         }
     }
@@ -829,6 +1002,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage)));
                 when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
@@ -847,6 +1021,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
 
                 assertThatThrownBy(() -> chatService.getConversationMessages("conv-123", 50))
                         .isInstanceOf(OperationException.class);
@@ -861,6 +1036,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
 
                 assertThatThrownBy(() -> chatService.getConversationMessages("conv-123", 50))
                         .isInstanceOf(OperationException.class);
@@ -884,6 +1060,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage, emptyMessage)));
                 when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
@@ -911,6 +1088,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage, nullContentMessage)));
                 when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
@@ -929,6 +1107,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(chairmanMessage)));
                 when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.of(testChairman));
@@ -948,6 +1127,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(chairmanMessage)));
                 when(chairmanRepository.findById("chairman-123")).thenReturn(Optional.empty());
@@ -967,6 +1147,7 @@ class ChatServiceTest {
                 mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
                 mockSecurityContext();
                 when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+                when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
                 when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
                         .thenReturn(new ArrayList<>(List.of(testMessage)));
                 when(userRepository.findById("user-123")).thenReturn(Optional.empty());
@@ -979,6 +1160,121 @@ class ChatServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get Conversation History")
+    class GetConversationHistory {
+        private static final String CURSOR_ID = "65f000000000000000000001";
+
+        @BeforeEach
+        void setUpParticipants() {
+            testConversation.setParticipants(List.of(
+                    participant("user-123", ChatParticipant.TYPE_USER),
+                    participant("chairman-123", ChatParticipant.TYPE_CHAIRMAN)));
+        }
+
+        @Test
+        @DisplayName("Should read page before message id cursor")
+        void getConversationHistory_shouldUseMessageIdCursor() {
+            Instant cursorTime = Instant.parse("2025-01-01T10:00:00Z");
+            ChatMessage cursor = ChatMessage.builder().id(CURSOR_ID).createdAt(cursorTime).build();
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByIdAndConversationId(CURSOR_ID, "conv-123")).thenReturn(Optional.of(cursor));
+            when(chatMessageRepository.findByConversationIdBefore(eq("conv-123"), eq(cursorTime), eq(CURSOR_ID),
+                    any(Pageable.class))).thenReturn(new ArrayList<>(List.of(testMessage)));
+            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
+
+            ChatHistoryResponse result = chatService.getConversationHistory("conv-123", CURSOR_ID, 20, testUser);
+
+            assertThat(result.getMessages()).hasSize(1);
+            assertThat(result.isHasMore()).isFalse();
+            assertThat(result.getNextBefore()).isEqualTo("msg-123");
+            verify(chatMessageRepository, never()).findByConversationId(anyString(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should read page before timestamp cursor")
+        void getConversationHistory_shouldUseTimestampCursor() {
+            Instant before = Instant.parse("2025-01-01T10:00:00Z");
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByConversationIdBefore(eq("conv-123"), eq(before), any(Pageable.class)))
+                    .thenReturn(new ArrayList<>());
+
+            ChatHistoryResponse result = chatService.getConversationHistory(
+                    "conv-123", "2025-01-01T10:00:00Z", 20, testUser);
+
+            assertThat(result.getMessages()).isEmpty();
+            assertThat(result.getNextBefore()).isNull();
+            assertThat(result.isHasMore()).isFalse();
+            verify(conversationSummaryRepository, never()).resetUnread(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should fetch one extra row to detect more history")
+        void getConversationHistory_shouldDetectMorePages() {
+            ChatMessage older = ChatMessage.builder()
+                    .id("msg-older")
+                    .conversation(testConversation)
+                    .content("Older")
+                    .senderId("user-123")
+                    .senderType("USER")
+                    .createdAt(Instant.now().minusSeconds(60))
+                    .build();
+            ChatMessage oldest = ChatMessage.builder()
+                    .id("msg-oldest")
+                    .conversation(testConversation)
+                    .content("Oldest")
+                    .senderId("user-123")
+                    .senderType("USER")
+                    .createdAt(Instant.now().minusSeconds(120))
+                    .build();
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
+                    .thenReturn(new ArrayList<>(List.of(testMessage, older, oldest)));
+            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
+
+            ChatHistoryResponse result = chatService.getConversationHistory("conv-123", null, 2, testUser);
+
+            assertThat(result.isHasMore()).isTrue();
+            assertThat(result.getNextBefore()).isEqualTo("msg-older");
+            assertThat(result.getMessages()).extracting(ChatMessageResponse::getId)
+                    .containsExactly("msg-older", "msg-123");
+            verify(chatMessageRepository).findByConversationId("conv-123", PageRequest.of(0, 3));
+            verify(conversationSummaryRepository).resetUnread("user-123", "conv-123");
+        }
+
+        @Test
+        @DisplayName("Should cap page size")
+        void getConversationHistory_shouldCapPageSize() {
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByConversationId(eq("conv-123"), any(Pageable.class)))
+                    .thenReturn(new ArrayList<>());
+
+            chatService.getConversationHistory("conv-123", null, 10_000, testUser);
+
+            verify(chatMessageRepository).findByConversationId("conv-123", PageRequest.of(0, 101));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed cursor")
+        void getConversationHistory_shouldRejectMalformedCursor() {
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+
+            assertThatThrownBy(() -> chatService.getConversationHistory("conv-123", "yesterday", 20, testUser))
+                    .isInstanceOf(OperationException.class);
+        }
+
+        @Test
+        @DisplayName("Should reject a message cursor that is unknown or belongs to another conversation")
+        void getConversationHistory_shouldRejectUnknownMessageCursor() {
+            when(conversationRepository.findById("conv-123")).thenReturn(Optional.of(testConversation));
+            when(chatMessageRepository.findByIdAndConversationId(CURSOR_ID, "conv-123")).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> chatService.getConversationHistory("conv-123", CURSOR_ID, 20, testUser))
+                    .isInstanceOf(OperationException.class);
+            verify(chatMessageRepository, never()).findById(anyString());
+        }
+    }
+
     @Nested
     @DisplayName("Get Conversation Info")
     class GetConversationInfo {
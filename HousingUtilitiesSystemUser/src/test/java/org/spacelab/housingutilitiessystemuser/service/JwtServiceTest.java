@@ -12,13 +12,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.spacelab.housingutilitiessystemuser.security.CustomOidcUser;
+import org.spacelab.housingutilitiessystemuser.security.JwtPrincipal;
+import org.spacelab.housingutilitiessystemuser.security.VerifiedJwt;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -186,4 +192,92 @@ class JwtServiceTest {
             }
         }
     }
+
+    @Nested
+    @DisplayName("Token Verification")
+    class TokenVerification {
+        @Test
+        @DisplayName("Should return verified claims once per token")
+        void verify_shouldReuseVerifiedToken() {
+            when(userDetails.getUsername()).thenReturn("testuser");
+            String token = jwtService.generateToken(userDetails);
+
+            VerifiedJwt first = jwtService.verify(token);
+            VerifiedJwt second = jwtService.verify(token);
+
+            assertThat(first.getSubject()).isEqualTo("testuser");
+            assertThat(first.isExpired()).isFalse();
+            assertThat(second).isSameAs(first);
+            assertThat(jwtService.isTokenValid(first, userDetails)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should reject a token with a tampered signature")
+        void verify_shouldRejectTamperedToken() {
+            when(userDetails.getUsername()).thenReturn("testuser");
+            String token = jwtService.generateToken(userDetails);
+            String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+            assertThatThrownBy(() -> jwtService.verify(tampered))
+                    .isInstanceOf(io.jsonwebtoken.JwtException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Principal Claims")
+    class PrincipalClaims {
+        @Test
+        @DisplayName("Should carry id, role and token version in the access token")
+        void generateToken_shouldCarryPrincipalClaims() {
+            JwtPrincipal principal = new JwtPrincipal("id-123", "USERNAME", "password", true,
+                    List.of(new SimpleGrantedAuthority("ROLE_USER")), 2L);
+
+            String token = jwtService.generateToken(principal);
+            JwtPrincipal extracted = jwtService.extractPrincipal(jwtService.verify(token));
+
+            assertThat(extracted.getId()).isEqualTo("id-123");
+            assertThat(extracted.getUsername()).isEqualTo("USERNAME");
+            assertThat(extracted.getTokenVersion()).isEqualTo(2L);
+            assertThat(extracted.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                    .containsExactly("ROLE_USER");
+        }
+
+        @Test
+        @DisplayName("Should not build a principal for a role this module does not serve")
+        void extractPrincipal_shouldRejectForeignRole() {
+            JwtPrincipal principal = new JwtPrincipal("id-123", "USERNAME", "password", true,
+                    List.of(new SimpleGrantedAuthority("ROLE_RESTRICTED")), 2L);
+
+            String token = jwtService.generateToken(principal);
+
+            assertThat(jwtService.extractPrincipal(jwtService.verify(token))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a token signed with the shared secret for another module")
+        void verify_shouldRejectTokenOfAnotherModule() {
+            String foreign = Jwts.builder()
+                    .subject("USERNAME")
+                    .issuer("housing-admin")
+                    .audience().add("housing-admin").and()
+                    .claim(JwtService.USER_ID_CLAIM, "id-123")
+                    .claim(JwtService.ROLE_CLAIM, "ROLE_USER")
+                    .claim(JwtService.TOKEN_VERSION_CLAIM, 2L)
+                    .expiration(new Date(System.currentTimeMillis() + 60_000))
+                    .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                    .compact();
+
+            assertThatThrownBy(() -> jwtService.verify(foreign))
+                    .isInstanceOf(io.jsonwebtoken.JwtException.class);
+        }
+
+        @Test
+        @DisplayName("Should not build a principal from a token without claims")
+        void extractPrincipal_shouldReturnNullWithoutClaims() {
+            when(userDetails.getUsername()).thenReturn("testuser");
+            String token = jwtService.generateToken(userDetails);
+
+            assertThat(jwtService.extractPrincipal(jwtService.verify(token))).isNull();
+        }
+    }
 }
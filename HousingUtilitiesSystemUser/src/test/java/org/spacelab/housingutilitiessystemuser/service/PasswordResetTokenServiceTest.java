@@ -35,6 +35,9 @@ class PasswordResetTokenServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
     @InjectMocks
     private PasswordResetTokenService passwordResetTokenService;
 
@@ -70,6 +73,7 @@ class PasswordResetTokenServiceTest {
 
             verify(passwordEncoder).encode("new-password");
             verify(userRepository).save(testUser);
+            verify(principalCacheService).evict(null, "test@test.com");
             assertThat(testUser.getPassword()).isEqualTo("encoded-new-password");
         }
 
@@ -0,0 +1,244 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.Bill;
+import org.spacelab.housingutilitiessystemuser.entity.Receipt;
+import org.spacelab.housingutilitiessystemuser.entity.User;
+import org.spacelab.housingutilitiessystemuser.entity.location.Street;
+import org.spacelab.housingutilitiessystemuser.exception.OperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReceiptRenderService Tests")
+class ReceiptRenderServiceTest {
+
+    private static final ObjectId BILL_ID = new ObjectId();
+    private static final ObjectId OWNER_ID = new ObjectId();
+    private static final ObjectId STREET_ID = new ObjectId();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path cacheDir;
+
+    private ReceiptRenderService receiptRenderService;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private Document bill;
+
+    @BeforeEach
+    void setUp() {
+        receiptRenderService = new ReceiptRenderService(mongoTemplate, task -> {
+            renders.incrementAndGet();
+            task.run();
+        });
+        ReflectionTestUtils.setField(receiptRenderService, "cacheDir", cacheDir);
+        receiptRenderService.compileTemplate();
+        bill = new Document("_id", BILL_ID)
+                .append("billNumber", "202510-ACC-1")
+                .append("date", date(LocalDate.of(2025, 10, 1)))
+                .append("owner", OWNER_ID.toString());
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void stubStore(List<Document> receipts) {
+        when(mongoTemplate.getCollectionName(Receipt.class)).thenReturn("receipt");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("receipt"))).thenReturn(receipts);
+        lenient().when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bill");
+        lenient().when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+        lenient().when(mongoTemplate.getCollectionName(Street.class)).thenReturn("street");
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bill"))).thenReturn(List.of(bill));
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user"))).thenReturn(List.of(
+                new Document("_id", OWNER_ID)
+                        .append("lastName", "Шевченко")
+                        .append("firstName", "Тарас")
+                        .append("middleName", "Григорьевич")
+                        .append("accountNumber", "ACC-1")
+                        .append("houseNumber", "12")
+                        .append("apartmentNumber", "34")
+                        .append("street", STREET_ID)));
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("street")))
+                .thenReturn(List.of(new Document("_id", STREET_ID).append("name", "Садовая")));
+    }
+
+    private Document receipt(ObjectId id) {
+        return new Document("_id", id)
+                .append("receiptNumber", id.toString())
+                .append("bill", BILL_ID)
+                .append("localDate", date(LocalDate.of(2025, 10, 1)));
+    }
+
+    private List<Path> cachedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Single Receipt")
+    class SingleReceipt {
+        @Test
+        @DisplayName("Should render the latest receipt of the bill into the cache directory")
+        void renderLatestForBill_shouldRenderReceipt() throws Exception {
+            ObjectId receiptId = new ObjectId();
+            stubStore(List.of(receipt(receiptId)));
+
+            Path file = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+
+            assertThat(file.getParent()).isEqualTo(cacheDir.resolve(receiptId.toString()));
+            assertThat(file.getFileName().toString()).matches("[0-9a-f]{64}\\.html");
+            String html = Files.readString(file, StandardCharsets.UTF_8);
+            assertThat(html)
+                    .contains("Квитанция № <span>" + receiptId + "</span>")
+                    .contains("202510-ACC-1")
+                    .contains("01.10.2025")
+                    .contains("Шевченко Тарас Григорьевич")
+                    .contains("ул. Садовая, д. 12, кв. 34");
+            ArgumentCaptor<Query> receiptQuery = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(receiptQuery.capture(), eq(Document.class), eq("receipt"));
+            assertThat(receiptQuery.getValue().getQueryObject()).containsEntry("bill", BILL_ID);
+            assertThat(receiptQuery.getValue().getSortObject()).containsEntry("localDate", -1);
+            assertThat(receiptQuery.getValue().getLimit()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should serve a repeat download from the cache without rendering again")
+        void renderLatestForBill_shouldReuseCachedFile() throws Exception {
+            stubStore(List.of(receipt(new ObjectId())));
+
+            Path first = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+            Path second = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+
+            assertThat(second).isEqualTo(first);
+            assertThat(renders).hasValue(1);
+            assertThat(cachedFiles()).containsExactly(first);
+        }
+
+        @Test
+        @DisplayName("Should render a new version and drop the old one when the receipt data changes")
+        void renderLatestForBill_shouldReplaceStaleVersion() throws Exception {
+            stubStore(List.of(receipt(new ObjectId())));
+            Path first = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+            bill.put("billNumber", "202510-ACC-1-FIX");
+
+            Path second = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+
+            assertThat(second).isNotEqualTo(first).hasParent(first.getParent());
+            assertThat(renders).hasValue(2);
+            assertThat(cachedFiles()).containsExactly(second);
+            assertThat(Files.readString(second, StandardCharsets.UTF_8)).contains("202510-ACC-1-FIX");
+        }
+
+        @Test
+        @DisplayName("Should convert the rendered receipt to PDF when a converter is available and drop the HTML version")
+        void renderLatestForBill_shouldRenderPdf() throws Exception {
+            ObjectId receiptId = new ObjectId();
+            stubStore(List.of(receipt(receiptId)));
+            Path html = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+            ReflectionTestUtils.setField(receiptRenderService, "pdfRenderer", PdfRendererStub.class);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/DejaVuSans.ttf");
+
+            Path pdf = receiptRenderService.renderLatestForBill(BILL_ID.toString());
+
+            assertThat(pdf.getFileName().toString()).matches("[0-9a-f]{64}\\.pdf");
+            assertThat(Files.readString(pdf, StandardCharsets.UTF_8))
+                    .startsWith("%PDF")
+                    .contains("Квитанция № <span>" + receiptId + "</span>");
+            assertThat(cachedFiles()).containsExactly(pdf);
+            assertThat(html).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should key the cached file by output format and PDF font")
+        void cachePath_shouldDependOnFormatAndFont() {
+            ReceiptRenderService.ReceiptPrint print = new ReceiptRenderService.ReceiptPrint("receipt-1", "R-1", "B-1",
+                    "01.10.2025", "06.10.2025", "Иванов Иван", "ACC-1", "ул. Центральная, д. 1");
+            Path html = receiptRenderService.cachePath(print);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfRenderer", PdfRendererStub.class);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/DejaVuSans.ttf");
+            Path pdf = receiptRenderService.cachePath(print);
+            ReflectionTestUtils.setField(receiptRenderService, "pdfFont", "/fonts/PTSans.ttf");
+            Path otherFont = receiptRenderService.cachePath(print);
+
+            assertThat(html.getFileName().toString()).endsWith(".html");
+            assertThat(pdf.getFileName().toString()).endsWith(".pdf");
+            assertThat(List.of(html, pdf, otherFont)).doesNotHaveDuplicates();
+        }
+
+        @Test
+        @DisplayName("Should report a bill without receipts as not found")
+        void renderLatestForBill_shouldFailWithoutReceipts() {
+            stubStore(List.of());
+
+            assertThatThrownBy(() -> receiptRenderService.renderLatestForBill(BILL_ID.toString()))
+                    .isInstanceOf(OperationException.class)
+                    .extracting("status")
+                    .isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    public static class PdfRendererStub {
+        private String html;
+        private OutputStream out;
+
+        public void useFastMode() {
+        }
+
+        public void useFont(File font, String family) {
+        }
+
+        public void withHtmlContent(String html, String baseUri) {
+            this.html = html;
+        }
+
+        public void toStream(OutputStream out) {
+            this.out = out;
+        }
+
+        public void run() throws Exception {
+            DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)));
+            out.write(("%PDF-stub\n" + html).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteClosedEvent;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteTallySnapshot;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteEventSubscriber Tests")
+class VoteEventSubscriberTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private VoteEventSubscriber voteEventSubscriber;
+
+    @BeforeEach
+    void setUp() {
+        voteEventSubscriber = new VoteEventSubscriber(messagingTemplate, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should send the closed vote's outcome to its own topic and only its id to the votes list")
+    void handleVoteClosed_shouldBroadcast() {
+        voteEventSubscriber.handleVoteClosed(
+                "{\"voteId\":\"vote-1\",\"status\":\"Закрыто\",\"result\":\"Принято\",\"quorumReached\":true}");
+
+        ArgumentCaptor<VoteClosedEvent> event = ArgumentCaptor.forClass(VoteClosedEvent.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/vote/vote-1/closed"), event.capture());
+        verify(messagingTemplate).convertAndSend(VoteEventSubscriber.VOTES_TOPIC, Map.of("voteId", "vote-1"));
+        assertThat(event.getValue().getVoteId()).isEqualTo("vote-1");
+        assertThat(event.getValue().getResult()).isEqualTo("Принято");
+        assertThat(event.getValue().isQuorumReached()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore a malformed payload")
+    void handleVoteClosed_shouldIgnoreMalformedPayload() {
+        voteEventSubscriber.handleVoteClosed("not json");
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("Should forward a tally snapshot to the vote's own topic")
+    void handleVoteTally_shouldBroadcastToVoteTopic() {
+        voteEventSubscriber.handleVoteTally("{\"voteId\":\"vote-1\",\"forVotesCount\":3,\"totalVotedArea\":150.5}");
+
+        ArgumentCaptor<VoteTallySnapshot> snapshot = ArgumentCaptor.forClass(VoteTallySnapshot.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/vote/vote-1"), snapshot.capture());
+        assertThat(snapshot.getValue().getForVotesCount()).isEqualTo(3);
+        assertThat(snapshot.getValue().getTotalVotedArea()).isEqualTo(150.5);
+    }
+}
@@ -1,10 +1,13 @@
 package org.spacelab.housingutilitiessystemuser.service;
 
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,15 +18,27 @@ import org.spacelab.housingutilitiessystemuser.models.PageResponse;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteDetailResponse;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteTableRequest;
 import org.spacelab.housingutilitiessystemuser.models.vote.VoteTableResponse;
-import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.spacelab.housingutilitiessystemuser.repository.VoteRecordRepository;
 import org.spacelab.housingutilitiessystemuser.repository.VoteRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -41,10 +56,10 @@ class VoteServiceTest {
     private VoteRecordRepository voteRecordRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private MongoTemplate mongoTemplate;
 
     @Mock
-    private MongoTemplate mongoTemplate;
+    private VoteTallyBroadcaster voteTallyBroadcaster;
 
     @InjectMocks
     private VoteService voteService;
@@ -78,20 +93,61 @@ class VoteServiceTest {
     @Nested
     @DisplayName("Get Votes Table")
     class GetVotesTable {
+
+        private VoteTableResponse row(String result) {
+            return VoteTableResponse.builder()
+                    .id("vote-id")
+                    .title("Test Vote")
+                    .status(result != null ? "Закрыто" : "Активное")
+                    .result(result)
+                    .forVotesCount(5)
+                    .againstVotesCount(3)
+                    .abstentionsCount(1)
+                    .totalVotedArea(50.0)
+                    .build();
+        }
+
+        private void stubFacet(long total, VoteTableResponse... rows) {
+            when(mongoTemplate.getCollectionName(Vote.class)).thenReturn("vote");
+            when(mongoTemplate.aggregate(any(Aggregation.class), eq("vote"), eq(VoteService.VoteTableFacet.class)))
+                    .thenReturn(new AggregationResults<>(List.of(new VoteService.VoteTableFacet(
+                            List.of(rows), total > 0 ? List.of(new VoteService.FacetTotal(total)) : List.of())),
+                            new Document()));
+        }
+
+        private List<Document> pipeline() {
+            ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+            verify(mongoTemplate).aggregate(aggregation.capture(), eq("vote"), eq(VoteService.VoteTableFacet.class));
+            return aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        }
+
+        private Document stage(List<Document> pipeline, String operator) {
+            return pipeline.stream()
+                    .filter(stage -> stage.containsKey(operator))
+                    .map(stage -> stage.get(operator, Document.class))
+                    .findFirst()
+                    .orElseThrow();
+        }
+
         @Test
-        @DisplayName("Should return paginated votes with null page/size")
+        @DisplayName("Should return paginated votes with null page/size in one aggregation")
         void getVotesTable_shouldHandleNullPageSize() {
             VoteTableRequest request = new VoteTableRequest();
             // page and size are null - should default to 0 and 10
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(1L, row(null));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result).isNotNull();
             assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getTotalElements()).isEqualTo(1L);
+            List<Document> pipeline = pipeline();
+            assertThat(pipeline).first().satisfies(stage -> assertThat(stage).containsKey("$project"));
+            List<Document> rows = stage(pipeline, "$facet").getList("rows", Document.class);
+            assertThat(rows).containsExactly(new Document("$skip", 0L), new Document("$limit", 10L));
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Vote.class));
+            verify(mongoTemplate, never()).count(any(Query.class), eq(Vote.class));
+            verifyNoInteractions(voteRecordRepository);
         }
 
         @Test
@@ -101,14 +157,12 @@ class VoteServiceTest {
             request.setPage(0);
             request.setSize(10);
             request.setTitle("Test");
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(1L, row(null));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result.getContent()).hasSize(1);
+            assertThat(stage(pipeline(), "$match").toJson()).contains("title", "Test");
         }
 
         @Test
@@ -118,140 +172,92 @@ class VoteServiceTest {
             request.setPage(0);
             request.setSize(10);
             request.setStatus("Активное");
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(1L, row(null));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result.getContent()).hasSize(1);
+            assertThat(stage(pipeline(), "$match").toJson()).contains("status", "Активное");
         }
 
         @Test
-        @DisplayName("Should filter by result - Принято")
+        @DisplayName("Should filter by the stored result before paging - Принято")
         void getVotesTable_shouldFilterByResultAccepted() {
-            testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(10);
-            testVote.setAgainstVotesCount(5);
-            
             VoteTableRequest request = new VoteTableRequest();
-            request.setPage(0);
+            request.setPage(1);
             request.setSize(10);
             request.setResult("Принято");
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(23L, row("Принято"));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
-            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.getContent()).extracting(VoteTableResponse::getResult).containsExactly("Принято");
+            assertThat(result.getTotalElements()).isEqualTo(23L);
+            List<Document> pipeline = pipeline();
+            assertThat(pipeline.get(0).toJson()).contains("\"result\": \"Принято\"");
+            assertThat(stage(pipeline, "$facet").getList("rows", Document.class))
+                    .containsExactly(new Document("$skip", 10L), new Document("$limit", 10L));
         }
 
         @Test
-        @DisplayName("Should filter by result - Отклонено")
+        @DisplayName("Should filter by the stored result before paging - Отклонено")
         void getVotesTable_shouldFilterByResultRejected() {
-            testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(3);
-            testVote.setAgainstVotesCount(10);
-            
             VoteTableRequest request = new VoteTableRequest();
             request.setPage(0);
             request.setSize(10);
             request.setResult("Отклонено");
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(1L, row("Отклонено"));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result.getContent()).hasSize(1);
+            List<Document> pipeline = pipeline();
+            assertThat(stage(pipeline, "$match").toJson()).contains("\"result\": \"Отклонено\"");
+            assertThat(pipeline).hasSize(3);
         }
 
         @Test
-        @DisplayName("Should calculate total area from records")
+        @DisplayName("Should read total area from the stored tally")
         void getVotesTable_shouldCalculateTotalArea() {
             VoteTableRequest request = new VoteTableRequest();
             request.setPage(0);
             request.setSize(10);
-
-            VoteRecord recordWithArea = new VoteRecord();
-            recordWithArea.setUser(testUser);
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(recordWithArea));
+            stubFacet(1L, row(null));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result.getContent().get(0).getTotalVotedArea()).isEqualTo(50.0);
+            assertThat(stage(pipeline(), "$project").get("totalVotedArea", Document.class))
+                    .isEqualTo(new Document("$ifNull", List.of("$totalVotedArea", 0.0)));
         }
 
         @Test
-        @DisplayName("Should handle records with null user or null area")
-        void getVotesTable_shouldHandleNullUserOrArea() {
-            VoteTableRequest request = new VoteTableRequest();
-            request.setPage(0);
-            request.setSize(10);
-
-            VoteRecord recordNullUser = new VoteRecord();
-            recordNullUser.setUser(null);
-
-            User userNullArea = new User();
-            userNullArea.setApartmentArea(null);
-            VoteRecord recordNullArea = new VoteRecord();
-            recordNullArea.setUser(userNullArea);
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(recordNullUser, recordNullArea));
-
-            PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
-
-            assertThat(result.getContent().get(0).getTotalVotedArea()).isEqualTo(0.0);
-        }
-
-        @Test
-        @DisplayName("Should filter out non-matching result")
-        void getVotesTable_shouldFilterOutNonMatchingResult() {
-            testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(10);
-            testVote.setAgainstVotesCount(5);
-            
+        @DisplayName("Should return exact zero total when nothing matches")
+        void getVotesTable_shouldHandleEmptyFacet() {
             VoteTableRequest request = new VoteTableRequest();
             request.setPage(0);
             request.setSize(10);
-            request.setResult("Отклонено"); // Vote is Принято, should be filtered out
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            request.setResult("Отклонено");
+            stubFacet(0L);
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
             assertThat(result.getContent()).isEmpty();
+            assertThat(result.getTotalElements()).isZero();
         }
 
         @Test
-        @DisplayName("Should handle null vote counts in determineResult")
+        @DisplayName("Should project the stored outcome instead of computing it")
         void getVotesTable_shouldHandleNullVoteCounts() {
-            testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(null);
-            testVote.setAgainstVotesCount(null);
-            
             VoteTableRequest request = new VoteTableRequest();
             request.setPage(0);
             request.setSize(10);
-
-            when(mongoTemplate.count(any(), eq(Vote.class))).thenReturn(1L);
-            when(mongoTemplate.find(any(), eq(Vote.class))).thenReturn(List.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
+            stubFacet(1L, row("Отклонено"));
 
             PageResponse<VoteTableResponse> result = voteService.getVotesTable(request);
 
-            assertThat(result.getContent().get(0).getResult()).isEqualTo("Отклонено"); // 0 vs 0 => rejected
+            assertThat(result.getContent().get(0).getResult()).isEqualTo("Отклонено");
+            assertThat(stage(pipeline(), "$project")).containsEntry("result", 1);
         }
     }
 
@@ -262,10 +268,9 @@ class VoteServiceTest {
         @DisplayName("Should return vote detail with user vote FOR")
         void getVoteDetail_shouldReturnDetailWithForVote() {
             testVoteRecord.setVoteType("FOR");
+            testVote.setForVotesArea(50.0);
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(testVoteRecord));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(testVoteRecord);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -273,16 +278,16 @@ class VoteServiceTest {
             assertThat(result.getUserVoteType()).isEqualTo("FOR");
             assertThat(result.getUserVoteTypeDisplay()).isEqualTo("За");
             assertThat(result.getForVotesArea()).isEqualTo(50.0);
+            verifyNoInteractions(voteRecordRepository);
         }
 
         @Test
         @DisplayName("Should return vote detail with user vote AGAINST")
         void getVoteDetail_shouldReturnDetailWithAgainstVote() {
             testVoteRecord.setVoteType("AGAINST");
+            testVote.setAgainstVotesArea(50.0);
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(testVoteRecord));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(testVoteRecord);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -294,10 +299,9 @@ class VoteServiceTest {
         @DisplayName("Should return vote detail with user vote ABSTENTION")
         void getVoteDetail_shouldReturnDetailWithAbstentionVote() {
             testVoteRecord.setVoteType("ABSTENTION");
+            testVote.setAbstentionsArea(50.0);
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(testVoteRecord));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(testVoteRecord);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -310,9 +314,7 @@ class VoteServiceTest {
         void getVoteDetail_shouldHandleUnknownVoteType() {
             testVoteRecord.setVoteType("UNKNOWN");
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(testVoteRecord));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(testVoteRecord);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -323,9 +325,7 @@ class VoteServiceTest {
         @DisplayName("Should return detail when user has not voted")
         void getVoteDetail_whenUserHasNotVoted() {
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(null);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -335,15 +335,12 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should calculate result for closed vote - Принято")
+        @DisplayName("Should return the stored result of a closed vote - Принято")
         void getVoteDetail_shouldCalculateResultAccepted() {
             testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(10);
-            testVote.setAgainstVotesCount(5);
+            testVote.setResult("Принято");
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(null);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -351,15 +348,14 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should calculate result for closed vote - Отклонено")
+        @DisplayName("Should not recompute the stored result from head counts - Отклонено")
         void getVoteDetail_shouldCalculateResultRejected() {
             testVote.setStatus("Закрыто");
-            testVote.setForVotesCount(5);
-            testVote.setAgainstVotesCount(10);
+            testVote.setForVotesCount(10);
+            testVote.setAgainstVotesCount(5);
+            testVote.setResult("Отклонено");
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(Collections.emptyList());
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(null);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
@@ -367,20 +363,18 @@ class VoteServiceTest {
         }
 
         @Test
-        @DisplayName("Should handle record with null user")
-        void getVoteDetail_shouldHandleRecordWithNullUser() {
-            VoteRecord recordNullUser = new VoteRecord();
-            recordNullUser.setVoteType("FOR");
-            recordNullUser.setUser(null);
-            
+        @DisplayName("Should handle a vote without stored area tallies")
+        void getVoteDetail_shouldHandleMissingAreaTallies() {
+            testVote.setForVotesArea(null);
+            testVote.setTotalVotedArea(null);
+
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(voteRecordRepository.findByVoteId("vote-id")).thenReturn(List.of(recordNullUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(VoteRecord.class))).thenReturn(null);
 
             VoteDetailResponse result = voteService.getVoteDetail("vote-id", "user-id");
 
             assertThat(result.getForVotesArea()).isEqualTo(0.0);
+            assertThat(result.getTotalVotedArea()).isEqualTo(0.0);
         }
 
         @Test
@@ -396,103 +390,208 @@ class VoteServiceTest {
     @Nested
     @DisplayName("Cast Vote")
     class CastVote {
+
+        private final Map<String, VoteRecord> ballots = new ConcurrentHashMap<>();
+        private final Map<String, DoubleAdder> tallies = new ConcurrentHashMap<>();
+
+        /**
+         * In-memory stand-in for the ballot findAndModify and the counter $inc: each call is atomic, as in Mongo.
+         * Tests built on it check how the service derives deltas from the previous ballot, not Mongo's own guarantees.
+         */
+        private void stubAtomicStore() {
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(VoteRecord.class))).thenAnswer(invocation -> {
+                        Query ballot = invocation.getArgument(0);
+                        Document set = invocation.<Update>getArgument(1).getUpdateObject().get("$set", Document.class);
+                        return ballots.put(ballot.getQueryObject().toJson(),
+                                toRecord(set.getString("voteType"), set.getDouble("apartmentArea")));
+                    });
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Vote.class))).thenAnswer(invocation -> {
+                Update update = invocation.getArgument(1);
+                update.getUpdateObject().get("$inc", Document.class).forEach((field, delta) ->
+                        tallies.computeIfAbsent(field, f -> new DoubleAdder()).add(((Number) delta).doubleValue()));
+                return UpdateResult.acknowledged(1, 1L, null);
+            });
+        }
+
+        private VoteRecord toRecord(String voteType, Double apartmentArea) {
+            VoteRecord record = new VoteRecord();
+            record.setVoteType(voteType);
+            record.setApartmentArea(apartmentArea);
+            return record;
+        }
+
+        private int counter(String field) {
+            return (int) tally(field);
+        }
+
+        private double tally(String field) {
+            DoubleAdder adder = tallies.get(field);
+            return adder != null ? adder.sum() : 0.0;
+        }
+
+        private double ballotArea(String voteType) {
+            return ballots.values().stream()
+                    .filter(record -> voteType.equals(record.getVoteType()))
+                    .mapToDouble(VoteRecord::getApartmentArea)
+                    .sum();
+        }
+
+        private long ballotCount(String voteType) {
+            return ballots.values().stream().filter(record -> voteType.equals(record.getVoteType())).count();
+        }
+
+        private void stubOpenVote() {
+            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
+            when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenAnswer(invocation -> {
+                String userId = invocation.<Query>getArgument(0).getQueryObject().getString("_id");
+                User voter = new User();
+                voter.setApartmentArea(userId.startsWith("user-") && !"user-id".equals(userId)
+                        ? 40.0 + Integer.parseInt(userId.substring(5)) % 7 : 50.0);
+                return voter;
+            });
+        }
+
         @Test
         @DisplayName("Should cast new vote FOR")
         void castVote_shouldCastNewVoteFor() {
-            testVote.setForVotesCount(null); // Test null handling
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            stubOpenVote();
+            stubAtomicStore();
 
             voteService.castVote("vote-id", "user-id", "FOR");
 
-            assertThat(testVote.getForVotesCount()).isEqualTo(1);
-            verify(voteRecordRepository).save(any(VoteRecord.class));
-            verify(voteRepository).save(testVote);
+            assertThat(counter("forVotesCount")).isEqualTo(1);
+            assertThat(tally("forVotesArea")).isEqualTo(50.0);
+            assertThat(tally("totalVotedArea")).isEqualTo(50.0);
+            assertThat(ballotCount("FOR")).isEqualTo(1);
+            verify(voteRepository, never()).save(any(Vote.class));
+            verify(voteTallyBroadcaster).markChanged("vote-id");
         }
 
         @Test
         @DisplayName("Should cast new vote AGAINST")
         void castVote_shouldCastNewVoteAgainst() {
-            testVote.setAgainstVotesCount(null);
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            stubOpenVote();
+            stubAtomicStore();
 
             voteService.castVote("vote-id", "user-id", "AGAINST");
 
-            assertThat(testVote.getAgainstVotesCount()).isEqualTo(1);
+            assertThat(counter("againstVotesCount")).isEqualTo(1);
+            assertThat(tally("againstVotesArea")).isEqualTo(50.0);
         }
 
         @Test
         @DisplayName("Should cast new vote ABSTENTION")
         void castVote_shouldCastNewVoteAbstention() {
-            testVote.setAbstentionsCount(null);
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.empty());
+            stubOpenVote();
+            stubAtomicStore();
 
             voteService.castVote("vote-id", "user-id", "ABSTENTION");
 
-            assertThat(testVote.getAbstentionsCount()).isEqualTo(1);
+            assertThat(counter("abstentionsCount")).isEqualTo(1);
+            assertThat(tally("abstentionsArea")).isEqualTo(50.0);
         }
 
         @Test
-        @DisplayName("Should change vote from FOR to AGAINST")
+        @DisplayName("Should move the counter and area when the vote changes")
         void castVote_shouldChangeFromForToAgainst() {
-            testVoteRecord.setVoteType("FOR");
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
-
-            int originalFor = testVote.getForVotesCount();
-            int originalAgainst = testVote.getAgainstVotesCount();
+            stubOpenVote();
+            stubAtomicStore();
 
+            voteService.castVote("vote-id", "user-id", "FOR");
             voteService.castVote("vote-id", "user-id", "AGAINST");
 
-            assertThat(testVote.getForVotesCount()).isEqualTo(originalFor - 1);
-            assertThat(testVote.getAgainstVotesCount()).isEqualTo(originalAgainst + 1);
-            assertThat(testVoteRecord.getVoteType()).isEqualTo("AGAINST");
+            assertThat(counter("forVotesCount")).isZero();
+            assertThat(counter("againstVotesCount")).isEqualTo(1);
+            assertThat(tally("forVotesArea")).isZero();
+            assertThat(tally("againstVotesArea")).isEqualTo(50.0);
+            assertThat(tally("totalVotedArea")).isEqualTo(50.0);
+            assertThat(ballots).hasSize(1);
+            assertThat(ballotCount("AGAINST")).isEqualTo(1);
         }
 
         @Test
-        @DisplayName("Should change vote from AGAINST to ABSTENTION")
-        void castVote_shouldChangeFromAgainstToAbstention() {
-            testVoteRecord.setVoteType("AGAINST");
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
-
-            int originalAgainst = testVote.getAgainstVotesCount();
-            int originalAbstention = testVote.getAbstentionsCount();
+        @DisplayName("Should not touch counters when the same vote is cast again")
+        void castVote_shouldIgnoreRepeatedVote() {
+            stubOpenVote();
+            stubAtomicStore();
 
+            voteService.castVote("vote-id", "user-id", "ABSTENTION");
             voteService.castVote("vote-id", "user-id", "ABSTENTION");
 
-            assertThat(testVote.getAgainstVotesCount()).isEqualTo(originalAgainst - 1);
-            assertThat(testVote.getAbstentionsCount()).isEqualTo(originalAbstention + 1);
+            assertThat(counter("abstentionsCount")).isEqualTo(1);
+            verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Vote.class));
+            verify(voteTallyBroadcaster, times(1)).markChanged("vote-id");
         }
 
         @Test
-        @DisplayName("Should change vote from ABSTENTION to FOR")
-        void castVote_shouldChangeFromAbstentionToFor() {
-            testVoteRecord.setVoteType("ABSTENTION");
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
+        @DisplayName("Should retry as an update when a concurrent first ballot wins the upsert")
+        void castVote_shouldRetryOnDuplicateKey() {
+            stubOpenVote();
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(VoteRecord.class)))
+                    .thenThrow(new DuplicateKeyException("E11000"))
+                    .thenReturn(toRecord("FOR", 50.0));
 
-            int originalAbstention = testVote.getAbstentionsCount();
-            int originalFor = testVote.getForVotesCount();
+            voteService.castVote("vote-id", "user-id", "AGAINST");
 
-            voteService.castVote("vote-id", "user-id", "FOR");
+            verify(mongoTemplate).updateFirst(any(Query.class),
+                    eq(new Update().inc("againstVotesCount", 1).inc("forVotesCount", -1)
+                            .inc("againstVotesArea", 50.0).inc("forVotesArea", -50.0)), eq(Vote.class));
+        }
+
+        @Test
+        @DisplayName("Should subtract the area snapshotted on the previous ballot")
+        void castVote_shouldSubtractPreviousBallotArea() {
+            stubOpenVote();
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(VoteRecord.class))).thenReturn(toRecord("FOR", 45.0));
+
+            voteService.castVote("vote-id", "user-id", "AGAINST");
+
+            verify(mongoTemplate).updateFirst(any(Query.class),
+                    eq(new Update().inc("againstVotesCount", 1).inc("forVotesCount", -1)
+                            .inc("againstVotesArea", 50.0).inc("forVotesArea", -45.0).inc("totalVotedArea", 5.0)),
+                    eq(Vote.class));
+        }
 
-            assertThat(testVote.getAbstentionsCount()).isEqualTo(originalAbstention - 1);
-            assertThat(testVote.getForVotesCount()).isEqualTo(originalFor + 1);
+        @Test
+        @DisplayName("Should derive counter deltas only from the previous ballot returned by the atomic upsert")
+        void castVote_shouldDeriveDeltasFromPreviousBallotInParallel() throws Exception {
+            stubOpenVote();
+            stubAtomicStore();
+            String[] types = {"FOR", "AGAINST", "ABSTENTION"};
+            int voters = 1000;
+            int ballotsPerVoter = 4;
+
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int round = 0; round < ballotsPerVoter; round++) {
+                    for (int voter = 0; voter < voters; voter++) {
+                        String userId = "user-" + voter;
+                        String voteType = types[(voter + round) % types.length];
+                        futures.add(executor.submit(() -> voteService.castVote("vote-id", userId, voteType)));
+                    }
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(ballots).hasSize(voters);
+            assertThat(counter("forVotesCount")).isEqualTo(ballotCount("FOR"));
+            assertThat(counter("againstVotesCount")).isEqualTo(ballotCount("AGAINST"));
+            assertThat(counter("abstentionsCount")).isEqualTo(ballotCount("ABSTENTION"));
+            assertThat(counter("forVotesCount") + counter("againstVotesCount") + counter("abstentionsCount"))
+                    .isEqualTo(voters);
+            assertThat(tally("forVotesArea")).isEqualTo(ballotArea("FOR"));
+            assertThat(tally("againstVotesArea")).isEqualTo(ballotArea("AGAINST"));
+            assertThat(tally("abstentionsArea")).isEqualTo(ballotArea("ABSTENTION"));
+            assertThat(tally("totalVotedArea"))
+                    .isEqualTo(ballotArea("FOR") + ballotArea("AGAINST") + ballotArea("ABSTENTION"));
         }
 
         @Test
@@ -504,6 +603,19 @@ class VoteServiceTest {
             assertThatThrownBy(() -> voteService.castVote("vote-id", "user-id", "FOR"))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessageContaining("закрыто");
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should throw when the end time has passed before the vote was closed")
+        void castVote_shouldThrowWhenEndTimePassed() {
+            testVote.setEndTime(new Date(System.currentTimeMillis() - 1000));
+            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
+
+            assertThatThrownBy(() -> voteService.castVote("vote-id", "user-id", "FOR"))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("закрыто");
+            verifyNoInteractions(mongoTemplate);
         }
 
         @Test
@@ -519,25 +631,21 @@ class VoteServiceTest {
         @DisplayName("Should throw when user not found")
         void castVote_shouldThrowWhenUserNotFound() {
             when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("unknown")).thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
 
             assertThatThrownBy(() -> voteService.castVote("vote-id", "unknown", "FOR"))
                     .isInstanceOf(RuntimeException.class);
+            verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(VoteRecord.class));
         }
 
         @Test
-        @DisplayName("Should handle decrementing null counts")
-        void castVote_shouldHandleDecrementingNullCounts() {
-            testVote.setForVotesCount(null);
-            testVoteRecord.setVoteType("FOR");
-            when(voteRepository.findById("vote-id")).thenReturn(Optional.of(testVote));
-            when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-            when(voteRecordRepository.findByVoteIdAndUserId("vote-id", "user-id"))
-                    .thenReturn(Optional.of(testVoteRecord));
-
-            voteService.castVote("vote-id", "user-id", "AGAINST");
-
-            assertThat(testVote.getForVotesCount()).isEqualTo(0); // Max(0, null-1) = 0
+        @DisplayName("Should reject an unknown vote type")
+        void castVote_shouldRejectUnknownVoteType() {
+            assertThatThrownBy(() -> voteService.castVote("vote-id", "user-id", "MAYBE"))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("MAYBE");
+            verifyNoInteractions(voteRepository, mongoTemplate);
         }
     }
 
@@ -0,0 +1,198 @@
+package org.spacelab.housingutilitiessystemuser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.Vote;
+import org.spacelab.housingutilitiessystemuser.models.vote.VoteTallySnapshot;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VoteTallyBroadcaster Tests")
+class VoteTallyBroadcasterTest {
+
+    private static final String THROTTLE_KEY = VoteTallyBroadcaster.THROTTLE_KEY_PREFIX + "vote-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private VoteTallyBroadcaster broadcaster;
+
+    private Vote vote;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new VoteTallyBroadcaster(mongoTemplate, redisTemplate, objectMapper, messagingTemplate);
+        ReflectionTestUtils.setField(broadcaster, "maxUpdatesPerSecond", 4);
+
+        vote = new Vote();
+        vote.setId("vote-1");
+        vote.setStatus("Активное");
+        vote.setForVotesCount(3);
+        vote.setAgainstVotesCount(1);
+        vote.setForVotesArea(150.5);
+        vote.setAgainstVotesArea(40.0);
+        vote.setTotalVotedArea(190.5);
+        vote.setQuorumArea(300.0);
+    }
+
+    private void stubSlot(Boolean acquired, Boolean... next) {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(THROTTLE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(acquired, next);
+    }
+
+    @Test
+    @DisplayName("Should coalesce a burst of ballots into one snapshot read")
+    void flush_shouldPublishOneSnapshotPerBurst() throws Exception {
+        stubSlot(true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        for (int i = 0; i < 50; i++) {
+            broadcaster.markChanged("vote-1");
+        }
+        broadcaster.flush();
+        broadcaster.flush();
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Vote.class));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), payload.capture());
+        VoteTallySnapshot snapshot = objectMapper.readValue(payload.getValue(), VoteTallySnapshot.class);
+        assertThat(snapshot.getVoteId()).isEqualTo("vote-1");
+        assertThat(snapshot.getForVotesCount()).isEqualTo(3);
+        assertThat(snapshot.getAbstentionsCount()).isZero();
+        assertThat(snapshot.getAbstentionsArea()).isZero();
+        assertThat(snapshot.getTotalVotedArea()).isEqualTo(190.5);
+        assertThat(snapshot.getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should throttle through a shared Redis window sized by the update limit")
+    void flush_shouldUseSharedThrottleWindow() {
+        stubSlot(true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+
+        verify(valueOperations).setIfAbsent(THROTTLE_KEY, "1", Duration.ofMillis(250));
+    }
+
+    @Test
+    @DisplayName("Should defer a throttled vote and publish it once the window reopens")
+    void flush_shouldDeferThrottledVote() {
+        stubSlot(false, true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+        verifyNoInteractions(mongoTemplate);
+
+        broadcaster.flush();
+        verify(redisTemplate).convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no ballots were cast")
+    void flush_shouldSkipWhenIdle() {
+        broadcaster.flush();
+
+        verifyNoInteractions(mongoTemplate, redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Should keep the update and retry it when Redis is unavailable")
+    void flush_shouldRetryAfterRedisFailure() {
+        when(redisTemplate.opsForValue()).thenThrow(new RuntimeException("Redis down")).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(THROTTLE_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+        verifyNoInteractions(mongoTemplate);
+
+        broadcaster.flush();
+        verify(redisTemplate).convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep the update and retry it when the tally read fails")
+    void flush_shouldRetryAfterMongoFailure() {
+        stubSlot(true, true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class)))
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenReturn(List.of(vote));
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+        broadcaster.flush();
+
+        verify(redisTemplate).convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep the update and retry it when publishing fails")
+    void flush_shouldRetryAfterPublishFailure() {
+        stubSlot(true, true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+        when(redisTemplate.convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), anyString()))
+                .thenThrow(new RuntimeException("Redis down"))
+                .thenReturn(1L);
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+        broadcaster.flush();
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Vote.class));
+        verify(redisTemplate, times(2)).convertAndSend(eq(VoteTallyBroadcaster.VOTE_TALLY_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should send the snapshot straight to the broker relay instead of fanning out through Redis")
+    void flush_shouldSendDirectlyInRelayMode() {
+        ReflectionTestUtils.setField(broadcaster, "brokerMode", "relay");
+        stubSlot(true);
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        broadcaster.markChanged("vote-1");
+        broadcaster.flush();
+
+        verify(messagingTemplate).convertAndSend(eq(VoteEventSubscriber.VOTE_TOPIC_PREFIX + "vote-1"),
+                any(VoteTallySnapshot.class));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+}
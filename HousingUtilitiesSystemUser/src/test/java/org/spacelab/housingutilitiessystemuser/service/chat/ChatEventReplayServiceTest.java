@@ -0,0 +1,163 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.models.chat.ChatEventReplayResponse;
+import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatEventReplayService Tests")
+class ChatEventReplayServiceTest {
+
+    private static final String STREAM = "chat:stream:user:user-123";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private ChatEventReplayService replayService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        replayService = new ChatEventReplayService(redisTemplate, objectMapper);
+    }
+
+    private MapRecord<String, Object, Object> record(String id, String conversationId) throws Exception {
+        ChatEvent event = ChatEvent.builder()
+                .eventType("MESSAGE_SENT")
+                .targetUserId("user-123")
+                .conversationId(conversationId)
+                .lastMessage("Hello")
+                .build();
+        Map<Object, Object> fields = Map.of(ChatEventPublisher.PAYLOAD_FIELD, objectMapper.writeValueAsString(event));
+        return StreamRecords.<String, Object, Object>mapBacked(fields).withStreamKey(STREAM).withId(RecordId.of(id));
+    }
+
+    @Nested
+    @DisplayName("First Connect")
+    class FirstConnect {
+        @Test
+        @DisplayName("Should return only the current cursor when no event id is known")
+        void replaySince_shouldReturnCursorWithoutEvents() throws Exception {
+            when(streamOperations.reverseRange(eq(STREAM), any(), any(Limit.class)))
+                    .thenReturn(List.of(record("1700000000005-0", "conv-1")));
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", null);
+
+            assertThat(response.getEvents()).isEmpty();
+            assertThat(response.getLastEventId()).isEqualTo("1700000000005-0");
+            assertThat(response.isResyncRequired()).isFalse();
+            verify(streamOperations, never()).range(anyString(), any(), any(Limit.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Reconnect")
+    class Reconnect {
+        @Test
+        @DisplayName("Should replay events after the last seen id")
+        void replaySince_shouldReplayMissedEvents() throws Exception {
+            when(streamOperations.range(eq(STREAM), any(), any(Limit.class)))
+                    .thenReturn(List.of(record("1700000000002-0", "conv-1"), record("1700000000003-0", "conv-2")));
+            when(streamOperations.size(STREAM)).thenReturn(2L);
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", "1700000000001-4");
+
+            assertThat(response.isResyncRequired()).isFalse();
+            assertThat(response.getEvents())
+                    .extracting(ChatEvent::getEventId, ChatEvent::getConversationId)
+                    .containsExactly(
+                            tuple("1700000000002-0", "conv-1"),
+                            tuple("1700000000003-0", "conv-2"));
+            assertThat(response.getLastEventId()).isEqualTo("1700000000003-0");
+            verify(streamOperations).range(eq(STREAM),
+                    argThat((Range<String> range) -> range.getLowerBound().getValue().orElse("").equals("1700000000001-5")),
+                    any(Limit.class));
+        }
+
+        @Test
+        @DisplayName("Should keep the cursor when nothing was missed")
+        void replaySince_shouldKeepCursorWhenUpToDate() {
+            when(streamOperations.range(eq(STREAM), any(), any(Limit.class))).thenReturn(List.of());
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", "1700000000003-0");
+
+            assertThat(response.getEvents()).isEmpty();
+            assertThat(response.getLastEventId()).isEqualTo("1700000000003-0");
+            assertThat(response.isResyncRequired()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should require resync when the gap exceeds the replay limit")
+        void replaySince_shouldRequireResyncForLargeGap() throws Exception {
+            List<MapRecord<String, Object, Object>> records = new ArrayList<>();
+            for (int i = 0; i <= ChatEventReplayService.MAX_REPLAY_EVENTS; i++) {
+                records.add(record("1700000000002-" + i, "conv-1"));
+            }
+            when(streamOperations.range(eq(STREAM), any(), any(Limit.class))).thenReturn(records);
+            when(streamOperations.reverseRange(eq(STREAM), any(), any(Limit.class)))
+                    .thenReturn(List.of(record("1700000000009-0", "conv-1")));
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", "1700000000001-0");
+
+            assertThat(response.isResyncRequired()).isTrue();
+            assertThat(response.getEvents()).isEmpty();
+            assertThat(response.getLastEventId()).isEqualTo("1700000000009-0");
+        }
+
+        @Test
+        @DisplayName("Should require resync when the stream was trimmed past the cursor")
+        void replaySince_shouldRequireResyncWhenTrimmed() throws Exception {
+            MapRecord<String, Object, Object> oldest = record("1700000000002-0", "conv-1");
+            when(streamOperations.range(eq(STREAM), any(), any(Limit.class))).thenReturn(List.of(oldest));
+            when(streamOperations.size(STREAM)).thenReturn(ChatEventPublisher.USER_STREAM_MAX_LEN);
+            when(streamOperations.reverseRange(eq(STREAM), any(), any(Limit.class))).thenReturn(List.of(oldest));
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", "1700000000001-0");
+
+            assertThat(response.isResyncRequired()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should require resync for a malformed cursor")
+        void replaySince_shouldRequireResyncForInvalidCursor() {
+            when(streamOperations.reverseRange(eq(STREAM), any(), any(Limit.class))).thenReturn(List.of());
+
+            ChatEventReplayResponse response = replayService.replaySince("user-123", "not-an-id");
+
+            assertThat(response.isResyncRequired()).isTrue();
+            assertThat(response.getLastEventId()).isNull();
+        }
+    }
+}
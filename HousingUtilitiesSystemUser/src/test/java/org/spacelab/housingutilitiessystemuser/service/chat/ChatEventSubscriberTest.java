@@ -9,12 +9,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.spacelab.housingutilitiessystemuser.entity.User;
 import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
-import org.spacelab.housingutilitiessystemuser.repository.UserRepository;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
-import java.util.Optional;
+import java.util.Collections;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,7 +27,10 @@ class ChatEventSubscriberTest {
     private SimpMessagingTemplate messagingTemplate;
 
     @Mock
-    private UserRepository userRepository;
+    private LocalSessionRegistry localSessionRegistry;
+
+    @Mock
+    private SidebarUpdateCoalescer sidebarUpdateCoalescer;
 
     @Mock
     private ObjectMapper objectMapper;
@@ -36,17 +38,10 @@ class ChatEventSubscriberTest {
     @InjectMocks
     private ChatEventSubscriber chatEventSubscriber;
 
-    private User testUser;
     private ChatEvent testEvent;
 
     @BeforeEach
     void setUp() {
-        testUser = new User();
-        testUser.setId("user-123");
-        testUser.setLogin("testuser");
-        testUser.setEmail("test@test.com");
-        testUser.setOnline(true);
-
         testEvent = ChatEvent.builder()
                 .eventType("MESSAGE_SENT")
                 .conversationId("conv-123")
@@ -65,69 +60,56 @@ class ChatEventSubscriberTest {
     @DisplayName("Handle Message")
     class HandleMessage {
         @Test
-        @DisplayName("Should handle message and send to online user")
-        void handleMessage_shouldSendToOnlineUser() throws Exception {
+        @DisplayName("Should send message to locally connected user")
+        void handleMessage_shouldSendToLocalSession() throws Exception {
             String json = "{\"targetUserId\":\"user-123\",\"targetUserRole\":\"USER\"}";
             when(objectMapper.readValue(json, ChatEvent.class)).thenReturn(testEvent);
-            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
-
-            chatEventSubscriber.handleMessage(json);
-
-            verify(messagingTemplate).convertAndSendToUser(eq("testuser"), eq("/queue/sidebar"), eq(testEvent));
-        }
-
-        @Test
-        @DisplayName("Should skip message for Chairman target role")
-        void handleMessage_shouldSkipChairmanTarget() throws Exception {
-            testEvent = ChatEvent.builder()
-                    .targetUserId("chairman-123")
-                    .targetUserRole("CHAIRMAN")
-                    .build();
-            String json = "{\"targetUserRole\":\"CHAIRMAN\"}";
-            when(objectMapper.readValue(json, ChatEvent.class)).thenReturn(testEvent);
+            when(localSessionRegistry.getPrincipalNames("user-123")).thenReturn(Set.of("test@test.com"));
 
             chatEventSubscriber.handleMessage(json);
 
-            verify(userRepository, never()).findById(any());
-            verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+            verify(sidebarUpdateCoalescer).enqueue("test@test.com", testEvent);
         }
 
         @Test
-        @DisplayName("Should skip message when user not found")
-        void handleMessage_shouldSkipWhenUserNotFound() throws Exception {
-            String json = "{\"targetUserId\":\"unknown\",\"targetUserRole\":\"USER\"}";
+        @DisplayName("Should send to every principal the user is connected with")
+        void handleMessage_shouldSendToEachPrincipal() throws Exception {
+            String json = "{\"targetUserId\":\"user-123\",\"targetUserRole\":\"USER\"}";
             when(objectMapper.readValue(json, ChatEvent.class)).thenReturn(testEvent);
-            when(userRepository.findById("user-123")).thenReturn(Optional.empty());
+            when(localSessionRegistry.getPrincipalNames("user-123")).thenReturn(Set.of("test@test.com", "testuser"));
 
             chatEventSubscriber.handleMessage(json);
 
-            verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+            verify(sidebarUpdateCoalescer).enqueue("test@test.com", testEvent);
+            verify(sidebarUpdateCoalescer).enqueue("testuser", testEvent);
         }
 
         @Test
-        @DisplayName("Should skip message when user is offline")
-        void handleMessage_shouldSkipWhenUserOffline() throws Exception {
-            testUser.setOnline(false);
-            String json = "{\"targetUserId\":\"user-123\",\"targetUserRole\":\"USER\"}";
+        @DisplayName("Should skip message for Chairman target role")
+        void handleMessage_shouldSkipChairmanTarget() throws Exception {
+            testEvent = ChatEvent.builder()
+                    .targetUserId("chairman-123")
+                    .targetUserRole("CHAIRMAN")
+                    .build();
+            String json = "{\"targetUserRole\":\"CHAIRMAN\"}";
             when(objectMapper.readValue(json, ChatEvent.class)).thenReturn(testEvent);
-            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
 
             chatEventSubscriber.handleMessage(json);
 
-            verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+            verifyNoInteractions(localSessionRegistry);
+            verify(sidebarUpdateCoalescer, never()).enqueue(any(), any());
         }
 
         @Test
-        @DisplayName("Should use email when login is null")
-        void handleMessage_shouldUseEmailWhenLoginNull() throws Exception {
-            testUser.setLogin(null);
+        @DisplayName("Should drop message when user has no session on this node")
+        void handleMessage_shouldSkipWhenNotConnectedLocally() throws Exception {
             String json = "{\"targetUserId\":\"user-123\",\"targetUserRole\":\"USER\"}";
             when(objectMapper.readValue(json, ChatEvent.class)).thenReturn(testEvent);
-            when(userRepository.findById("user-123")).thenReturn(Optional.of(testUser));
+            when(localSessionRegistry.getPrincipalNames("user-123")).thenReturn(Collections.emptySet());
 
             chatEventSubscriber.handleMessage(json);
 
-            verify(messagingTemplate).convertAndSendToUser(eq("test@test.com"), eq("/queue/sidebar"), eq(testEvent));
+            verify(sidebarUpdateCoalescer, never()).enqueue(any(), any());
         }
 
         @Test
@@ -139,7 +121,7 @@ class ChatEventSubscriberTest {
             // Should not throw, just log error
             chatEventSubscriber.handleMessage(json);
 
-            verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+            verify(sidebarUpdateCoalescer, never()).enqueue(any(), any());
         }
     }
 
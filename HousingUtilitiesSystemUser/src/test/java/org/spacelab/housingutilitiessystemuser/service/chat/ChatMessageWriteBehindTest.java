@@ -0,0 +1,222 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.entity.chat.ChatMessage;
+import org.spacelab.housingutilitiessystemuser.entity.chat.Conversation;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatMessageWriteBehind Tests")
+class ChatMessageWriteBehindTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations messageBulk;
+
+    @Mock
+    private BulkOperations conversationBulk;
+
+    @TempDir
+    Path spillDir;
+
+    private ChatMessageWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        writeBehind = new ChatMessageWriteBehind(mongoTemplate, objectMapper);
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 100);
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 10);
+        ReflectionTestUtils.setField(writeBehind, "spillDir", spillDir.toString());
+    }
+
+    private ChatMessage message(String conversationId, Instant createdAt) {
+        return ChatMessage.builder()
+                .conversation(Conversation.builder().id(conversationId).build())
+                .content("Hello!")
+                .senderId("user-123")
+                .senderType("USER")
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private void stubBulkOps() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessage.class)).thenReturn(messageBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class)).thenReturn(conversationBulk);
+    }
+
+    @Nested
+    @DisplayName("Enqueue")
+    class Enqueue {
+        @Test
+        @DisplayName("Should assign the message id up front")
+        void enqueue_shouldAssignId() {
+            ChatMessage queued = writeBehind.enqueue(message("conv-1", Instant.now()));
+
+            assertThat(queued.getId()).isNotBlank();
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should spill to disk when the queue is full")
+        void enqueue_shouldSpillWhenFull() {
+            for (int i = 0; i <= 10; i++) {
+                writeBehind.enqueue(message("conv-1", Instant.now()));
+            }
+
+            assertThat(spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME)).exists();
+        }
+
+        @Test
+        @DisplayName("Should spill without waiting for a flush that is still writing to Mongo")
+        void enqueue_shouldNotWaitForRunningFlush() throws Exception {
+            CountDownLatch writing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            stubBulkOps();
+            when(messageBulk.execute()).thenAnswer(invocation -> {
+                writing.countDown();
+                release.await();
+                return null;
+            });
+            writeBehind.enqueue(message("conv-1", Instant.now()));
+            Thread flushing = new Thread(writeBehind::flush);
+            flushing.start();
+            try {
+                assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+                assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                    for (int i = 0; i <= 10; i++) {
+                        writeBehind.enqueue(message("conv-1", Instant.now()));
+                    }
+                });
+
+                assertThat(spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME)).exists();
+            } finally {
+                release.countDown();
+                flushing.join();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush")
+    class Flush {
+        @Test
+        @DisplayName("Should upsert messages and bump each conversation once")
+        void flush_shouldWriteBatch() {
+            stubBulkOps();
+            Instant latest = Instant.parse("2025-01-01T10:00:05Z");
+            writeBehind.enqueue(message("conv-1", Instant.parse("2025-01-01T10:00:00Z")));
+            writeBehind.enqueue(message("conv-1", latest));
+            writeBehind.enqueue(message("conv-2", Instant.parse("2025-01-01T10:00:01Z")));
+
+            writeBehind.flush();
+
+            verify(messageBulk, times(3)).replaceOne(any(Query.class), any(ChatMessage.class), any(FindAndReplaceOptions.class));
+            verify(messageBulk).execute();
+            verify(conversationBulk, times(2)).updateOne(any(Query.class), any(Update.class));
+            verify(conversationBulk).updateOne(any(Query.class), eq(new Update().max("updatedAt", latest)));
+            verify(conversationBulk).execute();
+        }
+
+        @Test
+        @DisplayName("Should do nothing when the queue is empty")
+        void flush_shouldSkipEmptyQueue() {
+            writeBehind.flush();
+
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should neither write nor replay the spill file when write-behind is disabled")
+        void flush_shouldSkipWhenDisabled() throws Exception {
+            Path spillFile = spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME);
+            Files.writeString(spillFile, "{}\n");
+            ReflectionTestUtils.setField(writeBehind, "enabled", false);
+
+            writeBehind.flush();
+
+            verifyNoInteractions(mongoTemplate);
+            assertThat(spillFile).exists();
+        }
+
+        @Test
+        @DisplayName("Should spill a failed batch and replay it on the next flush")
+        void flush_shouldSpillAndReplayOnFailure() {
+            stubBulkOps();
+            when(messageBulk.execute()).thenThrow(new RuntimeException("Mongo down")).thenReturn(null);
+            writeBehind.enqueue(message("conv-1", Instant.now()));
+
+            writeBehind.flush();
+            assertThat(spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME)).exists();
+
+            writeBehind.flush();
+            assertThat(Files.exists(spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME))).isFalse();
+            verify(messageBulk, times(2)).execute();
+            verify(conversationBulk).execute();
+        }
+
+        @Test
+        @DisplayName("Should replay readable spilled messages and quarantine torn lines")
+        void flush_shouldQuarantineCorruptSpillLines() throws Exception {
+            stubBulkOps();
+            Path spillFile = spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME);
+            String valid = "{\"id\":\"m-1\",\"conversationId\":\"conv-1\",\"content\":\"Hi\","
+                    + "\"senderId\":\"user-123\",\"senderType\":\"USER\",\"createdAt\":\"2025-01-01T10:00:00Z\"}";
+            Files.writeString(spillFile, valid + "\n{\"id\":\"m-2\",\"conversat\n{}\n");
+
+            writeBehind.flush();
+
+            verify(messageBulk).replaceOne(any(Query.class), any(ChatMessage.class), any(FindAndReplaceOptions.class));
+            verify(messageBulk).execute();
+            assertThat(spillFile).doesNotExist();
+            assertThat(spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME + ".replaying")).doesNotExist();
+            assertThat(Files.readAllLines(spillDir.resolve(ChatMessageWriteBehind.QUARANTINE_FILE_NAME)))
+                    .containsExactly("{\"id\":\"m-2\",\"conversat", "{}");
+        }
+
+        @Test
+        @DisplayName("Should retry a replay left over from a failed flush without a new spill")
+        void flush_shouldRetryLeftoverReplay() throws Exception {
+            stubBulkOps();
+            Path replaying = spillDir.resolve(ChatMessageWriteBehind.SPILL_FILE_NAME + ".replaying");
+            Files.writeString(replaying, "{\"id\":\"m-1\",\"conversationId\":\"conv-1\",\"content\":\"Hi\","
+                    + "\"senderId\":\"user-123\",\"senderType\":\"USER\",\"createdAt\":\"2025-01-01T10:00:00Z\"}\n");
+
+            writeBehind.flush();
+
+            verify(messageBulk).execute();
+            assertThat(replaying).doesNotExist();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoGroups;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatStreamGroups Tests")
+class ChatStreamGroupsTest {
+
+    private static final String CHAT = ChatEventPublisher.CHAT_EVENTS_STREAM;
+    private static final String PRESENCE = ChatEventPublisher.PRESENCE_EVENTS_STREAM;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private ChatStreamGroups chatStreamGroups;
+
+    @BeforeEach
+    void setUp() {
+        chatStreamGroups = new ChatStreamGroups(redisTemplate);
+        ReflectionTestUtils.setField(chatStreamGroups, "nodeId", "node-a");
+        ReflectionTestUtils.setField(chatStreamGroups, "brokerMode", "simple");
+        ReflectionTestUtils.setField(chatStreamGroups, "staleGroupIdle", Duration.ofHours(1));
+    }
+
+    private static XInfoGroups groups(Object... nameAndConsumers) {
+        List<Object> groups = new ArrayList<>();
+        for (int i = 0; i < nameAndConsumers.length; i += 2) {
+            groups.add(List.of("name", nameAndConsumers[i], "consumers", nameAndConsumers[i + 1],
+                    "pending", 0L, "last-delivered-id", "0-0"));
+        }
+        return XInfoGroups.fromList(groups);
+    }
+
+    private static XInfoConsumers consumers(String group, long idleMs) {
+        return XInfoConsumers.fromList(group, List.of(List.of("name", "node", "pending", 0L, "idle", idleMs)));
+    }
+
+    @Nested
+    @DisplayName("Group Names")
+    class GroupNames {
+        @Test
+        @DisplayName("Should share one presence group across modules in relay mode and use the node group otherwise")
+        void presenceGroup_shouldDependOnBrokerMode() {
+            assertThat(chatStreamGroups.chatGroup()).isEqualTo("user-module:node-a");
+            assertThat(chatStreamGroups.presenceGroup()).isEqualTo("user-module:node-a");
+
+            ReflectionTestUtils.setField(chatStreamGroups, "brokerMode", "relay");
+
+            assertThat(chatStreamGroups.presenceGroup()).isEqualTo(ChatStreamGroups.RELAY_PRESENCE_GROUP);
+        }
+    }
+
+    @Nested
+    @DisplayName("Leave")
+    class Leave {
+        @Test
+        @DisplayName("Should destroy the node's groups on shutdown")
+        void leave_shouldDestroyOwnGroups() {
+            when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+
+            chatStreamGroups.leave();
+
+            verify(streamOperations).destroyGroup(CHAT, "user-module:node-a");
+            verify(streamOperations).destroyGroup(PRESENCE, "user-module:node-a");
+        }
+
+        @Test
+        @DisplayName("Should keep the shared relay presence group on shutdown")
+        void leave_shouldKeepSharedRelayGroup() {
+            ReflectionTestUtils.setField(chatStreamGroups, "brokerMode", "relay");
+            when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+
+            chatStreamGroups.leave();
+
+            verify(streamOperations).destroyGroup(CHAT, "user-module:node-a");
+            verify(streamOperations, never()).destroyGroup(PRESENCE, ChatStreamGroups.RELAY_PRESENCE_GROUP);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sweep")
+    class Sweep {
+        @BeforeEach
+        void stubStreams() {
+            when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        }
+
+        @Test
+        @DisplayName("Should destroy groups of other nodes whose consumers are idle past the limit")
+        void sweep_shouldDestroyIdleGroups() {
+            when(streamOperations.groups(CHAT)).thenReturn(groups("user-module:node-a", 1L,
+                    "user-module:node-b", 1L, "user-module:node-c", 1L, "chairman-module:node-x", 1L));
+            when(streamOperations.groups(PRESENCE)).thenReturn(groups());
+            when(streamOperations.consumers(CHAT, "user-module:node-b"))
+                    .thenReturn(consumers("user-module:node-b", Duration.ofHours(2).toMillis()));
+            when(streamOperations.consumers(CHAT, "user-module:node-c"))
+                    .thenReturn(consumers("user-module:node-c", 1_500));
+
+            chatStreamGroups.sweepStaleGroups();
+
+            verify(streamOperations).destroyGroup(CHAT, "user-module:node-b");
+            verify(streamOperations, times(1)).destroyGroup(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should destroy a group without consumers only when it stays empty for two sweeps")
+        void sweep_shouldWaitBeforeDestroyingEmptyGroup() {
+            when(streamOperations.groups(CHAT)).thenReturn(groups("user-module:node-b", 0L));
+            when(streamOperations.groups(PRESENCE)).thenReturn(groups());
+
+            chatStreamGroups.sweepStaleGroups();
+            verify(streamOperations, never()).destroyGroup(anyString(), anyString());
+
+            chatStreamGroups.sweepStaleGroups();
+            verify(streamOperations).destroyGroup(CHAT, "user-module:node-b");
+        }
+
+        @Test
+        @DisplayName("Should keep sweeping other streams when one stream cannot be inspected")
+        void sweep_shouldSurviveRedisFailure() {
+            when(streamOperations.groups(CHAT)).thenThrow(new RuntimeException("ERR no such key"));
+            when(streamOperations.groups(PRESENCE)).thenReturn(groups("user-module:node-b", 1L));
+            when(streamOperations.consumers(PRESENCE, "user-module:node-b"))
+                    .thenReturn(consumers("user-module:node-b", Duration.ofHours(3).toMillis()));
+
+            chatStreamGroups.sweepStaleGroups();
+
+            verify(streamOperations).destroyGroup(PRESENCE, "user-module:node-b");
+        }
+    }
+}
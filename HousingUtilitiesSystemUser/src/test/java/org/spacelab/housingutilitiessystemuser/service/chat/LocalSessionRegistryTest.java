@@ -0,0 +1,79 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LocalSessionRegistry Tests")
+class LocalSessionRegistryTest {
+
+    private LocalSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new LocalSessionRegistry();
+    }
+
+    @Test
+    @DisplayName("Should route to every principal of a user's local sessions")
+    void getPrincipalNames_shouldCollectAllSessions() {
+        registry.register("user-1", "session-1", "user@test.com");
+        registry.register("user-1", "session-2", "user@test.com");
+        registry.register("user-1", "session-3", "userlogin");
+        registry.register("user-2", "session-4", "other@test.com");
+
+        assertThat(registry.getPrincipalNames("user-1")).containsExactlyInAnyOrder("user@test.com", "userlogin");
+        assertThat(registry.getPrincipalNames("user-2")).containsExactly("other@test.com");
+    }
+
+    @Test
+    @DisplayName("Should return nothing for users without local sessions")
+    void getPrincipalNames_shouldBeEmptyForUnknownUser() {
+        assertThat(registry.getPrincipalNames("unknown")).isEmpty();
+        assertThat(registry.getPrincipalNames(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should forget a user once the last session disconnects")
+    void unregister_shouldDropUserAfterLastSession() {
+        registry.register("user-1", "session-1", "user@test.com");
+        registry.register("user-1", "session-2", "user@test.com");
+
+        assertThat(registry.unregister("session-1")).contains("user-1");
+        assertThat(registry.getPrincipalNames("user-1")).containsExactly("user@test.com");
+
+        assertThat(registry.unregister("session-2")).contains("user-1");
+        assertThat(registry.getPrincipalNames("user-1")).isEmpty();
+        assertThat(registry.getSessionOwners()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should resolve the owner of a live session")
+    void getUserId_shouldResolveSessionOwner() {
+        registry.register("user-1", "session-1", "user@test.com");
+
+        assertThat(registry.getUserId("session-1")).contains("user-1");
+        assertThat(registry.getUserId("unknown")).isEmpty();
+        assertThat(registry.getUserId(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore sessions that were never registered")
+    void unregister_shouldIgnoreUnknownSession() {
+        assertThat(registry.unregister("unknown")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expose session owners for heartbeats")
+    void getSessionOwners_shouldMapSessionsToUsers() {
+        registry.register("user-1", "session-1", "user@test.com");
+        registry.register("user-2", "session-2", "other@test.com");
+
+        assertThat(registry.getSessionOwners())
+                .containsEntry("session-1", "user-1")
+                .containsEntry("session-2", "user-2")
+                .hasSize(2);
+    }
+}
@@ -0,0 +1,111 @@
+package org.spacelab.housingutilitiessystemuser.service.chat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spacelab.housingutilitiessystemuser.models.chat.event.ChatEvent;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SidebarUpdateCoalescer Tests")
+class SidebarUpdateCoalescerTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private SidebarUpdateCoalescer coalescer;
+
+    private ChatEvent message(String eventId, String conversationId, String text) {
+        return ChatEvent.builder()
+                .eventId(eventId)
+                .eventType("MESSAGE_SENT")
+                .targetUserId("user-123")
+                .conversationId(conversationId)
+                .lastMessage(text)
+                .build();
+    }
+
+    private Object flushAndCapture(String principal) {
+        coalescer.flush();
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq(principal), eq("/queue/sidebar"), payload.capture());
+        return payload.getValue();
+    }
+
+    @Nested
+    @DisplayName("Coalescing")
+    class Coalescing {
+        @Test
+        @DisplayName("Should send a single event as-is")
+        void flush_shouldSendSingleEvent() {
+            ChatEvent event = message("1-0", "conv-1", "Hello");
+            coalescer.enqueue("user@test.com", event);
+
+            assertThat(flushAndCapture("user@test.com")).isSameAs(event);
+        }
+
+        @Test
+        @DisplayName("Should keep only the newest update per conversation")
+        @SuppressWarnings("unchecked")
+        void flush_shouldMergeBurstPerConversation() {
+            coalescer.enqueue("user@test.com", message("1-0", "conv-1", "first"));
+            coalescer.enqueue("user@test.com", message("2-0", "conv-2", "other"));
+            coalescer.enqueue("user@test.com", message("3-0", "conv-1", "latest"));
+
+            List<ChatEvent> batch = (List<ChatEvent>) flushAndCapture("user@test.com");
+
+            assertThat(batch).extracting(ChatEvent::getLastMessage).containsExactly("other", "latest");
+        }
+
+        @Test
+        @DisplayName("Should send nothing when no updates are pending")
+        void flush_shouldSkipIdleRecipients() {
+            coalescer.flush();
+
+            verifyNoInteractions(messagingTemplate);
+        }
+
+        @Test
+        @DisplayName("Should not resend updates after a flush")
+        void flush_shouldDrainPendingUpdates() {
+            coalescer.enqueue("user@test.com", message("1-0", "conv-1", "Hello"));
+
+            coalescer.flush();
+            coalescer.flush();
+
+            verify(messagingTemplate, times(1)).convertAndSendToUser(any(), any(), any(Object.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Queue Limit")
+    class QueueLimit {
+        @Test
+        @DisplayName("Should replace an overflowing batch with a resync marker")
+        void flush_shouldCollapseOverflowIntoResync() {
+            for (int i = 0; i <= SidebarUpdateCoalescer.MAX_PENDING_PER_RECIPIENT; i++) {
+                coalescer.enqueue("user@test.com", message(i + "-0", "conv-" + i, "msg " + i));
+            }
+
+            Object payload = flushAndCapture("user@test.com");
+
+            assertThat(payload).isInstanceOf(ChatEvent.class);
+            ChatEvent resync = (ChatEvent) payload;
+            assertThat(resync.getEventType()).isEqualTo(SidebarUpdateCoalescer.RESYNC_EVENT_TYPE);
+            assertThat(resync.getEventId()).isEqualTo(SidebarUpdateCoalescer.MAX_PENDING_PER_RECIPIENT + "-0");
+        }
+    }
+}